@@ -1,6 +1,8 @@
 module org.krmdemo.yaml.reconcile {
     exports org.krmdemo.yaml.reconcile;
     exports org.krmdemo.yaml.reconcile.impl;
+    exports org.krmdemo.yaml.reconcile.diff;
+    exports org.krmdemo.yaml.reconcile.batch;
     exports org.krmdemo.yaml.reconcile.ansi;
     exports org.krmdemo.yaml.reconcile.util;
 
@@ -11,4 +13,8 @@ module org.krmdemo.yaml.reconcile {
     requires org.apache.commons.lang3;
     requires org.apache.commons.text;
     requires org.antlr.antlr4.runtime;
+    requires static java.compiler;
+
+    provides javax.annotation.processing.Processor
+        with org.krmdemo.yaml.reconcile.apt.YamlMappedProcessor;
 }
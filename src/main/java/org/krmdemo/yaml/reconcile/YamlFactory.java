@@ -1,6 +1,9 @@
 package org.krmdemo.yaml.reconcile;
 
+import java.io.InputStream;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.stream.Stream;
 
 public interface YamlFactory<OriginType> {
 
@@ -10,5 +13,29 @@ public interface YamlFactory<OriginType> {
 
     YamlNode<OriginType> fromIter(Iterable<?> iter);
 
+    /**
+     * @param annotated an instance of the class (or the record) annotated with {@link YamlMapped}
+     *                  (or an instance of any other record or java-bean, which is bound at runtime)
+     * @return the yaml-dictionary of the properties of the object
+     */
     YamlNode<OriginType> fromAnnotated(Object annotated);
+
+    /**
+     * Loads all yaml-documents from the input-stream in one pass. Documents are composed lazily,
+     * so the next document is not parsed until the previous one is consumed from the result-stream.
+     * The input-stream is not closed by this method.
+     *
+     * @param inputStream an input-stream with the content in yaml-format
+     * @return an ordered stream of root-nodes (one per yaml-document)
+     */
+    Stream<YamlNode<OriginType>> fromStream(InputStream inputStream);
+
+    /**
+     * The same as {@link #fromStream(InputStream)}, but the file is opened by this method
+     * and closed when the result-stream is closed (so it's better to use it in try-with-resources).
+     *
+     * @param path a path to the file in yaml-format
+     * @return an ordered stream of root-nodes (one per yaml-document)
+     */
+    Stream<YamlNode<OriginType>> fromPath(Path path);
 }
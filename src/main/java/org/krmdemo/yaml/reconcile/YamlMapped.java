@@ -0,0 +1,19 @@
+package org.krmdemo.yaml.reconcile;
+
+import java.lang.annotation.*;
+
+/**
+ * Marks the class or the record, whose instances are converted into yaml-dictionaries by the mapper,
+ * which is generated at compile-time by the annotation processor {@code org.krmdemo.yaml.reconcile.apt.YamlMappedProcessor}
+ * (see {@link YamlFactory#fromAnnotated(Object)}).
+ * <p/>
+ * The generated mapper is placed into the same package and named after the class (the names of enclosing
+ * classes are joined with {@code '_'}) with the suffix {@code YamlMapper} - like {@code DeploymentSpecYamlMapper}
+ * or {@code Outer_InnerYamlMapper}. It reads the components of the record (or non-static and non-transient
+ * fields of the class - directly or via getters) without any reflection, and {@code null}-values are skipped.
+ */
+@Documented
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.TYPE)
+public @interface YamlMapped {
+}
@@ -34,5 +34,42 @@ public interface YamlNode<OriginType> {
 
     Stream<? extends YamlNode<OriginType>> getChildren();
 
+    /**
+     * @return the number of children (key-values of dictionary or elements of sequence)
+     */
+    default int childrenCount() {
+        return (int) getChildren().count();
+    }
+
     String getComment();
+
+    /**
+     * Writes the same multi-line representation as {@link #toString()}, but straight into the output
+     * (every line is written only once, and the number of lines and the length of values are bounded).
+     *
+     * @param out the output to write the dump to
+     * @param indent the number of spaces, which are written at the beginning of every line except the first one
+     */
+    void dumpTo(Appendable out, int indent);
+
+    /**
+     * Structural hash is calculated only once per node (bottom-up from the hashes of children)
+     * and then it's cached, because all yaml-nodes are immutable. Nodes with the same content
+     * have the same structural hash, regardless of their identity or the order of keys in dictionaries.
+     *
+     * @return 64-bit structural hash of this node, which is never equal to zero
+     */
+    long structuralHash();
+
+    /**
+     * Checks the equality of content in O(1) by comparing the types and structural hashes.
+     *
+     * @param other another yaml-node
+     * @return {@code true} if the other node has the same content as this node
+     */
+    default boolean structurallyEquals(YamlNode<?> other) {
+        return other == this || other != null
+            && getType() == other.getType()
+            && structuralHash() == other.structuralHash();
+    }
 }
@@ -0,0 +1,359 @@
+package org.krmdemo.yaml.reconcile;
+
+import lombok.NonNull;
+
+import java.util.*;
+
+import static java.lang.String.format;
+
+/**
+ * Immutable path from the root of yaml-document to some node inside it.
+ * <p/>
+ * Every path refers to its parent, so extending the path by one segment takes O(1) and does not copy
+ * the whole path (which is important during the traversal of huge documents). The path has two
+ * string representations:
+ * <ul>
+ *     <li>dotted path - like {@code spec.containers[0].image} or {@code metadata.labels['app.kubernetes.io/name']}</li>
+ *     <li>JSON-pointer (RFC 6901) - like {@code /spec/containers/0/image}</li>
+ * </ul>
+ */
+public final class YamlPath {
+
+    private static final YamlPath ROOT = new YamlPath(null, null, -1);
+
+    private final YamlPath parent;
+    private final String key;
+    private final int index;
+    private final int depth;
+    private final int hash;
+
+    private YamlPath(YamlPath parent, String key, int index) {
+        this.parent = parent;
+        this.key = key;
+        this.index = index;
+        this.depth = parent == null ? 0 : parent.depth + 1;
+        this.hash = parent == null ? 1 : 31 * parent.hash + (key != null ? key.hashCode() : index);
+    }
+
+    /**
+     * @return the path of the root-node (an empty path)
+     */
+    public static YamlPath root() {
+        return ROOT;
+    }
+
+    /**
+     * @param key the key of dictionary
+     * @return the path to the value by the key in the dictionary, which is referred by this path
+     */
+    public YamlPath key(@NonNull String key) {
+        return new YamlPath(this, key, -1);
+    }
+
+    /**
+     * @param index the index of element in sequence
+     * @return the path to the element of the sequence, which is referred by this path
+     */
+    public YamlPath index(int index) {
+        if (index < 0) {
+            throw new IllegalArgumentException("index of sequence must not be negative - " + index);
+        }
+        return new YamlPath(this, null, index);
+    }
+
+    public boolean isRoot() {
+        return parent == null;
+    }
+
+    /**
+     * @return {@code true} if the last segment of this path is the key of dictionary
+     */
+    public boolean isKey() {
+        return key != null;
+    }
+
+    /**
+     * @return {@code true} if the last segment of this path is the index in sequence
+     */
+    public boolean isIndex() {
+        return index >= 0;
+    }
+
+    /**
+     * @return the parent path (or {@code null} for the root-path)
+     */
+    public YamlPath getParent() {
+        return parent;
+    }
+
+    /**
+     * @return the key of the last segment (or {@code null} if it's not a key)
+     */
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * @return the index of the last segment (or {@code -1} if it's not an index)
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * @return the number of segments in this path
+     */
+    public int depth() {
+        return depth;
+    }
+
+    /**
+     * @return the list of single-segment paths from the root to this path (the root-path itself is not included)
+     */
+    public List<YamlPath> segments() {
+        YamlPath[] segments = new YamlPath[depth];
+        for (YamlPath path = this; !path.isRoot(); path = path.parent) {
+            segments[path.depth - 1] = path;
+        }
+        return Arrays.asList(segments);
+    }
+
+    /**
+     * @param prefix another path
+     * @return {@code true} if this path is equal to the passed one or starts with it
+     */
+    public boolean startsWith(@NonNull YamlPath prefix) {
+        YamlPath path = this;
+        while (path.depth > prefix.depth) {
+            path = path.parent;
+        }
+        return path.equals(prefix);
+    }
+
+    /**
+     * @param node the root-node to resolve this path against
+     * @return the node by this path (values of dictionary are resolved, not key-values)
+     * or {@code null} if there is no such node
+     */
+    public <T> YamlNode<T> resolve(@NonNull YamlNode<T> node) {
+        if (isRoot()) {
+            return node;
+        }
+        YamlNode<T> parentNode = parent.resolve(node);
+        if (parentNode == null) {
+            return null;
+        }
+        if (isKey() && parentNode.getType() == YamlNode.Type.DICTIONARY) {
+            YamlNode<T> keyValue = parentNode.childByName(key);
+            return keyValue == null ? null : keyValue.getValue();
+        }
+        if (isIndex() && parentNode.getType() == YamlNode.Type.SEQUENCE && index < parentNode.childrenCount()) {
+            return parentNode.childByIndex(index);
+        }
+        return null;
+    }
+
+    /**
+     * @return the JSON-pointer representation of this path (according to RFC 6901)
+     */
+    public String toJsonPointer() {
+        if (isRoot()) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder();
+        for (YamlPath segment : segments()) {
+            sb.append('/');
+            if (segment.isIndex()) {
+                sb.append(segment.index);
+            } else {
+                sb.append(segment.key.replace("~", "~0").replace("/", "~1"));
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * @return the dotted representation of this path (an empty string for the root-path)
+     */
+    @Override
+    public String toString() {
+        return toDotted(false);
+    }
+
+    /**
+     * @return the dotted representation of this path, where all indexes are replaced with the wildcard -
+     * like {@code spec.containers[*].env} (which is the same for all elements of the same sequence)
+     */
+    public String toPattern() {
+        return toDotted(true);
+    }
+
+    private String toDotted(boolean wildcard) {
+        if (isRoot()) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder();
+        for (YamlPath segment : segments()) {
+            if (segment.isIndex()) {
+                sb.append('[').append(wildcard ? "*" : segment.index).append(']');
+            } else if (isPlainKey(segment.key)) {
+                if (segment.depth > 1) {
+                    sb.append('.');
+                }
+                sb.append(segment.key);
+            } else {
+                sb.append("['").append(segment.key.replace("\\", "\\\\").replace("'", "\\'")).append("']");
+            }
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof YamlPath other) || depth != other.depth || hash != other.hash) {
+            return false;
+        }
+        YamlPath thisPath = this;
+        YamlPath otherPath = other;
+        while (!thisPath.isRoot()) {
+            if (thisPath.index != otherPath.index || !Objects.equals(thisPath.key, otherPath.key)) {
+                return false;
+            }
+            thisPath = thisPath.parent;
+            otherPath = otherPath.parent;
+        }
+        return true;
+    }
+
+    /**
+     * @return the hash-code, which is calculated once from the hash-code of parent (so it takes O(1))
+     */
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    /**
+     * Parses the dotted path, where the keys with special characters are enclosed in brackets and single quotes.
+     *
+     * @param dottedPath a dotted path like {@code spec.containers[0].image}
+     * @return parsed path
+     * @throws IllegalArgumentException if the passed string is not a valid dotted path
+     */
+    public static YamlPath parse(@NonNull String dottedPath) {
+        YamlPath path = ROOT;
+        int pos = 0;
+        int length = dottedPath.length();
+        while (pos < length) {
+            char ch = dottedPath.charAt(pos);
+            if (ch == '.' && pos > 0) {
+                pos++;
+            }
+            if (pos < length && dottedPath.charAt(pos) == '[') {
+                int end = pos + 1 < length && dottedPath.charAt(pos + 1) == '\''
+                    ? quotedEnd(dottedPath, pos + 2) : dottedPath.indexOf(']', pos);
+                if (end < 0 || end >= length || dottedPath.charAt(end) != ']') {
+                    throw new IllegalArgumentException(format("unclosed bracket at %d in path '%s'", pos, dottedPath));
+                }
+                String content = dottedPath.substring(pos + 1, end);
+                if (content.startsWith("'")) {
+                    path = path.key(content.substring(1, content.length() - 1)
+                        .replace("\\'", "'").replace("\\\\", "\\"));
+                } else {
+                    try {
+                        path = path.index(Integer.parseInt(content));
+                    } catch (NumberFormatException nfEx) {
+                        throw new IllegalArgumentException(format("invalid index '%s' in path '%s'", content, dottedPath));
+                    }
+                }
+                pos = end + 1;
+            } else {
+                int end = pos;
+                while (end < length && dottedPath.charAt(end) != '.' && dottedPath.charAt(end) != '[') {
+                    end++;
+                }
+                if (end == pos) {
+                    throw new IllegalArgumentException(format("empty key at %d in path '%s'", pos, dottedPath));
+                }
+                path = path.key(dottedPath.substring(pos, end));
+                pos = end;
+            }
+        }
+        return path;
+    }
+
+    /**
+     * Parses the JSON-pointer (RFC 6901). All segments are parsed as keys, but numeric keys are
+     * resolved as indexes when they are applied to sequences (see {@link #asIndex()}).
+     *
+     * @param jsonPointer a JSON-pointer like {@code /spec/containers/0/image}
+     * @return parsed path
+     * @throws IllegalArgumentException if the passed string is not a valid JSON-pointer
+     */
+    public static YamlPath parseJsonPointer(@NonNull String jsonPointer) {
+        if (jsonPointer.isEmpty()) {
+            return ROOT;
+        }
+        if (jsonPointer.charAt(0) != '/') {
+            throw new IllegalArgumentException(format("JSON-pointer must start with '/' - '%s'", jsonPointer));
+        }
+        YamlPath path = ROOT;
+        int pos = 1;
+        while (pos <= jsonPointer.length()) {
+            int end = jsonPointer.indexOf('/', pos);
+            end = end < 0 ? jsonPointer.length() : end;
+            path = path.key(jsonPointer.substring(pos, end).replace("~1", "/").replace("~0", "~"));
+            pos = end + 1;
+        }
+        return path;
+    }
+
+    /**
+     * @return the index, if the last segment is an index or a key that consists only of digits
+     * (like in JSON-pointer), or {@code -1} otherwise
+     */
+    public int asIndex() {
+        if (isIndex()) {
+            return index;
+        }
+        if (key == null || key.isEmpty() || key.length() > 9 || (key.length() > 1 && key.charAt(0) == '0')) {
+            return -1;
+        }
+        for (int i = 0; i < key.length(); i++) {
+            if (!Character.isDigit(key.charAt(i))) {
+                return -1;
+            }
+        }
+        return Integer.parseInt(key);
+    }
+
+    private static int quotedEnd(String dottedPath, int pos) {
+        while (pos < dottedPath.length()) {
+            char ch = dottedPath.charAt(pos);
+            if (ch == '\\') {
+                pos += 2;
+            } else if (ch == '\'') {
+                return pos + 1;
+            } else {
+                pos++;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isPlainKey(String key) {
+        if (key.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < key.length(); i++) {
+            char ch = key.charAt(i);
+            if (ch == '.' || ch == '[' || ch == ']' || ch == '\'' || ch == '\\') {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,167 @@
+package org.krmdemo.yaml.reconcile;
+
+import lombok.NonNull;
+
+import java.util.*;
+import java.util.function.BiConsumer;
+
+/**
+ * Optional index of all the nodes of yaml-tree by their full paths (see {@link YamlPath}), which is built
+ * explicitly (see {@link #of(YamlNode)}) in one traversal of the tree - so, the documents that are only
+ * loaded do not pay for it.
+ * <p/>
+ * Nodes and their paths are stored in arrays in the pre-order of traversal, so all the descendants
+ * of any node occupy the contiguous range right after the node, which allows to iterate the nodes
+ * by the prefix of path without walking the tree. The position of the path is looked up in the compact
+ * open-addressing table of integers (with linear probing), which is keyed by the hash-code of path.
+ * <p/>
+ * The index is a snapshot of the tree - it must be rebuilt if the tree is replaced (yaml-nodes are immutable).
+ *
+ * @param <T> the type of origin of yaml-nodes
+ */
+public final class YamlPathIndex<T> {
+
+    private final YamlPath[] paths;
+    private final YamlNode<T>[] nodes;
+    private final int[] ends;
+    private final int size;
+
+    /**
+     * positions of paths in the arrays plus one (zero is an empty slot)
+     */
+    private final int[] table;
+
+    private YamlPathIndex(Builder<T> builder) {
+        this.paths = Arrays.copyOf(builder.paths, builder.size);
+        this.nodes = Arrays.copyOf(builder.nodes, builder.size);
+        this.ends = Arrays.copyOf(builder.ends, builder.size);
+        this.size = builder.size;
+        this.table = new int[Integer.highestOneBit(Math.max(size, 1)) << 2];
+        int mask = table.length - 1;
+        for (int pos = 0; pos < size; pos++) {
+            int slot = spread(paths[pos].hashCode()) & mask;
+            while (table[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = pos + 1;
+        }
+    }
+
+    /**
+     * @param root the root of yaml-tree
+     * @return the index of all the nodes of the tree (values of dictionaries and elements of sequences)
+     */
+    public static <T> YamlPathIndex<T> of(@NonNull YamlNode<T> root) {
+        Builder<T> builder = new Builder<>();
+        builder.visit(YamlPath.root(), root);
+        return new YamlPathIndex<>(builder);
+    }
+
+    /**
+     * @return the number of indexed nodes (including the root)
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param path the full path of node
+     * @return the node by the path (or {@code null} if there is no such node)
+     */
+    public YamlNode<T> get(@NonNull YamlPath path) {
+        int pos = positionOf(path);
+        return pos < 0 ? null : nodes[pos];
+    }
+
+    /**
+     * @param dottedPath the full dotted path of node like {@code spec.template.spec.containers[0].image}
+     * @return the node by the path (or {@code null} if there is no such node)
+     */
+    public YamlNode<T> get(@NonNull String dottedPath) {
+        return get(YamlPath.parse(dottedPath));
+    }
+
+    public boolean contains(@NonNull YamlPath path) {
+        return positionOf(path) >= 0;
+    }
+
+    /**
+     * @param prefix the path of some node
+     * @return the number of nodes by the prefix (the node itself and all its descendants)
+     */
+    public int countByPrefix(@NonNull YamlPath prefix) {
+        int pos = positionOf(prefix);
+        return pos < 0 ? 0 : ends[pos] - pos;
+    }
+
+    /**
+     * @param prefix the path of some node
+     * @param action the action to invoke for the node itself and all its descendants (in the order of document)
+     */
+    public void forEachByPrefix(@NonNull YamlPath prefix, @NonNull BiConsumer<YamlPath, YamlNode<T>> action) {
+        int pos = positionOf(prefix);
+        if (pos >= 0) {
+            for (int i = pos; i < ends[pos]; i++) {
+                action.accept(paths[i], nodes[i]);
+            }
+        }
+    }
+
+    /**
+     * @param prefix the path of some node
+     * @return the paths of the node itself and all its descendants (in the order of document)
+     */
+    public List<YamlPath> pathsByPrefix(@NonNull YamlPath prefix) {
+        int pos = positionOf(prefix);
+        return pos < 0 ? List.of() : Collections.unmodifiableList(Arrays.asList(paths).subList(pos, ends[pos]));
+    }
+
+    private int positionOf(YamlPath path) {
+        int mask = table.length - 1;
+        for (int slot = spread(path.hashCode()) & mask; table[slot] != 0; slot = (slot + 1) & mask) {
+            int pos = table[slot] - 1;
+            if (paths[pos].equals(path)) {
+                return pos;
+            }
+        }
+        return -1;
+    }
+
+    private static int spread(int hash) {
+        hash *= 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * Pre-order traversal of yaml-tree into the growing arrays
+     */
+    private static final class Builder<T> {
+        private YamlPath[] paths = new YamlPath[64];
+        @SuppressWarnings("unchecked")
+        private YamlNode<T>[] nodes = new YamlNode[64];
+        private int[] ends = new int[64];
+        private int size = 0;
+
+        private void visit(YamlPath path, YamlNode<T> node) {
+            if (size == paths.length) {
+                paths = Arrays.copyOf(paths, size * 2);
+                nodes = Arrays.copyOf(nodes, size * 2);
+                ends = Arrays.copyOf(ends, size * 2);
+            }
+            int pos = size++;
+            paths[pos] = path;
+            nodes[pos] = node;
+            if (node.getType() == YamlNode.Type.DICTIONARY) {
+                for (int i = 0, count = node.childrenCount(); i < count; i++) {
+                    YamlNode<T> keyValue = node.childByIndex(i);
+                    visit(path.key(keyValue.getKey()), keyValue.getValue());
+                }
+            } else if (node.getType() == YamlNode.Type.SEQUENCE) {
+                for (int i = 0, count = node.childrenCount(); i < count; i++) {
+                    visit(path.index(i), node.childByIndex(i));
+                }
+            }
+            ends[pos] = size;
+        }
+    }
+}
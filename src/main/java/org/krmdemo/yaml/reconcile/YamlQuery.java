@@ -0,0 +1,508 @@
+package org.krmdemo.yaml.reconcile;
+
+import lombok.NonNull;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+import static java.lang.String.format;
+
+/**
+ * Compiled query (in the style of JSONPath) to select the nodes of yaml-tree.
+ * <p/>
+ * The syntax extends the dotted path of {@link YamlPath} (the leading {@code $} is optional):
+ * <ul>
+ *     <li>{@code spec.containers[0].image} or {@code metadata.labels['app.kubernetes.io/name']} - keys and indexes
+ *     (negative indexes are counted from the end of sequence)</li>
+ *     <li>{@code spec.containers[*].image} or {@code metadata.labels.*} - all values of dictionary or elements of sequence</li>
+ *     <li>{@code $..image} or {@code spec..[0]} - recursive descent (the node itself and all its descendants)</li>
+ *     <li>{@code spec.containers[?(@.name == 'app' && @.resources.limits)]} - filter of values of dictionary or elements
+ *     of sequence by comparison of their scalars ({@code == != < <= > >=}, and {@code =~} with regular expression)
+ *     or by existence of nodes; numbers are compared as numbers, and everything else is compared as strings</li>
+ * </ul>
+ * The expression is parsed only once into the array of steps, and compiled queries are cached by the expression.
+ * The evaluation does not allocate any streams or optionals - children are iterated by index, and matched nodes
+ * are passed to the callback directly.
+ */
+public final class YamlQuery {
+
+    /**
+     * The maximum number of compiled queries in the cache (queries are still compiled when the cache is full)
+     */
+    private static final int MAX_CACHED = 4096;
+
+    private static final Map<String, YamlQuery> CACHE = new ConcurrentHashMap<>();
+
+    private final String expression;
+    private final Step[] steps;
+
+    private YamlQuery(String expression, Step[] steps) {
+        this.expression = expression;
+        this.steps = steps;
+    }
+
+    /**
+     * @param expression the query-expression like {@code spec.containers[?(@.name == 'app')].image}
+     * @return the compiled query (which is cached by the expression)
+     * @throws IllegalArgumentException if the expression is not valid
+     */
+    public static YamlQuery compile(@NonNull String expression) {
+        YamlQuery query = CACHE.get(expression);
+        if (query == null) {
+            query = new YamlQuery(expression, new Parser(expression).parseSteps());
+            if (CACHE.size() < MAX_CACHED) {
+                CACHE.putIfAbsent(expression, query);
+            }
+        }
+        return query;
+    }
+
+    public String expression() {
+        return expression;
+    }
+
+    /**
+     * @param root the root-node to evaluate the query against
+     * @param action the callback to be invoked for every matched node (in the order of document)
+     */
+    public <T> void forEach(@NonNull YamlNode<T> root, @NonNull Consumer<? super YamlNode<T>> action) {
+        eval(root, 0, node -> {
+            action.accept(node);
+            return true;
+        });
+    }
+
+    /**
+     * @param root the root-node to evaluate the query against
+     * @param action the callback to be invoked for every matched node, which returns {@code false} to stop
+     * @return {@code false} if the evaluation was stopped by the callback
+     */
+    public <T> boolean forEachWhile(@NonNull YamlNode<T> root, @NonNull Predicate<? super YamlNode<T>> action) {
+        return eval(root, 0, action);
+    }
+
+    /**
+     * @param root the root-node to evaluate the query against
+     * @return the list of all matched nodes (in the order of document)
+     */
+    public <T> List<YamlNode<T>> select(@NonNull YamlNode<T> root) {
+        List<YamlNode<T>> selected = new ArrayList<>();
+        forEach(root, selected::add);
+        return selected;
+    }
+
+    /**
+     * @param root the root-node to evaluate the query against
+     * @return the first matched node (or {@code null} if nothing is matched)
+     */
+    public <T> YamlNode<T> first(@NonNull YamlNode<T> root) {
+        List<YamlNode<T>> first = new ArrayList<>(1);
+        eval(root, 0, node -> !first.add(node));
+        return first.isEmpty() ? null : first.get(0);
+    }
+
+    /**
+     * @param root the root-node to evaluate the query against
+     * @return {@code true} if at least one node is matched (the evaluation is stopped on the first match)
+     */
+    public <T> boolean matches(@NonNull YamlNode<T> root) {
+        return !eval(root, 0, node -> false);
+    }
+
+    @Override
+    public String toString() {
+        return expression;
+    }
+
+    private <T> boolean eval(YamlNode<T> node, int stepIndex, Predicate<? super YamlNode<T>> action) {
+        if (stepIndex == steps.length) {
+            return action.test(node);
+        }
+        YamlNode.Type type = node.getType();
+        switch (steps[stepIndex]) {
+            case Key key -> {
+                if (type == YamlNode.Type.DICTIONARY) {
+                    YamlNode<T> keyValue = node.childByName(key.key);
+                    return keyValue == null || eval(keyValue.getValue(), stepIndex + 1, action);
+                }
+            }
+            case Index index -> {
+                if (type == YamlNode.Type.SEQUENCE) {
+                    int count = node.childrenCount();
+                    int position = index.index < 0 ? count + index.index : index.index;
+                    return position < 0 || position >= count || eval(node.childByIndex(position), stepIndex + 1, action);
+                }
+            }
+            case Wildcard ignored -> {
+                if (type == YamlNode.Type.DICTIONARY || type == YamlNode.Type.SEQUENCE) {
+                    for (int i = 0, count = node.childrenCount(); i < count; i++) {
+                        if (!eval(childValue(node, type, i), stepIndex + 1, action)) {
+                            return false;
+                        }
+                    }
+                }
+            }
+            case Filter filter -> {
+                if (type == YamlNode.Type.DICTIONARY || type == YamlNode.Type.SEQUENCE) {
+                    for (int i = 0, count = node.childrenCount(); i < count; i++) {
+                        YamlNode<T> child = childValue(node, type, i);
+                        if (filter.condition.test(child) && !eval(child, stepIndex + 1, action)) {
+                            return false;
+                        }
+                    }
+                }
+            }
+            case Descent ignored -> {
+                if (!eval(node, stepIndex + 1, action)) {
+                    return false;
+                }
+                if (type == YamlNode.Type.DICTIONARY || type == YamlNode.Type.SEQUENCE) {
+                    for (int i = 0, count = node.childrenCount(); i < count; i++) {
+                        if (!eval(childValue(node, type, i), stepIndex, action)) {
+                            return false;
+                        }
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    private static <T> YamlNode<T> childValue(YamlNode<T> node, YamlNode.Type type, int index) {
+        YamlNode<T> child = node.childByIndex(index);
+        return type == YamlNode.Type.DICTIONARY ? child.getValue() : child;
+    }
+
+    /**
+     * @return the node by the relative path of filter (or {@code null} if there is no such node)
+     */
+    private static <T> YamlNode<T> resolve(YamlNode<T> node, Step[] relativePath) {
+        for (Step step : relativePath) {
+            YamlNode.Type type = node.getType();
+            if (step instanceof Key key && type == YamlNode.Type.DICTIONARY) {
+                YamlNode<T> keyValue = node.childByName(key.key);
+                node = keyValue == null ? null : keyValue.getValue();
+            } else if (step instanceof Index index && type == YamlNode.Type.SEQUENCE) {
+                int count = node.childrenCount();
+                int position = index.index < 0 ? count + index.index : index.index;
+                node = position < 0 || position >= count ? null : node.childByIndex(position);
+            } else {
+                node = null;
+            }
+            if (node == null) {
+                return null;
+            }
+        }
+        return node;
+    }
+
+    // ------------------------------------------------------------------------------------------------------------
+
+    private sealed interface Step permits Key, Index, Wildcard, Filter, Descent {
+    }
+
+    private record Key(String key) implements Step {
+    }
+
+    private record Index(int index) implements Step {
+    }
+
+    private record Wildcard() implements Step {
+    }
+
+    private record Descent() implements Step {
+    }
+
+    private record Filter(Condition condition) implements Step {
+    }
+
+    private sealed interface Condition permits Exists, Compare, And, Or {
+        boolean test(YamlNode<?> node);
+    }
+
+    private record Exists(Step[] relativePath) implements Condition {
+        @Override
+        public boolean test(YamlNode<?> node) {
+            return resolve(node, relativePath) != null;
+        }
+    }
+
+    private record And(Condition left, Condition right) implements Condition {
+        @Override
+        public boolean test(YamlNode<?> node) {
+            return left.test(node) && right.test(node);
+        }
+    }
+
+    private record Or(Condition left, Condition right) implements Condition {
+        @Override
+        public boolean test(YamlNode<?> node) {
+            return left.test(node) || right.test(node);
+        }
+    }
+
+    /**
+     * @param relativePath the path of compared scalar relative to the filtered node
+     * @param operator the comparison operator
+     * @param literal the literal to compare with
+     * @param number the literal as a number (or {@code NaN} if it's not a number)
+     * @param pattern the compiled regular expression for {@code =~} operator
+     */
+    private record Compare(Step[] relativePath, String operator, String literal, double number, Pattern pattern)
+            implements Condition {
+        @Override
+        public boolean test(YamlNode<?> node) {
+            YamlNode<?> scalar = resolve(node, relativePath);
+            if (scalar == null
+                    || (scalar.getType() != YamlNode.Type.SCALAR && scalar.getType() != YamlNode.Type.SCALAR_CSV)) {
+                return false;
+            }
+            String value = scalar.asString();
+            if (pattern != null) {
+                return pattern.matcher(value).matches();
+            }
+            int cmp;
+            if (!Double.isNaN(number) && isNumber(value)) {
+                cmp = Double.compare(Double.parseDouble(value), number);
+            } else {
+                cmp = value.compareTo(literal);
+            }
+            return switch (operator) {
+                case "==" -> cmp == 0;
+                case "!=" -> cmp != 0;
+                case "<" -> cmp < 0;
+                case "<=" -> cmp <= 0;
+                case ">" -> cmp > 0;
+                default -> cmp >= 0;
+            };
+        }
+    }
+
+    private static boolean isNumber(String str) {
+        int length = str.length();
+        int pos = length > 0 && (str.charAt(0) == '-' || str.charAt(0) == '+') ? 1 : 0;
+        boolean digits = false;
+        boolean dot = false;
+        for (; pos < length; pos++) {
+            char ch = str.charAt(pos);
+            if (ch >= '0' && ch <= '9') {
+                digits = true;
+            } else if (ch == '.' && !dot) {
+                dot = true;
+            } else {
+                return false;
+            }
+        }
+        return digits;
+    }
+
+    /**
+     * The recursive-descent parser of query-expression
+     */
+    private static final class Parser {
+
+        private final String expression;
+        private int pos = 0;
+
+        Parser(String expression) {
+            this.expression = expression;
+        }
+
+        Step[] parseSteps() {
+            List<Step> steps = new ArrayList<>();
+            if (peek('$')) {
+                pos++;
+            } else if (pos < expression.length() && !peek('.') && !peek('[')) {
+                steps.add(parseDotted());
+            }
+            while (pos < expression.length()) {
+                if (expression.startsWith("..", pos)) {
+                    pos += 2;
+                    steps.add(new Descent());
+                    steps.add(peek('[') ? parseBracket() : parseDotted());
+                } else if (peek('.')) {
+                    pos++;
+                    steps.add(parseDotted());
+                } else if (peek('[')) {
+                    steps.add(parseBracket());
+                } else {
+                    throw error("unexpected character '" + expression.charAt(pos) + "'");
+                }
+            }
+            return steps.toArray(Step[]::new);
+        }
+
+        private Step parseDotted() {
+            if (peek('*')) {
+                pos++;
+                return new Wildcard();
+            }
+            int start = pos;
+            while (pos < expression.length() && ".[]()=!<>&|~ ".indexOf(expression.charAt(pos)) < 0) {
+                pos++;
+            }
+            if (start == pos) {
+                throw error("empty key");
+            }
+            return new Key(expression.substring(start, pos));
+        }
+
+        private Step parseBracket() {
+            int start = pos++;
+            skipSpaces();
+            Step step;
+            if (peek('*')) {
+                pos++;
+                step = new Wildcard();
+            } else if (peek('\'') || peek('"')) {
+                step = new Key(parseQuoted());
+            } else if (expression.startsWith("?(", pos)) {
+                pos += 2;
+                step = new Filter(parseOr());
+                expect(')');
+            } else {
+                step = new Index(parseInt());
+            }
+            skipSpaces();
+            if (!peek(']')) {
+                pos = start;
+                throw error("unclosed bracket");
+            }
+            pos++;
+            return step;
+        }
+
+        private Condition parseOr() {
+            Condition condition = parseAnd();
+            while (skipSpaces() && expression.startsWith("||", pos)) {
+                pos += 2;
+                condition = new Or(condition, parseAnd());
+            }
+            return condition;
+        }
+
+        private Condition parseAnd() {
+            Condition condition = parseAtom();
+            while (skipSpaces() && expression.startsWith("&&", pos)) {
+                pos += 2;
+                condition = new And(condition, parseAtom());
+            }
+            return condition;
+        }
+
+        private Condition parseAtom() {
+            skipSpaces();
+            if (peek('(')) {
+                pos++;
+                Condition condition = parseOr();
+                expect(')');
+                return condition;
+            }
+            expect('@');
+            List<Step> relativePath = new ArrayList<>();
+            while (peek('.') || peek('[')) {
+                if (peek('.')) {
+                    pos++;
+                    relativePath.add(parseDotted());
+                } else {
+                    relativePath.add(parseBracket());
+                }
+                if (relativePath.getLast() instanceof Wildcard || relativePath.getLast() instanceof Filter) {
+                    throw error("only keys and indexes are allowed in the path of filter");
+                }
+            }
+            Step[] steps = relativePath.toArray(Step[]::new);
+            skipSpaces();
+            String operator = parseOperator();
+            if (operator == null) {
+                return new Exists(steps);
+            }
+            skipSpaces();
+            String literal;
+            if (peek('\'') || peek('"')) {
+                literal = parseQuoted();
+            } else {
+                int start = pos;
+                while (pos < expression.length() && " )&|]".indexOf(expression.charAt(pos)) < 0) {
+                    pos++;
+                }
+                literal = expression.substring(start, pos);
+                if (literal.isEmpty()) {
+                    throw error("missing literal after '" + operator + "'");
+                }
+            }
+            Pattern pattern = operator.equals("=~") ? Pattern.compile(literal) : null;
+            double number = isNumber(literal) ? Double.parseDouble(literal) : Double.NaN;
+            return new Compare(steps, operator, literal, number, pattern);
+        }
+
+        private String parseOperator() {
+            for (String operator : List.of("==", "!=", "<=", ">=", "=~", "<", ">")) {
+                if (expression.startsWith(operator, pos)) {
+                    pos += operator.length();
+                    return operator;
+                }
+            }
+            return null;
+        }
+
+        private String parseQuoted() {
+            char quote = expression.charAt(pos++);
+            StringBuilder sb = new StringBuilder();
+            while (pos < expression.length() && expression.charAt(pos) != quote) {
+                char ch = expression.charAt(pos++);
+                if (ch == '\\' && pos < expression.length()) {
+                    ch = expression.charAt(pos++);
+                }
+                sb.append(ch);
+            }
+            if (pos >= expression.length()) {
+                throw error("unclosed quote");
+            }
+            pos++;
+            return sb.toString();
+        }
+
+        private int parseInt() {
+            int start = pos;
+            if (peek('-')) {
+                pos++;
+            }
+            while (pos < expression.length() && Character.isDigit(expression.charAt(pos))) {
+                pos++;
+            }
+            try {
+                return Integer.parseInt(expression.substring(start, pos));
+            } catch (NumberFormatException nfEx) {
+                pos = start;
+                throw error("invalid index");
+            }
+        }
+
+        private void expect(char ch) {
+            skipSpaces();
+            if (!peek(ch)) {
+                throw error("expected '" + ch + "'");
+            }
+            pos++;
+        }
+
+        private boolean peek(char ch) {
+            return pos < expression.length() && expression.charAt(pos) == ch;
+        }
+
+        private boolean skipSpaces() {
+            while (peek(' ')) {
+                pos++;
+            }
+            return true;
+        }
+
+        private IllegalArgumentException error(String message) {
+            return new IllegalArgumentException(format("%s at %d in query '%s'", message, pos, expression));
+        }
+    }
+}
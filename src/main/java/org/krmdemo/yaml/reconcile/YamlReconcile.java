@@ -1,6 +1,15 @@
 package org.krmdemo.yaml.reconcile;
 
 import lombok.extern.slf4j.Slf4j;
+import org.krmdemo.yaml.reconcile.batch.BatchReconcile;
+import org.krmdemo.yaml.reconcile.diff.YamlDiff;
+import org.krmdemo.yaml.reconcile.impl.SnakeYamlEngineFactory;
+
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.stream.Stream;
 
 @Slf4j
 public class YamlReconcile {
@@ -11,7 +20,57 @@ public class YamlReconcile {
      * @param args command-line arguments
      */
     public static void main(String[] args) {
-        System.out.println("Hello " + YamlReconcile.class.getSimpleName());
-        log.info("Hello from {}'s logging !!!", YamlReconcile.class.getSimpleName());
+        System.exit(run(args, System.out, System.err));
+    }
+
+    /**
+     * Reconciles two directories of yaml-files: {@code <left-dir> <right-dir> [<parallelism>]}
+     *
+     * @param args command-line arguments
+     * @param out the stream to print the results to
+     * @param err the stream to print the errors to
+     * @return the exit-code: {@code 0} - no changes, {@code 1} - there are changes, {@code 2} - failure
+     */
+    public static int run(String[] args, PrintStream out, PrintStream err) {
+        if (args.length < 2 || args.length > 3) {
+            err.printf("Usage: %s <left-dir> <right-dir> [<parallelism>]%n", YamlReconcile.class.getSimpleName());
+            return 2;
+        }
+        Path leftDir = Path.of(args[0]);
+        Path rightDir = Path.of(args[1]);
+        if (!Files.isDirectory(leftDir) || !Files.isDirectory(rightDir)) {
+            err.printf("Both '%s' and '%s' must be directories%n", leftDir, rightDir);
+            return 2;
+        }
+        int parallelism = BatchReconcile.DEFAULT_PARALLELISM;
+        if (args.length == 3) {
+            try {
+                parallelism = Integer.parseInt(args[2]);
+            } catch (NumberFormatException nfEx) {
+                err.printf("Invalid parallelism '%s'%n", args[2]);
+                return 2;
+            }
+            if (parallelism < 1) {
+                err.printf("Invalid parallelism '%s' (must be positive)%n", args[2]);
+                return 2;
+            }
+        }
+        log.info("reconcile '{}' with '{}' (parallelism = {})", leftDir, rightDir, parallelism);
+        BatchReconcile batchReconcile = new BatchReconcile(new SnakeYamlEngineFactory(), new YamlDiff(), parallelism);
+        Map<BatchReconcile.Status, Integer> counters = new EnumMap<>(BatchReconcile.Status.class);
+        try (Stream<BatchReconcile.FileResult> results = batchReconcile.reconcile(leftDir, rightDir)) {
+            results.forEach(result -> {
+                counters.merge(result.status(), 1, Integer::sum);
+                if (result.status() != BatchReconcile.Status.UNCHANGED) {
+                    out.println(result);
+                    result.patch().forEach(patchOp -> out.println("    " + patchOp));
+                }
+            });
+        }
+        out.println("Reconciled files: " + counters);
+        if (counters.containsKey(BatchReconcile.Status.FAILED)) {
+            return 2;
+        }
+        return counters.keySet().stream().anyMatch(status -> status != BatchReconcile.Status.UNCHANGED) ? 1 : 0;
     }
 }
@@ -0,0 +1,304 @@
+package org.krmdemo.yaml.reconcile.apt;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.type.*;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.util.*;
+
+import static java.lang.String.format;
+
+/**
+ * Annotation processor, which generates the specialized mapper (an implementation of
+ * {@code org.krmdemo.yaml.reconcile.impl.YamlMapper}) for every class or record annotated
+ * with {@code org.krmdemo.yaml.reconcile.YamlMapped}.
+ * <p/>
+ * The generated mapper reads every property directly (the component of the record, the accessible field
+ * or its getter) and converts it by the statically known type: primitives, their wrappers, strings and enums
+ * become scalars without boxing, annotated classes are converted by their own generated mappers, and maps,
+ * iterables and arrays are converted element-by-element with the same rules. Only the values, whose types
+ * are not known at compile-time (like {@code Object} or type-variables), are converted at runtime by their classes.
+ * <p/>
+ * The processor does not depend on the runtime classes of this library (which are referenced only by names
+ * in the generated source), so it could be loaded from the processor-path without other dependencies.
+ */
+@SupportedAnnotationTypes(YamlMappedProcessor.ANNOTATION_NAME)
+public class YamlMappedProcessor extends AbstractProcessor {
+
+    static final String ANNOTATION_NAME = "org.krmdemo.yaml.reconcile.YamlMapped";
+
+    private static final String MAPPER_SUFFIX = "YamlMapper";
+
+    private static final String YAML_NODE = "org.krmdemo.yaml.reconcile.YamlNode<org.snakeyaml.engine.v2.nodes.Node>";
+    private static final String YAML_MAPPER = "org.krmdemo.yaml.reconcile.impl.YamlMapper";
+    private static final String YAML_MAPPERS = "org.krmdemo.yaml.reconcile.impl.YamlMappers";
+    private static final String KEY_VALUE = "org.krmdemo.yaml.reconcile.impl.YamlKeyValue";
+    private static final String DICTIONARY = "org.krmdemo.yaml.reconcile.impl.YamlDictionary";
+    private static final String SCALAR = "org.krmdemo.yaml.reconcile.impl.YamlPrimitiveScalar";
+
+    private static final Set<String> LOMBOK_GETTERS = Set.of("lombok.Getter", "lombok.Data", "lombok.Value");
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (TypeElement annotation : annotations) {
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                if (element.getKind() != ElementKind.CLASS && element.getKind() != ElementKind.RECORD) {
+                    error(element, "only classes and records could be annotated with @YamlMapped");
+                } else if (element.getModifiers().contains(Modifier.PRIVATE)) {
+                    error(element, "the class annotated with @YamlMapped must not be private");
+                } else {
+                    generate((TypeElement) element);
+                }
+            }
+        }
+        return true;
+    }
+
+    private void generate(TypeElement typeElement) {
+        String packageName = processingEnv.getElementUtils().getPackageOf(typeElement).getQualifiedName().toString();
+        String mapperName = mapperSimpleName(typeElement);
+        List<Property> properties = typeElement.getKind() == ElementKind.RECORD
+            ? recordProperties(typeElement)
+            : classProperties(typeElement, packageName);
+        if (properties == null) {
+            return;  // the errors are already reported
+        }
+        String typeName = processingEnv.getTypeUtils().erasure(typeElement.asType()).toString();
+        String qualifiedName = packageName.isEmpty() ? mapperName : packageName + "." + mapperName;
+        try (PrintWriter out = new PrintWriter(processingEnv.getFiler().createSourceFile(qualifiedName, typeElement).openWriter())) {
+            if (!packageName.isEmpty()) {
+                out.printf("package %s;%n%n", packageName);
+            }
+            out.printf("/**%n * The mapper of {@link %s} into yaml-dictionary, which is generated by %s%n */%n",
+                typeName, getClass().getName());
+            out.printf("public final class %s implements %s<%s> {%n%n", mapperName, YAML_MAPPER, typeName);
+            out.printf("    public static final %s INSTANCE = new %s();%n%n", mapperName, mapperName);
+            out.printf("    private %s() {%n    }%n%n", mapperName);
+            out.printf("    @Override%n");
+            out.printf("    public %s toYaml(%s value) {%n", YAML_NODE, typeName);
+            out.printf("        %s[] keyValues = new %s[%d];%n", KEY_VALUE, KEY_VALUE, properties.size());
+            out.printf("        int count = 0;%n");
+            for (int i = 0; i < properties.size(); i++) {
+                Property property = properties.get(i);
+                String keyValue = format("keyValues[count++] = new %s(\"%s\", %s);",
+                    KEY_VALUE, property.name(), convert(property.type(), "v" + i, 0));
+                if (property.type().getKind().isPrimitive()) {
+                    out.printf("        %s v%d = value.%s;%n", property.type(), i, property.accessor());
+                    out.printf("        %s%n", keyValue);
+                } else {
+                    out.printf("        var v%d = value.%s;%n", i, property.accessor());
+                    out.printf("        if (v%d != null) {%n            %s%n        }%n", i, keyValue);
+                }
+            }
+            out.printf("        return new %s(count == keyValues.length ? keyValues : java.util.Arrays.copyOf(keyValues, count));%n", DICTIONARY);
+            out.printf("    }%n}%n");
+        } catch (IOException ioEx) {
+            throw new UncheckedIOException("could not generate the yaml-mapper " + qualifiedName, ioEx);
+        }
+    }
+
+    /**
+     * @param type the static type of non-null value
+     * @param expr the expression of the value (a variable)
+     * @param depth the depth of nested lambdas (to generate unique names of their parameters)
+     * @return the expression that converts the value into yaml-node
+     */
+    private String convert(TypeMirror type, String expr, int depth) {
+        switch (type.getKind()) {
+            case BOOLEAN, LONG, DOUBLE:
+                return format("%s.of(%s)", SCALAR, expr);
+            case INT, SHORT, BYTE:
+                return format("%s.of((long) %s)", SCALAR, expr);
+            case FLOAT:
+                return format("%s.of((double) %s)", SCALAR, expr);
+            case CHAR:
+                return format("%s.of(String.valueOf(%s))", SCALAR, expr);
+            case ARRAY:
+                TypeMirror componentType = ((ArrayType) type).getComponentType();
+                return switch (componentType.getKind()) {
+                    case INT, LONG, DOUBLE, BOOLEAN -> format("%s.sequence(%s)", YAML_MAPPERS, expr);
+                    case SHORT, BYTE, FLOAT, CHAR -> format("%s.toYaml(%s)", YAML_MAPPERS, expr);
+                    default -> elementsOf(expr, componentType, depth, "sequence");
+                };
+            case DECLARED:
+                break;
+            case WILDCARD:
+                TypeMirror extendsBound = ((WildcardType) type).getExtendsBound();
+                return extendsBound == null ? format("%s.toYaml(%s)", YAML_MAPPERS, expr) : convert(extendsBound, expr, depth);
+            default:
+                return format("%s.toYaml(%s)", YAML_MAPPERS, expr);
+        }
+        TypeElement element = (TypeElement) ((DeclaredType) type).asElement();
+        switch (element.getQualifiedName().toString()) {
+            case "java.lang.String":
+                return format("%s.of(%s)", SCALAR, expr);
+            case "java.lang.Boolean":
+                return format("%s.of(%s.booleanValue())", SCALAR, expr);
+            case "java.lang.Long", "java.lang.Integer", "java.lang.Short", "java.lang.Byte":
+                return format("%s.of(%s.longValue())", SCALAR, expr);
+            case "java.lang.Double", "java.lang.Float":
+                return format("%s.of(%s.doubleValue())", SCALAR, expr);
+            case "java.lang.Character":
+                return format("%s.of(%s.toString())", SCALAR, expr);
+            default:
+                break;
+        }
+        if (element.getKind() == ElementKind.ENUM) {
+            return format("%s.of(%s.name())", SCALAR, expr);
+        } else if (isAnnotated(element)) {
+            String packageName = processingEnv.getElementUtils().getPackageOf(element).getQualifiedName().toString();
+            return format("%s%s.INSTANCE.toYaml(%s)",
+                packageName.isEmpty() ? "" : packageName + ".", mapperSimpleName(element), expr);
+        }
+        List<? extends TypeMirror> mapArgs = typeArgumentsOf(type, "java.util.Map");
+        if (mapArgs != null) {
+            return elementsOf(expr, mapArgs.size() == 2 ? mapArgs.get(1) : null, depth, "dictionary");
+        }
+        List<? extends TypeMirror> iterableArgs = typeArgumentsOf(type, "java.lang.Iterable");
+        if (iterableArgs != null) {
+            return elementsOf(expr, iterableArgs.size() == 1 ? iterableArgs.get(0) : null, depth, "sequence");
+        }
+        return format("%s.toYaml(%s)", YAML_MAPPERS, expr);
+    }
+
+    private String elementsOf(String expr, TypeMirror elementType, int depth, String method) {
+        if (elementType == null) {
+            return format("%s.%s(%s, %s::toYaml)", YAML_MAPPERS, method, expr, YAML_MAPPERS);
+        }
+        String param = "e" + depth;
+        return format("%s.%s(%s, %s -> %s)", YAML_MAPPERS, method, expr, param, convert(boxed(elementType), param, depth + 1));
+    }
+
+    private TypeMirror boxed(TypeMirror type) {
+        return type.getKind().isPrimitive()
+            ? processingEnv.getTypeUtils().boxedClass((PrimitiveType) type).asType() : type;
+    }
+
+    /**
+     * @param type the declared type
+     * @param supertypeName the qualified name of generic supertype (like {@code java.util.Map})
+     * @return the type-arguments of the supertype (empty for the raw type) or {@code null} if it's not a supertype
+     */
+    private List<? extends TypeMirror> typeArgumentsOf(TypeMirror type, String supertypeName) {
+        if (type instanceof DeclaredType declaredType
+                && ((TypeElement) declaredType.asElement()).getQualifiedName().contentEquals(supertypeName)) {
+            return declaredType.getTypeArguments();
+        }
+        for (TypeMirror supertype : processingEnv.getTypeUtils().directSupertypes(type)) {
+            List<? extends TypeMirror> typeArgs = typeArgumentsOf(supertype, supertypeName);
+            if (typeArgs != null) {
+                return typeArgs;
+            }
+        }
+        return null;
+    }
+
+    private List<Property> recordProperties(TypeElement recordElement) {
+        List<Property> properties = new ArrayList<>();
+        for (RecordComponentElement component : recordElement.getRecordComponents()) {
+            String name = component.getSimpleName().toString();
+            properties.add(new Property(name, component.asType(), name + "()"));
+        }
+        return properties;
+    }
+
+    private List<Property> classProperties(TypeElement classElement, String packageName) {
+        Deque<TypeElement> hierarchy = new ArrayDeque<>();
+        for (TypeElement type = classElement; type != null; type = superclassOf(type)) {
+            hierarchy.push(type);
+        }
+        List<Property> properties = new ArrayList<>();
+        boolean valid = true;
+        for (TypeElement type : hierarchy) {
+            boolean lombokType = hasLombokGetters(type);
+            String typePackage = processingEnv.getElementUtils().getPackageOf(type).getQualifiedName().toString();
+            for (VariableElement field : ElementFilter.fieldsIn(type.getEnclosedElements())) {
+                Set<Modifier> modifiers = field.getModifiers();
+                if (modifiers.contains(Modifier.STATIC) || modifiers.contains(Modifier.TRANSIENT)) {
+                    continue;
+                }
+                String name = field.getSimpleName().toString();
+                boolean accessible = modifiers.contains(Modifier.PUBLIC)
+                    || !modifiers.contains(Modifier.PRIVATE) && typePackage.equals(packageName);
+                String accessor = accessible ? name : getterOf(type, field, lombokType || hasLombokGetters(field));
+                if (accessor == null) {
+                    error(field, format("the field '%s' is not accessible and has no getter", name));
+                    valid = false;
+                } else {
+                    properties.add(new Property(name, field.asType(), accessor));
+                }
+            }
+        }
+        return valid ? properties : null;
+    }
+
+    private TypeElement superclassOf(TypeElement type) {
+        TypeMirror superclass = type.getSuperclass();
+        if (superclass.getKind() != TypeKind.DECLARED) {
+            return null;
+        }
+        TypeElement superElement = (TypeElement) ((DeclaredType) superclass).asElement();
+        return superElement.getQualifiedName().contentEquals("java.lang.Object") ? null : superElement;
+    }
+
+    /**
+     * @return the invocation of getter (like {@code getName()}) or {@code null} if there is no accessible getter
+     */
+    private String getterOf(TypeElement type, VariableElement field, boolean lombokGetter) {
+        String name = field.getSimpleName().toString();
+        String capitalized = Character.toUpperCase(name.charAt(0)) + name.substring(1);
+        String getterName = (field.asType().getKind() == TypeKind.BOOLEAN ? "is" : "get") + capitalized;
+        if (lombokGetter) {
+            return getterName + "()";
+        }
+        for (ExecutableElement method : ElementFilter.methodsIn(type.getEnclosedElements())) {
+            if (method.getSimpleName().contentEquals(getterName) && method.getParameters().isEmpty()
+                    && method.getModifiers().contains(Modifier.PUBLIC) && !method.getModifiers().contains(Modifier.STATIC)) {
+                return getterName + "()";
+            }
+        }
+        return null;
+    }
+
+    private static boolean hasLombokGetters(Element element) {
+        return element.getAnnotationMirrors().stream()
+            .map(mirror -> ((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().toString())
+            .anyMatch(LOMBOK_GETTERS::contains);
+    }
+
+    private static boolean isAnnotated(TypeElement element) {
+        return element.getAnnotationMirrors().stream()
+            .anyMatch(mirror -> ((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().contentEquals(ANNOTATION_NAME));
+    }
+
+    /**
+     * @return the simple names of the class and its enclosing classes joined by {@code '_'} with the suffix
+     */
+    private static String mapperSimpleName(TypeElement typeElement) {
+        StringBuilder simpleNames = new StringBuilder(typeElement.getSimpleName());
+        for (Element enclosing = typeElement.getEnclosingElement();
+             enclosing instanceof TypeElement; enclosing = enclosing.getEnclosingElement()) {
+            simpleNames.insert(0, '_').insert(0, enclosing.getSimpleName());
+        }
+        return simpleNames + MAPPER_SUFFIX;
+    }
+
+    private void error(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+
+    private record Property(String name, TypeMirror type, String accessor) {
+    }
+}
@@ -0,0 +1,222 @@
+package org.krmdemo.yaml.reconcile.batch;
+
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.krmdemo.yaml.reconcile.YamlNode;
+import org.krmdemo.yaml.reconcile.diff.YamlDiff;
+import org.krmdemo.yaml.reconcile.diff.YamlPatchOp;
+import org.krmdemo.yaml.reconcile.impl.SnakeYamlEngineFactory;
+import org.krmdemo.yaml.reconcile.impl.YamlSequence;
+import org.snakeyaml.engine.v2.nodes.Node;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Stream;
+
+import static java.lang.String.format;
+import static org.krmdemo.yaml.reconcile.util.StreamUtils.stream;
+
+/**
+ * Batch reconcile of two directory-trees of yaml-files, which are matched by their relative paths.
+ * <p/>
+ * Reading, parsing and diffing of every pair of files is executed by its own virtual thread, but the number
+ * of files, which are processed at the same time, is bounded by the semaphore (so the memory is bounded too).
+ * Results are streamed in the order of completion as soon as they are ready, while the directories are still
+ * being walked. Files with the same content are reported as unchanged without parsing.
+ * <p/>
+ * All the documents of a multi-document file are compared as a sequence, so the paths of patch-operations
+ * start with the index of document in the file (like {@code [0].spec.replicas}).
+ */
+@Slf4j
+public class BatchReconcile {
+
+    /**
+     * The default maximal number of files, which are processed at the same time
+     */
+    public static final int DEFAULT_PARALLELISM = 256;
+
+    /**
+     * The status of reconciled file
+     */
+    public enum Status {
+        UNCHANGED, CHANGED, ADDED, REMOVED, FAILED
+    }
+
+    /**
+     * The result of reconciliation of a single file.
+     *
+     * @param relativePath the relative path of file (with {@code '/'} as a separator)
+     * @param status the status of file
+     * @param patch the patch to turn the left file into the right one (empty unless status is {@link Status#CHANGED})
+     * @param error the cause of failure (only if status is {@link Status#FAILED})
+     */
+    public record FileResult(String relativePath, Status status, List<YamlPatchOp> patch, Throwable error) {
+        @Override
+        public String toString() {
+            return switch (status) {
+                case CHANGED -> format("%-9s %s (%d changes)", status, relativePath, patch.size());
+                case FAILED -> format("%-9s %s - %s", status, relativePath, error);
+                default -> format("%-9s %s", status, relativePath);
+            };
+        }
+    }
+
+    private static final FileResult END_OF_RESULTS = new FileResult(null, null, List.of(), null);
+
+    private final SnakeYamlEngineFactory factory;
+    private final YamlDiff yamlDiff;
+    private final int parallelism;
+
+    public BatchReconcile() {
+        this(new SnakeYamlEngineFactory(), new YamlDiff(), DEFAULT_PARALLELISM);
+    }
+
+    public BatchReconcile(@NonNull SnakeYamlEngineFactory factory, @NonNull YamlDiff yamlDiff, int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be positive - " + parallelism);
+        }
+        this.factory = factory;
+        this.yamlDiff = yamlDiff;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Starts the reconciliation of two directories in background. The returned stream must be closed
+     * (for example, in try-with-resources), otherwise background threads are not stopped when the stream
+     * is not consumed till the end.
+     *
+     * @param leftDir the source directory
+     * @param rightDir the target directory
+     * @return the stream of results per file in the order of completion
+     */
+    public Stream<FileResult> reconcile(@NonNull Path leftDir, @NonNull Path rightDir) {
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        BlockingQueue<FileResult> results = new LinkedBlockingQueue<>(parallelism * 2);
+        Semaphore permits = new Semaphore(parallelism);
+        executor.execute(() -> walk(leftDir, rightDir, executor, permits, results));
+        Iterator<FileResult> iterator = new Iterator<>() {
+            private FileResult next = null;
+
+            @Override
+            public boolean hasNext() {
+                if (next == null) {
+                    try {
+                        next = results.take();
+                    } catch (InterruptedException intEx) {
+                        Thread.currentThread().interrupt();
+                        throw new IllegalStateException("interrupted while waiting for the results of reconcile", intEx);
+                    }
+                }
+                return next != END_OF_RESULTS;
+            }
+
+            @Override
+            public FileResult next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException("no more results of reconcile");
+                }
+                FileResult result = next;
+                next = null;
+                return result;
+            }
+        };
+        return stream(iterator).onClose(executor::shutdownNow);
+    }
+
+    private void walk(Path leftDir, Path rightDir, ExecutorService executor,
+                      Semaphore permits, BlockingQueue<FileResult> results) {
+        FileResult walkFailure = null;
+        try {
+            try (Stream<Path> leftFiles = Files.walk(leftDir)) {
+                for (Iterator<Path> iter = leftFiles.filter(BatchReconcile::isYamlFile).iterator(); iter.hasNext(); ) {
+                    Path leftFile = iter.next();
+                    Path relative = leftDir.relativize(leftFile);
+                    Path rightFile = rightDir.resolve(relative);
+                    submit(relative, leftFile, Files.isRegularFile(rightFile) ? rightFile : null, executor, permits, results);
+                }
+            }
+            try (Stream<Path> rightFiles = Files.walk(rightDir)) {
+                for (Iterator<Path> iter = rightFiles.filter(BatchReconcile::isYamlFile).iterator(); iter.hasNext(); ) {
+                    Path rightFile = iter.next();
+                    Path relative = rightDir.relativize(rightFile);
+                    if (!Files.isRegularFile(leftDir.resolve(relative))) {
+                        submit(relative, null, rightFile, executor, permits, results);
+                    }
+                }
+            }
+        } catch (IOException | UncheckedIOException ioEx) {
+            log.error("could not walk the directories '{}' and '{}'", leftDir, rightDir, ioEx);
+            walkFailure = new FileResult("", Status.FAILED, List.of(), ioEx);
+        } catch (InterruptedException intEx) {
+            return;  // the stream of results is closed
+        }
+        try {
+            if (walkFailure != null) {
+                results.put(walkFailure);
+            }
+            permits.acquire(parallelism);  // waiting for all the submitted files
+            results.put(END_OF_RESULTS);
+        } catch (InterruptedException intEx) {
+            // the stream of results is closed
+        }
+    }
+
+    private void submit(Path relative, Path leftFile, Path rightFile, ExecutorService executor,
+                        Semaphore permits, BlockingQueue<FileResult> results) throws InterruptedException {
+        permits.acquire();
+        String relativePath = relative.toString().replace(File.separatorChar, '/');
+        executor.execute(() -> {
+            try {
+                results.put(reconcileFile(relativePath, leftFile, rightFile));
+            } catch (InterruptedException intEx) {
+                // the stream of results is closed
+            } finally {
+                permits.release();
+            }
+        });
+    }
+
+    /**
+     * @param relativePath the relative path of file
+     * @param leftFile the source file (or {@code null} if the file is added)
+     * @param rightFile the target file (or {@code null} if the file is removed)
+     * @return the result of reconciliation
+     */
+    FileResult reconcileFile(String relativePath, Path leftFile, Path rightFile) {
+        if (leftFile == null) {
+            return new FileResult(relativePath, Status.ADDED, List.of(), null);
+        } else if (rightFile == null) {
+            return new FileResult(relativePath, Status.REMOVED, List.of(), null);
+        }
+        try {
+            if (Files.size(leftFile) == Files.size(rightFile) && Files.mismatch(leftFile, rightFile) < 0) {
+                return new FileResult(relativePath, Status.UNCHANGED, List.of(), null);
+            }
+            List<YamlPatchOp> patch = yamlDiff.stream(loadDocuments(leftFile), loadDocuments(rightFile)).toList();
+            return new FileResult(relativePath, patch.isEmpty() ? Status.UNCHANGED : Status.CHANGED, patch, null);
+        } catch (IOException | RuntimeException ex) {
+            log.debug("could not reconcile the file '{}'", relativePath, ex);
+            return new FileResult(relativePath, Status.FAILED, List.of(), ex);
+        }
+    }
+
+    private YamlNode<Node> loadDocuments(Path yamlFile) {
+        try (Stream<YamlNode<Node>> documents = factory.fromPath(yamlFile)) {
+            return new YamlSequence(documents);
+        }
+    }
+
+    private static boolean isYamlFile(Path path) {
+        String fileName = path.getFileName().toString();
+        return (fileName.endsWith(".yaml") || fileName.endsWith(".yml")) && Files.isRegularFile(path);
+    }
+}
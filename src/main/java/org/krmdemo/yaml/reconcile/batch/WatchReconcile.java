@@ -0,0 +1,295 @@
+package org.krmdemo.yaml.reconcile.batch;
+
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.krmdemo.yaml.reconcile.YamlNode;
+import org.krmdemo.yaml.reconcile.batch.BatchReconcile.FileResult;
+import org.krmdemo.yaml.reconcile.batch.BatchReconcile.Status;
+import org.krmdemo.yaml.reconcile.diff.YamlDiff;
+import org.krmdemo.yaml.reconcile.diff.YamlPatchOp;
+import org.krmdemo.yaml.reconcile.impl.SnakeYamlEngineFactory;
+import org.krmdemo.yaml.reconcile.impl.YamlSequence;
+import org.snakeyaml.engine.v2.nodes.Node;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Watch-mode of reconcile of two directory-trees of yaml-files, which keeps the parsed trees of all files
+ * (with their cached structural hashes) in memory, and re-parses and re-diffs only the touched files.
+ * <p/>
+ * Events of {@link WatchService} are coalesced: after the first event the watcher waits until there is
+ * no more events during the debounce-period, and then the whole burst of changed paths is passed to
+ * {@link #onChanged(Collection)} at once. A file, whose content is structurally the same after re-parsing
+ * (like saving without changes or reformatting), does not produce any result.
+ */
+@Slf4j
+public class WatchReconcile implements AutoCloseable {
+
+    /**
+     * The default period of silence after the last event to process the burst of events
+     */
+    public static final Duration DEFAULT_DEBOUNCE = Duration.ofMillis(20);
+
+    private final SnakeYamlEngineFactory factory;
+    private final YamlDiff yamlDiff;
+    private final Path leftDir;
+    private final Path rightDir;
+    private final Duration debounce;
+    private final Consumer<FileResult> listener;
+
+    /**
+     * parsed documents of every yaml-file by its absolute path
+     */
+    private final Map<Path, ParsedFile> cache = new ConcurrentHashMap<>();
+
+    private WatchService watchService = null;
+    private Thread watchThread = null;
+
+    /**
+     * @param documents all the documents of the file as a sequence (or {@code null} if the file could not be parsed)
+     * @param error the cause of failure to parse the file
+     */
+    private record ParsedFile(YamlNode<Node> documents, Throwable error) {
+        boolean sameAs(ParsedFile other) {
+            return other != null && documents != null && other.documents != null
+                && documents.structurallyEquals(other.documents);
+        }
+    }
+
+    public WatchReconcile(@NonNull Path leftDir, @NonNull Path rightDir, @NonNull Consumer<FileResult> listener) {
+        this(new SnakeYamlEngineFactory(), new YamlDiff(), leftDir, rightDir, DEFAULT_DEBOUNCE, listener);
+    }
+
+    public WatchReconcile(@NonNull SnakeYamlEngineFactory factory, @NonNull YamlDiff yamlDiff,
+                          @NonNull Path leftDir, @NonNull Path rightDir,
+                          @NonNull Duration debounce, @NonNull Consumer<FileResult> listener) {
+        this.factory = factory;
+        this.yamlDiff = yamlDiff;
+        this.leftDir = leftDir.toAbsolutePath().normalize();
+        this.rightDir = rightDir.toAbsolutePath().normalize();
+        this.debounce = debounce;
+        this.listener = listener;
+    }
+
+    /**
+     * Parses all the yaml-files of both directories (in parallel) and passes the initial results
+     * of reconcile to the listener (for every relative path). Nothing is watched after this method.
+     *
+     * @return this instance
+     */
+    public WatchReconcile load() {
+        cache.clear();
+        Set<String> relativePaths = new TreeSet<>();
+        relativePaths.addAll(relativeYamlFiles(leftDir));
+        relativePaths.addAll(relativeYamlFiles(rightDir));
+        relativePaths.parallelStream().forEach(relativePath -> {
+            parse(leftDir.resolve(relativePath));
+            parse(rightDir.resolve(relativePath));
+        });
+        relativePaths.forEach(relativePath -> listener.accept(reconcile(relativePath)));
+        return this;
+    }
+
+    /**
+     * Registers both directory-trees in {@link WatchService}, loads all the files (see {@link #load()})
+     * and starts the watching thread.
+     *
+     * @return this instance
+     */
+    public synchronized WatchReconcile start() {
+        if (watchThread != null) {
+            throw new IllegalStateException("watch-mode is already started for " + leftDir + " and " + rightDir);
+        }
+        try {
+            watchService = leftDir.getFileSystem().newWatchService();
+            registerTree(leftDir);
+            registerTree(rightDir);
+        } catch (IOException ioEx) {
+            throw new UncheckedIOException("could not watch the directories " + leftDir + " and " + rightDir, ioEx);
+        }
+        load();
+        watchThread = Thread.ofVirtual().name("yaml-watch-reconcile").start(this::watchLoop);
+        return this;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException ioEx) {
+                log.warn("could not close the watch-service", ioEx);
+            }
+        }
+        if (watchThread != null) {
+            watchThread.interrupt();
+        }
+    }
+
+    /**
+     * Re-parses the changed files (or the yaml-files inside the changed directories) and re-runs the reconcile
+     * for their relative paths. Results are passed to the listener, if the content of files is really changed.
+     *
+     * @param changedPaths the burst of changed paths in both directory-trees
+     * @return the results, which are passed to the listener
+     */
+    public List<FileResult> onChanged(@NonNull Collection<Path> changedPaths) {
+        SortedMap<String, Set<Path>> changedFiles = new TreeMap<>();
+        for (Path changedPath : changedPaths) {
+            Path absolutePath = changedPath.toAbsolutePath().normalize();
+            Path baseDir = absolutePath.startsWith(leftDir) ? leftDir : absolutePath.startsWith(rightDir) ? rightDir : null;
+            if (baseDir == null) {
+                continue;
+            }
+            if (isYamlFile(absolutePath) && !Files.isDirectory(absolutePath)) {
+                addChanged(changedFiles, baseDir, absolutePath);
+                continue;
+            }
+            relativeYamlFiles(absolutePath).forEach(relativePath ->
+                addChanged(changedFiles, baseDir, absolutePath.resolve(relativePath)));
+            cache.keySet().stream()  // the files inside the removed (or re-created) directory
+                .filter(cachedPath -> cachedPath.startsWith(absolutePath))
+                .forEach(cachedPath -> addChanged(changedFiles, baseDir, cachedPath));
+        }
+        List<FileResult> results = new ArrayList<>();
+        changedFiles.forEach((relativePath, files) -> {
+            boolean changed = false;
+            for (Path file : files) {
+                ParsedFile previous = cache.get(file);
+                ParsedFile current = parse(file);
+                changed |= current == null ? previous != null : !current.sameAs(previous);
+            }
+            if (changed) {
+                FileResult result = reconcile(relativePath);
+                results.add(result);
+                listener.accept(result);
+            }
+        });
+        return results;
+    }
+
+    private void addChanged(SortedMap<String, Set<Path>> changedFiles, Path baseDir, Path file) {
+        String relativePath = baseDir.relativize(file).toString().replace(File.separatorChar, '/');
+        changedFiles.computeIfAbsent(relativePath, key -> new LinkedHashSet<>()).add(file);
+    }
+
+    private FileResult reconcile(String relativePath) {
+        ParsedFile left = cache.get(leftDir.resolve(relativePath));
+        ParsedFile right = cache.get(rightDir.resolve(relativePath));
+        if (left == null && right == null) {
+            return new FileResult(relativePath, Status.REMOVED, List.of(), null);
+        } else if (left == null) {
+            return new FileResult(relativePath, Status.ADDED, List.of(), null);
+        } else if (right == null) {
+            return new FileResult(relativePath, Status.REMOVED, List.of(), null);
+        } else if (left.error() != null || right.error() != null) {
+            return new FileResult(relativePath, Status.FAILED, List.of(), left.error() != null ? left.error() : right.error());
+        }
+        List<YamlPatchOp> patch = yamlDiff.stream(left.documents(), right.documents()).toList();
+        return new FileResult(relativePath, patch.isEmpty() ? Status.UNCHANGED : Status.CHANGED, patch, null);
+    }
+
+    /**
+     * @param file the absolute path of yaml-file
+     * @return the parsed file, which is put into the cache (or {@code null} if the file does not exist anymore)
+     */
+    private ParsedFile parse(Path file) {
+        if (!Files.isRegularFile(file)) {
+            cache.remove(file);
+            return null;
+        }
+        ParsedFile parsedFile;
+        try (Stream<YamlNode<Node>> documents = factory.fromPath(file)) {
+            YamlNode<Node> documentsSeq = new YamlSequence(documents);
+            documentsSeq.structuralHash();
+            parsedFile = new ParsedFile(documentsSeq, null);
+        } catch (RuntimeException ex) {
+            log.debug("could not parse the file '{}'", file, ex);
+            parsedFile = new ParsedFile(null, ex);
+        }
+        cache.put(file, parsedFile);
+        return parsedFile;
+    }
+
+    private void watchLoop() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                Set<Path> burst = new LinkedHashSet<>();
+                collectEvents(watchService.take(), burst);
+                for (WatchKey key; (key = watchService.poll(debounce.toMillis(), TimeUnit.MILLISECONDS)) != null; ) {
+                    collectEvents(key, burst);
+                }
+                try {
+                    onChanged(burst);
+                } catch (RuntimeException ex) {
+                    log.error("could not reconcile the changed files {}", burst, ex);
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException ex) {
+            log.debug("watch-mode is stopped for '{}' and '{}'", leftDir, rightDir);
+        }
+    }
+
+    private void collectEvents(WatchKey key, Set<Path> burst) {
+        Path dir = (Path) key.watchable();
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                burst.add(leftDir);  // some events are lost, so the whole trees are checked
+                burst.add(rightDir);
+                continue;
+            }
+            Path changedPath = dir.resolve((Path) event.context());
+            if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE && Files.isDirectory(changedPath)) {
+                try {
+                    registerTree(changedPath);
+                } catch (IOException ioEx) {
+                    log.warn("could not watch the new directory '{}'", changedPath, ioEx);
+                }
+            }
+            burst.add(changedPath);
+        }
+        key.reset();
+    }
+
+    private void registerTree(Path rootDir) throws IOException {
+        try (Stream<Path> dirs = Files.walk(rootDir)) {
+            for (Iterator<Path> iter = dirs.filter(Files::isDirectory).iterator(); iter.hasNext(); ) {
+                iter.next().register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_DELETE, StandardWatchEventKinds.ENTRY_MODIFY);
+            }
+        }
+    }
+
+    private static List<String> relativeYamlFiles(Path rootDir) {
+        if (!Files.isDirectory(rootDir)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.walk(rootDir)) {
+            return files.filter(WatchReconcile::isYamlFile).filter(Files::isRegularFile)
+                .map(file -> rootDir.relativize(file).toString().replace(File.separatorChar, '/'))
+                .toList();
+        } catch (IOException ioEx) {
+            throw new UncheckedIOException("could not walk the directory " + rootDir, ioEx);
+        }
+    }
+
+    private static boolean isYamlFile(Path path) {
+        String fileName = path.getFileName().toString();
+        return fileName.endsWith(".yaml") || fileName.endsWith(".yml");
+    }
+}
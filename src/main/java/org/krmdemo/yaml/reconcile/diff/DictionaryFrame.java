@@ -0,0 +1,127 @@
+package org.krmdemo.yaml.reconcile.diff;
+
+import org.krmdemo.yaml.reconcile.YamlNode;
+import org.krmdemo.yaml.reconcile.YamlPath;
+import org.snakeyaml.engine.v2.nodes.Node;
+
+import java.util.*;
+
+/**
+ * Frame of diff-walker, which lazily produces the pairs of changed values of two dictionaries:
+ * <ol>
+ *     <li>changed values by the same keys (in the order of keys of the left dictionary)</li>
+ *     <li>added keys (in the order of keys of the right dictionary), and if the added value is equal
+ *     to some removed non-scalar value - the pair is reported as moved (renamed key)</li>
+ *     <li>removed keys, which are not moved</li>
+ * </ol>
+ * Values with equal structural hashes are skipped without any descending into them,
+ * and only removed values are retained by the frame, so the memory depends only on the size of change.
+ */
+class DictionaryFrame implements Iterator<NodePair> {
+
+    private final YamlPath path;
+    private final YamlNode<Node> left;
+    private final YamlNode<Node> right;
+
+    private int leftIndex = 0;
+    private int rightIndex = 0;
+    private int removedIndex = 0;
+    private List<NodePair> removed = null;
+    private Map<Long, Deque<Integer>> removedByHash = null;
+    private NodePair lookahead = null;
+
+    DictionaryFrame(YamlPath path, YamlNode<Node> left, YamlNode<Node> right) {
+        this.path = path;
+        this.left = left;
+        this.right = right;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (lookahead == null) {
+            lookahead = advance();
+        }
+        return lookahead != null;
+    }
+
+    @Override
+    public NodePair next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException("no more changes in dictionary at '" + path + "'");
+        }
+        NodePair pair = lookahead;
+        lookahead = null;
+        return pair;
+    }
+
+    private NodePair advance() {
+        while (leftIndex < left.childrenCount()) {
+            YamlNode<Node> leftKeyValue = left.childByIndex(leftIndex++);
+            String key = leftKeyValue.getKey();
+            YamlNode<Node> rightKeyValue = right.childByName(key);
+            if (rightKeyValue == null) {
+                removed().add(NodePair.removed(path.key(key), leftKeyValue.getValue()));
+            } else if (!leftKeyValue.getValue().structurallyEquals(rightKeyValue.getValue())) {
+                return NodePair.compare(path.key(key), leftKeyValue.getValue(), rightKeyValue.getValue());
+            }
+        }
+        while (rightIndex < right.childrenCount()) {
+            YamlNode<Node> rightKeyValue = right.childByIndex(rightIndex++);
+            String key = rightKeyValue.getKey();
+            if (left.childByName(key) != null) {
+                continue;
+            }
+            NodePair movedFrom = takeRemoved(rightKeyValue.getValue());
+            return movedFrom == null
+                ? NodePair.added(path.key(key), rightKeyValue.getValue())
+                : NodePair.moved(movedFrom.path(), path.key(key), rightKeyValue.getValue());
+        }
+        while (removed != null && removedIndex < removed.size()) {
+            NodePair pair = removed.get(removedIndex++);
+            if (pair != null) {
+                return pair;
+            }
+        }
+        return null;
+    }
+
+    private List<NodePair> removed() {
+        if (removed == null) {
+            removed = new ArrayList<>();
+        }
+        return removed;
+    }
+
+    /**
+     * @param addedValue the value of added key
+     * @return the removed pair with the same non-scalar value (which is not reported as removed anymore)
+     */
+    private NodePair takeRemoved(YamlNode<Node> addedValue) {
+        if (removed == null || isScalar(addedValue)) {
+            return null;
+        }
+        if (removedByHash == null) {
+            removedByHash = new HashMap<>();
+            for (int i = 0; i < removed.size(); i++) {
+                YamlNode<Node> removedValue = removed.get(i).left();
+                if (!isScalar(removedValue)) {
+                    removedByHash.computeIfAbsent(removedValue.structuralHash(), hash -> new ArrayDeque<>()).add(i);
+                }
+            }
+        }
+        Deque<Integer> candidates = removedByHash.get(addedValue.structuralHash());
+        while (candidates != null && !candidates.isEmpty()) {
+            int index = candidates.poll();
+            NodePair pair = removed.get(index);
+            if (pair.left().structurallyEquals(addedValue)) {
+                removed.set(index, null);
+                return pair;
+            }
+        }
+        return null;
+    }
+
+    private static boolean isScalar(YamlNode<Node> value) {
+        return value.getType() == YamlNode.Type.SCALAR || value.getType() == YamlNode.Type.SCALAR_CSV;
+    }
+}
@@ -0,0 +1,56 @@
+package org.krmdemo.yaml.reconcile.diff;
+
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Diff-walker, which produces the operations of patch one by one (when they are requested by the stream).
+ * <p/>
+ * The walker keeps an explicit stack of frames (one frame per pair of changed containers on the current path),
+ * so the depth of the documents does not depend on the depth of the call-stack, and nothing is collected
+ * into intermediate lists: every frame produces the pairs of changed children lazily.
+ */
+class DiffSpliterator extends Spliterators.AbstractSpliterator<YamlPatchOp> {
+
+    private final YamlDiff yamlDiff;
+
+    private final Deque<Iterator<NodePair>> stack = new ArrayDeque<>();
+
+    DiffSpliterator(YamlDiff yamlDiff, NodePair rootPair) {
+        this(yamlDiff, List.of(rootPair).iterator());
+    }
+
+    DiffSpliterator(YamlDiff yamlDiff, Iterator<NodePair> rootFrame) {
+        super(Long.MAX_VALUE, ORDERED | NONNULL);
+        this.yamlDiff = yamlDiff;
+        this.stack.push(rootFrame);
+    }
+
+    /**
+     * @param target the list to collect all the remaining operations of patch into
+     * @return the passed list
+     */
+    List<YamlPatchOp> collectTo(List<YamlPatchOp> target) {
+        while (tryAdvance(target::add)) {
+            // all the work is done by the spliterator
+        }
+        return target;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super YamlPatchOp> action) {
+        while (!stack.isEmpty()) {
+            Iterator<NodePair> frame = stack.peek();
+            if (!frame.hasNext()) {
+                stack.pop();
+                continue;
+            }
+            YamlPatchOp patchOp = yamlDiff.resolve(frame.next(), stack::push);
+            if (patchOp != null) {
+                action.accept(patchOp);
+                return true;
+            }
+        }
+        return false;
+    }
+}
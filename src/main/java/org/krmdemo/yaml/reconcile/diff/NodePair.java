@@ -0,0 +1,34 @@
+package org.krmdemo.yaml.reconcile.diff;
+
+import org.krmdemo.yaml.reconcile.YamlNode;
+import org.krmdemo.yaml.reconcile.YamlPath;
+import org.snakeyaml.engine.v2.nodes.Node;
+
+/**
+ * A pair of nodes at the same path in the left (source) and the right (target) documents,
+ * which is produced by the frames of diff-walker and then is turned into {@link YamlPatchOp}
+ * or into another frame (if both nodes are containers of the same type).
+ *
+ * @param path the path in the target document (or in the source document for removed nodes)
+ * @param fromPath the path in the source document for the moved nodes (otherwise {@code null})
+ * @param left the node in the source document ({@code null} if it's added)
+ * @param right the node in the target document ({@code null} if it's removed)
+ */
+record NodePair(YamlPath path, YamlPath fromPath, YamlNode<Node> left, YamlNode<Node> right) {
+
+    static NodePair compare(YamlPath path, YamlNode<Node> left, YamlNode<Node> right) {
+        return new NodePair(path, null, left, right);
+    }
+
+    static NodePair added(YamlPath path, YamlNode<Node> right) {
+        return new NodePair(path, null, null, right);
+    }
+
+    static NodePair removed(YamlPath path, YamlNode<Node> left) {
+        return new NodePair(path, null, left, null);
+    }
+
+    static NodePair moved(YamlPath fromPath, YamlPath path, YamlNode<Node> value) {
+        return new NodePair(path, fromPath, value, value);
+    }
+}
@@ -0,0 +1,183 @@
+package org.krmdemo.yaml.reconcile.diff;
+
+import org.krmdemo.yaml.reconcile.YamlNode;
+import org.snakeyaml.engine.v2.nodes.Node;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Fork/join mode of {@link YamlDiff}, which splits the top-level and the second-level children
+ * of huge containers across the tasks of {@link java.util.concurrent.ForkJoinPool}:
+ * <ol>
+ *     <li>structural hashes of children are calculated in parallel (by ranges of children),
+ *     so the comparison of containers by the frame of diff-walker takes only cached hashes</li>
+ *     <li>changed pairs of children are grouped into chunks of approximately the same weight (the number of
+ *     grandchildren), and every chunk is walked sequentially by its own task</li>
+ *     <li>fragments of patch are concatenated in the order of chunks, so the result is exactly the same
+ *     as the result of sequential walk</li>
+ * </ol>
+ * Containers, which are smaller than the threshold, and all the deeper levels are processed sequentially.
+ */
+final class ParallelDiff {
+
+    /**
+     * The number of levels of the document (starting from the root), whose children are split across tasks
+     */
+    static final int MAX_SPLIT_DEPTH = 2;
+
+    private final YamlDiff yamlDiff;
+    private final int threshold;
+
+    ParallelDiff(YamlDiff yamlDiff, int threshold) {
+        this.yamlDiff = yamlDiff;
+        this.threshold = threshold;
+    }
+
+    ForkJoinTask<List<YamlPatchOp>> task(NodePair rootPair) {
+        return new PairTask(rootPair, 0);
+    }
+
+    /**
+     * @return {@code true} if the node is a dictionary or a sequence (only their children are split across tasks)
+     */
+    private static boolean isContainer(YamlNode<Node> yamlNode) {
+        return yamlNode != null
+            && (yamlNode.getType() == YamlNode.Type.DICTIONARY || yamlNode.getType() == YamlNode.Type.SEQUENCE);
+    }
+
+    private static int weightOf(YamlNode<Node> yamlNode) {
+        if (yamlNode == null) {
+            return 1;
+        }
+        return switch (yamlNode.getType()) {
+            case DICTIONARY, SEQUENCE -> Math.max(1, yamlNode.childrenCount());
+            default -> 1;
+        };
+    }
+
+    private static int weightOf(NodePair pair) {
+        return Math.max(weightOf(pair.left()), weightOf(pair.right()));
+    }
+
+    /**
+     * The task to resolve a single pair of nodes, whose children are split across sub-tasks
+     */
+    private class PairTask extends RecursiveTask<List<YamlPatchOp>> {
+
+        private final NodePair pair;
+        private final int depth;
+
+        PairTask(NodePair pair, int depth) {
+            this.pair = pair;
+            this.depth = depth;
+        }
+
+        @Override
+        protected List<YamlPatchOp> compute() {
+            boolean split = depth < MAX_SPLIT_DEPTH && (isContainer(pair.left()) || isContainer(pair.right()))
+                && weightOf(pair) >= threshold;
+            if (split && pair.left() != null && pair.right() != null) {
+                invokeAll(new HashTask(pair.left(), depth), new HashTask(pair.right(), depth));
+            }
+            List<Iterator<NodePair>> frameHolder = new ArrayList<>(1);
+            YamlPatchOp patchOp = yamlDiff.resolve(pair, frameHolder::add);
+            if (patchOp != null) {
+                return List.of(patchOp);
+            } else if (frameHolder.isEmpty()) {
+                return List.of();
+            } else if (!split) {
+                return new DiffSpliterator(yamlDiff, frameHolder.get(0)).collectTo(new ArrayList<>());
+            }
+            List<ForkJoinTask<List<YamlPatchOp>>> subTasks = new ArrayList<>();
+            List<NodePair> chunk = new ArrayList<>();
+            int chunkWeight = 0;
+            for (Iterator<NodePair> frame = frameHolder.get(0); frame.hasNext(); ) {
+                NodePair childPair = frame.next();
+                int childWeight = weightOf(childPair);
+                if (childWeight >= threshold) {
+                    if (!chunk.isEmpty()) {
+                        subTasks.add(new ChunkTask(chunk));
+                        chunk = new ArrayList<>();
+                        chunkWeight = 0;
+                    }
+                    subTasks.add(new PairTask(childPair, depth + 1));
+                    continue;
+                }
+                chunk.add(childPair);
+                chunkWeight += childWeight;
+                if (chunkWeight >= threshold) {
+                    subTasks.add(new ChunkTask(chunk));
+                    chunk = new ArrayList<>();
+                    chunkWeight = 0;
+                }
+            }
+            if (!chunk.isEmpty()) {
+                subTasks.add(new ChunkTask(chunk));
+            }
+            List<YamlPatchOp> result = new ArrayList<>();
+            for (ForkJoinTask<List<YamlPatchOp>> subTask : invokeAll(subTasks)) {
+                result.addAll(subTask.join());
+            }
+            return result;
+        }
+    }
+
+    /**
+     * The task to walk sequentially the chunk of pairs of nodes
+     */
+    private class ChunkTask extends RecursiveTask<List<YamlPatchOp>> {
+
+        private final List<NodePair> chunk;
+
+        ChunkTask(List<NodePair> chunk) {
+            this.chunk = chunk;
+        }
+
+        @Override
+        protected List<YamlPatchOp> compute() {
+            return new DiffSpliterator(yamlDiff, chunk.iterator()).collectTo(new ArrayList<>());
+        }
+    }
+
+    /**
+     * The task to calculate (and to cache) the structural hashes of the range of children of the container
+     */
+    private class HashTask extends RecursiveAction {
+
+        private final YamlNode<Node> container;
+        private final int depth;
+        private final int from;
+        private final int to;
+
+        HashTask(YamlNode<Node> container, int depth) {
+            this(container, depth, 0, isContainer(container) && weightOf(container) >= threshold ? container.childrenCount() : 0);
+        }
+
+        private HashTask(YamlNode<Node> container, int depth, int from, int to) {
+            this.container = container;
+            this.depth = depth;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > threshold) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new HashTask(container, depth, from, middle), new HashTask(container, depth, middle, to));
+                return;
+            }
+            for (int index = from; index < to; index++) {
+                YamlNode<Node> child = container.childByIndex(index);
+                YamlNode<Node> value = child.getType() == YamlNode.Type.KEY_VALUE ? child.getValue() : child;
+                if (depth + 1 < MAX_SPLIT_DEPTH && isContainer(value) && weightOf(value) >= threshold) {
+                    new HashTask(value, depth + 1).invoke();
+                }
+                child.structuralHash();
+            }
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package org.krmdemo.yaml.reconcile.diff;
+
+import org.krmdemo.yaml.reconcile.YamlNode;
+import org.snakeyaml.engine.v2.nodes.Node;
+
+import java.util.*;
+
+/**
+ * The alignment of elements of two sequences, which is the input of {@link SequenceFrame}.
+ * <p/>
+ * Every element of the right sequence is either matched to some element of the left sequence or added.
+ * Matched pairs are either "kept" (they are in the same relative order in both sequences) or "moved".
+ * Elements of the left sequence, which are not matched, are removed.
+ * <p/>
+ * There are two ways to match the elements:
+ * <ul>
+ *     <li>by the merge-key (like {@code name} of containers) - with a hash-join of the values of merge-key,
+ *     and then kept pairs are selected as the longest increasing subsequence of matched ones</li>
+ *     <li>by structural hashes (when there is no merge-key) - with a patience-like LCS, where the elements,
+ *     which are unique in both ranges, are used as anchors to split the ranges recursively; such matching
+ *     does not produce moved pairs, but removed and added elements between anchors are paired by positions</li>
+ * </ul>
+ * Both ways take O(n log n) time and O(n) memory, so the insertion or reordering of a single element
+ * in a huge sequence produces a couple of pairs rather than a change of every element after it.
+ */
+final class SequenceAlignment {
+
+    /**
+     * the index of matched left element for every right element (or {@code -1} if the right element is added)
+     */
+    final int[] rightToLeft;
+
+    /**
+     * the index of matched right element for every left element (or {@code -1} if the left element is removed)
+     */
+    final int[] leftToRight;
+
+    /**
+     * {@code true} for every right element, which is matched and kept in the same relative order
+     */
+    final boolean[] kept;
+
+    private SequenceAlignment(int leftCount, int rightCount) {
+        this.rightToLeft = new int[rightCount];
+        this.leftToRight = new int[leftCount];
+        this.kept = new boolean[rightCount];
+        Arrays.fill(rightToLeft, -1);
+        Arrays.fill(leftToRight, -1);
+    }
+
+    private void match(int leftIndex, int rightIndex) {
+        leftToRight[leftIndex] = rightIndex;
+        rightToLeft[rightIndex] = leftIndex;
+    }
+
+    /**
+     * @param left the left sequence
+     * @param right the right sequence
+     * @param mergeKey the key of dictionary to match the elements by
+     * @return the alignment of elements by the values of merge-key
+     */
+    static SequenceAlignment byMergeKey(YamlNode<Node> left, YamlNode<Node> right, String mergeKey) {
+        int leftCount = left.childrenCount();
+        int rightCount = right.childrenCount();
+        SequenceAlignment alignment = new SequenceAlignment(leftCount, rightCount);
+        Map<String, Integer> leftByKey = new HashMap<>(leftCount * 2);
+        for (int i = 0; i < leftCount; i++) {
+            String keyValue = mergeKeyValue(left.childByIndex(i), mergeKey);
+            if (keyValue != null) {
+                leftByKey.putIfAbsent(keyValue, i);
+            }
+        }
+        int[] matchedRight = new int[rightCount];
+        int[] matchedLeft = new int[rightCount];
+        int matchedCount = 0;
+        for (int j = 0; j < rightCount; j++) {
+            String keyValue = mergeKeyValue(right.childByIndex(j), mergeKey);
+            Integer leftIndex = keyValue == null ? null : leftByKey.remove(keyValue);
+            if (leftIndex != null) {
+                alignment.match(leftIndex, j);
+                matchedRight[matchedCount] = j;
+                matchedLeft[matchedCount++] = leftIndex;
+            }
+        }
+        for (int pos : longestIncreasing(matchedLeft, matchedCount)) {
+            alignment.kept[matchedRight[pos]] = true;
+        }
+        return alignment;
+    }
+
+    /**
+     * @param left the left sequence
+     * @param right the right sequence
+     * @return the alignment of elements by their structural hashes
+     */
+    static SequenceAlignment byHash(YamlNode<Node> left, YamlNode<Node> right) {
+        long[] leftHashes = hashes(left);
+        long[] rightHashes = hashes(right);
+        SequenceAlignment alignment = new SequenceAlignment(leftHashes.length, rightHashes.length);
+        Deque<int[]> ranges = new ArrayDeque<>();
+        ranges.push(new int[] { 0, leftHashes.length, 0, rightHashes.length });
+        while (!ranges.isEmpty()) {
+            alignment.alignRange(ranges.pop(), leftHashes, rightHashes, ranges);
+        }
+        alignment.pairGaps();
+        return alignment;
+    }
+
+    /**
+     * Matches the common prefix and suffix of the range, and then splits the rest of the range
+     * by anchors - the elements, which are unique in both parts of the range.
+     */
+    private void alignRange(int[] range, long[] leftHashes, long[] rightHashes, Deque<int[]> ranges) {
+        int leftFrom = range[0], leftTo = range[1], rightFrom = range[2], rightTo = range[3];
+        while (leftFrom < leftTo && rightFrom < rightTo && leftHashes[leftFrom] == rightHashes[rightFrom]) {
+            match(leftFrom++, rightFrom++);
+        }
+        while (leftFrom < leftTo && rightFrom < rightTo && leftHashes[leftTo - 1] == rightHashes[rightTo - 1]) {
+            match(--leftTo, --rightTo);
+        }
+        if (leftFrom == leftTo || rightFrom == rightTo) {
+            return;
+        }
+        // { count in left, index in left, count in right, index in right }
+        Map<Long, int[]> occurrences = new HashMap<>();
+        for (int i = leftFrom; i < leftTo; i++) {
+            int[] occurrence = occurrences.computeIfAbsent(leftHashes[i], hash -> new int[4]);
+            occurrence[0]++;
+            occurrence[1] = i;
+        }
+        for (int j = rightFrom; j < rightTo; j++) {
+            int[] occurrence = occurrences.get(rightHashes[j]);
+            if (occurrence != null) {
+                occurrence[2]++;
+                occurrence[3] = j;
+            }
+        }
+        int[] candidateLeft = new int[rightTo - rightFrom];
+        int[] candidateRight = new int[rightTo - rightFrom];
+        int candidateCount = 0;
+        for (int j = rightFrom; j < rightTo; j++) {
+            int[] occurrence = occurrences.get(rightHashes[j]);
+            if (occurrence != null && occurrence[0] == 1 && occurrence[2] == 1) {
+                candidateLeft[candidateCount] = occurrence[1];
+                candidateRight[candidateCount++] = j;
+            }
+        }
+        int prevLeft = leftFrom - 1;
+        int prevRight = rightFrom - 1;
+        for (int pos : longestIncreasing(candidateLeft, candidateCount)) {
+            int anchorLeft = candidateLeft[pos];
+            int anchorRight = candidateRight[pos];
+            match(anchorLeft, anchorRight);
+            ranges.push(new int[] { prevLeft + 1, anchorLeft, prevRight + 1, anchorRight });
+            prevLeft = anchorLeft;
+            prevRight = anchorRight;
+        }
+        if (prevLeft >= leftFrom) {
+            ranges.push(new int[] { prevLeft + 1, leftTo, prevRight + 1, rightTo });
+        }
+    }
+
+    /**
+     * All matches by hashes are kept, and the removed and added elements between two
+     * consecutive matches are paired by positions (to be compared rather than removed and added).
+     */
+    private void pairGaps() {
+        int leftIndex = 0;
+        for (int j = 0; j < rightToLeft.length; j++) {
+            int matchedLeft = rightToLeft[j];
+            if (matchedLeft >= 0) {
+                kept[j] = true;
+                leftIndex = matchedLeft + 1;
+            } else if (leftIndex < leftToRight.length && leftToRight[leftIndex] < 0) {
+                match(leftIndex++, j);
+                kept[j] = true;
+            }
+        }
+    }
+
+    private static long[] hashes(YamlNode<Node> sequence) {
+        long[] hashes = new long[sequence.childrenCount()];
+        for (int i = 0; i < hashes.length; i++) {
+            hashes[i] = sequence.childByIndex(i).structuralHash();
+        }
+        return hashes;
+    }
+
+    /**
+     * @param element an element of sequence
+     * @param mergeKey the merge-key
+     * @return the scalar value of merge-key, or {@code null} if the element is not a dictionary with such key
+     */
+    static String mergeKeyValue(YamlNode<Node> element, String mergeKey) {
+        if (element.getType() != YamlNode.Type.DICTIONARY) {
+            return null;
+        }
+        YamlNode<Node> keyValue = element.childByName(mergeKey);
+        if (keyValue == null || keyValue.getValue().getType() != YamlNode.Type.SCALAR) {
+            return null;
+        }
+        return keyValue.getValue().asString();
+    }
+
+    /**
+     * Patience sorting to find the longest increasing subsequence in O(n log n).
+     *
+     * @param values the array of distinct values
+     * @param count the number of values in the array to take into account
+     * @return ascending positions of the longest increasing subsequence
+     */
+    static int[] longestIncreasing(int[] values, int count) {
+        int[] tails = new int[count];
+        int[] prev = new int[count];
+        int length = 0;
+        for (int pos = 0; pos < count; pos++) {
+            int low = 0, high = length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (values[tails[mid]] < values[pos]) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            prev[pos] = low > 0 ? tails[low - 1] : -1;
+            tails[low] = pos;
+            length = Math.max(length, low + 1);
+        }
+        int[] result = new int[length];
+        for (int i = length - 1, pos = length > 0 ? tails[length - 1] : -1; i >= 0; i--, pos = prev[pos]) {
+            result[i] = pos;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,196 @@
+package org.krmdemo.yaml.reconcile.diff;
+
+import org.krmdemo.yaml.reconcile.YamlNode;
+import org.krmdemo.yaml.reconcile.YamlPath;
+import org.snakeyaml.engine.v2.nodes.Node;
+
+import java.util.*;
+
+/**
+ * Frame of diff-walker, which lazily produces the pairs of changed elements of two sequences
+ * according to their {@link SequenceAlignment}, in the order of elements of the right sequence.
+ * <p/>
+ * The indexes in the paths of produced pairs correspond to the intermediate state of the sequence
+ * (like in JSON-patch), so the patch could be applied operation by operation: removed elements
+ * are reported just before the next kept element (and at the tail - in descending order),
+ * moved elements - as moves from their current position to the position of the right element.
+ * <p/>
+ * The current position of every element is calculated in O(log n) by a Fenwick-tree over the ordered
+ * "slots" of elements: every element of the left sequence, which is not kept, occupies a slot after the
+ * nearest preceding kept element, and every right element, which is not kept, is placed into the slot
+ * after the previous right element, so the relative order of all possible slots is known in advance.
+ */
+class SequenceFrame implements Iterator<NodePair> {
+
+    private final YamlPath path;
+    private final YamlNode<Node> left;
+    private final YamlNode<Node> right;
+    private final SequenceAlignment alignment;
+
+    private final long width;
+    private final int[] keptBeforeLeft;
+    private final int[] keptBeforeRight;
+    private final long[] slots;
+    private final int[] fenwick;
+
+    private int rightIndex = 0;
+    private int leftIndex = 0;
+    private int removedIndex;
+    private final Deque<NodePair> pending = new ArrayDeque<>();
+
+    SequenceFrame(YamlPath path, YamlNode<Node> left, YamlNode<Node> right, SequenceAlignment alignment) {
+        this.path = path;
+        this.left = left;
+        this.right = right;
+        this.alignment = alignment;
+        int leftCount = alignment.leftToRight.length;
+        int rightCount = alignment.rightToLeft.length;
+        this.width = Math.max(leftCount, rightCount) + 1L;
+        this.removedIndex = leftCount - 1;
+
+        // the right index of the nearest kept element before every left and every right element
+        this.keptBeforeLeft = new int[leftCount];
+        this.keptBeforeRight = new int[rightCount];
+        int lastKept = -1;
+        for (int j = 0; j < rightCount; j++) {
+            keptBeforeRight[j] = lastKept;
+            if (alignment.kept[j]) {
+                lastKept = j;
+            }
+        }
+        lastKept = -1;
+        for (int i = 0; i < leftCount; i++) {
+            keptBeforeLeft[i] = lastKept;
+            int j = alignment.leftToRight[i];
+            if (j >= 0 && alignment.kept[j]) {
+                lastKept = j;
+            }
+        }
+
+        long[] allSlots = new long[leftCount + rightCount];
+        int slotsCount = 0;
+        for (int j = 0; j < rightCount; j++) {
+            allSlots[slotsCount++] = alignment.kept[j] ? keptSlot(j) : placedSlot(j);
+        }
+        for (int i = 0; i < leftCount; i++) {
+            if (!isKeptLeft(i)) {
+                allSlots[slotsCount++] = pendingSlot(i);
+            }
+        }
+        this.slots = Arrays.copyOf(allSlots, slotsCount);
+        Arrays.sort(this.slots);
+        this.fenwick = new int[slotsCount + 1];
+        for (int j = 0; j < rightCount; j++) {
+            if (alignment.kept[j]) {
+                occupy(keptSlot(j), 1);
+            }
+        }
+        for (int i = 0; i < leftCount; i++) {
+            if (!isKeptLeft(i)) {
+                occupy(pendingSlot(i), 1);
+            }
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (pending.isEmpty() && advance()) {
+            // the next step of alignment is processed
+        }
+        return !pending.isEmpty();
+    }
+
+    @Override
+    public NodePair next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException("no more changes in sequence at '" + path + "'");
+        }
+        return pending.poll();
+    }
+
+    private boolean advance() {
+        if (rightIndex < alignment.rightToLeft.length) {
+            int j = rightIndex++;
+            int i = alignment.rightToLeft[j];
+            YamlNode<Node> rightElement = right.childByIndex(j);
+            if (i >= 0 && alignment.kept[j]) {
+                for (; leftIndex < i; leftIndex++) {
+                    if (alignment.leftToRight[leftIndex] < 0) {
+                        removeAt(leftIndex);
+                    }
+                }
+                leftIndex = i + 1;
+                YamlNode<Node> leftElement = left.childByIndex(i);
+                if (!leftElement.structurallyEquals(rightElement)) {
+                    pending.add(NodePair.compare(path.index(position(keptSlot(j))), leftElement, rightElement));
+                }
+            } else if (i >= 0) {
+                YamlNode<Node> leftElement = left.childByIndex(i);
+                YamlPath fromPath = path.index(position(pendingSlot(i)));
+                occupy(pendingSlot(i), -1);
+                occupy(placedSlot(j), 1);
+                YamlPath toPath = path.index(position(placedSlot(j)));
+                pending.add(NodePair.moved(fromPath, toPath, leftElement));
+                if (!leftElement.structurallyEquals(rightElement)) {
+                    pending.add(NodePair.compare(toPath, leftElement, rightElement));
+                }
+            } else {
+                occupy(placedSlot(j), 1);
+                pending.add(NodePair.added(path.index(position(placedSlot(j))), rightElement));
+            }
+            return true;
+        }
+        while (removedIndex >= leftIndex) {
+            int i = removedIndex--;
+            if (alignment.leftToRight[i] < 0) {
+                removeAt(i);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void removeAt(int i) {
+        pending.add(NodePair.removed(path.index(position(pendingSlot(i))), left.childByIndex(i)));
+        occupy(pendingSlot(i), -1);
+    }
+
+    private boolean isKeptLeft(int i) {
+        int j = alignment.leftToRight[i];
+        return j >= 0 && alignment.kept[j];
+    }
+
+    // ----------- the slots of elements are ordered by (the kept element before, the kind of slot, index)
+
+    private long keptSlot(int j) {
+        return slot(j, 0, 0);
+    }
+
+    private long placedSlot(int j) {
+        return slot(keptBeforeRight[j], 1, j);
+    }
+
+    private long pendingSlot(int i) {
+        return slot(keptBeforeLeft[i], 2, i);
+    }
+
+    private long slot(int keptBefore, int kind, int index) {
+        return ((keptBefore + 1L) * 3 + kind) * width + index;
+    }
+
+    // ----------- Fenwick-tree over the sorted slots to count the occupied slots before the given one
+
+    private void occupy(long slot, int delta) {
+        for (int pos = Arrays.binarySearch(slots, slot) + 1; pos < fenwick.length; pos += pos & -pos) {
+            fenwick[pos] += delta;
+        }
+    }
+
+    private int position(long slot) {
+        int count = 0;
+        for (int pos = Arrays.binarySearch(slots, slot); pos > 0; pos -= pos & -pos) {
+            count += fenwick[pos];
+        }
+        return count;
+    }
+}
@@ -0,0 +1,254 @@
+package org.krmdemo.yaml.reconcile.diff;
+
+import lombok.NonNull;
+import org.krmdemo.yaml.reconcile.YamlNode;
+import org.krmdemo.yaml.reconcile.YamlPath;
+import org.krmdemo.yaml.reconcile.impl.YamlCsvScalar;
+import org.snakeyaml.engine.v2.nodes.Node;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * The engine to calculate the patch between two yaml-documents (the source or left one and the target or right one).
+ * <p/>
+ * The operations of patch are produced lazily in the order of the document. Subtrees with the same
+ * structural hash are skipped entirely, so the time of calculation is proportional to the size of change
+ * (multiplied by the number of children of changed containers) rather than to the size of documents.
+ * <p/>
+ * Elements of sequences are matched by the merge-key (like {@code name} of containers or env-variables),
+ * which could be configured per path via {@link #builder()}, or by their structural hashes otherwise
+ * (see {@link SequenceAlignment} for details).
+ * <p/>
+ * Comma-separated scalars (see {@link YamlCsvScalar}) are compared element-wise like sequences, and plain
+ * scalars could be treated as comma-separated ones per path (see {@link Builder#csvPath(String)}).
+ */
+public class YamlDiff {
+
+    /**
+     * The default minimal number of children of container to split them across the tasks of fork/join pool
+     */
+    public static final int DEFAULT_PARALLEL_THRESHOLD = 4096;
+
+    private final Map<String, String> mergeKeys;
+    private final List<String> defaultMergeKeys;
+    private final int parallelThreshold;
+    private final Set<String> csvPaths;
+
+    /**
+     * Creates the diff-engine, which matches elements of all sequences by their structural hashes
+     */
+    public YamlDiff() {
+        this(Map.of(), List.of(), DEFAULT_PARALLEL_THRESHOLD, Set.of());
+    }
+
+    private YamlDiff(Map<String, String> mergeKeys, List<String> defaultMergeKeys,
+                     int parallelThreshold, Set<String> csvPaths) {
+        this.mergeKeys = mergeKeys;
+        this.defaultMergeKeys = defaultMergeKeys;
+        this.parallelThreshold = parallelThreshold;
+        this.csvPaths = csvPaths;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * A builder to create an instance of immutable object {@link YamlDiff}
+     */
+    public static class Builder {
+        private final Map<String, String> mergeKeys = new HashMap<>();
+        private final List<String> defaultMergeKeys = new ArrayList<>();
+        private int parallelThreshold = DEFAULT_PARALLEL_THRESHOLD;
+        private final Set<String> csvPaths = new HashSet<>();
+
+        protected Builder() {
+            // force to use "YamlDiff.builder()" to instantiate this builder
+        }
+
+        /**
+         * @param pathPattern the path of sequence, where all indexes are replaced with the wildcard
+         *                    (see {@link YamlPath#toPattern()}) - like {@code spec.template.spec.containers}
+         * @param mergeKey the key of dictionary to match the elements of sequence by (like {@code name})
+         * @return this builder
+         */
+        public Builder mergeKey(@NonNull String pathPattern, @NonNull String mergeKey) {
+            this.mergeKeys.put(pathPattern, mergeKey);
+            return this;
+        }
+
+        /**
+         * @param mergeKeys the keys to match the elements of sequences, which have no merge-key configured
+         *                  by path (the first key, which is present in all elements of both sequences, is used)
+         * @return this builder
+         */
+        public Builder defaultMergeKeys(@NonNull String... mergeKeys) {
+            this.defaultMergeKeys.addAll(Arrays.asList(mergeKeys));
+            return this;
+        }
+
+        /**
+         * @param parallelThreshold the minimal number of children of container to split them across the tasks
+         *                          of fork/join pool (see {@link #parallel(YamlNode, YamlNode, ForkJoinPool)})
+         * @return this builder
+         */
+        public Builder parallelThreshold(int parallelThreshold) {
+            if (parallelThreshold < 1) {
+                throw new IllegalArgumentException("parallel threshold must be positive - " + parallelThreshold);
+            }
+            this.parallelThreshold = parallelThreshold;
+            return this;
+        }
+
+        /**
+         * @param pathPattern the path of scalar, where all indexes are replaced with the wildcard
+         *                    (see {@link YamlPath#toPattern()}), whose value is a comma-separated list
+         *                    (like {@code spec.loadBalancerSourceRanges}), so it is compared element-wise
+         * @return this builder
+         */
+        public Builder csvPath(@NonNull String pathPattern) {
+            this.csvPaths.add(pathPattern);
+            return this;
+        }
+
+        public YamlDiff build() {
+            return new YamlDiff(Map.copyOf(mergeKeys), List.copyOf(defaultMergeKeys),
+                parallelThreshold, Set.copyOf(csvPaths));
+        }
+    }
+
+    /**
+     * @param left the source document (or any node inside it)
+     * @param right the target document (or any node inside it)
+     * @return lazy ordered stream of patch-operations to turn the left node into the right one
+     */
+    public Stream<YamlPatchOp> stream(@NonNull YamlNode<Node> left, @NonNull YamlNode<Node> right) {
+        NodePair rootPair = NodePair.compare(YamlPath.root(), left, right);
+        return StreamSupport.stream(new DiffSpliterator(this, rootPair), false);
+    }
+
+    /**
+     * The same as {@link #stream(YamlNode, YamlNode)}, but patch-operations are passed to the callback.
+     *
+     * @param left the source document (or any node inside it)
+     * @param right the target document (or any node inside it)
+     * @param consumer the callback to accept patch-operations one by one
+     */
+    public void diff(@NonNull YamlNode<Node> left, @NonNull YamlNode<Node> right,
+                     @NonNull Consumer<? super YamlPatchOp> consumer) {
+        DiffSpliterator spliterator = new DiffSpliterator(this, NodePair.compare(YamlPath.root(), left, right));
+        while (spliterator.tryAdvance(consumer)) {
+            // all the work is done by the spliterator
+        }
+    }
+
+    /**
+     * The same as {@link #parallel(YamlNode, YamlNode, ForkJoinPool)} in the common fork/join pool.
+     */
+    public List<YamlPatchOp> parallel(@NonNull YamlNode<Node> left, @NonNull YamlNode<Node> right) {
+        return parallel(left, right, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Calculates the patch, splitting the children of the top-level and the second-level containers
+     * (which have at least {@link Builder#parallelThreshold(int)} children) across the tasks of fork/join pool.
+     *
+     * @param left the source document (or any node inside it)
+     * @param right the target document (or any node inside it)
+     * @param pool the fork/join pool to execute the tasks
+     * @return the list of patch-operations in the same order as {@link #stream(YamlNode, YamlNode)} produces them
+     */
+    public List<YamlPatchOp> parallel(@NonNull YamlNode<Node> left, @NonNull YamlNode<Node> right,
+                                      @NonNull ForkJoinPool pool) {
+        NodePair rootPair = NodePair.compare(YamlPath.root(), left, right);
+        return pool.invoke(new ParallelDiff(this, parallelThreshold).task(rootPair));
+    }
+
+    /**
+     * Turns the pair of nodes into the patch-operation or into the frame of pairs of their children.
+     *
+     * @param pair a pair of nodes at the same path
+     * @param descend a callback to accept the frame of children (if both nodes are containers of the same type)
+     * @return a patch-operation, or {@code null} if nodes are equal or the frame of children is passed to callback
+     */
+    YamlPatchOp resolve(NodePair pair, Consumer<Iterator<NodePair>> descend) {
+        if (pair.left() == null) {
+            return YamlPatchOp.add(pair.path(), pair.right());
+        } else if (pair.right() == null) {
+            return YamlPatchOp.remove(pair.path(), pair.left());
+        } else if (pair.fromPath() != null) {
+            return YamlPatchOp.move(pair.fromPath(), pair.path(), pair.right());
+        } else if (pair.left().structurallyEquals(pair.right())) {
+            return null;
+        }
+        Iterator<NodePair> frame = frameOf(pair);
+        if (frame == null) {
+            return YamlPatchOp.replace(pair.path(), pair.left(), pair.right());
+        }
+        descend.accept(frame);
+        return null;
+    }
+
+    /**
+     * @param pair a pair of different nodes at the same path
+     * @return the frame of pairs of children, or {@code null} if nodes are not containers of the same type
+     */
+    Iterator<NodePair> frameOf(NodePair pair) {
+        YamlNode.Type leftType = pair.left().getType();
+        if (leftType != pair.right().getType()) {
+            return null;
+        }
+        return switch (leftType) {
+            case DICTIONARY -> new DictionaryFrame(pair.path(), pair.left(), pair.right());
+            case SEQUENCE -> new SequenceFrame(pair.path(), pair.left(), pair.right(), alignmentOf(pair));
+            case SCALAR_CSV -> csvFrame(pair.path(), YamlCsvScalar.of(pair.left()), YamlCsvScalar.of(pair.right()));
+            case SCALAR -> csvPaths.isEmpty() || !csvPaths.contains(pair.path().toPattern()) ? null
+                : csvFrame(pair.path(), YamlCsvScalar.of(pair.left()), YamlCsvScalar.of(pair.right()));
+            default -> null;
+        };
+    }
+
+    private static Iterator<NodePair> csvFrame(YamlPath path, YamlNode<Node> left, YamlNode<Node> right) {
+        return new SequenceFrame(path, left, right, SequenceAlignment.byHash(left, right));
+    }
+
+    /**
+     * @param pair a pair of different sequences at the same path
+     * @return the alignment of elements of sequences by the merge-key (if any) or by their structural hashes
+     */
+    SequenceAlignment alignmentOf(NodePair pair) {
+        String mergeKey = mergeKeyOf(pair.path(), List.of(pair.left(), pair.right()));
+        return mergeKey == null
+            ? SequenceAlignment.byHash(pair.left(), pair.right())
+            : SequenceAlignment.byMergeKey(pair.left(), pair.right(), mergeKey);
+    }
+
+    /**
+     * @param path the path of sequences
+     * @param sequences the sequences at the same path (like the left and the right ones)
+     * @return the merge-key configured by the path, or the first default merge-key, which is present
+     *         in all elements of all sequences (or {@code null} if there is no such merge-key)
+     */
+    String mergeKeyOf(YamlPath path, List<YamlNode<Node>> sequences) {
+        String mergeKey = mergeKeys.isEmpty() ? null : mergeKeys.get(path.toPattern());
+        if (mergeKey != null) {
+            return mergeKey;
+        }
+        return defaultMergeKeys.stream()
+            .filter(key -> sequences.stream().allMatch(sequence -> allHaveMergeKey(sequence, key)))
+            .findFirst().orElse(null);
+    }
+
+    private static boolean allHaveMergeKey(YamlNode<Node> sequence, String mergeKey) {
+        for (int i = 0; i < sequence.childrenCount(); i++) {
+            if (SequenceAlignment.mergeKeyValue(sequence.childByIndex(i), mergeKey) == null) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,240 @@
+package org.krmdemo.yaml.reconcile.diff;
+
+import lombok.NonNull;
+import org.krmdemo.yaml.reconcile.YamlNode;
+import org.krmdemo.yaml.reconcile.YamlPath;
+import org.krmdemo.yaml.reconcile.impl.YamlComments;
+import org.krmdemo.yaml.reconcile.impl.YamlDictionary;
+import org.krmdemo.yaml.reconcile.impl.YamlKeyValue;
+import org.krmdemo.yaml.reconcile.impl.YamlSequence;
+import org.snakeyaml.engine.v2.nodes.Node;
+
+import java.util.*;
+
+import static java.lang.String.format;
+import static java.util.Collections.unmodifiableList;
+
+/**
+ * Three-way merge of yaml-documents: the common base (like last-applied configuration)
+ * and two its descendants - "ours" (like desired state) and "theirs" (like live state).
+ * <p/>
+ * Non-overlapping changes of both descendants are merged automatically, and overlapping changes
+ * are reported as conflicts (the value of "ours" is retained in the merged document in such case).
+ * Any subtree, which is not changed in one of descendants, is resolved by a single comparison
+ * of structural hashes, and unchanged subtrees of "ours" are re-used in the merged document as is.
+ * <p/>
+ * Elements of sequences are matched by the merge-key of {@link YamlDiff} (see {@link YamlDiff.Builder#mergeKey}),
+ * so the elements of both descendants are merged one by one, and the elements, which are added or removed
+ * only by one of descendants, are added or removed in the merged sequence (the elements, which are added
+ * by "theirs", follow the elements of "ours"). Sequences without the merge-key are merged element-wise only
+ * if all of them have the same length, otherwise the whole sequence is a conflict.
+ */
+public class YamlMerge {
+
+    private final YamlDiff yamlDiff;
+
+    /**
+     * Creates the merge-engine, where the elements of sequences are matched by their positions only
+     */
+    public YamlMerge() {
+        this(new YamlDiff());
+    }
+
+    /**
+     * @param yamlDiff the diff-engine, whose merge-keys are used to match the elements of sequences
+     */
+    public YamlMerge(@NonNull YamlDiff yamlDiff) {
+        this.yamlDiff = yamlDiff;
+    }
+
+    /**
+     * The result of three-way merge.
+     *
+     * @param merged the merged document ({@code null} if the whole document is removed)
+     * @param conflicts the list of conflicts in the order of the document
+     */
+    public record Result(YamlNode<Node> merged, List<Conflict> conflicts) {
+        public boolean hasConflicts() {
+            return !conflicts.isEmpty();
+        }
+    }
+
+    /**
+     * The conflict of three-way merge (absent nodes are represented by {@code null}).
+     *
+     * @param path the path of conflicting node
+     * @param base the node in the base document
+     * @param ours the node in "our" document
+     * @param theirs the node in "their" document
+     */
+    public record Conflict(YamlPath path, YamlNode<Node> base, YamlNode<Node> ours, YamlNode<Node> theirs) {
+        @Override
+        public String toString() {
+            return format("CONFLICT '%s' : %s <-- %s --> %s", path, brief(ours), brief(base), brief(theirs));
+        }
+    }
+
+    /**
+     * @param base the common base of both documents (could be {@code null} if there is no common base)
+     * @param ours "our" descendant of the base document
+     * @param theirs "their" descendant of the base document
+     * @return the merged document and the list of conflicts
+     */
+    public Result merge(YamlNode<Node> base, @NonNull YamlNode<Node> ours, @NonNull YamlNode<Node> theirs) {
+        List<Conflict> conflicts = new ArrayList<>();
+        YamlNode<Node> merged = mergeNode(YamlPath.root(), base, ours, theirs, conflicts);
+        return new Result(merged, unmodifiableList(conflicts));
+    }
+
+    private YamlNode<Node> mergeNode(YamlPath path, YamlNode<Node> base, YamlNode<Node> ours, YamlNode<Node> theirs,
+                                     List<Conflict> conflicts) {
+        if (same(ours, theirs) || same(base, theirs)) {
+            return ours;
+        } else if (same(base, ours)) {
+            return theirs;
+        } else if (ours != null && theirs != null && ours.getType() == theirs.getType()) {
+            YamlNode<Node> sameTypeBase = base != null && base.getType() == ours.getType() ? base : null;
+            if (ours.getType() == YamlNode.Type.DICTIONARY) {
+                return mergeDictionary(path, sameTypeBase, ours, theirs, conflicts);
+            }
+            YamlNode<Node> keyedMerge = ours.getType() == YamlNode.Type.SEQUENCE
+                ? mergeKeyedSequence(path, sameTypeBase, ours, theirs, conflicts) : null;
+            if (keyedMerge != null) {
+                return keyedMerge;
+            } else if (ours.getType() == YamlNode.Type.SEQUENCE && sameTypeBase != null
+                    && ours.childrenCount() == theirs.childrenCount()
+                    && ours.childrenCount() == sameTypeBase.childrenCount()) {
+                return mergeSequence(path, sameTypeBase, ours, theirs, conflicts);
+            }
+        }
+        conflicts.add(new Conflict(path, base, ours, theirs));
+        return ours;
+    }
+
+    private YamlNode<Node> mergeDictionary(YamlPath path, YamlNode<Node> base, YamlNode<Node> ours, YamlNode<Node> theirs,
+                                           List<Conflict> conflicts) {
+        List<YamlKeyValue> mergedKeyValues = new ArrayList<>(ours.childrenCount());
+        boolean changed = false;
+        for (int i = 0; i < ours.childrenCount(); i++) {
+            YamlNode<Node> oursKeyValue = ours.childByIndex(i);
+            String key = oursKeyValue.getKey();
+            YamlNode<Node> oursValue = oursKeyValue.getValue();
+            YamlNode<Node> mergedValue = mergeNode(path.key(key),
+                valueByKey(base, key), oursValue, valueByKey(theirs, key), conflicts);
+            if (mergedValue != oursValue) {
+                changed = true;
+            }
+            if (mergedValue != null) {
+                mergedKeyValues.add(mergedValue == oursValue ? YamlKeyValue.of(oursKeyValue)
+                    : YamlComments.copy(oursKeyValue, YamlKeyValue.ofDocumentKey(key, mergedValue)));
+            }
+        }
+        for (int i = 0; i < theirs.childrenCount(); i++) {
+            YamlNode<Node> theirsKeyValue = theirs.childByIndex(i);
+            String key = theirsKeyValue.getKey();
+            if (ours.childByName(key) != null) {
+                continue;
+            }
+            YamlNode<Node> mergedValue = mergeNode(path.key(key),
+                valueByKey(base, key), null, theirsKeyValue.getValue(), conflicts);
+            if (mergedValue != null) {
+                changed = true;
+                mergedKeyValues.add(mergedValue == theirsKeyValue.getValue() ? YamlKeyValue.of(theirsKeyValue)
+                    : YamlComments.copy(theirsKeyValue, YamlKeyValue.ofDocumentKey(key, mergedValue)));
+            }
+        }
+        return changed ? YamlComments.copy(ours, new YamlDictionary(mergedKeyValues.stream())) : ours;
+    }
+
+    private YamlNode<Node> mergeSequence(YamlPath path, YamlNode<Node> base, YamlNode<Node> ours, YamlNode<Node> theirs,
+                                         List<Conflict> conflicts) {
+        List<YamlNode<Node>> mergedElements = new ArrayList<>(ours.childrenCount());
+        boolean changed = false;
+        for (int i = 0; i < ours.childrenCount(); i++) {
+            YamlNode<Node> oursElement = ours.childByIndex(i);
+            YamlNode<Node> mergedElement = mergeNode(path.index(i),
+                base.childByIndex(i), oursElement, theirs.childByIndex(i), conflicts);
+            changed |= mergedElement != oursElement;
+            mergedElements.add(mergedElement);
+        }
+        return changed ? YamlComments.copy(ours, new YamlSequence(mergedElements.stream())) : ours;
+    }
+
+    /**
+     * @return the merged sequence, or {@code null} if elements could not be matched by merge-key
+     */
+    private YamlNode<Node> mergeKeyedSequence(YamlPath path, YamlNode<Node> base, YamlNode<Node> ours, YamlNode<Node> theirs,
+                                              List<Conflict> conflicts) {
+        List<YamlNode<Node>> sequences = base == null ? List.of(ours, theirs) : List.of(base, ours, theirs);
+        String mergeKey = yamlDiff.mergeKeyOf(path, sequences);
+        if (mergeKey == null) {
+            return null;
+        }
+        Map<String, YamlNode<Node>> baseElements = base == null ? Map.of() : elementsByKey(base, mergeKey);
+        Map<String, YamlNode<Node>> oursElements = elementsByKey(ours, mergeKey);
+        Map<String, YamlNode<Node>> theirsElements = elementsByKey(theirs, mergeKey);
+        if (baseElements == null || oursElements == null || theirsElements == null) {
+            return null;
+        }
+        List<YamlNode<Node>> mergedElements = new ArrayList<>(ours.childrenCount());
+        boolean changed = false;
+        for (Map.Entry<String, YamlNode<Node>> entry : oursElements.entrySet()) {
+            YamlNode<Node> oursElement = entry.getValue();
+            YamlNode<Node> mergedElement = mergeNode(path.index(mergedElements.size()),
+                baseElements.get(entry.getKey()), oursElement, theirsElements.get(entry.getKey()), conflicts);
+            changed |= mergedElement != oursElement;
+            if (mergedElement != null) {
+                mergedElements.add(mergedElement);
+            }
+        }
+        for (Map.Entry<String, YamlNode<Node>> entry : theirsElements.entrySet()) {
+            if (oursElements.containsKey(entry.getKey())) {
+                continue;
+            }
+            YamlNode<Node> mergedElement = mergeNode(path.index(mergedElements.size()),
+                baseElements.get(entry.getKey()), null, entry.getValue(), conflicts);
+            if (mergedElement != null) {
+                changed = true;
+                mergedElements.add(mergedElement);
+            }
+        }
+        return changed ? YamlComments.copy(ours, new YamlSequence(mergedElements.stream())) : ours;
+    }
+
+    /**
+     * @return the elements of sequence by the values of merge-key (or {@code null} if the values are not unique)
+     */
+    private static Map<String, YamlNode<Node>> elementsByKey(YamlNode<Node> sequence, String mergeKey) {
+        Map<String, YamlNode<Node>> elements = new LinkedHashMap<>();
+        for (int i = 0; i < sequence.childrenCount(); i++) {
+            YamlNode<Node> element = sequence.childByIndex(i);
+            String keyValue = SequenceAlignment.mergeKeyValue(element, mergeKey);
+            if (keyValue == null || elements.putIfAbsent(keyValue, element) != null) {
+                return null;
+            }
+        }
+        return elements;
+    }
+
+    private static YamlNode<Node> valueByKey(YamlNode<Node> dictionary, String key) {
+        if (dictionary == null || dictionary.getType() != YamlNode.Type.DICTIONARY) {
+            return null;
+        }
+        YamlNode<Node> keyValue = dictionary.childByName(key);
+        return keyValue == null ? null : keyValue.getValue();
+    }
+
+    private static boolean same(YamlNode<Node> first, YamlNode<Node> second) {
+        return first == null ? second == null : first.structurallyEquals(second);
+    }
+
+    private static String brief(YamlNode<Node> yamlNode) {
+        if (yamlNode == null) {
+            return "<absent>";
+        }
+        return switch (yamlNode.getType()) {
+            case SCALAR, SCALAR_CSV -> "'" + yamlNode.asString() + "'";
+            default -> format("%s(%d)", yamlNode.getType(), yamlNode.childrenCount());
+        };
+    }
+}
@@ -0,0 +1,458 @@
+package org.krmdemo.yaml.reconcile.diff;
+
+import lombok.NonNull;
+import org.krmdemo.yaml.reconcile.YamlNode;
+import org.krmdemo.yaml.reconcile.YamlPath;
+import org.krmdemo.yaml.reconcile.impl.YamlComments;
+import org.krmdemo.yaml.reconcile.impl.YamlCsvScalar;
+import org.krmdemo.yaml.reconcile.impl.YamlDictionary;
+import org.krmdemo.yaml.reconcile.impl.YamlKeyValue;
+import org.krmdemo.yaml.reconcile.impl.YamlSequence;
+import org.snakeyaml.engine.v2.nodes.Node;
+import org.snakeyaml.engine.v2.nodes.Tag;
+
+import java.util.*;
+
+import static java.lang.String.format;
+
+/**
+ * The engine to apply patches to yaml-documents: the list of {@link YamlPatchOp} (like the result of {@link YamlDiff}),
+ * JSON-patch (RFC 6902) and JSON merge-patch (RFC 7386). The original document is never modified.
+ * <p/>
+ * Operations of the patch are applied one-by-one (with the sequential semantics of JSON-patch) to the tree
+ * of opened containers, which is shared by all operations of the patch: every container along the paths
+ * of operations is opened (copied into a mutable map or list) only once, and the cursor of the last opened
+ * path allows to continue the next operation from the common prefix of paths without walking it again.
+ * When all the operations are applied, only the opened containers are rebuilt in a single bottom-up pass,
+ * and all other subtrees (as well as the unchanged key-values of opened dictionaries) are re-used as is.
+ * <p/>
+ * Comma-separated scalars (see {@link YamlCsvScalar}) are patched element-wise like sequences, and plain
+ * scalars are treated as comma-separated ones only by the paths, which are passed to {@link #YamlPatch(String...)}
+ * (like the paths of {@link YamlDiff.Builder#csvPath(String)}). Other scalars are not containers.
+ */
+public class YamlPatch {
+
+    /**
+     * The segment of JSON-pointer, which refers to the position after the last element of sequence
+     */
+    private static final String APPEND = "-";
+
+    private final Set<String> csvPaths;
+
+    public YamlPatch() {
+        this.csvPaths = Set.of();
+    }
+
+    /**
+     * @param csvPathPatterns the patterns of paths (see {@link YamlPath#toPattern()}), whose plain scalars
+     *                        are patched as comma-separated ones
+     */
+    public YamlPatch(@NonNull String... csvPathPatterns) {
+        this.csvPaths = Set.of(csvPathPatterns);
+    }
+
+    /**
+     * @param document the yaml-document to apply the patch to
+     * @param patch the operations of patch (with the sequential indexes of elements in sequences)
+     * @return the patched document
+     * @throws IllegalArgumentException if some operation of patch could not be applied
+     */
+    public YamlNode<Node> apply(@NonNull YamlNode<Node> document, @NonNull List<YamlPatchOp> patch) {
+        Patching patching = new Patching(document, csvPaths);
+        for (int num = 0; num < patch.size(); num++) {
+            YamlPatchOp patchOp = patch.get(num);
+            try {
+                switch (patchOp.kind()) {
+                    case ADD -> patching.add(patchOp.path(), patchOp.newValue());
+                    case REMOVE -> patching.remove(patchOp.path());
+                    case REPLACE -> patching.replace(patchOp.path(), patchOp.newValue());
+                    case MOVE -> patching.move(patchOp.fromPath(), patchOp.path());
+                }
+            } catch (IllegalArgumentException | IndexOutOfBoundsException ex) {
+                throw new IllegalArgumentException(format("could not apply the operation #%d (%s) - %s",
+                    num, patchOp, ex.getMessage()), ex);
+            }
+        }
+        return patching.result();
+    }
+
+    /**
+     * @param document the yaml-document to apply the patch to
+     * @param jsonPatch the sequence of JSON-patch operations (RFC 6902) like
+     *                  {@code [ { op: replace, path: /spec/replicas, value: 3 } ]}
+     * @return the patched document
+     * @throws IllegalArgumentException if the JSON-patch is invalid or some operation could not be applied
+     */
+    public YamlNode<Node> applyJsonPatch(@NonNull YamlNode<Node> document, @NonNull YamlNode<Node> jsonPatch) {
+        if (jsonPatch.getType() != YamlNode.Type.SEQUENCE) {
+            throw new IllegalArgumentException("JSON-patch must be a sequence of operations, but it is " + jsonPatch.getType());
+        }
+        Patching patching = new Patching(document, csvPaths);
+        for (int num = 0; num < jsonPatch.childrenCount(); num++) {
+            YamlNode<Node> operation = jsonPatch.childByIndex(num);
+            try {
+                if (operation.getType() != YamlNode.Type.DICTIONARY) {
+                    throw new IllegalArgumentException("operation must be a dictionary, but it is " + operation.getType());
+                }
+                String op = member(operation, "op").asString();
+                YamlPath path = YamlPath.parseJsonPointer(member(operation, "path").asString());
+                switch (op) {
+                    case "add" -> patching.add(path, member(operation, "value"));
+                    case "remove" -> patching.remove(path);
+                    case "replace" -> patching.replace(path, member(operation, "value"));
+                    case "move" -> patching.move(YamlPath.parseJsonPointer(member(operation, "from").asString()), path);
+                    case "copy" -> patching.copy(YamlPath.parseJsonPointer(member(operation, "from").asString()), path);
+                    case "test" -> patching.test(path, member(operation, "value"));
+                    default -> throw new IllegalArgumentException("unknown operation '" + op + "'");
+                }
+            } catch (IllegalArgumentException | IndexOutOfBoundsException ex) {
+                throw new IllegalArgumentException(format("could not apply the operation #%d of JSON-patch - %s",
+                    num, ex.getMessage()), ex);
+            }
+        }
+        return patching.result();
+    }
+
+    /**
+     * Applies JSON merge-patch (RFC 7386): values of patch-dictionaries are merged recursively into the values
+     * of the document by the same keys, {@code null}-values remove the keys, and all other values replace
+     * the values of the document. Every dictionary of the document is rebuilt at most once.
+     *
+     * @param document the yaml-document to apply the patch to (could be {@code null})
+     * @param mergePatch the merge-patch
+     * @return the patched document
+     */
+    public YamlNode<Node> applyMergePatch(YamlNode<Node> document, @NonNull YamlNode<Node> mergePatch) {
+        if (mergePatch.getType() != YamlNode.Type.DICTIONARY) {
+            return mergePatch;
+        }
+        boolean targetIsDictionary = document != null && document.getType() == YamlNode.Type.DICTIONARY;
+        Map<String, YamlNode<Node>> keyValues = new LinkedHashMap<>();
+        if (targetIsDictionary) {
+            document.getChildren().forEach(keyValue -> keyValues.put(keyValue.getKey(), keyValue));
+        }
+        boolean changed = !targetIsDictionary;
+        for (int i = 0; i < mergePatch.childrenCount(); i++) {
+            YamlNode<Node> patchKeyValue = mergePatch.childByIndex(i);
+            String key = patchKeyValue.getKey();
+            YamlNode<Node> patchValue = patchKeyValue.getValue();
+            if (isNull(patchValue)) {
+                changed |= keyValues.remove(key) != null;
+                continue;
+            }
+            YamlNode<Node> keyValue = keyValues.get(key);
+            YamlNode<Node> value = keyValue == null ? null : keyValue.getValue();
+            YamlNode<Node> mergedValue = applyMergePatch(value, patchValue);
+            if (mergedValue != value) {
+                keyValues.put(key, YamlComments.copy(keyValue, YamlKeyValue.ofDocumentKey(key, mergedValue)));
+                changed = true;
+            }
+        }
+        return changed ? YamlComments.copy(document,
+            new YamlDictionary(keyValues.values().stream().map(YamlKeyValue::of))) : document;
+    }
+
+    private static YamlNode<Node> member(YamlNode<Node> operation, String name) {
+        YamlNode<Node> keyValue = operation.childByName(name);
+        if (keyValue == null) {
+            throw new IllegalArgumentException("the member '" + name + "' is missing");
+        }
+        return keyValue.getValue();
+    }
+
+    private static boolean isNull(YamlNode<Node> value) {
+        return value.getType() == YamlNode.Type.SCALAR && Tag.NULL.equals(value.asOrigin().getTag());
+    }
+
+    /**
+     * The state of applying one patch: the root of the document (the opened container or the original node)
+     * and the cursor, which is the stack of opened containers along the parent path of the last operation.
+     */
+    private static final class Patching {
+
+        private Object root;
+
+        private final Set<String> csvPaths;
+
+        private final List<YamlPath> cursorPath = new ArrayList<>();
+
+        private final List<Container> cursor = new ArrayList<>();
+
+        Patching(YamlNode<Node> document, Set<String> csvPaths) {
+            this.root = document;
+            this.csvPaths = csvPaths;
+        }
+
+        void add(YamlPath path, YamlNode<Node> value) {
+            if (path.isRoot()) {
+                replaceRoot(value);
+            } else {
+                openParent(path).put(path, value, true);
+            }
+        }
+
+        void remove(YamlPath path) {
+            if (path.isRoot()) {
+                throw new IllegalArgumentException("the root of document could not be removed");
+            }
+            openParent(path).remove(path);
+        }
+
+        void replace(YamlPath path, YamlNode<Node> value) {
+            if (path.isRoot()) {
+                replaceRoot(value);
+            } else {
+                openParent(path).put(path, value, false);
+            }
+        }
+
+        void move(YamlPath fromPath, YamlPath path) {
+            if (!fromPath.equals(path) && path.startsWith(fromPath)) {
+                throw new IllegalArgumentException(format("'%s' could not be moved into its own child", fromPath));
+            }
+            YamlNode<Node> value = get(fromPath);
+            remove(fromPath);
+            add(path, value);
+        }
+
+        void copy(YamlPath fromPath, YamlPath path) {
+            add(path, get(fromPath));
+        }
+
+        void test(YamlPath path, YamlNode<Node> value) {
+            if (!get(path).structurallyEquals(value)) {
+                throw new IllegalArgumentException(format("the value by path '%s' is not the same as expected", path));
+            }
+        }
+
+        YamlNode<Node> result() {
+            return build(root);
+        }
+
+        private void replaceRoot(YamlNode<Node> value) {
+            root = value;
+            cursorPath.clear();
+            cursor.clear();
+        }
+
+        /**
+         * @param path the path, which is not necessary opened (the opened containers are not changed)
+         * @return the current value by the path
+         */
+        private YamlNode<Node> get(YamlPath path) {
+            Object node = root;
+            for (YamlPath segment : path.segments()) {
+                node = node instanceof Container container ? container.get(segment) : childOf(asNode(node), segment);
+                if (node == null) {
+                    throw new IllegalArgumentException(format("there is no value by path '%s'", path));
+                }
+            }
+            return build(node);
+        }
+
+        /**
+         * Opens the containers along the parent path, starting from the common prefix with the cursor.
+         */
+        private Container openParent(YamlPath path) {
+            List<YamlPath> parentPath = path.getParent().segments();
+            int common = 0;
+            while (common < cursorPath.size() && common < parentPath.size()
+                    && sameSegment(cursorPath.get(common), parentPath.get(common))) {
+                common++;
+            }
+            cursorPath.subList(common, cursorPath.size()).clear();
+            if (cursor.isEmpty()) {
+                if (!(root instanceof Container)) {
+                    root = Container.open(asNode(root), YamlPath.root(), csvPaths);
+                }
+                cursor.add((Container) root);
+            }
+            cursor.subList(common + 1, cursor.size()).clear();
+            Container container = cursor.get(common);
+            for (int depth = common; depth < parentPath.size(); depth++) {
+                YamlPath segment = parentPath.get(depth);
+                Object child = container.get(segment);
+                if (child == null) {
+                    throw new IllegalArgumentException(format("there is no container by path '%s'", segment));
+                }
+                if (!(child instanceof Container)) {
+                    child = Container.open(asNode(child), segment, csvPaths);
+                    container.put(segment, child, false);
+                }
+                container = (Container) child;
+                cursorPath.add(segment);
+                cursor.add(container);
+            }
+            return container;
+        }
+
+        private static boolean sameSegment(YamlPath first, YamlPath second) {
+            return first.getIndex() == second.getIndex() && Objects.equals(first.getKey(), second.getKey());
+        }
+
+        private static YamlNode<Node> childOf(YamlNode<Node> node, YamlPath segment) {
+            if (node.getType() == YamlNode.Type.DICTIONARY) {
+                YamlNode<Node> keyValue = node.childByName(keyOf(segment));
+                return keyValue == null ? null : keyValue.getValue();
+            }
+            int index = segment.asIndex();
+            if (node.getType() == YamlNode.Type.SEQUENCE && index >= 0 && index < node.childrenCount()) {
+                return node.childByIndex(index);
+            }
+            return null;
+        }
+
+        private static YamlNode<Node> build(Object node) {
+            return node instanceof Container container ? container.build() : asNode(node);
+        }
+    }
+
+    /**
+     * @param node the child of opened container, which is not an opened container itself
+     * @return the same child as a yaml-node
+     */
+    @SuppressWarnings("unchecked")
+    private static YamlNode<Node> asNode(Object node) {
+        return (YamlNode<Node>) node;
+    }
+
+    private static boolean isKeyValue(Object node) {
+        return node instanceof YamlNode<?> yamlNode && yamlNode.getType() == YamlNode.Type.KEY_VALUE;
+    }
+
+    private static String keyOf(YamlPath segment) {
+        return segment.isKey() ? segment.getKey() : String.valueOf(segment.getIndex());
+    }
+
+    /**
+     * The opened (mutable) copy of the container of the document, whose children are either original
+     * yaml-nodes or nested opened containers (original key-values of dictionary are kept as is).
+     * Scalars are opened as sequences of their comma-separated elements (see {@link YamlCsvScalar}).
+     */
+    private static final class Container {
+
+        /**
+         * the original node, whose comments (and the comments of its key-values) are copied into the built one
+         */
+        private final YamlNode<Node> original;
+
+        private final Map<String, Object> dictionary;
+
+        private final List<Object> sequence;
+
+        /**
+         * the original comma-separated scalar, whose elements are opened as a sequence (if any)
+         */
+        private final YamlCsvScalar csvScalar;
+
+        private final boolean plainScalar;
+
+        private Container(YamlNode<Node> original, Map<String, Object> dictionary, List<Object> sequence) {
+            this(original, dictionary, sequence, null, false);
+        }
+
+        private Container(YamlNode<Node> original, Map<String, Object> dictionary, List<Object> sequence,
+                          YamlCsvScalar csvScalar, boolean plainScalar) {
+            this.original = original;
+            this.dictionary = dictionary;
+            this.sequence = sequence;
+            this.csvScalar = csvScalar;
+            this.plainScalar = plainScalar;
+        }
+
+        /**
+         * @param node the node to open
+         * @param segment the path of the node
+         * @param csvPaths the patterns of paths, whose plain scalars are opened as comma-separated ones
+         */
+        static Container open(YamlNode<Node> node, YamlPath segment, Set<String> csvPaths) {
+            if (node.getType() == YamlNode.Type.DICTIONARY) {
+                Map<String, Object> dictionary = new LinkedHashMap<>();
+                node.getChildren().forEach(keyValue -> dictionary.put(keyValue.getKey(), keyValue));
+                return new Container(node, dictionary, null);
+            } else if (node.getType() == YamlNode.Type.SEQUENCE) {
+                return new Container(node, null, new ArrayList<>(node.getChildren().toList()));
+            } else if (node.getType() == YamlNode.Type.SCALAR_CSV
+                    || node.getType() == YamlNode.Type.SCALAR && csvPaths.contains(segment.toPattern())) {
+                YamlCsvScalar csvScalar = YamlCsvScalar.of(node);
+                return new Container(node, null, new ArrayList<>(csvScalar.getChildren().toList()),
+                    csvScalar, node.getType() == YamlNode.Type.SCALAR);
+            }
+            throw new IllegalArgumentException(format("the node by path '%s' is not a container - %s", segment, node.getType()));
+        }
+
+        /**
+         * @return the child (an original yaml-node or an opened container) or {@code null} if there is no such child
+         */
+        Object get(YamlPath segment) {
+            if (dictionary != null) {
+                Object child = dictionary.get(keyOf(segment));
+                return isKeyValue(child) ? asNode(child).getValue() : child;
+            }
+            int index = segment.asIndex();
+            return index >= 0 && index < sequence.size() ? sequence.get(index) : null;
+        }
+
+        /**
+         * @param segment the last segment of path
+         * @param child the new child (a yaml-node or an opened container)
+         * @param insert {@code true} to insert the element into sequence (and to add a new key into dictionary)
+         */
+        void put(YamlPath segment, Object child, boolean insert) {
+            if (csvScalar != null && child instanceof YamlNode<?> element
+                    && element.getType() != YamlNode.Type.SCALAR && element.getType() != YamlNode.Type.SCALAR_CSV) {
+                throw new IllegalArgumentException(format(
+                    "the element of comma-separated scalar by path '%s' is not a scalar - %s", segment, element.getType()));
+            }
+            if (dictionary != null) {
+                String key = keyOf(segment);
+                if (!insert && !dictionary.containsKey(key)) {
+                    throw new IllegalArgumentException(format("there is no key '%s' to replace", key));
+                }
+                dictionary.put(key, child);
+            } else if (insert && APPEND.equals(segment.getKey())) {
+                sequence.add(child);
+            } else {
+                int index = segment.asIndex();
+                if (index < 0) {
+                    throw new IllegalArgumentException(format("'%s' is not an index of sequence", segment));
+                } else if (insert) {
+                    sequence.add(Objects.checkIndex(index, sequence.size() + 1), child);
+                } else {
+                    sequence.set(index, child);
+                }
+            }
+        }
+
+        void remove(YamlPath segment) {
+            if (dictionary != null) {
+                if (dictionary.remove(keyOf(segment)) == null) {
+                    throw new IllegalArgumentException(format("there is no key '%s' to remove", keyOf(segment)));
+                }
+                return;
+            }
+            int index = segment.asIndex();
+            if (index < 0) {
+                throw new IllegalArgumentException(format("'%s' is not an index of sequence", segment));
+            }
+            sequence.remove(index);
+        }
+
+        YamlNode<Node> build() {
+            if (dictionary != null) {
+                return YamlComments.copy(original, new YamlDictionary(dictionary.entrySet().stream().map(entry -> {
+                    if (isKeyValue(entry.getValue())) {
+                        return YamlKeyValue.of(asNode(entry.getValue()));
+                    }
+                    return YamlComments.copy(original.childByName(entry.getKey()),
+                        YamlKeyValue.ofDocumentKey(entry.getKey(), Patching.build(entry.getValue())));
+                })));
+            }
+            if (csvScalar != null) {
+                YamlCsvScalar result = csvScalar.withElements(sequence.stream().map(element -> Patching.build(element).asString()));
+                return YamlComments.copy(original, plainScalar ? result.asScalar() : result);
+            }
+            return YamlComments.copy(original, new YamlSequence(sequence.stream().map(Patching::build)));
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package org.krmdemo.yaml.reconcile.diff;
+
+import lombok.NonNull;
+import org.krmdemo.yaml.reconcile.YamlNode;
+import org.krmdemo.yaml.reconcile.YamlPath;
+import org.snakeyaml.engine.v2.nodes.Node;
+
+import static java.lang.String.format;
+
+/**
+ * A single operation of the patch between two yaml-documents.
+ *
+ * @param kind the kind of operation
+ * @param path the path of the changed node (in the target document for all kinds except {@link Kind#REMOVE})
+ * @param fromPath the original path of the moved node (only for {@link Kind#MOVE})
+ * @param oldValue the value in the source document (for {@link Kind#REMOVE} and {@link Kind#REPLACE})
+ * @param newValue the value in the target document (for {@link Kind#ADD}, {@link Kind#REPLACE} and {@link Kind#MOVE})
+ */
+public record YamlPatchOp(@NonNull Kind kind, @NonNull YamlPath path, YamlPath fromPath,
+                          YamlNode<Node> oldValue, YamlNode<Node> newValue) {
+
+    public enum Kind {
+        ADD,
+
+        REMOVE,
+
+        REPLACE,
+
+        MOVE
+    }
+
+    public static YamlPatchOp add(YamlPath path, YamlNode<Node> newValue) {
+        return new YamlPatchOp(Kind.ADD, path, null, null, newValue);
+    }
+
+    public static YamlPatchOp remove(YamlPath path, YamlNode<Node> oldValue) {
+        return new YamlPatchOp(Kind.REMOVE, path, null, oldValue, null);
+    }
+
+    public static YamlPatchOp replace(YamlPath path, YamlNode<Node> oldValue, YamlNode<Node> newValue) {
+        return new YamlPatchOp(Kind.REPLACE, path, null, oldValue, newValue);
+    }
+
+    public static YamlPatchOp move(YamlPath fromPath, YamlPath path, YamlNode<Node> value) {
+        return new YamlPatchOp(Kind.MOVE, path, fromPath, value, value);
+    }
+
+    @Override
+    public String toString() {
+        return switch (kind) {
+            case ADD -> format("%s '%s' : %s", kind, path, brief(newValue));
+            case REMOVE -> format("%s '%s' : %s", kind, path, brief(oldValue));
+            case REPLACE -> format("%s '%s' : %s --> %s", kind, path, brief(oldValue), brief(newValue));
+            case MOVE -> format("%s '%s' --> '%s'", kind, fromPath, path);
+        };
+    }
+
+    private static String brief(YamlNode<Node> yamlNode) {
+        return switch (yamlNode.getType()) {
+            case SCALAR, SCALAR_CSV -> "'" + yamlNode.asString() + "'";
+            default -> format("%s(%d)", yamlNode.getType(), yamlNode.childrenCount());
+        };
+    }
+}
@@ -1,30 +1,141 @@
 package org.krmdemo.yaml.reconcile.impl;
 
+import lombok.NonNull;
 import org.krmdemo.yaml.reconcile.YamlFactory;
 import org.krmdemo.yaml.reconcile.YamlNode;
+import org.snakeyaml.engine.v2.api.LoadSettings;
+import org.snakeyaml.engine.v2.api.lowlevel.Parse;
+import org.snakeyaml.engine.v2.common.ScalarStyle;
 import org.snakeyaml.engine.v2.nodes.Node;
+import org.snakeyaml.engine.v2.nodes.ScalarNode;
+import org.snakeyaml.engine.v2.nodes.Tag;
 
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.stream.Stream;
+
+import static java.lang.String.format;
+import static org.krmdemo.yaml.reconcile.util.StreamUtils.stream;
 
 public class SnakeYamlEngineFactory implements YamlFactory<Node> {
 
+    private final LoadSettings loadSettings;
+
+    private final YamlKeyPool keyPool;
+
+    public SnakeYamlEngineFactory() {
+        this(LoadSettings.builder().build());
+    }
+
+    public SnakeYamlEngineFactory(@NonNull LoadSettings loadSettings) {
+        this(loadSettings, YamlKeyPool.shared());
+    }
+
+    public SnakeYamlEngineFactory(@NonNull LoadSettings loadSettings, @NonNull YamlKeyPool keyPool) {
+        this.loadSettings = loadSettings;
+        this.keyPool = keyPool;
+    }
+
+    /**
+     * @return {@code true} if the comments are parsed and retained (see {@link YamlComments})
+     */
+    boolean parsesComments() {
+        return loadSettings.getParseComments();
+    }
+
+    /**
+     * Creates the plain scalar, whose tag is resolved by the schema of load-settings (like the parsed one)
+     */
     @Override
-    public YamlNode<Node> fromScalar(String scalarValue) {
-        return null;
+    public YamlNode<Node> fromScalar(@NonNull String scalarValue) {
+        Tag tag = loadSettings.getSchema().getScalarResolver().resolve(scalarValue, true);
+        return new YamlLazyScalar(new ScalarNode(tag, scalarValue, ScalarStyle.PLAIN));
     }
 
+    /**
+     * Converts the map into yaml-dictionary (values are converted by {@link YamlMappers#toYaml(Object)})
+     */
     @Override
-    public YamlNode<Node> fromMap(Map<?, ?> map) {
-        return null;
+    public YamlNode<Node> fromMap(@NonNull Map<?, ?> map) {
+        return YamlMappers.dictionary(map, YamlMappers::toYaml);
     }
 
+    /**
+     * Converts the elements into yaml-sequence (elements are converted by {@link YamlMappers#toYaml(Object)})
+     */
     @Override
-    public YamlNode<Node> fromIter(Iterable<?> iter) {
-        return null;
+    public YamlNode<Node> fromIter(@NonNull Iterable<?> iter) {
+        return YamlMappers.sequence(iter, YamlMappers::toYaml);
     }
 
+    /**
+     * Converts the object by the mapper, which is generated at compile-time for its class (see {@link YamlMappers#mapperOf(Class)}),
+     * or by the runtime binding of records and java-beans, which could not be annotated (see {@link YamlBinder})
+     */
     @Override
-    public YamlNode<Node> fromAnnotated(Object annotated) {
-        return null;
+    public YamlNode<Node> fromAnnotated(@NonNull Object annotated) {
+        return YamlMappers.bindingMapperOf(annotated.getClass()).toYaml(annotated);
+    }
+
+    @Override
+    public Stream<YamlNode<Node>> fromStream(@NonNull InputStream inputStream) {
+        Parse parse = new Parse(loadSettings);
+        return stream(new YamlEventComposer(loadSettings, keyPool, parse.parseInputStream(inputStream).iterator()));
+    }
+
+    @Override
+    public Stream<YamlNode<Node>> fromPath(@NonNull Path path) {
+        InputStream inputStream;
+        try {
+            inputStream = new BufferedInputStream(Files.newInputStream(path));
+        } catch (IOException ioEx) {
+            throw new UncheckedIOException(format("could not open the yaml-file '%s'", path), ioEx);
+        }
+        return fromStream(inputStream).onClose(() -> {
+            try {
+                inputStream.close();
+            } catch (IOException ioEx) {
+                throw new UncheckedIOException(format("could not close the yaml-file '%s'", path), ioEx);
+            }
+        });
+    }
+
+    /**
+     * The same as {@link #fromStream(InputStream)}, but the content is already in memory.
+     *
+     * @param yamlContent the content in yaml-format
+     * @return an ordered stream of root-nodes (one per yaml-document)
+     */
+    public Stream<YamlNode<Node>> fromString(@NonNull String yamlContent) {
+        Parse parse = new Parse(loadSettings);
+        return stream(new YamlEventComposer(loadSettings, keyPool, parse.parseString(yamlContent).iterator()));
+    }
+
+    /**
+     * The same as {@link #fromStream(InputStream)}, but every document is composed into its own {@link YamlArena},
+     * which is much more compact for huge documents (and which is immutable).
+     *
+     * @param inputStream an input-stream with the content in yaml-format
+     * @return an ordered stream of root-nodes (one per yaml-document)
+     */
+    public Stream<YamlNode<Node>> fromStreamToArena(@NonNull InputStream inputStream) {
+        Parse parse = new Parse(loadSettings);
+        return stream(new YamlArena.Composer(loadSettings, keyPool, parse.parseInputStream(inputStream).iterator()));
+    }
+
+    /**
+     * The same as {@link #fromStreamToArena(InputStream)}, but the content is already in memory.
+     *
+     * @param yamlContent the content in yaml-format
+     * @return an ordered stream of root-nodes (one per yaml-document)
+     */
+    public Stream<YamlNode<Node>> fromStringToArena(@NonNull String yamlContent) {
+        Parse parse = new Parse(loadSettings);
+        return stream(new YamlArena.Composer(loadSettings, keyPool, parse.parseString(yamlContent).iterator()));
     }
 }
@@ -0,0 +1,107 @@
+package org.krmdemo.yaml.reconcile.impl;
+
+import lombok.NonNull;
+import org.krmdemo.yaml.reconcile.YamlNode;
+import org.snakeyaml.engine.v2.nodes.Node;
+
+import java.util.*;
+
+/**
+ * Utility-class to calculate 64-bit structural (Merkle-style) hashes of yaml-nodes.
+ * <p/>
+ * The hash of a scalar depends on its tag and its (unescaped) value, the hash of a key-value
+ * depends on the key and the hash of the value, the hash of a sequence depends on the hashes
+ * of elements in their order, and the hash of a dictionary depends on the hashes of its key-values
+ * regardless of their order (because the order of keys in yaml-mapping has no meaning).
+ * <p/>
+ * The hash of container is calculated from already calculated (and cached) hashes of its children,
+ * so the whole tree is hashed bottom-up only once. Zero is never returned, so it's used
+ * by {@link YamlBaseNode} as a marker of not yet calculated hash.
+ */
+public final class StructuralHash {
+
+    private static final long SEED_SCALAR = 0x9E3779B97F4A7C15L;
+    private static final long SEED_KEY_VALUE = 0xC2B2AE3D27D4EB4FL;
+    private static final long SEED_SEQUENCE = 0x165667B19E3779F9L;
+    private static final long SEED_DICTIONARY = 0x27D4EB2F165667C5L;
+
+    private static final long FNV_OFFSET = 0xCBF29CE484222325L;
+    private static final long FNV_PRIME = 0x100000001B3L;
+
+    /**
+     * @param yamlNode a yaml-node of any type
+     * @return a structural hash, which is calculated from the content of the node and hashes of its children
+     */
+    public static long of(@NonNull YamlNode<Node> yamlNode) {
+        return switch (yamlNode.getType()) {
+            case SCALAR, SCALAR_CSV -> ofScalar(yamlNode.asOrigin().getTag().getValue(), yamlNode.asString());
+            case KEY_VALUE -> ofKeyValue(yamlNode.getKey(), yamlNode.getValue().structuralHash());
+            case SEQUENCE -> {
+                long hash = SEED_SEQUENCE;
+                int count = 0;
+                for (Iterator<? extends YamlNode<Node>> iter = yamlNode.getChildren().iterator(); iter.hasNext(); count++) {
+                    hash = (hash ^ iter.next().structuralHash()) * FNV_PRIME + count;
+                }
+                yield nonZero(mix(hash + count));
+            }
+            case DICTIONARY -> {
+                long sum = SEED_DICTIONARY;
+                int count = 0;
+                for (Iterator<? extends YamlNode<Node>> iter = yamlNode.getChildren().iterator(); iter.hasNext(); count++) {
+                    sum += mix(iter.next().structuralHash());
+                }
+                yield nonZero(mix(sum ^ count));
+            }
+            case ROOT -> throw new IllegalArgumentException("no structural hash for " + yamlNode.getType());
+        };
+    }
+
+    /**
+     * @param tag the tag of scalar
+     * @param value the unescaped value of scalar
+     * @return a structural hash of scalar
+     */
+    public static long ofScalar(String tag, String value) {
+        return nonZero(mix(SEED_SCALAR ^ ofChars(tag) * 31 + ofChars(value)));
+    }
+
+    /**
+     * @param key the key in dictionary
+     * @param valueHash the structural hash of the value
+     * @return a structural hash of key-value
+     */
+    public static long ofKeyValue(String key, long valueHash) {
+        return nonZero(mix(SEED_KEY_VALUE ^ ofChars(key) * 31 + valueHash));
+    }
+
+    private static long ofChars(CharSequence chars) {
+        long hash = FNV_OFFSET;
+        for (int i = 0; i < chars.length(); i++) {
+            hash = (hash ^ chars.charAt(i)) * FNV_PRIME;
+        }
+        return hash;
+    }
+
+    /**
+     * Finalization step of MurmurHash3 (fmix64), which spreads the bits of the accumulated value.
+     */
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB9FE1A85EC53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    private static long nonZero(long hash) {
+        return hash == 0 ? 1 : hash;
+    }
+
+    /**
+     * Prohibit the instantiation of utility-class
+     */
+    private StructuralHash() {
+        throw new UnsupportedOperationException();
+    }
+}
@@ -0,0 +1,829 @@
+package org.krmdemo.yaml.reconcile.impl;
+
+import lombok.NonNull;
+import org.krmdemo.yaml.reconcile.YamlNode;
+import org.krmdemo.yaml.reconcile.util.OrderedKeyMap;
+import org.snakeyaml.engine.v2.api.LoadSettings;
+import org.snakeyaml.engine.v2.api.RepresentToNode;
+import org.snakeyaml.engine.v2.common.ScalarStyle;
+import org.snakeyaml.engine.v2.events.AliasEvent;
+import org.snakeyaml.engine.v2.events.CollectionStartEvent;
+import org.snakeyaml.engine.v2.events.Event;
+import org.snakeyaml.engine.v2.events.ScalarEvent;
+import org.snakeyaml.engine.v2.exceptions.ComposerException;
+import org.snakeyaml.engine.v2.nodes.Node;
+import org.snakeyaml.engine.v2.nodes.ScalarNode;
+import org.snakeyaml.engine.v2.nodes.Tag;
+import org.snakeyaml.engine.v2.resolver.ScalarResolver;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static java.lang.String.format;
+import static java.lang.System.identityHashCode;
+
+/**
+ * Columnar representation of the whole yaml-document in a few primitive arrays, which is much more compact
+ * than the tree of {@link YamlDictionary}, {@link YamlKeyValue}, {@link YamlSequence} and {@link YamlScalar}
+ * (with their snakeyaml-twins, lists and maps) and is traversed in a cache-friendly way.
+ * <p/>
+ * Every node (including key-values) occupies a slot in the arrays in pre-order, so the subtree of any node
+ * is a continuous range of slots. The slot holds the kind of node, the links to the parent, to the first child
+ * and to the next sibling, and the position of the value of scalar in the shared array of chars
+ * (the keys of dictionaries and tags of scalars are stored as indexes in small tables of distinct values).
+ * The value of duplicated key replaces the previous one in place (the last value wins, like in {@link YamlDictionary}),
+ * and the slots of the replaced value are just left unreachable.
+ * <p/>
+ * The nodes of arena are lightweight flyweight-cursors (the arena and the slot), which are created on demand
+ * on every access, so they are compared by {@link Object#equals(Object)} rather than by identity (and they have
+ * no comments, because comments are not retained in the arena). The arena is immutable after it's composed,
+ * so it could be shared between threads; structural hashes are calculated lazily and stored in the arena too.
+ */
+public final class YamlArena {
+
+    private static final byte KIND_SCALAR = 1;
+    private static final byte KIND_KEY_VALUE = 2;
+    private static final byte KIND_SEQUENCE = 3;
+    private static final byte KIND_DICTIONARY = 4;
+    private static final byte KIND_SCALAR_CSV = 5;
+
+    private static final ScalarStyle[] STYLES = ScalarStyle.values();
+
+    /**
+     * the containers with more children than this threshold are indexed on the first access by index or by name,
+     * while smaller ones are just scanned through the links of siblings
+     */
+    private static final int INDEX_THRESHOLD = 8;
+
+    /**
+     * the maximum number of slots, which are copied by the expansion of aliases in a single document
+     * (unlike the tree of {@link YamlEventComposer}, where the aliased node is shared, the arena copies it,
+     * so the "billion laughs" input could exhaust the memory without such a limit)
+     */
+    static final int MAX_ALIAS_SLOTS = 1 << 20;
+
+    private byte[] kinds;
+    private byte[] styles;
+    private int[] parents;
+    private int[] firstChildren;
+    private int[] nextSiblings;
+
+    /**
+     * the index of key (for key-values) or the index of tag (for scalars)
+     */
+    private int[] names;
+
+    /**
+     * the offset of value in {@link #chars} (for scalars) or the end of subtree (for containers)
+     */
+    private int[] offsets;
+
+    /**
+     * the length of value (for scalars) or the number of children (for containers)
+     */
+    private int[] lengths;
+
+    private char[] chars;
+
+    private int size = 0;
+
+    private int charsSize = 0;
+
+    private final List<String> keys = new ArrayList<>();
+
+    private final List<Tag> tags = new ArrayList<>();
+
+    private final Map<String, Integer> keyIndexes = new HashMap<>();
+
+    private final Map<Tag, Integer> tagIndexes = new HashMap<>();
+
+    private volatile AtomicLongArray structuralHashes = null;
+
+    private final ConcurrentMap<Integer, int[]> childSlots = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<Integer, OrderedKeyMap<Void>> keySlots = new ConcurrentHashMap<>();
+
+    private YamlArena(int capacity) {
+        kinds = new byte[capacity];
+        styles = new byte[capacity];
+        parents = new int[capacity];
+        firstChildren = new int[capacity];
+        nextSiblings = new int[capacity];
+        names = new int[capacity];
+        offsets = new int[capacity];
+        lengths = new int[capacity];
+        chars = new char[capacity * 8];
+    }
+
+    /**
+     * @param yamlNode the root of yaml-tree of any implementation
+     * @return the root of the copy of the tree in a new arena
+     */
+    public static YamlNode<Node> copyOf(@NonNull YamlNode<Node> yamlNode) {
+        YamlArena arena = new YamlArena(64);
+        arena.copy(yamlNode, -1);
+        return arena.trimToSize().root();
+    }
+
+    /**
+     * @return the root-node of the document
+     */
+    public YamlNode<Node> root() {
+        return node(0);
+    }
+
+    /**
+     * @return the number of nodes (including key-values) in the arena
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param yamlNode the node of any implementation
+     * @return the arena of the node (or {@code null} if the node is not from the arena)
+     */
+    public static YamlArena arenaOf(YamlNode<?> yamlNode) {
+        return yamlNode instanceof ArenaNode arenaNode ? arenaNode.arena : null;
+    }
+
+    /**
+     * @return the estimated number of bytes, which are retained by the arrays of arena
+     */
+    public long retainedBytes() {
+        long slotBytes = 2L + 6 * Integer.BYTES + (structuralHashes == null ? 0 : Long.BYTES);
+        return slotBytes * kinds.length + (long) Character.BYTES * chars.length;
+    }
+
+    @Override
+    public String toString() {
+        return format("%s(0x%08x - %d nodes; %d chars; %d keys; %d tags)",
+            getClass().getSimpleName(), identityHashCode(this), size, charsSize, keys.size(), tags.size());
+    }
+
+    // ----------------------------------------------------------------------------------------------------------------
+
+    private YamlNode<Node> node(int slot) {
+        return new ArenaNode(this, slot);
+    }
+
+    private static boolean isScalar(byte kind) {
+        return kind == KIND_SCALAR || kind == KIND_SCALAR_CSV;
+    }
+
+    private String value(int slot) {
+        return new String(chars, offsets[slot], lengths[slot]);
+    }
+
+    private int childSlot(int slot, int index) {
+        Objects.checkIndex(index, lengths[slot]);
+        if (lengths[slot] > INDEX_THRESHOLD) {
+            return childSlots.computeIfAbsent(slot, this::childSlotsOf)[index];
+        }
+        int child = firstChildren[slot];
+        for (int i = 0; i < index; i++) {
+            child = nextSiblings[child];
+        }
+        return child;
+    }
+
+    private int[] childSlotsOf(int slot) {
+        int[] children = new int[lengths[slot]];
+        for (int i = 0, child = firstChildren[slot]; child >= 0; child = nextSiblings[child]) {
+            children[i++] = child;
+        }
+        return children;
+    }
+
+    private int keySlot(int slot, String key) {
+        if (lengths[slot] > INDEX_THRESHOLD) {
+            OrderedKeyMap<Void> keyIndex = keySlots.computeIfAbsent(slot, this::keySlotsOf);
+            int index = keyIndex.indexOf(key);
+            return index < 0 ? -1 : childSlots.computeIfAbsent(slot, this::childSlotsOf)[index];
+        }
+        for (int child = firstChildren[slot]; child >= 0; child = nextSiblings[child]) {
+            if (keys.get(names[child]).equals(key)) {
+                return child;
+            }
+        }
+        return -1;
+    }
+
+    private OrderedKeyMap<Void> keySlotsOf(int slot) {
+        OrderedKeyMap<Void> keyIndex = new OrderedKeyMap<>(lengths[slot]);
+        for (int child = firstChildren[slot]; child >= 0; child = nextSiblings[child]) {
+            keyIndex.put(keys.get(names[child]), null);
+        }
+        return keyIndex;
+    }
+
+    private long structuralHash(ArenaNode arenaNode) {
+        AtomicLongArray hashes = structuralHashes;
+        if (hashes == null) {
+            synchronized (this) {
+                hashes = structuralHashes;
+                if (hashes == null) {
+                    hashes = new AtomicLongArray(size);
+                    structuralHashes = hashes;
+                }
+            }
+        }
+        int slot = arenaNode.slot;
+        long hash = hashes.getAcquire(slot);
+        if (hash == 0) {
+            hash = isScalar(kinds[slot])
+                ? StructuralHash.ofScalar(tags.get(names[slot]).getValue(), value(slot))
+                : StructuralHash.of(arenaNode);
+            hashes.setRelease(slot, hash);
+        }
+        return hash;
+    }
+
+    // ----------------------------------------------------------------------------------------------------------------
+
+    private void ensureSlots(int extra) {
+        if (size + extra > kinds.length) {
+            int capacity = Math.max(kinds.length * 2, size + extra);
+            kinds = Arrays.copyOf(kinds, capacity);
+            styles = Arrays.copyOf(styles, capacity);
+            parents = Arrays.copyOf(parents, capacity);
+            firstChildren = Arrays.copyOf(firstChildren, capacity);
+            nextSiblings = Arrays.copyOf(nextSiblings, capacity);
+            names = Arrays.copyOf(names, capacity);
+            offsets = Arrays.copyOf(offsets, capacity);
+            lengths = Arrays.copyOf(lengths, capacity);
+        }
+    }
+
+    private YamlArena trimToSize() {
+        kinds = Arrays.copyOf(kinds, size);
+        styles = Arrays.copyOf(styles, size);
+        parents = Arrays.copyOf(parents, size);
+        firstChildren = Arrays.copyOf(firstChildren, size);
+        nextSiblings = Arrays.copyOf(nextSiblings, size);
+        names = Arrays.copyOf(names, size);
+        offsets = Arrays.copyOf(offsets, size);
+        lengths = Arrays.copyOf(lengths, size);
+        chars = Arrays.copyOf(chars, charsSize);
+        keyIndexes.clear();
+        tagIndexes.clear();
+        return this;
+    }
+
+    private int allocate(byte kind, int parent) {
+        ensureSlots(1);
+        int slot = size++;
+        kinds[slot] = kind;
+        parents[slot] = parent;
+        firstChildren[slot] = -1;
+        nextSiblings[slot] = -1;
+        return slot;
+    }
+
+    /**
+     * Links the slot as the last child of its container
+     *
+     * @param lastChild the current last child of container (or {@code -1} if it's the first one)
+     */
+    private void link(int container, int lastChild, int slot) {
+        if (lastChild < 0) {
+            firstChildren[container] = slot;
+        } else {
+            nextSiblings[lastChild] = slot;
+        }
+        lengths[container]++;
+    }
+
+    private int scalar(int parent, byte kind, Tag tag, String value, ScalarStyle style) {
+        int slot = allocate(kind, parent);
+        styles[slot] = (byte) style.ordinal();
+        names[slot] = tagIndexes.computeIfAbsent(tag, t -> {
+            tags.add(t);
+            return tags.size() - 1;
+        });
+        if (charsSize + value.length() > chars.length) {
+            chars = Arrays.copyOf(chars, Math.max(chars.length * 2, charsSize + value.length()));
+        }
+        value.getChars(0, value.length(), chars, charsSize);
+        offsets[slot] = charsSize;
+        lengths[slot] = value.length();
+        charsSize += value.length();
+        return slot;
+    }
+
+    private int keyValue(int parent, String key) {
+        int slot = allocate(KIND_KEY_VALUE, parent);
+        names[slot] = keyIndexes.computeIfAbsent(key, k -> {
+            keys.add(k);
+            return keys.size() - 1;
+        });
+        return slot;
+    }
+
+    private int container(int parent, byte kind) {
+        int slot = allocate(kind, parent);
+        lengths[slot] = 0;
+        return slot;
+    }
+
+    /**
+     * Copies the subtree (which is already completed) to the end of arena, as it's done for aliases
+     *
+     * @return the slot of the root of copied subtree (its parent and next sibling must be linked by the caller)
+     */
+    private int copySubtree(int from, int parent) {
+        int end = isScalar(kinds[from]) ? from + 1 : offsets[from];
+        int delta = size - from;
+        ensureSlots(end - from);
+        for (int slot = from; slot < end; slot++) {
+            int copy = slot + delta;
+            kinds[copy] = kinds[slot];
+            styles[copy] = styles[slot];
+            names[copy] = names[slot];
+            lengths[copy] = lengths[slot];
+            parents[copy] = slot == from ? parent : parents[slot] + delta;
+            firstChildren[copy] = firstChildren[slot] < 0 ? -1 : firstChildren[slot] + delta;
+            nextSiblings[copy] = slot == from || nextSiblings[slot] < 0 ? -1 : nextSiblings[slot] + delta;
+            offsets[copy] = kinds[slot] == KIND_SEQUENCE || kinds[slot] == KIND_DICTIONARY
+                ? offsets[slot] + delta : offsets[slot];
+        }
+        size += end - from;
+        return from + delta;
+    }
+
+    private int copy(YamlNode<Node> yamlNode, int parent) {
+        switch (yamlNode.getType()) {
+            case SCALAR, SCALAR_CSV -> {
+                ScalarNode scalarNode = (ScalarNode) yamlNode.asOrigin();
+                byte kind = yamlNode.getType() == YamlNode.Type.SCALAR ? KIND_SCALAR : KIND_SCALAR_CSV;
+                return scalar(parent, kind, scalarNode.getTag(), yamlNode.asString(), scalarNode.getScalarStyle());
+            }
+            case SEQUENCE, DICTIONARY -> {
+                boolean dictionary = yamlNode.getType() == YamlNode.Type.DICTIONARY;
+                int slot = container(parent, dictionary ? KIND_DICTIONARY : KIND_SEQUENCE);
+                int lastChild = -1;
+                for (Iterator<? extends YamlNode<Node>> iter = yamlNode.getChildren().iterator(); iter.hasNext(); ) {
+                    YamlNode<Node> child = iter.next();
+                    int childSlot;
+                    if (dictionary) {
+                        childSlot = keyValue(slot, child.getKey());
+                        int valueSlot = copy(child.getValue(), childSlot);  // the arrays could be re-allocated here
+                        firstChildren[childSlot] = valueSlot;
+                        lengths[childSlot] = 1;
+                    } else {
+                        childSlot = copy(child, slot);
+                    }
+                    link(slot, lastChild, childSlot);
+                    lastChild = childSlot;
+                }
+                offsets[slot] = size;
+                return slot;
+            }
+            default -> throw new IllegalArgumentException("could not copy " + yamlNode.getType() + " into yaml-arena");
+        }
+    }
+
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * The same as {@link YamlEventComposer}, but every yaml-document is composed into its own arena,
+     * where the aliases are expanded by copying of subtrees, which is limited by
+     * {@link LoadSettings#getMaxAliasesForCollections()} and by {@link #MAX_ALIAS_SLOTS}
+     */
+    static final class Composer implements Iterator<YamlNode<Node>> {
+
+        private final Iterator<Event> events;
+
+        private final ScalarResolver scalarResolver;
+
+        private final YamlKeyPool keyPool;
+
+        private final int maxAliasesForCollections;
+
+        private YamlNode<Node> nextDocument = null;
+
+        private boolean streamEnd = false;
+
+        Composer(@NonNull LoadSettings loadSettings, @NonNull YamlKeyPool keyPool, @NonNull Iterator<Event> events) {
+            this.events = events;
+            this.scalarResolver = loadSettings.getSchema().getScalarResolver();
+            this.keyPool = keyPool;
+            this.maxAliasesForCollections = loadSettings.getMaxAliasesForCollections();
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (nextDocument == null && !streamEnd) {
+                nextDocument = composeNextDocument();
+            }
+            return nextDocument != null;
+        }
+
+        @Override
+        public YamlNode<Node> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException("no more yaml-documents in the stream");
+            }
+            YamlNode<Node> document = nextDocument;
+            nextDocument = null;
+            return document;
+        }
+
+        private YamlNode<Node> composeNextDocument() {
+            while (events.hasNext()) {
+                Event event = events.next();
+                switch (event.getEventId()) {
+                    case DocumentStart -> {
+                        return new DocumentComposer().compose();
+                    }
+                    case StreamEnd -> {
+                        streamEnd = true;
+                        return null;
+                    }
+                    default -> {
+                        // stream-start and comments outside of documents are skipped
+                    }
+                }
+            }
+            streamEnd = true;
+            return null;
+        }
+
+        /**
+         * The state of composing of a single document, where the frames of containers are just their slots
+         */
+        private final class DocumentComposer {
+            private final YamlArena arena = new YamlArena(256);
+            private final Map<String, Integer> anchors = new HashMap<>();
+            private final Map<String, String> keyAnchors = new HashMap<>();
+            /**
+             * the anchors of containers are registered only when they are completed (so, recursive aliases are not allowed)
+             */
+            private final Map<Integer, String> pendingAnchors = new HashMap<>();
+            private int[] frames = new int[16];
+            private int[] lastChildren = new int[16];
+            private int[] pendingKeyValues = new int[16];
+            /**
+             * the slots of key-values by their keys for the frames of large dictionaries (to find duplicated keys)
+             */
+            private final List<Map<String, Integer>> frameKeySlots = new ArrayList<>();
+            private int depth = 0;
+            private boolean hasRoot = false;
+            private int aliasesForCollections = 0;
+            private int aliasSlots = 0;
+
+            private YamlNode<Node> compose() {
+                while (events.hasNext()) {
+                    Event event = events.next();
+                    switch (event.getEventId()) {
+                        case Scalar -> scalar((ScalarEvent) event);
+                        case Alias -> alias((AliasEvent) event);
+                        case SequenceStart -> start((CollectionStartEvent) event, KIND_SEQUENCE);
+                        case MappingStart -> start((CollectionStartEvent) event, KIND_DICTIONARY);
+                        case SequenceEnd, MappingEnd -> {
+                            int slot = frames[--depth];
+                            arena.offsets[slot] = arena.size;
+                            String anchor = pendingAnchors.remove(slot);
+                            if (anchor != null) {
+                                anchors.put(anchor, slot);
+                            }
+                        }
+                        case DocumentEnd -> {
+                            if (depth > 0) {
+                                throw new ComposerException("document is finished before all collections", event.getStartMark());
+                            }
+                            return hasRoot ? arena.trimToSize().root() : null;
+                        }
+                        default -> {
+                            // comments are not retained yet
+                        }
+                    }
+                }
+                throw new ComposerException("unexpected end of the stream inside yaml-document", Optional.empty());
+            }
+
+            private boolean expectsKey() {
+                return depth > 0 && arena.kinds[frames[depth - 1]] == KIND_DICTIONARY && pendingKeyValues[depth - 1] < 0;
+            }
+
+            private int parent() {
+                if (depth == 0) {
+                    return -1;
+                }
+                return arena.kinds[frames[depth - 1]] == KIND_DICTIONARY ? pendingKeyValues[depth - 1] : frames[depth - 1];
+            }
+
+            private void key(String key) {
+                int container = frames[depth - 1];
+                int duplicate = keySlotOf(depth - 1, key);
+                if (duplicate >= 0) {
+                    // the value of duplicated key replaces the previous one in place (like in YamlDictionary)
+                    pendingKeyValues[depth - 1] = duplicate;
+                    return;
+                }
+                int slot = arena.keyValue(container, keyPool.internParsed(key));
+                arena.link(container, lastChildren[depth - 1], slot);
+                lastChildren[depth - 1] = slot;
+                pendingKeyValues[depth - 1] = slot;
+                Map<String, Integer> keySlots = frameKeySlots.get(depth - 1);
+                if (keySlots != null) {
+                    keySlots.put(key, slot);
+                } else if (arena.lengths[container] > INDEX_THRESHOLD) {
+                    keySlots = new HashMap<>();
+                    for (int child = arena.firstChildren[container]; child >= 0; child = arena.nextSiblings[child]) {
+                        keySlots.put(arena.keys.get(arena.names[child]), child);
+                    }
+                    frameKeySlots.set(depth - 1, keySlots);
+                }
+            }
+
+            /**
+             * @return the slot of key-value with the passed key in the frame of dictionary (or {@code -1} if there is no such key)
+             */
+            private int keySlotOf(int frame, String key) {
+                Map<String, Integer> keySlots = frameKeySlots.get(frame);
+                if (keySlots != null) {
+                    return keySlots.getOrDefault(key, -1);
+                }
+                for (int child = arena.firstChildren[frames[frame]]; child >= 0; child = arena.nextSiblings[child]) {
+                    if (arena.keys.get(arena.names[child]).equals(key)) {
+                        return child;
+                    }
+                }
+                return -1;
+            }
+
+            /**
+             * Attaches the completed (or just started) node to its parent
+             */
+            private void attach(int slot, Event event) {
+                if (depth == 0) {
+                    if (hasRoot) {
+                        throw new ComposerException("more than one root-node in yaml-document", event.getStartMark());
+                    }
+                    hasRoot = true;
+                    return;
+                }
+                int container = frames[depth - 1];
+                if (arena.kinds[container] == KIND_DICTIONARY) {
+                    int keyValue = pendingKeyValues[depth - 1];
+                    if (keyValue < 0) {
+                        throw new ComposerException(format("only scalar keys are supported, but %s is found",
+                            arena.node(slot).getType()), event.getStartMark());
+                    }
+                    arena.firstChildren[keyValue] = slot;
+                    arena.lengths[keyValue] = 1;
+                    pendingKeyValues[depth - 1] = -1;
+                } else {
+                    arena.link(container, lastChildren[depth - 1], slot);
+                    lastChildren[depth - 1] = slot;
+                }
+            }
+
+            private void scalar(ScalarEvent event) {
+                if (expectsKey()) {
+                    // the key of dictionary is stored as an index in the table of keys without creating a scalar-node
+                    key(event.getValue());
+                    event.getAnchor().ifPresent(anchor -> keyAnchors.put(anchor.getValue(), event.getValue()));
+                    return;
+                }
+                Optional<String> explicitTag = event.getTag();
+                Tag tag = explicitTag.isEmpty() || "!".equals(explicitTag.get())
+                    ? scalarResolver.resolve(event.getValue(), event.getImplicit().canOmitTagInPlainScalar())
+                    : new Tag(explicitTag.get());
+                int slot = arena.scalar(parent(), KIND_SCALAR, tag, event.getValue(), event.getScalarStyle());
+                attach(slot, event);
+                event.getAnchor().ifPresent(anchor -> anchors.put(anchor.getValue(), slot));
+            }
+
+            private void alias(AliasEvent event) {
+                String anchor = event.getAlias().getValue();
+                Integer anchored = anchors.get(anchor);
+                String anchoredKey = keyAnchors.get(anchor);
+                if (anchored == null && anchoredKey == null) {
+                    throw new ComposerException(format("found undefined (or recursive) alias '%s'", anchor), event.getStartMark());
+                }
+                if (expectsKey()) {
+                    if (anchored != null && !isScalar(arena.kinds[anchored])) {
+                        throw new ComposerException(format("alias '%s' of %s could not be a key",
+                            anchor, arena.node(anchored).getType()), event.getStartMark());
+                    }
+                    key(anchored != null ? arena.value(anchored) : anchoredKey);
+                    return;
+                }
+                if (anchored != null && !isScalar(arena.kinds[anchored])) {
+                    if (++aliasesForCollections > maxAliasesForCollections) {
+                        throw new ComposerException(format("number of aliases for non-scalar nodes exceeds the specified max=%d",
+                            maxAliasesForCollections), event.getStartMark());
+                    }
+                    aliasSlots += arena.offsets[anchored] - anchored;
+                    if (aliasSlots > MAX_ALIAS_SLOTS) {
+                        throw new ComposerException(format("number of nodes copied by aliases exceeds the max=%d",
+                            MAX_ALIAS_SLOTS), event.getStartMark());
+                    }
+                }
+                int slot = anchored != null
+                    ? arena.copySubtree(anchored, parent())
+                    : arena.scalar(parent(), KIND_SCALAR, scalarResolver.resolve(anchoredKey, true), anchoredKey, ScalarStyle.PLAIN);
+                attach(slot, event);
+            }
+
+            private void start(CollectionStartEvent event, byte kind) {
+                int slot = arena.container(parent(), kind);
+                attach(slot, event);
+                if (depth == frames.length) {
+                    frames = Arrays.copyOf(frames, depth * 2);
+                    lastChildren = Arrays.copyOf(lastChildren, depth * 2);
+                    pendingKeyValues = Arrays.copyOf(pendingKeyValues, depth * 2);
+                }
+                frames[depth] = slot;
+                lastChildren[depth] = -1;
+                pendingKeyValues[depth] = -1;
+                if (depth == frameKeySlots.size()) {
+                    frameKeySlots.add(null);
+                } else {
+                    frameKeySlots.set(depth, null);
+                }
+                depth++;
+                event.getAnchor().ifPresent(anchor -> pendingAnchors.put(slot, anchor.getValue()));
+            }
+        }
+    }
+
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * The flyweight-cursor, which is a node of any type in the arena.
+     * <p/>
+     * A new cursor is created on every access to the node, so two cursors of the same slot of the same arena
+     * are equal (see {@link #equals(Object)}), but they are not the same object. That's why the cursors never
+     * carry comments, and the comma-separated scalar of arena materializes its elements on every access
+     * (so, {@link YamlCsvScalar#of(YamlNode)} should be used to traverse them many times).
+     */
+    static final class ArenaNode implements YamlNode<Node>, RepresentToNode {
+
+        private final YamlArena arena;
+
+        private final int slot;
+
+        private ArenaNode(YamlArena arena, int slot) {
+            this.arena = arena;
+            this.slot = slot;
+        }
+
+        private byte kind() {
+            return arena.kinds[slot];
+        }
+
+        Tag tag() {
+            if (!isScalar(kind())) {
+                throw new UnsupportedOperationException("no tag in " + getType());
+            }
+            return arena.tags.get(arena.names[slot]);
+        }
+
+        /**
+         * @return the equivalent tree of regular yaml-nodes (which is used to get snakeyaml-twins and representation)
+         */
+        private YamlNode<Node> materialize() {
+            return switch (kind()) {
+                case KIND_SCALAR -> new YamlLazyScalar(new ScalarNode(tag(), asString(), STYLES[arena.styles[slot]]));
+                case KIND_SCALAR_CSV -> YamlCsvScalar.of(
+                    new YamlLazyScalar(new ScalarNode(tag(), asString(), STYLES[arena.styles[slot]])));
+                case KIND_KEY_VALUE -> YamlKeyValue.ofDocumentKey(getKey(), ((ArenaNode) getValue()).materialize());
+                case KIND_SEQUENCE -> new YamlSequence(getChildren().map(child -> ((ArenaNode) child).materialize()));
+                default -> new YamlDictionary(getChildren().map(child -> (YamlKeyValue) ((ArenaNode) child).materialize()));
+            };
+        }
+
+        @Override
+        public Type getType() {
+            return switch (kind()) {
+                case KIND_SCALAR -> Type.SCALAR;
+                case KIND_SCALAR_CSV -> Type.SCALAR_CSV;
+                case KIND_KEY_VALUE -> Type.KEY_VALUE;
+                case KIND_SEQUENCE -> Type.SEQUENCE;
+                default -> Type.DICTIONARY;
+            };
+        }
+
+        @Override
+        public Node asOrigin() {
+            if (kind() == KIND_KEY_VALUE) {
+                throw new UnsupportedOperationException("no origin for " + getType());
+            }
+            return materialize().asOrigin();
+        }
+
+        @Override
+        public Node representData(@NonNull Object data) {
+            if (!equals(data)) {
+                throw new IllegalStateException(format(
+                    "Representation structure is corrupted: %s(%X) != data(%X)",
+                    getType(), identityHashCode(this), identityHashCode(data)));
+            }
+            return asOrigin();
+        }
+
+        @Override
+        public String toString() {
+            return isScalar(kind()) ? materialize().toString() : YamlDump.DEFAULT.toString(this);
+        }
+
+        @Override
+        public void dumpTo(@NonNull Appendable out, int indent) {
+            YamlDump.DEFAULT.dumpTo(this, out, indent);
+        }
+
+        @Override
+        public String asString() {
+            if (!isScalar(kind())) {
+                throw new UnsupportedOperationException("no string representation for " + getType());
+            }
+            return arena.value(slot);
+        }
+
+        @Override
+        public String getKey() {
+            if (kind() != KIND_KEY_VALUE) {
+                throw new UnsupportedOperationException("no key in " + getType());
+            }
+            return arena.keys.get(arena.names[slot]);
+        }
+
+        @Override
+        public YamlNode<Node> getValue() {
+            if (kind() != KIND_KEY_VALUE) {
+                throw new UnsupportedOperationException("no value in " + getType());
+            }
+            return arena.node(arena.firstChildren[slot]);
+        }
+
+        @Override
+        public YamlNode<Node> childByName(String childName) {
+            if (kind() != KIND_DICTIONARY) {
+                throw new UnsupportedOperationException("no child by name in " + getType());
+            }
+            int child = arena.keySlot(slot, childName);
+            return child < 0 ? null : arena.node(child);
+        }
+
+        @Override
+        public YamlNode<Node> childByIndex(int index) {
+            if (kind() == KIND_SCALAR_CSV) {
+                return materialize().childByIndex(index);
+            }
+            if (kind() != KIND_DICTIONARY && kind() != KIND_SEQUENCE) {
+                throw new UnsupportedOperationException("no child by index in " + getType());
+            }
+            return arena.node(arena.childSlot(slot, index));
+        }
+
+        @Override
+        public Stream<? extends YamlNode<Node>> getChildren() {
+            if (kind() == KIND_SCALAR_CSV) {
+                return materialize().getChildren();
+            }
+            if (kind() != KIND_DICTIONARY && kind() != KIND_SEQUENCE) {
+                throw new UnsupportedOperationException("no children in " + getType());
+            }
+            return IntStream.iterate(arena.firstChildren[slot], child -> child >= 0, child -> arena.nextSiblings[child])
+                .mapToObj(arena::node);
+        }
+
+        @Override
+        public int childrenCount() {
+            if (kind() == KIND_SCALAR_CSV) {
+                return materialize().childrenCount();
+            }
+            return kind() == KIND_DICTIONARY || kind() == KIND_SEQUENCE ? arena.lengths[slot] : 0;
+        }
+
+        @Override
+        public long structuralHash() {
+            return arena.structuralHash(this);
+        }
+
+        @Override
+        public String getComment() {
+            return null;  // comments are not retained in the arena
+        }
+
+        /**
+         * @return {@code true} if the other cursor points to the same slot of the same arena
+         */
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof ArenaNode other && arena == other.arena && slot == other.slot;
+        }
+
+        @Override
+        public int hashCode() {
+            return identityHashCode(arena) * 31 + slot;
+        }
+    }
+}
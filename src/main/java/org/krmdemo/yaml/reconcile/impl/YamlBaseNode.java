@@ -0,0 +1,46 @@
+package org.krmdemo.yaml.reconcile.impl;
+
+import lombok.NonNull;
+import org.krmdemo.yaml.reconcile.YamlNode;
+import org.snakeyaml.engine.v2.api.RepresentToNode;
+import org.snakeyaml.engine.v2.nodes.Node;
+
+/**
+ * The base class of immutable yaml-nodes, which caches their structural hash (see {@link StructuralHash}).
+ * <p/>
+ * The hash is calculated only once on the first call of {@link #structuralHash()}: zero is a marker of not yet
+ * calculated hash, so the calculated one is never equal to zero. Concurrent callers could calculate the same
+ * hash twice, but they never observe a different one, because the content of nodes is never changed.
+ */
+public abstract class YamlBaseNode implements YamlNode<Node>, RepresentToNode {
+
+    private volatile long structuralHash = 0;
+
+    YamlBaseNode() {
+    }
+
+    @Override
+    public final long structuralHash() {
+        long hash = structuralHash;
+        if (hash == 0) {
+            hash = calculateStructuralHash();
+            if (hash == 0) {
+                throw new IllegalStateException("structural hash must not be zero for " + getType());
+            }
+            structuralHash = hash;
+        }
+        return hash;
+    }
+
+    @Override
+    public void dumpTo(@NonNull Appendable out, int indent) {
+        YamlDump.DEFAULT.dumpTo(this, out, indent);
+    }
+
+    /**
+     * @return the structural hash of this node (which is calculated from the hashes of its children by default)
+     */
+    long calculateStructuralHash() {
+        return StructuralHash.of(this);
+    }
+}
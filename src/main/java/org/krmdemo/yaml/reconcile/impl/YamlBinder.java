@@ -0,0 +1,441 @@
+package org.krmdemo.yaml.reconcile.impl;
+
+import lombok.NonNull;
+import org.krmdemo.yaml.reconcile.YamlMapped;
+import org.krmdemo.yaml.reconcile.YamlNode;
+import org.snakeyaml.engine.v2.nodes.Node;
+import org.snakeyaml.engine.v2.nodes.Tag;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.*;
+import java.util.*;
+import java.util.function.Function;
+
+import static java.lang.String.format;
+
+/**
+ * Runtime binding of the classes, which could not be annotated with {@link YamlMapped} (records and java-beans),
+ * to yaml-dictionaries and back.
+ * <p/>
+ * Every class is introspected only once (per binder): the plan of binding (the list of properties with their
+ * {@link MethodHandle}s and the converters by their generic types) is cached in {@link ClassValue}
+ * and then re-used by all the threads, so the cost of reflection is paid once per class rather than per object.
+ * Properties of the record are its components; properties of the java-bean are the fields with public getters
+ * and setters (or public fields) in the order of declaration, starting from the super-class.
+ * <p/>
+ * The binder could access only the classes and members, which are accessible by its lookup
+ * (see {@link #withLookup(MethodHandles.Lookup)}) - the public ones of exported packages by default.
+ */
+public final class YamlBinder {
+
+    private static final YamlBinder SHARED = new YamlBinder(MethodHandles.publicLookup());
+
+    private static final MethodType OBJECT_GETTER = MethodType.methodType(Object.class, Object.class);
+
+    private final MethodHandles.Lookup lookup;
+
+    private final ClassValue<YamlMapper<Object>> mappers = new ClassValue<>() {
+        @Override
+        protected YamlMapper<Object> computeValue(Class<?> type) {
+            return new PropertiesMapper(type.getName(), readableProperties(type));
+        }
+    };
+
+    private final ClassValue<Function<YamlNode<Node>, Object>> factories = new ClassValue<>() {
+        @Override
+        protected Function<YamlNode<Node>, Object> computeValue(Class<?> type) {
+            return type.isRecord() ? recordFactory(type) : beanFactory(type);
+        }
+    };
+
+    private YamlBinder(MethodHandles.Lookup lookup) {
+        this.lookup = lookup;
+    }
+
+    /**
+     * @return the binder of public classes of exported packages
+     */
+    public static YamlBinder shared() {
+        return SHARED;
+    }
+
+    /**
+     * @param lookup the lookup with the access to the bound classes (like {@code MethodHandles.lookup()} of the caller)
+     * @return a new binder, which caches the plans of binding independently of the shared one
+     */
+    public static YamlBinder withLookup(@NonNull MethodHandles.Lookup lookup) {
+        return new YamlBinder(lookup);
+    }
+
+    /**
+     * @param type the record or the java-bean
+     * @return the mapper of instances of the class into yaml-dictionaries (the same instance for the same class)
+     */
+    public YamlMapper<Object> mapperOf(@NonNull Class<?> type) {
+        return mappers.get(type);
+    }
+
+    /**
+     * @param value the record or the java-bean
+     * @return the yaml-dictionary of properties of the object ({@code null}-values are skipped)
+     */
+    public YamlNode<Node> toYaml(@NonNull Object value) {
+        return mappers.get(value.getClass()).toYaml(value);
+    }
+
+    /**
+     * @param yamlNode the yaml-node to bind
+     * @param type the target type (a scalar type, an enum, a record or a java-bean)
+     * @return the new object with the values of the yaml-node (missing properties are left by default)
+     */
+    public <T> T fromYaml(@NonNull YamlNode<Node> yamlNode, @NonNull Class<T> type) {
+        @SuppressWarnings("unchecked")
+        T result = (T) converterOf(type).apply(yamlNode);
+        return result;
+    }
+
+    // ----------------------------------------------------------------------------------------------------------------
+    //                                    from objects to yaml-nodes
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * The readable property, whose getter is adapted to the unboxed type of the value ({@code kind})
+     */
+    private record Getter(String name, MethodHandle getter, char kind) {
+    }
+
+    private List<Getter> readableProperties(Class<?> type) {
+        List<Getter> getters = new ArrayList<>();
+        try {
+            if (type.isRecord()) {
+                for (RecordComponent component : type.getRecordComponents()) {
+                    getters.add(getter(component.getName(), lookup.unreflect(component.getAccessor()), component.getType()));
+                }
+                return getters;
+            }
+            Map<String, Method> getterMethods = new HashMap<>();
+            for (Method method : type.getMethods()) {
+                String name = propertyName(method, method.getReturnType() == boolean.class ? "is" : "get");
+                if (name != null && method.getParameterCount() == 0 && !"class".equals(name)) {
+                    getterMethods.put(name, method);
+                }
+            }
+            for (Field field : fieldsOf(type)) {
+                Method method = getterMethods.remove(field.getName());
+                if (method != null) {
+                    getters.add(getter(field.getName(), lookup.unreflect(method), method.getReturnType()));
+                } else if (Modifier.isPublic(field.getModifiers())) {
+                    getters.add(getter(field.getName(), lookup.unreflectGetter(field), field.getType()));
+                }
+            }
+            for (Method method : new TreeMap<>(getterMethods).values()) {
+                getters.add(getter(propertyName(method, method.getReturnType() == boolean.class ? "is" : "get"),
+                    lookup.unreflect(method), method.getReturnType()));
+            }
+            return getters;
+        } catch (IllegalAccessException iaEx) {
+            throw new IllegalArgumentException(format("the properties of %s are not accessible", type.getName()), iaEx);
+        }
+    }
+
+    private static Getter getter(String name, MethodHandle handle, Class<?> valueType) {
+        if (valueType == long.class || valueType == int.class || valueType == short.class || valueType == byte.class) {
+            return new Getter(name, handle.asType(MethodType.methodType(long.class, Object.class)), 'J');
+        } else if (valueType == double.class || valueType == float.class) {
+            return new Getter(name, handle.asType(MethodType.methodType(double.class, Object.class)), 'D');
+        } else if (valueType == boolean.class) {
+            return new Getter(name, handle.asType(MethodType.methodType(boolean.class, Object.class)), 'Z');
+        }
+        return new Getter(name, handle.asType(OBJECT_GETTER), 'L');
+    }
+
+    /**
+     * The mapper by the plan of readable properties
+     */
+    private record PropertiesMapper(String typeName, List<Getter> getters) implements YamlMapper<Object> {
+
+        @Override
+        public YamlNode<Node> toYaml(Object value) {
+            YamlKeyValue[] keyValues = new YamlKeyValue[getters.size()];
+            int count = 0;
+            for (Getter getter : getters) {
+                YamlNode<Node> propertyNode = toYaml(getter, value);
+                if (propertyNode != null) {
+                    keyValues[count++] = new YamlKeyValue(getter.name(), propertyNode);
+                }
+            }
+            return new YamlDictionary(count == keyValues.length ? keyValues : Arrays.copyOf(keyValues, count));
+        }
+
+        private YamlNode<Node> toYaml(Getter getter, Object value) {
+            try {
+                return switch (getter.kind()) {
+                    case 'J' -> YamlPrimitiveScalar.of((long) getter.getter().invokeExact(value));
+                    case 'D' -> YamlPrimitiveScalar.of((double) getter.getter().invokeExact(value));
+                    case 'Z' -> YamlPrimitiveScalar.of((boolean) getter.getter().invokeExact(value));
+                    default -> {
+                        Object propertyValue = (Object) getter.getter().invokeExact(value);
+                        yield propertyValue == null ? null : YamlMappers.toYaml(propertyValue);
+                    }
+                };
+            } catch (RuntimeException | Error ex) {
+                throw ex;
+            } catch (Throwable th) {
+                throw new IllegalStateException(format("could not read the property '%s' of %s", getter.name(), typeName), th);
+            }
+        }
+    }
+
+    // ----------------------------------------------------------------------------------------------------------------
+    //                                    from yaml-nodes to objects
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * The writable property of java-bean (a setter or a public field), whose value is converted by its generic type
+     */
+    private record Setter(String name, MethodHandle setter, Function<YamlNode<Node>, Object> converter) {
+    }
+
+    private Function<YamlNode<Node>, Object> recordFactory(Class<?> type) {
+        RecordComponent[] components = type.getRecordComponents();
+        Class<?>[] componentTypes = Arrays.stream(components).map(RecordComponent::getType).toArray(Class<?>[]::new);
+        List<Function<YamlNode<Node>, Object>> converters = Arrays.stream(components)
+            .map(component -> converterOf(component.getGenericType())).toList();
+        MethodHandle constructor;
+        try {
+            constructor = lookup.findConstructor(type, MethodType.methodType(void.class, componentTypes))
+                .asSpreader(Object[].class, components.length);
+        } catch (ReflectiveOperationException roEx) {
+            throw new IllegalArgumentException(format("the canonical constructor of %s is not accessible", type.getName()), roEx);
+        }
+        return dictionary -> {
+            Object[] args = new Object[components.length];
+            for (int i = 0; i < components.length; i++) {
+                YamlNode<Node> valueNode = valueOf(dictionary, components[i].getName());
+                args[i] = valueNode == null ? null : converters.get(i).apply(valueNode);
+                if (args[i] == null && componentTypes[i].isPrimitive()) {
+                    args[i] = Array.get(Array.newInstance(componentTypes[i], 1), 0);
+                }
+            }
+            try {
+                return constructor.invoke(args);
+            } catch (RuntimeException | Error ex) {
+                throw ex;
+            } catch (Throwable th) {
+                throw new IllegalStateException("could not create an instance of " + type.getName(), th);
+            }
+        };
+    }
+
+    private Function<YamlNode<Node>, Object> beanFactory(Class<?> type) {
+        MethodHandle constructor;
+        List<Setter> setters = new ArrayList<>();
+        try {
+            constructor = lookup.findConstructor(type, MethodType.methodType(void.class)).asType(MethodType.methodType(Object.class));
+            Map<String, Method> setterMethods = new HashMap<>();
+            for (Method method : type.getMethods()) {
+                String name = propertyName(method, "set");
+                if (name != null && method.getParameterCount() == 1) {
+                    setterMethods.put(name, method);
+                }
+            }
+            for (Field field : fieldsOf(type)) {
+                Method method = setterMethods.get(field.getName());
+                if (method != null) {
+                    setters.add(new Setter(field.getName(), lookup.unreflect(method).asType(MethodType.methodType(void.class, Object.class, Object.class)),
+                        converterOf(method.getGenericParameterTypes()[0])));
+                } else if (Modifier.isPublic(field.getModifiers()) && !Modifier.isFinal(field.getModifiers())) {
+                    setters.add(new Setter(field.getName(), lookup.unreflectSetter(field).asType(MethodType.methodType(void.class, Object.class, Object.class)),
+                        converterOf(field.getGenericType())));
+                }
+            }
+        } catch (ReflectiveOperationException roEx) {
+            throw new IllegalArgumentException(format("the java-bean %s is not accessible", type.getName()), roEx);
+        }
+        return dictionary -> {
+            try {
+                Object bean = constructor.invokeExact();
+                for (Setter setter : setters) {
+                    YamlNode<Node> valueNode = valueOf(dictionary, setter.name());
+                    Object value = valueNode == null ? null : setter.converter().apply(valueNode);
+                    if (value != null) {
+                        setter.setter().invokeExact(bean, value);
+                    }
+                }
+                return bean;
+            } catch (RuntimeException | Error ex) {
+                throw ex;
+            } catch (Throwable th) {
+                throw new IllegalStateException("could not create an instance of " + type.getName(), th);
+            }
+        };
+    }
+
+    private static YamlNode<Node> valueOf(YamlNode<Node> dictionary, String key) {
+        if (dictionary.getType() != YamlNode.Type.DICTIONARY) {
+            throw new IllegalArgumentException("could not bind the properties of " + dictionary.getType());
+        }
+        YamlNode<Node> keyValue = dictionary.childByName(key);
+        return keyValue == null ? null : keyValue.getValue();
+    }
+
+    /**
+     * @param type the generic type of the value
+     * @return the converter of yaml-node into the value of the type (it returns {@code null} for the null-scalar)
+     */
+    private Function<YamlNode<Node>, Object> converterOf(Type type) {
+        Function<YamlNode<Node>, Object> converter = nonNullConverterOf(type);
+        return yamlNode -> isNull(yamlNode) ? null : converter.apply(yamlNode);
+    }
+
+    private Function<YamlNode<Node>, Object> nonNullConverterOf(Type type) {
+        if (type instanceof WildcardType wildcardType) {
+            return nonNullConverterOf(wildcardType.getUpperBounds()[0]);
+        } else if (type instanceof TypeVariable<?> || type == Object.class) {
+            return YamlBinder::natural;
+        } else if (type instanceof GenericArrayType arrayType) {
+            return arrayConverter(erasure(arrayType.getGenericComponentType()), converterOf(arrayType.getGenericComponentType()));
+        }
+        Class<?> rawType = erasure(type);
+        Type[] typeArgs = type instanceof ParameterizedType parameterizedType
+            ? parameterizedType.getActualTypeArguments() : new Type[0];
+        if (rawType == String.class) {
+            return YamlNode::asString;
+        } else if (rawType == long.class || rawType == Long.class) {
+            return yamlNode -> Long.parseLong(yamlNode.asString());
+        } else if (rawType == int.class || rawType == Integer.class) {
+            return yamlNode -> Integer.parseInt(yamlNode.asString());
+        } else if (rawType == short.class || rawType == Short.class) {
+            return yamlNode -> Short.parseShort(yamlNode.asString());
+        } else if (rawType == byte.class || rawType == Byte.class) {
+            return yamlNode -> Byte.parseByte(yamlNode.asString());
+        } else if (rawType == double.class || rawType == Double.class) {
+            return yamlNode -> Double.parseDouble(yamlNode.asString());
+        } else if (rawType == float.class || rawType == Float.class) {
+            return yamlNode -> Float.parseFloat(yamlNode.asString());
+        } else if (rawType == boolean.class || rawType == Boolean.class) {
+            return yamlNode -> Boolean.parseBoolean(yamlNode.asString());
+        } else if (rawType == char.class || rawType == Character.class) {
+            return yamlNode -> yamlNode.asString().charAt(0);
+        } else if (rawType.isEnum()) {
+            return yamlNode -> enumValue(rawType, yamlNode.asString());
+        } else if (rawType.isArray()) {
+            return arrayConverter(rawType.getComponentType(), converterOf(rawType.getComponentType()));
+        } else if (Map.class.isAssignableFrom(rawType)) {
+            Function<YamlNode<Node>, Object> valueConverter = converterOf(typeArgs.length == 2 ? typeArgs[1] : Object.class);
+            return yamlNode -> {
+                Map<String, Object> map = SortedMap.class.isAssignableFrom(rawType) ? new TreeMap<>() : new LinkedHashMap<>();
+                yamlNode.getChildren().forEach(keyValue -> map.put(keyValue.getKey(), valueConverter.apply(keyValue.getValue())));
+                return map;
+            };
+        } else if (Iterable.class.isAssignableFrom(rawType)) {
+            Function<YamlNode<Node>, Object> elementConverter = converterOf(typeArgs.length == 1 ? typeArgs[0] : Object.class);
+            boolean set = Set.class.isAssignableFrom(rawType);
+            return yamlNode -> {
+                Collection<Object> collection = set ? new LinkedHashSet<>() : new ArrayList<>(yamlNode.childrenCount());
+                yamlNode.getChildren().forEach(element -> collection.add(elementConverter.apply(element)));
+                return collection;
+            };
+        }
+        return yamlNode -> factories.get(rawType).apply(yamlNode);
+    }
+
+    private static Function<YamlNode<Node>, Object> arrayConverter(Class<?> componentType, Function<YamlNode<Node>, Object> elementConverter) {
+        return yamlNode -> {
+            Object array = Array.newInstance(componentType, yamlNode.childrenCount());
+            for (int i = 0; i < yamlNode.childrenCount(); i++) {
+                Array.set(array, i, elementConverter.apply(yamlNode.childByIndex(i)));
+            }
+            return array;
+        };
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Object enumValue(Class<?> enumType, String name) {
+        return Enum.valueOf((Class<? extends Enum>) enumType, name);
+    }
+
+    /**
+     * @return the natural java-value of yaml-node: strings, numbers and booleans by the tag of scalar, maps and lists
+     */
+    private static Object natural(YamlNode<Node> yamlNode) {
+        return switch (yamlNode.getType()) {
+            case DICTIONARY -> {
+                Map<String, Object> map = new LinkedHashMap<>();
+                yamlNode.getChildren().forEach(keyValue -> map.put(keyValue.getKey(), naturalOrNull(keyValue.getValue())));
+                yield map;
+            }
+            case SEQUENCE -> {
+                List<Object> list = new ArrayList<>(yamlNode.childrenCount());
+                yamlNode.getChildren().forEach(element -> list.add(naturalOrNull(element)));
+                yield list;
+            }
+            case KEY_VALUE -> natural(yamlNode.getValue());
+            default -> {
+                Tag tag = yamlNode.asOrigin().getTag();
+                if (Tag.INT.equals(tag)) {
+                    yield Long.parseLong(yamlNode.asString());
+                } else if (Tag.FLOAT.equals(tag)) {
+                    yield Double.parseDouble(yamlNode.asString());
+                } else if (Tag.BOOL.equals(tag)) {
+                    yield Boolean.parseBoolean(yamlNode.asString());
+                }
+                yield yamlNode.asString();
+            }
+        };
+    }
+
+    private static Object naturalOrNull(YamlNode<Node> yamlNode) {
+        return isNull(yamlNode) ? null : natural(yamlNode);
+    }
+
+    private static boolean isNull(YamlNode<Node> yamlNode) {
+        return yamlNode.getType() == YamlNode.Type.SCALAR && Tag.NULL.equals(yamlNode.asOrigin().getTag());
+    }
+
+    // ----------------------------------------------------------------------------------------------------------------
+
+    private static Class<?> erasure(Type type) {
+        if (type instanceof Class<?> rawClass) {
+            return rawClass;
+        } else if (type instanceof ParameterizedType parameterizedType) {
+            return (Class<?>) parameterizedType.getRawType();
+        } else if (type instanceof GenericArrayType arrayType) {
+            return Array.newInstance(erasure(arrayType.getGenericComponentType()), 0).getClass();
+        }
+        return Object.class;
+    }
+
+    /**
+     * @return non-static and non-transient fields of the class, starting from the super-class
+     */
+    private static List<Field> fieldsOf(Class<?> type) {
+        Deque<Class<?>> hierarchy = new ArrayDeque<>();
+        for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+            hierarchy.push(current);
+        }
+        List<Field> fields = new ArrayList<>();
+        for (Class<?> current : hierarchy) {
+            for (Field field : current.getDeclaredFields()) {
+                if (!Modifier.isStatic(field.getModifiers()) && !Modifier.isTransient(field.getModifiers())) {
+                    fields.add(field);
+                }
+            }
+        }
+        return fields;
+    }
+
+    /**
+     * @return the name of property by the name of public non-static accessor (like {@code getName}) or {@code null}
+     */
+    private static String propertyName(Method method, String prefix) {
+        String methodName = method.getName();
+        if (Modifier.isStatic(method.getModifiers()) || methodName.length() <= prefix.length()
+                || !methodName.startsWith(prefix) || !Character.isUpperCase(methodName.charAt(prefix.length()))) {
+            return null;
+        }
+        return Character.toLowerCase(methodName.charAt(prefix.length())) + methodName.substring(prefix.length() + 1);
+    }
+}
@@ -0,0 +1,171 @@
+package org.krmdemo.yaml.reconcile.impl;
+
+import lombok.NonNull;
+import org.krmdemo.yaml.reconcile.YamlNode;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static java.lang.System.identityHashCode;
+
+/**
+ * Sparse side-table of comments, which are retained only for the nodes that actually have comments
+ * (so, yaml-nodes do not carry any fields for comments, and comment-free documents cost nothing extra).
+ * <p/>
+ * Comments are collected by {@link SnakeYamlEngineFactory} only if the parsing of comments is enabled by
+ * {@link org.snakeyaml.engine.v2.api.LoadSettings#getParseComments()}. The block comment before the key
+ * (or before the element of sequence) and the in-line comment after the scalar value are attached
+ * to the key-value (or to the element), and the comments at the end of document are attached to its root.
+ * <p/>
+ * The table is keyed by the identity of nodes (not by {@link Object#equals(Object)}), so the comment belongs
+ * to the very node it's attached to, and the nodes are held weakly, so the comments are released together
+ * with the tree. That's why the comments are never attached to the nodes, which are shared between documents
+ * (like the singletons of {@link YamlPrimitiveScalar}) or re-created on every access (like the cursors of {@link YamlArena}).
+ * <p/>
+ * The lookup does not take any lock, and it's skipped at all while there are no commented nodes alive.
+ */
+public final class YamlComments {
+
+    /**
+     * The comments of a single node, where every line is kept as is (without the leading {@code '#'})
+     *
+     * @param blockLines the lines of block comment before the node
+     * @param inLine the in-line comment after the node (or {@code null} if there is no such comment)
+     * @param trailingLines the lines of block comment after the node (only for the root of document)
+     */
+    public record Comment(List<String> blockLines, String inLine, List<String> trailingLines) {
+
+        public Comment {
+            blockLines = List.copyOf(blockLines);
+            trailingLines = List.copyOf(trailingLines);
+        }
+
+        /**
+         * @return all lines of comment (the block, the in-line and the trailing ones) joined by the line-feed
+         */
+        public String text() {
+            return Stream.of(blockLines.stream(), Stream.ofNullable(inLine), trailingLines.stream())
+                .flatMap(lines -> lines)
+                .collect(Collectors.joining("\n"));
+        }
+
+        private Comment merge(Comment other) {
+            List<String> block = new ArrayList<>(blockLines);
+            block.addAll(other.blockLines);
+            List<String> trailing = new ArrayList<>(trailingLines);
+            trailing.addAll(other.trailingLines);
+            return new Comment(block, other.inLine != null ? other.inLine : inLine, trailing);
+        }
+    }
+
+    private static final ConcurrentMap<NodeRef, Comment> COMMENTS = new ConcurrentHashMap<>();
+
+    /**
+     * the queue of references to the nodes, which are already released, so their comments must be removed too
+     */
+    private static final ReferenceQueue<YamlNode<?>> RELEASED = new ReferenceQueue<>();
+
+    private YamlComments() {
+        throw new UnsupportedOperationException("it's a utility class");
+    }
+
+    /**
+     * @param yamlNode a yaml-node of any type
+     * @return the comments of the node (or {@code null} if the node has no comments)
+     */
+    public static Comment of(@NonNull YamlNode<?> yamlNode) {
+        if (COMMENTS.isEmpty()) {
+            return null;
+        }
+        expungeReleased();
+        return COMMENTS.get(new NodeRef(yamlNode, null));
+    }
+
+    /**
+     * @param yamlNode a yaml-node of any type
+     * @return the text of all comments of the node (see {@link Comment#text()}) or {@code null} if there are no comments
+     */
+    public static String textOf(@NonNull YamlNode<?> yamlNode) {
+        Comment comment = of(yamlNode);
+        return comment == null ? null : comment.text();
+    }
+
+    /**
+     * Attaches the comment to the node (merging it with already attached one)
+     *
+     * @param yamlNode a yaml-node of any type
+     * @param comment the comment to attach
+     * @return the same yaml-node
+     */
+    public static <T extends YamlNode<?>> T attach(@NonNull T yamlNode, @NonNull Comment comment) {
+        expungeReleased();
+        COMMENTS.merge(new NodeRef(yamlNode, RELEASED), comment, Comment::merge);
+        return yamlNode;
+    }
+
+    /**
+     * Copies comments from the original node to its replacement (like it's done by merge and patch)
+     *
+     * @param from the original node (or {@code null})
+     * @param to the node, which replaces the original one
+     * @return the node, which replaces the original one
+     */
+    public static <T extends YamlNode<?>> T copy(YamlNode<?> from, @NonNull T to) {
+        Comment comment = from == null ? null : of(from);
+        if (comment != null && from != to) {
+            attach(to, comment);
+        }
+        return to;
+    }
+
+    private static void expungeReleased() {
+        for (Object ref = RELEASED.poll(); ref != null; ref = RELEASED.poll()) {
+            COMMENTS.remove(ref);
+        }
+    }
+
+    static Comment block(List<String> lines) {
+        return new Comment(lines, null, List.of());
+    }
+
+    static Comment inLine(String line) {
+        return new Comment(List.of(), line, List.of());
+    }
+
+    static Comment trailing(List<String> lines) {
+        return new Comment(List.of(), null, lines);
+    }
+
+    /**
+     * The weak reference to the node, which is compared by the identity of the node
+     * (the released reference is equal only to itself, so it could be removed from the table)
+     */
+    private static final class NodeRef extends WeakReference<YamlNode<?>> {
+
+        private final int hash;
+
+        private NodeRef(YamlNode<?> yamlNode, ReferenceQueue<YamlNode<?>> queue) {
+            super(yamlNode, queue);
+            this.hash = identityHashCode(yamlNode);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj == this) {
+                return true;
+            }
+            YamlNode<?> yamlNode = get();
+            return yamlNode != null && obj instanceof NodeRef other && hash == other.hash && yamlNode == other.get();
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
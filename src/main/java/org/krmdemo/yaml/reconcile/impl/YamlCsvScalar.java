@@ -0,0 +1,244 @@
+package org.krmdemo.yaml.reconcile.impl;
+
+import lombok.NonNull;
+import org.krmdemo.yaml.reconcile.YamlNode;
+import org.snakeyaml.engine.v2.common.ScalarStyle;
+import org.snakeyaml.engine.v2.nodes.Node;
+import org.snakeyaml.engine.v2.nodes.ScalarNode;
+import org.snakeyaml.engine.v2.nodes.Tag;
+
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static java.lang.String.format;
+import static java.lang.System.identityHashCode;
+
+/**
+ * Comma-separated scalar (like the list of CIDR-blocks, feature-flags or hosts), which keeps the original
+ * string and splits it only on demand into the array of offsets of elements (the whitespaces around
+ * elements are trimmed, and the quoting of elements is not supported). Elements are available by index
+ * and as a stream without allocation of {@code String[]}, and they are also exposed as the children
+ * of this node (scalars), so the diff of such scalars is calculated element-wise like the diff of sequences.
+ */
+public class YamlCsvScalar extends YamlBaseNode {
+
+    private final String value;
+
+    private final Tag tag;
+
+    private volatile ScalarNode scalar;
+
+    /**
+     * the start and the end of every element (the array of pairs), which is built on the first access
+     */
+    private volatile int[] offsets = null;
+
+    private volatile YamlNode<Node>[] elementsCache = null;
+
+    private YamlCsvScalar(String value, Tag tag, ScalarNode scalar) {
+        this.value = value;
+        this.tag = tag;
+        this.scalar = scalar;
+    }
+
+    /**
+     * @param value the comma-separated string
+     * @return the comma-separated scalar
+     */
+    public static YamlCsvScalar of(@NonNull String value) {
+        return new YamlCsvScalar(value, Tag.STR, null);
+    }
+
+    /**
+     * @param scalar a scalar yaml-node or a comma-separated one of another implementation
+     *               (its origin snakeyaml-node and its tag are retained)
+     * @return the comma-separated view of the scalar
+     */
+    public static YamlCsvScalar of(@NonNull YamlNode<Node> scalar) {
+        if (scalar instanceof YamlCsvScalar csvScalar) {
+            return csvScalar;
+        }
+        if (scalar.getType() != Type.SCALAR && scalar.getType() != Type.SCALAR_CSV) {
+            throw new IllegalArgumentException("comma-separated scalar could not be created from " + scalar.getType());
+        }
+        ScalarNode scalarNode = (ScalarNode) scalar.asOrigin();
+        return new YamlCsvScalar(scalar.asString(), scalarNode.getTag(), scalarNode);
+    }
+
+    /**
+     * @return the number of elements (an empty string has no elements)
+     */
+    public int size() {
+        return offsets().length / 2;
+    }
+
+    /**
+     * @param index the index of element
+     * @return the element (without surrounding whitespaces)
+     */
+    public String element(int index) {
+        int[] bounds = offsets();
+        Objects.checkIndex(index, bounds.length / 2);
+        return value.substring(bounds[2 * index], bounds[2 * index + 1]);
+    }
+
+    /**
+     * @return the ordered stream of elements
+     */
+    public Stream<String> elements() {
+        return IntStream.range(0, size()).mapToObj(this::element);
+    }
+
+    /**
+     * @param elements new elements
+     * @return the comma-separated scalar of the same tag and with the same delimiter (with or without space)
+     */
+    public YamlCsvScalar withElements(@NonNull Stream<String> elements) {
+        String delimiter = value.contains(", ") ? ", " : ",";
+        return new YamlCsvScalar(elements.collect(Collectors.joining(delimiter)), tag, null);
+    }
+
+    /**
+     * @return the plain scalar with the same tag and value
+     */
+    public YamlNode<Node> asScalar() {
+        return new YamlLazyScalar((ScalarNode) asOrigin());
+    }
+
+    /**
+     * @return the tag of this scalar (without the creation of snakeyaml-node)
+     */
+    Tag tag() {
+        return tag;
+    }
+
+    @Override
+    public Type getType() {
+        return Type.SCALAR_CSV;
+    }
+
+    @Override
+    public Node asOrigin() {
+        ScalarNode scalarNode = scalar;
+        if (scalarNode == null) {
+            scalarNode = new ScalarNode(tag, value, ScalarStyle.PLAIN);
+            scalar = scalarNode;
+        }
+        return scalarNode;
+    }
+
+    @Override
+    public Node representData(@NonNull Object data) {
+        if (data != this) {
+            throw new IllegalStateException(format(
+                "Representation structure is corrupted: %s(%X) != data(%X)",
+                getType(), identityHashCode(this), identityHashCode(data)));
+        }
+        return asOrigin();
+    }
+
+    @Override
+    public String toString() {
+        return format("%s(0x%08x - %d elements) --> '%s'", getType(), identityHashCode(this), size(), value);
+    }
+
+    @Override
+    public String asString() {
+        return value;
+    }
+
+    @Override
+    public String getKey() {
+        throw new UnsupportedOperationException("no key in " + getType());
+    }
+
+    @Override
+    public YamlNode<Node> getValue() {
+        throw new UnsupportedOperationException("no value in " + getType());
+    }
+
+    @Override
+    public YamlNode<Node> childByName(String childName) {
+        throw new UnsupportedOperationException("no child by name in " + getType());
+    }
+
+    /**
+     * @param index the index of element
+     * @return the element as a string-scalar (which is created on demand and then cached)
+     */
+    @Override
+    public YamlNode<Node> childByIndex(int index) {
+        YamlNode<Node>[] cache = elementsCache;
+        if (cache == null) {
+            @SuppressWarnings("unchecked")
+            YamlNode<Node>[] newCache = new YamlNode[size()];
+            cache = newCache;
+            elementsCache = cache;
+        }
+        YamlNode<Node> element = cache[Objects.checkIndex(index, cache.length)];
+        if (element == null) {
+            element = YamlPrimitiveScalar.of(element(index));
+            cache[index] = element;
+        }
+        return element;
+    }
+
+    @Override
+    public Stream<? extends YamlNode<Node>> getChildren() {
+        return IntStream.range(0, size()).mapToObj(this::childByIndex);
+    }
+
+    @Override
+    public int childrenCount() {
+        return size();
+    }
+
+    @Override
+    long calculateStructuralHash() {
+        return StructuralHash.ofScalar(tag.getValue(), value);
+    }
+
+    @Override
+    public String getComment() {
+        return YamlComments.textOf(this);
+    }
+
+    private int[] offsets() {
+        int[] bounds = offsets;
+        if (bounds == null) {
+            bounds = split(value);
+            offsets = bounds;
+        }
+        return bounds;
+    }
+
+    private static int[] split(String value) {
+        if (value.isBlank()) {
+            return new int[0];
+        }
+        int count = 1;
+        for (int pos = value.indexOf(','); pos >= 0; pos = value.indexOf(',', pos + 1)) {
+            count++;
+        }
+        int[] bounds = new int[2 * count];
+        int start = 0;
+        for (int index = 0; index < count; index++) {
+            int end = value.indexOf(',', start);
+            end = end < 0 ? value.length() : end;
+            int from = start;
+            int to = end;
+            while (from < to && Character.isWhitespace(value.charAt(from))) {
+                from++;
+            }
+            while (to > from && Character.isWhitespace(value.charAt(to - 1))) {
+                to--;
+            }
+            bounds[2 * index] = from;
+            bounds[2 * index + 1] = to;
+            start = end + 1;
+        }
+        return bounds;
+    }
+}
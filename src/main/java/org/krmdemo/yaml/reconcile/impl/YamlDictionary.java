@@ -2,7 +2,7 @@ package org.krmdemo.yaml.reconcile.impl;
 
 import lombok.NonNull;
 import org.krmdemo.yaml.reconcile.YamlNode;
-import org.snakeyaml.engine.v2.api.RepresentToNode;
+import org.krmdemo.yaml.reconcile.util.OrderedKeyMap;
 import org.snakeyaml.engine.v2.common.FlowStyle;
 import org.snakeyaml.engine.v2.nodes.MappingNode;
 import org.snakeyaml.engine.v2.nodes.Node;
@@ -10,35 +10,29 @@ import org.snakeyaml.engine.v2.nodes.NodeTuple;
 import org.snakeyaml.engine.v2.nodes.Tag;
 
 import java.util.*;
-import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import static java.lang.String.format;
 import static java.lang.System.identityHashCode;
-import static java.util.Collections.unmodifiableMap;
 
-public class YamlDictionary implements YamlNode<Node>, RepresentToNode {
+public class YamlDictionary extends YamlBaseNode {
 
-    final MappingNode mapping;
+    /**
+     * the snakeyaml-twin is created only on demand (see {@link #asOrigin()}), because it's not needed
+     * to traverse, compare or emit the dictionary (see {@link YamlEmitter})
+     */
+    private volatile MappingNode mapping = null;
 
-    final Map<String, YamlKeyValue> childrenMap;
-
-    private int maxKeyLength = 0;
+    final OrderedKeyMap<YamlKeyValue> childrenMap;
 
     public YamlDictionary(YamlKeyValue... childrenArr) {
         this(Arrays.stream(childrenArr));
     }
 
     public YamlDictionary(Stream<YamlKeyValue> children) {
-        SortedMap<String, YamlKeyValue> yamlMap = new TreeMap<>();
-        List<NodeTuple> tuples = new ArrayList<>();
-        children.forEachOrdered(keyValue -> {
-            yamlMap.put(keyValue.getKey(), keyValue);
-            tuples.add(keyValue.asTuple());
-            maxKeyLength = Math.max(maxKeyLength, keyValue.getKey().length());
-        });
-        this.mapping = new MappingNode(Tag.MAP, tuples, FlowStyle.BLOCK);;
-        this.childrenMap = unmodifiableMap(yamlMap);
+        OrderedKeyMap<YamlKeyValue> yamlMap = new OrderedKeyMap<>();
+        children.forEachOrdered(keyValue -> yamlMap.put(keyValue.getKey(), keyValue));
+        this.childrenMap = yamlMap.trimToSize();
     }
 
     @Override
@@ -48,7 +42,13 @@ public class YamlDictionary implements YamlNode<Node>, RepresentToNode {
 
     @Override
     public Node asOrigin() {
-        return mapping;
+        MappingNode mappingNode = mapping;
+        if (mappingNode == null) {
+            List<NodeTuple> tuples = childrenMap.values().map(YamlKeyValue::asTuple).toList();
+            mappingNode = new MappingNode(Tag.MAP, tuples, FlowStyle.BLOCK);
+            mapping = mappingNode;
+        }
+        return mappingNode;
     }
 
     @Override
@@ -63,14 +63,7 @@ public class YamlDictionary implements YamlNode<Node>, RepresentToNode {
 
     @Override
     public String toString() {
-        if (childrenMap.isEmpty()) {
-            return format("%s(0x%08x - empty)", getType(), identityHashCode(this));
-        }
-        String header = format("%s(0x%08x - %d elements)", getType(), identityHashCode(this), childrenMap.size());
-        String delimiter = format("%n- ");
-        return childrenMap.values().stream()
-            .map(keyValue -> keyValue.toString(maxKeyLength))
-            .collect(Collectors.joining(delimiter, header + ":" + delimiter, ""));
+        return YamlDump.DEFAULT.toString(this);
     }
 
     @Override
@@ -93,18 +86,31 @@ public class YamlDictionary implements YamlNode<Node>, RepresentToNode {
         return childrenMap.get(childName);
     }
 
+    /**
+     * @param key the key of dictionary
+     * @return the index of key-value by the key (or {@code -1} if there is no such key)
+     */
+    int indexOfKey(String key) {
+        return childrenMap.indexOf(key);
+    }
+
     @Override
     public YamlNode<Node> childByIndex(int index) {
-        throw new UnsupportedOperationException("no child by index in " + getType());
+        return childrenMap.valueAt(index);
     }
 
     @Override
     public Stream<? extends YamlNode<Node>> getChildren() {
-        return childrenMap.values().stream();
+        return childrenMap.values();
+    }
+
+    @Override
+    public int childrenCount() {
+        return childrenMap.size();
     }
 
     @Override
     public String getComment() {
-        throw new UnsupportedOperationException("not implemented yet");
+        return YamlComments.textOf(this);
     }
 }
@@ -0,0 +1,291 @@
+package org.krmdemo.yaml.reconcile.impl;
+
+import lombok.NonNull;
+import org.krmdemo.yaml.reconcile.YamlNode;
+import org.snakeyaml.engine.v2.nodes.Node;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.lang.String.format;
+
+/**
+ * Thread-safe cache of parsed yaml-documents in front of {@link SnakeYamlEngineFactory}, whose key is SHA-256
+ * of the content, so the same content (like a shared base-layer or a vendored chart) is parsed only once,
+ * regardless of the file it comes from.
+ * <p/>
+ * The cache is bounded by the total estimated retained size of documents (see {@link #estimateWeight(YamlNode)})
+ * and evicts the least recently used entries first. The optional disk-tier keeps the documents
+ * as {@link YamlSnapshot}s in the passed directory, so they survive the eviction and the restart of JVM.
+ * The snapshot of unsupported version (or a corrupted one) is deleted, and its content is parsed again.
+ * The snapshot does not retain comments, so the disk-tier is bypassed, when the factory parses comments
+ * (otherwise, the same content would be loaded with or without comments depending on the tier).
+ * <p/>
+ * The weight of documents, which are loaded from the disk-tier, is approximated by the size of snapshot-file
+ * rather than estimated from the decoded tree, because the containers of snapshot are decoded lazily
+ * (so, their retained size is not known in advance, and could exceed the size of file, when all of them are decoded).
+ * <p/>
+ * The cached roots are shared between all callers, so they must not be modified.
+ */
+public class YamlDocumentCache {
+
+    private static final String SNAPSHOT_SUFFIX = ".ysnp";
+
+    private final SnakeYamlEngineFactory factory;
+
+    private final long maxWeight;
+
+    private final Path snapshotDir;
+
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+
+    private long weight = 0;
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder diskHitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+
+    private record Entry(List<YamlNode<Node>> documents, long weight) {
+    }
+
+    /**
+     * @param factory the factory to parse the content, which is not cached yet
+     * @param maxWeight the maximum total estimated size (in bytes) of documents retained in memory
+     */
+    public YamlDocumentCache(@NonNull SnakeYamlEngineFactory factory, long maxWeight) {
+        this(factory, maxWeight, null);
+    }
+
+    /**
+     * @param factory the factory to parse the content, which is not cached yet
+     * @param maxWeight the maximum total estimated size (in bytes) of documents retained in memory
+     * @param snapshotDir the directory of disk-tier (or {@code null} to keep the documents in memory only),
+     *                    which is ignored if the factory parses comments
+     */
+    public YamlDocumentCache(@NonNull SnakeYamlEngineFactory factory, long maxWeight, Path snapshotDir) {
+        if (maxWeight <= 0) {
+            throw new IllegalArgumentException("the maximum weight of cache must be positive: " + maxWeight);
+        }
+        this.factory = factory;
+        this.maxWeight = maxWeight;
+        this.snapshotDir = factory.parsesComments() ? null : snapshotDir;
+    }
+
+    /**
+     * @param yamlContent the content in yaml-format
+     * @return the roots of all yaml-documents of the content (the same instances for the same content)
+     */
+    public List<YamlNode<Node>> load(@NonNull String yamlContent) {
+        return load(yamlContent.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @param path a path to the file in yaml-format
+     * @return the roots of all yaml-documents of the file (the same instances for the same content)
+     */
+    public List<YamlNode<Node>> load(@NonNull Path path) {
+        try {
+            return load(Files.readAllBytes(path));
+        } catch (IOException ioEx) {
+            throw new UncheckedIOException(format("could not read the yaml-file '%s'", path), ioEx);
+        }
+    }
+
+    /**
+     * @param yamlBytes the content in yaml-format
+     * @return the roots of all yaml-documents of the content (the same instances for the same content)
+     */
+    public List<YamlNode<Node>> load(byte @NonNull [] yamlBytes) {
+        String key = contentHash(yamlBytes);
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry != null) {
+                hitCount.increment();
+                return entry.documents();
+            }
+        }
+        // the content is parsed outside the lock, so the same content could be parsed concurrently twice,
+        // but only the first result is retained and returned to all callers
+        Entry entry = loadSnapshot(key);
+        if (entry != null) {
+            diskHitCount.increment();
+        } else {
+            missCount.increment();
+            List<YamlNode<Node>> documents;
+            try (var stream = factory.fromStream(new ByteArrayInputStream(yamlBytes))) {
+                documents = stream.toList();
+            }
+            entry = new Entry(documents, documents.stream().mapToLong(YamlDocumentCache::estimateWeight).sum());
+            storeSnapshot(key, documents);
+        }
+        return put(key, entry);
+    }
+
+    private List<YamlNode<Node>> put(String key, Entry entry) {
+        synchronized (entries) {
+            Entry prevEntry = entries.putIfAbsent(key, entry);
+            if (prevEntry != null) {
+                return prevEntry.documents();
+            }
+            weight += entry.weight();
+            Iterator<Entry> it = entries.values().iterator();
+            while (weight > maxWeight && it.hasNext()) {
+                Entry eldest = it.next();
+                if (eldest == entry) {
+                    break;  // the entry, which exceeds the maximum weight by itself, is still retained until the next one
+                }
+                it.remove();
+                weight -= eldest.weight();
+                evictionCount.increment();
+            }
+            return entry.documents();
+        }
+    }
+
+    private Entry loadSnapshot(String key) {
+        if (snapshotDir == null) {
+            return null;
+        }
+        Path snapshotPath = snapshotDir.resolve(key + SNAPSHOT_SUFFIX);
+        if (!Files.isRegularFile(snapshotPath)) {
+            return null;
+        }
+        try {
+            // the weight is approximated by the size of file (see the javadoc of class)
+            return new Entry(YamlSnapshot.readAll(snapshotPath), Files.size(snapshotPath));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException ex) {
+            // the snapshot of another version (or a corrupted one) is dropped, and the content is parsed again
+            deleteSnapshot(snapshotPath);
+            return null;
+        } catch (IOException ioEx) {
+            throw new UncheckedIOException(format("could not read the yaml-snapshot '%s'", snapshotPath), ioEx);
+        }
+    }
+
+    private static void deleteSnapshot(Path snapshotPath) {
+        try {
+            Files.deleteIfExists(snapshotPath);
+        } catch (IOException ioEx) {
+            throw new UncheckedIOException(format("could not delete the stale yaml-snapshot '%s'", snapshotPath), ioEx);
+        }
+    }
+
+    private void storeSnapshot(String key, List<YamlNode<Node>> documents) {
+        if (snapshotDir == null) {
+            return;
+        }
+        Path snapshotPath = snapshotDir.resolve(key + SNAPSHOT_SUFFIX);
+        try {
+            Files.createDirectories(snapshotDir);
+            Path tempPath = Files.createTempFile(snapshotDir, key, ".tmp");
+            YamlSnapshot.writeAll(documents, tempPath);
+            // the snapshot is replaced atomically, because the existing one could be already memory-mapped
+            Files.move(tempPath, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException ioEx) {
+            throw new UncheckedIOException(format("could not write the yaml-snapshot '%s'", snapshotPath), ioEx);
+        }
+    }
+
+    /**
+     * @param yamlBytes the content in yaml-format
+     * @return the hex-string of SHA-256 of the content, which is the key of cache
+     */
+    public static String contentHash(byte @NonNull [] yamlBytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(yamlBytes));
+        } catch (NoSuchAlgorithmException nsaEx) {
+            throw new IllegalStateException("SHA-256 is not supported by the current JVM", nsaEx);
+        }
+    }
+
+    /**
+     * Estimates the retained size of yaml-tree, assuming the compressed pointers of 64-bit JVM
+     * and the compact (Latin-1) strings
+     *
+     * @param yamlNode the root of yaml-tree
+     * @return the estimated number of bytes that are retained by the tree
+     */
+    public static long estimateWeight(@NonNull YamlNode<Node> yamlNode) {
+        return switch (yamlNode.getType()) {
+            case SCALAR, SCALAR_CSV -> 64 + yamlNode.asString().length();
+            case KEY_VALUE -> 32 + estimateWeight(yamlNode.getValue());
+            case DICTIONARY, SEQUENCE -> yamlNode.getChildren()
+                .mapToLong(child -> 8 + estimateWeight(child))
+                .sum() + 64;
+            case ROOT -> throw new IllegalArgumentException("could not estimate the weight of " + yamlNode.getType());
+        };
+    }
+
+    /**
+     * @return the number of documents' lists that are found in memory
+     */
+    public long hitCount() {
+        return hitCount.sum();
+    }
+
+    /**
+     * @return the number of documents' lists that are not found in memory, but loaded from the disk-tier
+     */
+    public long diskHitCount() {
+        return diskHitCount.sum();
+    }
+
+    /**
+     * @return the number of documents' lists that are parsed
+     */
+    public long missCount() {
+        return missCount.sum();
+    }
+
+    /**
+     * @return the number of documents' lists that are evicted from memory
+     */
+    public long evictionCount() {
+        return evictionCount.sum();
+    }
+
+    /**
+     * @return the number of documents' lists that are currently retained in memory
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * @return the total estimated size of documents that are currently retained in memory
+     */
+    public long weight() {
+        synchronized (entries) {
+            return weight;
+        }
+    }
+
+    /**
+     * Evicts all documents from memory (the disk-tier is not affected)
+     */
+    public void invalidateAll() {
+        synchronized (entries) {
+            entries.clear();
+            weight = 0;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return format("%s(0x%08x size=%d; weight=%d/%d; hits=%d; disk-hits=%d; misses=%d; evictions=%d)",
+            getClass().getSimpleName(), System.identityHashCode(this), size(), weight(), maxWeight,
+            hitCount(), diskHitCount(), missCount(), evictionCount());
+    }
+}
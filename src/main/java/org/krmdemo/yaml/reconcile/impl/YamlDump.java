@@ -0,0 +1,212 @@
+package org.krmdemo.yaml.reconcile.impl;
+
+import lombok.NonNull;
+import org.krmdemo.yaml.reconcile.YamlNode;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.*;
+
+import static java.lang.System.identityHashCode;
+
+/**
+ * Writes the debug-representation of yaml-tree (which is returned by {@code toString()} of yaml-nodes)
+ * straight into {@link Appendable}, so every line is written exactly once with the indentation of its depth
+ * (instead of re-indenting the string of every child at every level of nesting).
+ * <p/>
+ * The output is bounded by the maximum number of nodes and the maximum depth, so a huge tree could be safely
+ * dumped into the log or into the message of exception: the rest of container is replaced by the line
+ * with the number of skipped children, and containers deeper than the maximum depth are written without children.
+ */
+public final class YamlDump {
+
+    /**
+     * The default dump, which is used by the implementations of {@link YamlNode#dumpTo(Appendable, int)}
+     * and by {@code toString()}
+     */
+    public static final YamlDump DEFAULT = new YamlDump(10_000, 64);
+
+    public static final YamlDump UNBOUNDED = new YamlDump(Integer.MAX_VALUE, Integer.MAX_VALUE);
+
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+
+    private final int maxNodes;
+
+    private final int maxDepth;
+
+    /**
+     * @param maxNodes the maximum number of nodes (including key-values) to write
+     * @param maxDepth the maximum depth of containers, whose children are written (the root has zero depth)
+     */
+    public YamlDump(int maxNodes, int maxDepth) {
+        if (maxNodes <= 0 || maxDepth < 0) {
+            throw new IllegalArgumentException(String.format(
+                "invalid bounds of yaml-dump: maxNodes = %d; maxDepth = %d", maxNodes, maxDepth));
+        }
+        this.maxNodes = maxNodes;
+        this.maxDepth = maxDepth;
+    }
+
+    /**
+     * @param yamlNode the root of yaml-tree to dump
+     * @return the dump of yaml-tree without the indentation
+     */
+    public String toString(@NonNull YamlNode<?> yamlNode) {
+        StringBuilder sb = new StringBuilder();
+        dumpTo(yamlNode, sb, 0);
+        return sb.toString();
+    }
+
+    /**
+     * @param yamlNode the root of yaml-tree to dump
+     * @param out the output to write the dump to
+     * @param indent the number of spaces, which are written at the beginning of every line except the first one
+     */
+    public void dumpTo(@NonNull YamlNode<?> yamlNode, @NonNull Appendable out, int indent) {
+        try {
+            new Writer(out).node(yamlNode, indent, 0);
+        } catch (IOException ioEx) {
+            throw new UncheckedIOException("could not write the dump of " + yamlNode.getType(), ioEx);
+        }
+    }
+
+    /**
+     * The same as {@link #dumpTo(YamlNode, Appendable, int)}, but for the key-value within a dictionary,
+     * whose keys are aligned to the longest one
+     */
+    String toString(@NonNull YamlNode<?> keyValue, int maxKeyLength) {
+        StringBuilder sb = new StringBuilder();
+        try {
+            new Writer(sb).keyValue(keyValue, maxKeyLength, 0, 0);
+        } catch (IOException ioEx) {
+            throw new UncheckedIOException("could not write the dump of " + keyValue.getType(), ioEx);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * The state of a single dump
+     */
+    private final class Writer {
+        private final Appendable out;
+        private int nodesCount = 0;
+
+        private Writer(Appendable out) {
+            this.out = out;
+        }
+
+        private void node(YamlNode<?> yamlNode, int indent, int depth) throws IOException {
+            nodesCount++;
+            switch (yamlNode.getType()) {
+                case DICTIONARY -> dictionary(yamlNode, indent, depth);
+                case SEQUENCE -> sequence(yamlNode, indent, depth);
+                case KEY_VALUE -> keyValue(yamlNode, yamlNode.getKey().length(), indent, depth);
+                default -> text(yamlNode.toString(), indent);
+            }
+        }
+
+        private void dictionary(YamlNode<?> dictionary, int indent, int depth) throws IOException {
+            int count = dictionary.childrenCount();
+            if (!header(dictionary, count, depth)) {
+                return;
+            }
+            int maxKeyLength = 0;
+            for (Iterator<? extends YamlNode<?>> iter = dictionary.getChildren().iterator(); iter.hasNext(); ) {
+                maxKeyLength = Math.max(maxKeyLength, iter.next().getKey().length());
+            }
+            int num = 0;
+            for (Iterator<? extends YamlNode<?>> iter = dictionary.getChildren().iterator(); iter.hasNext(); num++) {
+                newLine(indent);
+                out.append("- ");
+                if (nodesCount >= maxNodes) {
+                    out.append("... (").append(String.valueOf(count - num)).append(" more elements)");
+                    return;
+                }
+                nodesCount++;
+                keyValue(iter.next(), maxKeyLength, indent, depth);
+            }
+        }
+
+        private void sequence(YamlNode<?> sequence, int indent, int depth) throws IOException {
+            int count = sequence.childrenCount();
+            if (!header(sequence, count, depth)) {
+                return;
+            }
+            int maxNumLength = String.valueOf(count).length();
+            int num = 0;
+            for (Iterator<? extends YamlNode<?>> iter = sequence.getChildren().iterator(); iter.hasNext(); num++) {
+                newLine(indent);
+                out.append("- ");
+                if (nodesCount >= maxNodes) {
+                    out.append("... (").append(String.valueOf(count - num)).append(" more elements)");
+                    return;
+                }
+                String strNum = "(" + (num + 1) + ")";
+                spaces(maxNumLength + 2 - strNum.length());
+                out.append(strNum).append(' ');
+                node(iter.next(), indent + maxNumLength + 5, depth + 1);
+            }
+        }
+
+        /**
+         * @return {@code true} if the children of container should be written
+         */
+        private boolean header(YamlNode<?> container, int count, int depth) throws IOException {
+            out.append(container.getType().name()).append("(0x").append(hex(container));
+            if (count == 0) {
+                out.append(" - empty)");
+                return false;
+            }
+            out.append(" - ").append(String.valueOf(count)).append(" elements):");
+            if (depth >= maxDepth) {
+                out.append(" ...");
+                return false;
+            }
+            return true;
+        }
+
+        private void keyValue(YamlNode<?> keyValue, int maxKeyLength, int indent, int depth) throws IOException {
+            String key = keyValue.getKey();
+            out.append(keyValue.getType().name()).append("(0x").append(hex(keyValue)).append(") ? ");
+            spaces(maxKeyLength - key.length());
+            out.append('\'').append(key).append("' : ");
+            node(keyValue.getValue(), indent + maxKeyLength + 5, depth + 1);
+        }
+
+        /**
+         * Writes the text of leaf-node, where every line-break is followed by the indentation
+         */
+        private void text(String text, int indent) throws IOException {
+            int start = 0;
+            for (int i = 0; i < text.length(); i++) {
+                char ch = text.charAt(i);
+                if (ch == '\n' || ch == '\r' || ch == '\u000B' || ch == '\u000C'
+                    || ch == '\u0085' || ch == '\u2028' || ch == '\u2029') {
+                    out.append(text, start, i);
+                    newLine(indent);
+                    if (ch == '\r' && i + 1 < text.length() && text.charAt(i + 1) == '\n') {
+                        i++;
+                    }
+                    start = i + 1;
+                }
+            }
+            out.append(text, start, text.length());
+        }
+
+        private void newLine(int indent) throws IOException {
+            out.append(LINE_SEPARATOR);
+            spaces(indent);
+        }
+
+        private void spaces(int count) throws IOException {
+            for (int i = 0; i < count; i++) {
+                out.append(' ');
+            }
+        }
+
+        private String hex(YamlNode<?> yamlNode) {
+            String hex = Integer.toHexString(identityHashCode(yamlNode));
+            return "00000000".substring(hex.length()) + hex;
+        }
+    }
+}
@@ -0,0 +1,470 @@
+package org.krmdemo.yaml.reconcile.impl;
+
+import lombok.NonNull;
+import org.krmdemo.yaml.reconcile.YamlNode;
+import org.snakeyaml.engine.v2.api.LoadSettings;
+import org.snakeyaml.engine.v2.nodes.Node;
+import org.snakeyaml.engine.v2.nodes.ScalarNode;
+import org.snakeyaml.engine.v2.nodes.Tag;
+import org.snakeyaml.engine.v2.resolver.CoreScalarResolver;
+import org.snakeyaml.engine.v2.resolver.ScalarResolver;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * Streaming emitter, which walks the tree of yaml-nodes and writes it in block-style directly
+ * into {@link Appendable} (like {@link java.io.Writer} or {@link StringBuilder}) without the graph
+ * of snakeyaml-nodes (so, the snakeyaml-twins of containers are never materialized).
+ * <p/>
+ * All the lines of the document are written into one re-used buffer, which is flushed into the output
+ * by large chunks. Sequences are not indented relative to their keys (like in the output of {@code kubectl}).
+ * Strings are written as plain scalars when it's safe (they are not resolved into another type and contain
+ * no indicators), as single-quoted scalars when they contain only printable characters, as literal blocks
+ * when they are multi-line, and as double-quoted scalars with escapes otherwise.
+ * <p/>
+ * The comments, which are retained by {@link YamlComments}, are written back: the block comments before
+ * key-values and elements, the in-line comments at the end of their first line, and the trailing comments
+ * at the end of document.
+ */
+public class YamlEmitter {
+
+    public static final int DEFAULT_INDENT = 2;
+
+    private static final int FLUSH_THRESHOLD = 8192;
+
+    private static final ScalarResolver CORE_RESOLVER = new CoreScalarResolver();
+
+    private final int indent;
+
+    private final ScalarResolver scalarResolver;
+
+    /**
+     * Creates the emitter with the default indentation, whose plain scalars are resolved by the default schema
+     */
+    public YamlEmitter() {
+        this(DEFAULT_INDENT, LoadSettings.builder().build().getSchema().getScalarResolver());
+    }
+
+    /**
+     * @param indent the number of spaces to indent the nested dictionaries (from 1 to 10)
+     * @param scalarResolver the resolver of tags of plain scalars, which is used to load the emitted documents
+     */
+    public YamlEmitter(int indent, @NonNull ScalarResolver scalarResolver) {
+        if (indent < 1 || indent > 10) {
+            throw new IllegalArgumentException("indent must be between 1 and 10 - " + indent);
+        }
+        this.indent = indent;
+        this.scalarResolver = scalarResolver;
+    }
+
+    /**
+     * @param document the root of yaml-document
+     * @param out the output to write the document into
+     * @throws UncheckedIOException if the output could not be written
+     */
+    public void emit(@NonNull YamlNode<Node> document, @NonNull Appendable out) {
+        Output output = new Output(out);
+        output.document(document);
+        output.flush();
+    }
+
+    /**
+     * @param documents the roots of yaml-documents (which are separated by {@code ---})
+     * @param out the output to write the documents into
+     * @throws UncheckedIOException if the output could not be written
+     */
+    public void emitAll(@NonNull Stream<YamlNode<Node>> documents, @NonNull Appendable out) {
+        Output output = new Output(out);
+        documents.forEachOrdered(document -> {
+            if (output.documentsCount++ > 0) {
+                output.buf.append("---\n");
+            }
+            output.document(document);
+            output.flushIfFull();
+        });
+        output.flush();
+    }
+
+    /**
+     * @param document the root of yaml-document
+     * @return the content of the document in yaml-format
+     */
+    public String toYaml(@NonNull YamlNode<Node> document) {
+        StringBuilder sb = new StringBuilder();
+        emit(document, sb);
+        return sb.toString();
+    }
+
+    /**
+     * The state of emitting: the re-used buffer of lines and the target output
+     */
+    private final class Output {
+
+        private final Appendable out;
+        private final StringBuilder buf;
+        private int documentsCount = 0;
+
+        /**
+         * the in-line comment, which should be written before the next line-feed (or {@code null})
+         */
+        private String pendingInLine = null;
+
+        private Output(Appendable out) {
+            this.out = out;
+            this.buf = out instanceof StringBuilder sb ? sb : new StringBuilder(FLUSH_THRESHOLD + 1024);
+        }
+
+        private void document(YamlNode<Node> document) {
+            switch (document.getType()) {
+                case DICTIONARY -> {
+                    if (document.childrenCount() == 0) {
+                        buf.append("{}\n");
+                    } else {
+                        mapping(document, 0, false);
+                    }
+                }
+                case SEQUENCE -> {
+                    if (document.childrenCount() == 0) {
+                        buf.append("[]\n");
+                    } else {
+                        sequence(document, 0, false);
+                    }
+                }
+                case KEY_VALUE -> keyValue(document, 0, false);
+                default -> {
+                    pendingInLine = inLineOf(document);
+                    scalar(document, 0);
+                }
+            }
+            YamlComments.Comment comment = YamlComments.of(document);
+            if (comment != null) {
+                commentLines(comment.trailingLines(), 0);
+            }
+        }
+
+        private void mapping(YamlNode<Node> dictionary, int column, boolean inlineFirst) {
+            for (int i = 0, count = dictionary.childrenCount(); i < count; i++) {
+                keyValue(dictionary.childByIndex(i), column, inlineFirst && i == 0);
+            }
+        }
+
+        private void keyValue(YamlNode<Node> keyValue, int column, boolean inline) {
+            if (!inline) {
+                blockComments(keyValue, column);
+                spaces(column);
+            }
+            string(keyValue.getKey(), column, false);
+            buf.append(':');
+            pendingInLine = inLineOf(keyValue);
+            YamlNode<Node> value = keyValue.getValue();
+            switch (value.getType()) {
+                case DICTIONARY -> {
+                    if (value.childrenCount() == 0) {
+                        buf.append(" {}");
+                        lineFeed();
+                    } else {
+                        lineFeed();
+                        flushIfFull();
+                        mapping(value, column + indent, false);
+                    }
+                }
+                case SEQUENCE -> {
+                    if (value.childrenCount() == 0) {
+                        buf.append(" []");
+                        lineFeed();
+                    } else {
+                        lineFeed();
+                        flushIfFull();
+                        sequence(value, column, false);
+                    }
+                }
+                default -> {
+                    buf.append(' ');
+                    scalar(value, column);
+                }
+            }
+        }
+
+        private void sequence(YamlNode<Node> sequence, int column, boolean inlineFirst) {
+            for (int i = 0, count = sequence.childrenCount(); i < count; i++) {
+                YamlNode<Node> element = sequence.childByIndex(i);
+                if (!inlineFirst || i > 0) {
+                    leadingComments(element, column);
+                    spaces(column);
+                }
+                buf.append("- ");
+                pendingInLine = inLineOf(element);
+                switch (element.getType()) {
+                    case DICTIONARY -> {
+                        if (element.childrenCount() == 0) {
+                            buf.append("{}");
+                            lineFeed();
+                        } else {
+                            mapping(element, column + 2, true);
+                        }
+                    }
+                    case SEQUENCE -> {
+                        if (element.childrenCount() == 0) {
+                            buf.append("[]");
+                            lineFeed();
+                        } else {
+                            sequence(element, column + 2, true);
+                        }
+                    }
+                    default -> scalar(element, column);
+                }
+                pendingInLine = null;
+                flushIfFull();
+            }
+        }
+
+        /**
+         * Writes the block comments of the element of sequence, and the block comments of its first child,
+         * which is written on the same line with the sequence-indicator
+         */
+        private void leadingComments(YamlNode<Node> element, int column) {
+            blockComments(element, column);
+            if (element.getType() == YamlNode.Type.DICTIONARY && element.childrenCount() > 0) {
+                blockComments(element.childByIndex(0), column);
+            } else if (element.getType() == YamlNode.Type.SEQUENCE && element.childrenCount() > 0) {
+                leadingComments(element.childByIndex(0), column);
+            }
+        }
+
+        private void blockComments(YamlNode<Node> yamlNode, int column) {
+            YamlComments.Comment comment = YamlComments.of(yamlNode);
+            if (comment != null) {
+                commentLines(comment.blockLines(), column);
+            }
+        }
+
+        private void commentLines(List<String> lines, int column) {
+            for (String line : lines) {
+                spaces(column);
+                buf.append('#').append(line).append('\n');
+            }
+        }
+
+        private String inLineOf(YamlNode<Node> yamlNode) {
+            YamlComments.Comment comment = YamlComments.of(yamlNode);
+            return comment == null ? null : comment.inLine();
+        }
+
+        /**
+         * Writes the line-feed, which is preceded by the pending in-line comment (if any)
+         */
+        private void lineFeed() {
+            if (pendingInLine != null) {
+                buf.append(" #").append(pendingInLine);
+                pendingInLine = null;
+            }
+            buf.append('\n');
+        }
+
+        /**
+         * Writes the scalar (with the explicit tag if it's required) and the line-feed
+         */
+        private void scalar(YamlNode<Node> scalar, int column) {
+            Tag tag = tagOf(scalar);
+            String value = scalar.asString();
+            if (Tag.STR.equals(tag)) {
+                string(value, column, true);
+                return;
+            } else if (Tag.NULL.equals(tag)) {
+                buf.append(Tag.NULL.equals(scalarResolver.resolve(value, true)) && !value.isEmpty() ? value : "null");
+            } else if (isStandard(tag) && tag.equals(scalarResolver.resolve(value, true))) {
+                buf.append(value);
+            } else {
+                String tagValue = tag.getValue();
+                buf.append(tagValue.startsWith(Tag.PREFIX) ? "!!" + tagValue.substring(Tag.PREFIX.length())
+                    : tagValue.startsWith("!") ? tagValue : "!<" + tagValue + ">").append(' ');
+                string(value, column, true);
+                return;
+            }
+            lineFeed();
+        }
+
+        /**
+         * @param value the string to write
+         * @param column the column of the key or of the sequence-indicator (to indent the literal block)
+         * @param isValue {@code true} if it's a value (which is followed by the line-feed), or {@code false} for a key
+         */
+        private void string(String value, int column, boolean isValue) {
+            if (isPlain(value)) {
+                buf.append(value);
+            } else if (isValue && isLiteral(value)) {
+                literal(value, column + indent);
+                return;
+            } else if (isPrintable(value)) {
+                singleQuoted(value);
+            } else {
+                doubleQuoted(value);
+            }
+            if (isValue) {
+                lineFeed();
+            }
+        }
+
+        private void literal(String value, int column) {
+            int end = value.length();
+            while (end > 0 && value.charAt(end - 1) == '\n') {
+                end--;
+            }
+            int trailingLineFeeds = value.length() - end;
+            buf.append(trailingLineFeeds == 0 ? "|-" : trailingLineFeeds == 1 ? "|" : "|+");
+            lineFeed();
+            for (int start = 0; start <= end; ) {
+                int lineEnd = value.indexOf('\n', start);
+                lineEnd = lineEnd < 0 || lineEnd > end ? end : lineEnd;
+                if (lineEnd > start) {
+                    spaces(column);
+                    buf.append(value, start, lineEnd);
+                }
+                buf.append('\n');
+                start = lineEnd + 1;
+            }
+            for (int i = 1; i < trailingLineFeeds; i++) {
+                buf.append('\n');
+            }
+            flushIfFull();
+        }
+
+        private void singleQuoted(String value) {
+            buf.append('\'');
+            for (int i = 0; i < value.length(); i++) {
+                char ch = value.charAt(i);
+                buf.append(ch);
+                if (ch == '\'') {
+                    buf.append('\'');
+                }
+            }
+            buf.append('\'');
+        }
+
+        private void doubleQuoted(String value) {
+            buf.append('"');
+            for (int i = 0; i < value.length(); i++) {
+                char ch = value.charAt(i);
+                switch (ch) {
+                    case '"' -> buf.append("\\\"");
+                    case '\\' -> buf.append("\\\\");
+                    case '\n' -> buf.append("\\n");
+                    case '\r' -> buf.append("\\r");
+                    case '\t' -> buf.append("\\t");
+                    case '\0' -> buf.append("\\0");
+                    default -> {
+                        if (isPrintable(ch)) {
+                            buf.append(ch);
+                        } else if (ch <= 0xFF) {
+                            buf.append(String.format("\\x%02X", (int) ch));
+                        } else {
+                            buf.append(String.format("\\u%04X", (int) ch));
+                        }
+                    }
+                }
+            }
+            buf.append('"');
+        }
+
+        private void spaces(int count) {
+            for (int i = 0; i < count; i++) {
+                buf.append(' ');
+            }
+        }
+
+        private void flushIfFull() {
+            if (buf.length() >= FLUSH_THRESHOLD && buf != out) {
+                flush();
+            }
+        }
+
+        private void flush() {
+            if (buf == out || buf.isEmpty()) {
+                return;
+            }
+            try {
+                out.append(buf);
+            } catch (IOException ioEx) {
+                throw new UncheckedIOException("could not write the yaml-document", ioEx);
+            }
+            buf.setLength(0);
+        }
+    }
+
+    /**
+     * @return {@code true} if the string could be written as a plain scalar, which is loaded as the same string
+     */
+    boolean isPlain(String value) {
+        if (value.isEmpty() || value.startsWith("---") || value.startsWith("...")) {
+            return false;
+        }
+        char first = value.charAt(0);
+        char last = value.charAt(value.length() - 1);
+        if (first == ' ' || last == ' ' || last == ':') {
+            return false;
+        }
+        if ("?:,[]{}#&*!|>'\"%@`".indexOf(first) >= 0
+                || first == '-' && (value.length() == 1 || value.charAt(1) == ' ')) {
+            return false;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char ch = value.charAt(i);
+            if (ch < ' ' || !isPrintable(ch)
+                    || ch == ':' && value.charAt(i + 1) == ' '
+                    || ch == '#' && value.charAt(i - 1) == ' ') {
+                return false;
+            }
+        }
+        return Tag.STR.equals(scalarResolver.resolve(value, true)) && Tag.STR.equals(CORE_RESOLVER.resolve(value, true));
+    }
+
+    /**
+     * @return {@code true} if the multi-line string could be written as a literal block without any loss
+     */
+    private static boolean isLiteral(String value) {
+        if (value.indexOf('\n') < 0 || value.startsWith(" ") || value.startsWith("\n")) {
+            return false;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char ch = value.charAt(i);
+            if (ch != '\n' && !isPrintable(ch) || ch == '\r') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isPrintable(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (!isPrintable(value.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isPrintable(char ch) {
+        return ch >= ' ' && ch < 0x7F || ch >= 0xA0 && ch <= 0xFFFD && ch != 0xFEFF;
+    }
+
+    private static boolean isStandard(Tag tag) {
+        return Tag.INT.equals(tag) || Tag.FLOAT.equals(tag) || Tag.BOOL.equals(tag);
+    }
+
+    /**
+     * @return the tag of scalar (without the creation of snakeyaml-twin, if it's not created yet)
+     */
+    private static Tag tagOf(YamlNode<Node> scalar) {
+        if (scalar instanceof YamlPrimitiveScalar primitiveScalar) {
+            return primitiveScalar.tag();
+        } else if (scalar instanceof YamlCsvScalar csvScalar) {
+            return csvScalar.tag();
+        } else if (scalar instanceof YamlArena.ArenaNode arenaNode) {
+            return arenaNode.tag();
+        }
+        return ((ScalarNode) scalar.asOrigin()).getTag();
+    }
+}
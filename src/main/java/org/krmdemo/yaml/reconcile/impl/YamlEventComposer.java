@@ -0,0 +1,309 @@
+package org.krmdemo.yaml.reconcile.impl;
+
+import lombok.NonNull;
+import org.krmdemo.yaml.reconcile.YamlNode;
+import org.snakeyaml.engine.v2.api.LoadSettings;
+import org.snakeyaml.engine.v2.comments.CommentType;
+import org.snakeyaml.engine.v2.common.ScalarStyle;
+import org.snakeyaml.engine.v2.events.AliasEvent;
+import org.snakeyaml.engine.v2.events.CollectionStartEvent;
+import org.snakeyaml.engine.v2.events.CommentEvent;
+import org.snakeyaml.engine.v2.events.Event;
+import org.snakeyaml.engine.v2.events.NodeEvent;
+import org.snakeyaml.engine.v2.events.ScalarEvent;
+import org.snakeyaml.engine.v2.exceptions.ComposerException;
+import org.snakeyaml.engine.v2.nodes.Node;
+import org.snakeyaml.engine.v2.nodes.ScalarNode;
+import org.snakeyaml.engine.v2.nodes.Tag;
+import org.snakeyaml.engine.v2.resolver.ScalarResolver;
+
+import java.util.*;
+
+import static java.lang.String.format;
+
+/**
+ * Builds the trees of {@link YamlNode} directly from the events of snakeyaml-engine's low-level parser,
+ * so no intermediate graph of snakeyaml-nodes is composed (as it's done by {@code Load} or {@code Compose}).
+ * <p/>
+ * Every call of {@link #next()} consumes the events of exactly one yaml-document,
+ * which allows to process huge multi-document streams one document at a time.
+ * <p/>
+ * If the parsing of comments is enabled by load-settings, the comments are attached to the nodes
+ * in the side-table of {@link YamlComments} (otherwise there are no comment-events at all).
+ */
+class YamlEventComposer implements Iterator<YamlNode<Node>> {
+
+    private final Iterator<Event> events;
+
+    private final ScalarResolver scalarResolver;
+
+    private final YamlKeyPool keyPool;
+
+    /**
+     * {@code true} if the parser emits comment-events (see {@link LoadSettings#getParseComments()})
+     */
+    private final boolean parseComments;
+
+    private final Map<String, YamlNode<Node>> anchors = new HashMap<>();
+
+    private final Deque<Frame> stack = new ArrayDeque<>();
+
+    private YamlNode<Node> nextDocument = null;
+
+    /**
+     * the block comments, which are not claimed yet by the next key or element (or {@code null} if there are no ones)
+     */
+    private List<String> pendingComments = null;
+
+    /**
+     * the last completed key-value or element, which could be followed by the in-line comment
+     */
+    private YamlNode<Node> lastCompleted = null;
+
+    private boolean streamEnd = false;
+
+    YamlEventComposer(@NonNull LoadSettings loadSettings, @NonNull YamlKeyPool keyPool, @NonNull Iterator<Event> events) {
+        this.events = events;
+        this.scalarResolver = loadSettings.getSchema().getScalarResolver();
+        this.keyPool = keyPool;
+        this.parseComments = loadSettings.getParseComments();
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (nextDocument == null && !streamEnd) {
+            nextDocument = composeNextDocument();
+        }
+        return nextDocument != null;
+    }
+
+    @Override
+    public YamlNode<Node> next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException("no more yaml-documents in the stream");
+        }
+        YamlNode<Node> document = nextDocument;
+        nextDocument = null;
+        return document;
+    }
+
+    private YamlNode<Node> composeNextDocument() {
+        while (events.hasNext()) {
+            Event event = events.next();
+            switch (event.getEventId()) {
+                case DocumentStart -> {
+                    return composeDocument();
+                }
+                case StreamEnd -> {
+                    streamEnd = true;
+                    return null;
+                }
+                case Comment -> comment((CommentEvent) event);
+                default -> {
+                    // stream-start and document-end are skipped
+                }
+            }
+        }
+        streamEnd = true;
+        return null;
+    }
+
+    private YamlNode<Node> composeDocument() {
+        anchors.clear();  // anchors are visible only within the document, where they are defined
+        YamlNode<Node> root = null;
+        while (events.hasNext()) {
+            Event event = events.next();
+            YamlNode<Node> completed = null;
+            switch (event.getEventId()) {
+                case Scalar -> completed = scalar((ScalarEvent) event);
+                case Alias -> completed = alias((AliasEvent) event);
+                case SequenceStart -> stack.push(new SequenceFrame((CollectionStartEvent) event));
+                case MappingStart -> stack.push(new MappingFrame((CollectionStartEvent) event, keyPool));
+                case SequenceEnd, MappingEnd -> {
+                    Frame frame = stack.pop();
+                    completed = anchored(frame.startEvent, frame.build());
+                }
+                case DocumentEnd -> {
+                    if (!stack.isEmpty()) {
+                        throw new ComposerException("document is finished before all collections", event.getStartMark());
+                    }
+                    if (pendingComments != null && root != null) {
+                        YamlComments.attach(root, YamlComments.trailing(pendingComments));
+                    }
+                    pendingComments = null;
+                    lastCompleted = null;
+                    return root;
+                }
+                case Comment -> comment((CommentEvent) event);
+                default -> {
+                    // document-start is already consumed
+                }
+            }
+            if (completed == null) {
+                continue;
+            }
+            if (stack.isEmpty()) {
+                root = completed;
+                lastCompleted = completed;
+            } else {
+                lastCompleted = stack.peek().add(completed, event);
+            }
+        }
+        throw new ComposerException("unexpected end of the stream inside yaml-document", Optional.empty());
+    }
+
+    private void comment(CommentEvent event) {
+        if (event.getCommentType() == CommentType.BLOCK) {
+            if (pendingComments == null) {
+                pendingComments = new ArrayList<>();
+            }
+            pendingComments.add(event.getValue());
+        } else if (event.getCommentType() == CommentType.IN_LINE) {
+            if (!stack.isEmpty() && stack.peek() instanceof MappingFrame mappingFrame && mappingFrame.pendingKey != null) {
+                mappingFrame.keyInLine = event.getValue();  // the comment after the key, whose value is on next lines
+            } else if (lastCompleted != null) {
+                YamlComments.attach(lastCompleted, YamlComments.inLine(event.getValue()));
+            }
+        }
+    }
+
+    /**
+     * @return the pending block comments, which are claimed by the key or by the element of sequence
+     */
+    private List<String> claimComments() {
+        List<String> comments = pendingComments;
+        pendingComments = null;
+        return comments;
+    }
+
+    private YamlNode<Node> scalar(ScalarEvent event) {
+        boolean isKey = !stack.isEmpty() && stack.peek().expectsKey();
+        if (isKey) {
+            // the key of dictionary is passed as a raw string without creating a scalar-node
+            ((MappingFrame) stack.peek()).pendingKey = event.getValue();
+            ((MappingFrame) stack.peek()).keyComments = claimComments();
+            if (event.getAnchor().isEmpty()) {
+                return null;
+            }
+        }
+        Optional<String> explicitTag = event.getTag();
+        boolean resolved = explicitTag.isEmpty() || "!".equals(explicitTag.get());
+        Tag tag = resolved
+            ? scalarResolver.resolve(event.getValue(), event.getImplicit().canOmitTagInPlainScalar())
+            : new Tag(explicitTag.get());
+        YamlNode<Node> primitiveScalar = resolved && event.getScalarStyle() == ScalarStyle.PLAIN
+            // shared scalars could not be used when comments are parsed, because comments are attached by identity
+            ? YamlPrimitiveScalar.ofResolved(tag, event.getValue(), !parseComments)
+            : null;
+        YamlNode<Node> yamlScalar = anchored(event, primitiveScalar != null
+            ? primitiveScalar : new YamlScalar(new ScalarNode(tag, event.getValue(), event.getScalarStyle())));
+        if (!isKey && pendingComments != null && !stack.isEmpty() && stack.peek() instanceof SequenceFrame) {
+            YamlComments.attach(yamlScalar, YamlComments.block(claimComments()));
+        }
+        return isKey ? null : yamlScalar;
+    }
+
+    private YamlNode<Node> alias(AliasEvent event) {
+        String anchor = event.getAlias().getValue();
+        YamlNode<Node> yamlNode = anchors.get(anchor);
+        if (yamlNode == null) {
+            throw new ComposerException(format("found undefined (or recursive) alias '%s'", anchor), event.getStartMark());
+        }
+        if (!stack.isEmpty() && stack.peek().expectsKey()) {
+            if (yamlNode.getType() != YamlNode.Type.SCALAR) {
+                throw new ComposerException(format("alias '%s' of %s could not be a key", anchor, yamlNode.getType()),
+                    event.getStartMark());
+            }
+            ((MappingFrame) stack.peek()).pendingKey = yamlNode.asString();
+            ((MappingFrame) stack.peek()).keyComments = claimComments();
+            return null;
+        }
+        return yamlNode;
+    }
+
+    private YamlNode<Node> anchored(NodeEvent event, YamlNode<Node> yamlNode) {
+        if (yamlNode != null) {
+            event.getAnchor().ifPresent(anchor -> anchors.put(anchor.getValue(), yamlNode));
+        }
+        return yamlNode;
+    }
+
+    private abstract static class Frame {
+        final CollectionStartEvent startEvent;
+
+        Frame(CollectionStartEvent startEvent) {
+            this.startEvent = startEvent;
+        }
+
+        boolean expectsKey() {
+            return false;
+        }
+
+        /**
+         * @return the added child (the element of sequence or the key-value of dictionary)
+         */
+        abstract YamlNode<Node> add(YamlNode<Node> yamlNode, Event event);
+
+        abstract YamlNode<Node> build();
+    }
+
+    private static class SequenceFrame extends Frame {
+        private final List<YamlNode<Node>> children = new ArrayList<>();
+
+        SequenceFrame(CollectionStartEvent startEvent) {
+            super(startEvent);
+        }
+
+        @Override
+        YamlNode<Node> add(YamlNode<Node> yamlNode, Event event) {
+            children.add(yamlNode);
+            return yamlNode;
+        }
+
+        @Override
+        YamlNode<Node> build() {
+            return new YamlSequence(children.stream());
+        }
+    }
+
+    private static class MappingFrame extends Frame {
+        private final List<YamlKeyValue> children = new ArrayList<>();
+        private final YamlKeyPool keyPool;
+        private String pendingKey = null;
+        private List<String> keyComments = null;
+        private String keyInLine = null;
+
+        MappingFrame(CollectionStartEvent startEvent, YamlKeyPool keyPool) {
+            super(startEvent);
+            this.keyPool = keyPool;
+        }
+
+        @Override
+        boolean expectsKey() {
+            return pendingKey == null;
+        }
+
+        @Override
+        YamlNode<Node> add(YamlNode<Node> yamlNode, Event event) {
+            if (pendingKey == null) {
+                throw new ComposerException(format("only scalar keys are supported, but %s is found", yamlNode.getType()),
+                    event.getStartMark());
+            }
+            YamlKeyValue keyValue = YamlKeyValue.parsed(keyPool, pendingKey, yamlNode);
+            if (keyComments != null || keyInLine != null) {
+                YamlComments.attach(keyValue, new YamlComments.Comment(
+                    keyComments == null ? List.of() : keyComments, keyInLine, List.of()));
+            }
+            children.add(keyValue);
+            pendingKey = null;
+            keyComments = null;
+            keyInLine = null;
+            return keyValue;
+        }
+
+        @Override
+        YamlNode<Node> build() {
+            return new YamlDictionary(children.stream());
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package org.krmdemo.yaml.reconcile.impl;
+
+import lombok.NonNull;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.text.StringEscapeUtils;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static java.lang.String.format;
+
+/**
+ * Thread-safe pool of validated keys of dictionaries, which is shared across all loaded documents.
+ * <p/>
+ * Every distinct key is validated only once, and then the same key-string is re-used by all
+ * {@link YamlKeyValue}s with that key. Only strings are shared: the key-nodes of snakeyaml are created
+ * per tuple, because the serializer of snakeyaml puts an anchor on every node, which it meets twice.
+ * <p/>
+ * Any scalar is a valid key of a parsed document (including empty, quoted and non-ASCII ones), so such keys
+ * are never rejected (see {@link #internParsed(String)}), but only the keys, which are valid in code, are retained.
+ * <p/>
+ * The pool is bounded by the maximum number of keys: when it's full, the new keys
+ * are still validated and returned, but not retained (so, huge dictionaries with unique keys
+ * could not exhaust the memory through the pool).
+ */
+public class YamlKeyPool {
+
+    public static final int DEFAULT_MAX_SIZE = 1 << 16;
+
+    private static final YamlKeyPool SHARED = new YamlKeyPool(DEFAULT_MAX_SIZE);
+
+    private final ConcurrentMap<String, String> keys = new ConcurrentHashMap<>();
+
+    private final int maxSize;
+
+    public YamlKeyPool(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * @return the pool, which is used by default by {@link YamlKeyValue} and {@link SnakeYamlEngineFactory}
+     */
+    public static YamlKeyPool shared() {
+        return SHARED;
+    }
+
+    /**
+     * @param key the key of dictionary
+     * @return validated and interned key-string, which is equal to the passed one
+     * @throws IllegalArgumentException if the key is blank or contains invalid symbols
+     */
+    public String intern(@NonNull String key) {
+        String internedKey = keys.get(key);
+        if (internedKey != null) {
+            return internedKey;
+        }
+        validateKey(key);
+        return retain(key);
+    }
+
+    /**
+     * @param key the key of dictionary in a parsed document (which could be empty, quoted or non-ASCII)
+     * @return interned key-string, which is equal to the passed one
+     */
+    String internParsed(@NonNull String key) {
+        String internedKey = keys.get(key);
+        if (internedKey != null) {
+            return internedKey;
+        }
+        return isValidKey(key) ? retain(key) : key;
+    }
+
+    private String retain(String key) {
+        if (keys.size() >= maxSize) {
+            return key;
+        }
+        String prevKey = keys.putIfAbsent(key, key);
+        return prevKey == null ? key : prevKey;
+    }
+
+    /**
+     * @return the number of keys that are currently retained in this pool
+     */
+    public int size() {
+        return keys.size();
+    }
+
+    /**
+     * Removes all the retained keys (already loaded documents keep referring to their keys)
+     */
+    public void clear() {
+        keys.clear();
+    }
+
+    private static boolean isValidKey(String key) {
+        return !StringUtils.isBlank(key) && key.equals(StringEscapeUtils.escapeJava(key));
+    }
+
+    private static void validateKey(String key) {
+        if (!isValidKey(key)) {
+            throw new IllegalArgumentException(format("invalid key (blank or contains invalid symbols) - '%s'", key));
+        }
+    }
+}
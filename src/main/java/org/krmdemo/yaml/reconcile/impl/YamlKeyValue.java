@@ -1,10 +1,7 @@
 package org.krmdemo.yaml.reconcile.impl;
 
 import lombok.NonNull;
-import org.apache.commons.lang3.StringUtils;
-import org.apache.commons.text.StringEscapeUtils;
 import org.krmdemo.yaml.reconcile.YamlNode;
-import org.snakeyaml.engine.v2.api.RepresentToNode;
 import org.snakeyaml.engine.v2.common.ScalarStyle;
 import org.snakeyaml.engine.v2.nodes.Node;
 import org.snakeyaml.engine.v2.nodes.NodeTuple;
@@ -16,22 +13,91 @@ import java.util.stream.Stream;
 import static java.lang.String.format;
 import static java.lang.System.identityHashCode;
 
-public class YamlKeyValue implements YamlNode<Node>, RepresentToNode {
+public class YamlKeyValue extends YamlBaseNode {
 
-    final NodeTuple tuple;
+    /**
+     * the interned key (see {@link YamlKeyPool}), whose scalar-node is created only within the tuple
+     */
+    final String key;
 
     final YamlNode<Node> valueNode;
 
+    /**
+     * the snakeyaml-tuple is created only on demand, because the origin of value could be not materialized yet
+     */
+    private volatile NodeTuple tuple;
+
     public YamlKeyValue(@NonNull String key, @NonNull YamlNode<Node> valueNode) {
-        if (StringUtils.isBlank(key) || !key.equals(StringEscapeUtils.escapeJava(key))) {
-            throw new IllegalArgumentException(format("invalid key (blank or contains invalid symbols) - '%s'", key));
-        }
+        this(YamlKeyPool.shared(), key, valueNode);
+    }
+
+    /**
+     * @param keyPool the pool, where the key is validated and interned
+     * @param key the key of dictionary
+     * @param valueNode the value by the key
+     */
+    public YamlKeyValue(@NonNull YamlKeyPool keyPool, @NonNull String key, @NonNull YamlNode<Node> valueNode) {
+        this(keyPool.intern(key), valueNode, null);
+    }
+
+    private YamlKeyValue(String internedKey, YamlNode<Node> valueNode, NodeTuple tuple) {
         if (valueNode.getType() == Type.KEY_VALUE) {
             throw new IllegalArgumentException("nested key-value are not supported");
         }
-        ScalarNode scalarNode = new ScalarNode(Tag.STR, key, ScalarStyle.SINGLE_QUOTED);
-        this.tuple = new NodeTuple(scalarNode, valueNode.asOrigin());
+        this.key = internedKey;
+        this.valueNode = valueNode;
+        this.tuple = tuple;
+    }
+
+    /**
+     * @param key the key of an existing yaml-document (which could be empty, quoted or non-ASCII)
+     * @param valueNode the value by the key
+     * @return the new key-value, whose key is not validated again (see {@link #parsed(YamlKeyPool, String, YamlNode)})
+     */
+    public static YamlKeyValue ofDocumentKey(@NonNull String key, @NonNull YamlNode<Node> valueNode) {
+        return parsed(YamlKeyPool.shared(), key, valueNode);
+    }
+
+    /**
+     * Creates the key-value of a parsed document, whose key is interned without validation (like the key
+     * of {@link #YamlKeyValue(NodeTuple, YamlNode)}), because any scalar is a valid key in yaml-format
+     *
+     * @param keyPool the pool, where the key is interned
+     * @param key the key of dictionary (which could be empty, quoted or non-ASCII)
+     * @param valueNode the value by the key
+     * @return the new key-value
+     */
+    static YamlKeyValue parsed(@NonNull YamlKeyPool keyPool, @NonNull String key, @NonNull YamlNode<Node> valueNode) {
+        return new YamlKeyValue(keyPool.internParsed(key), valueNode, null);
+    }
+
+    /**
+     * Wraps the existing snakeyaml-tuple without re-validation of the key (which is already in the origin graph).
+     *
+     * @param tuple an original snakeyaml-tuple with the scalar key-node
+     * @param valueNode the yaml-node that corresponds to the value-node of the tuple
+     */
+    YamlKeyValue(@NonNull NodeTuple tuple, @NonNull YamlNode<Node> valueNode) {
+        if (!(tuple.getKeyNode() instanceof ScalarNode keyNode)) {
+            throw new IllegalStateException("invalid type of key in key-value - " + tuple.getKeyNode().getClass());
+        }
+        this.key = keyNode.getValue();
         this.valueNode = valueNode;
+        this.tuple = tuple;
+    }
+
+    /**
+     * @param keyValue a key-value of any implementation (like the one of {@link YamlArena})
+     * @return the same key-value, or its copy (with the same value-node and comments) if it's another implementation
+     */
+    public static YamlKeyValue of(@NonNull YamlNode<Node> keyValue) {
+        if (keyValue instanceof YamlKeyValue yamlKeyValue) {
+            return yamlKeyValue;
+        }
+        if (keyValue.getType() != Type.KEY_VALUE) {
+            throw new IllegalArgumentException("key-value could not be created from " + keyValue.getType());
+        }
+        return YamlComments.copy(keyValue, ofDocumentKey(keyValue.getKey(), keyValue.getValue()));
     }
 
     @Override
@@ -45,7 +111,12 @@ public class YamlKeyValue implements YamlNode<Node>, RepresentToNode {
     }
 
     public NodeTuple asTuple() {
-        return tuple;
+        NodeTuple nodeTuple = tuple;
+        if (nodeTuple == null) {
+            nodeTuple = new NodeTuple(new ScalarNode(Tag.STR, key, ScalarStyle.SINGLE_QUOTED), valueNode.asOrigin());
+            tuple = nodeTuple;
+        }
+        return nodeTuple;
     }
 
     @Override
@@ -55,14 +126,11 @@ public class YamlKeyValue implements YamlNode<Node>, RepresentToNode {
 
     @Override
     public String toString() {
-        return toString(getKey().length());
+        return YamlDump.DEFAULT.toString(this);
     }
 
     public String toString(int maxKeyLength) {
-        String fmt = "%s(0x%08x) ? %" + (maxKeyLength + 2) + "s : %s";
-        String lineFeedWithSpaces = format("%n%" + (maxKeyLength + 5) + "s", " ");  // TODO: '5' is not precise value
-        String str = getValue().toString().replaceAll("\\R", lineFeedWithSpaces);
-        return format(fmt, getType(), identityHashCode(this), "'" + getKey() + "'", str);
+        return YamlDump.DEFAULT.toString(this, maxKeyLength);
     }
 
     @Override
@@ -72,11 +140,7 @@ public class YamlKeyValue implements YamlNode<Node>, RepresentToNode {
 
     @Override
     public String getKey() {
-        Node keyNode = tuple.getKeyNode();
-        if (keyNode instanceof ScalarNode scalarNode) {
-            return scalarNode.getValue();
-        }
-        throw new IllegalStateException("invalid type of key in key-value - " + keyNode.getClass());
+        return key;
     }
 
     @Override
@@ -101,6 +165,6 @@ public class YamlKeyValue implements YamlNode<Node>, RepresentToNode {
 
     @Override
     public String getComment() {
-        throw new UnsupportedOperationException("not implemented yet for " + getType());
+        return YamlComments.textOf(this);
     }
 }
@@ -0,0 +1,159 @@
+package org.krmdemo.yaml.reconcile.impl;
+
+import lombok.NonNull;
+import org.krmdemo.yaml.reconcile.YamlNode;
+import org.krmdemo.yaml.reconcile.util.OrderedKeyMap;
+import org.snakeyaml.engine.v2.nodes.MappingNode;
+import org.snakeyaml.engine.v2.nodes.Node;
+import org.snakeyaml.engine.v2.nodes.NodeTuple;
+import org.snakeyaml.engine.v2.nodes.ScalarNode;
+
+import java.util.*;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static java.lang.String.format;
+import static java.lang.System.identityHashCode;
+
+/**
+ * A lazy view of {@link MappingNode}, whose key-values are wrapped only on demand (and then cached).
+ * The index of keys is also built only on the first lookup by name.
+ * <p/>
+ * Duplicated keys are not allowed in yaml, but they could occur in mappings, which are composed with
+ * {@link org.snakeyaml.engine.v2.api.LoadSettings#getAllowDuplicateKeys()}. In such case the last key-value
+ * wins the lookup by name (like in {@link YamlDictionary}), while all original tuples remain available by index.
+ */
+public class YamlLazyDictionary extends YamlBaseNode {
+
+    final MappingNode mapping;
+
+    private final YamlKeyValue[] childrenCache;
+
+    private volatile KeyIndex keyIndex = null;
+
+    YamlLazyDictionary(@NonNull MappingNode mapping) {
+        this.mapping = mapping;
+        this.childrenCache = new YamlKeyValue[mapping.getValue().size()];
+    }
+
+    @Override
+    public YamlNode.Type getType() {
+        return Type.DICTIONARY;
+    }
+
+    @Override
+    public Node asOrigin() {
+        return mapping;
+    }
+
+    @Override
+    public Node representData(@NonNull Object data) {
+        if (data != this) {
+            throw new IllegalStateException(format(
+                "Representation structure is corrupted: this(%X) != data(%X)",
+                identityHashCode(this), identityHashCode(data)));
+        }
+        return asOrigin();
+    }
+
+    @Override
+    public String toString() {
+        return YamlDump.DEFAULT.toString(this);
+    }
+
+    @Override
+    public String asString() {
+        throw new UnsupportedOperationException("no string representation for " + getType());
+    }
+
+    @Override
+    public String getKey() {
+        throw new UnsupportedOperationException("no key in " + getType());
+    }
+
+    @Override
+    public YamlNode<Node> getValue() {
+        throw new UnsupportedOperationException("no value in " + getType());
+    }
+
+    @Override
+    public YamlNode<Node> childByName(String childName) {
+        int index = indexOfKey(childName);
+        return index < 0 ? null : keyValueAt(index);
+    }
+
+    @Override
+    public YamlNode<Node> childByIndex(int index) {
+        return keyValueAt(Objects.checkIndex(index, childrenCache.length));
+    }
+
+    @Override
+    public Stream<? extends YamlNode<Node>> getChildren() {
+        return IntStream.range(0, childrenCache.length).mapToObj(this::keyValueAt);
+    }
+
+    @Override
+    public int childrenCount() {
+        return childrenCache.length;
+    }
+
+    @Override
+    public String getComment() {
+        return YamlComments.textOf(this);
+    }
+
+    private YamlKeyValue keyValueAt(int index) {
+        YamlKeyValue keyValue = childrenCache[index];
+        if (keyValue == null) {
+            NodeTuple tuple = mapping.getValue().get(index);
+            keyValue = new YamlKeyValue(tuple, YamlLazyNode.wrap(tuple.getValueNode()));
+            childrenCache[index] = keyValue;
+        }
+        return keyValue;
+    }
+
+    private String keyAt(int index) {
+        Node keyNode = mapping.getValue().get(index).getKeyNode();
+        if (keyNode instanceof ScalarNode scalarNode) {
+            return scalarNode.getValue();
+        }
+        throw new IllegalStateException("invalid type of key in key-value - " + keyNode.getClass());
+    }
+
+    /**
+     * @param key the key of dictionary
+     * @return the index of key-value by the key (or {@code -1} if there is no such key)
+     */
+    int indexOfKey(String key) {
+        KeyIndex index = keyIndex;
+        if (index == null) {
+            index = buildKeyIndex();
+            keyIndex = index;
+        }
+        int pos = index.keys().indexOf(key);
+        return pos < 0 || index.positions() == null ? pos : index.positions()[pos];
+    }
+
+    private KeyIndex buildKeyIndex() {
+        OrderedKeyMap<Void> keys = new OrderedKeyMap<>(childrenCache.length);
+        for (int i = 0; i < childrenCache.length; i++) {
+            keys.put(keyAt(i), null);
+        }
+        if (keys.size() == childrenCache.length) {
+            return new KeyIndex(keys, null);
+        }
+        int[] positions = new int[keys.size()];
+        for (int i = 0; i < childrenCache.length; i++) {
+            positions[keys.indexOf(keyAt(i))] = i;  // the last duplicated key wins
+        }
+        return new KeyIndex(keys, positions);
+    }
+
+    /**
+     * @param keys the index of distinct keys
+     * @param positions the positions of tuples by the positions of distinct keys
+     *                  (or {@code null} if there are no duplicated keys, so the positions are the same)
+     */
+    private record KeyIndex(OrderedKeyMap<Void> keys, int[] positions) {
+    }
+}
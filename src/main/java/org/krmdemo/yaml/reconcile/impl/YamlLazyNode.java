@@ -0,0 +1,41 @@
+package org.krmdemo.yaml.reconcile.impl;
+
+import lombok.NonNull;
+import org.krmdemo.yaml.reconcile.YamlNode;
+import org.snakeyaml.engine.v2.nodes.AnchorNode;
+import org.snakeyaml.engine.v2.nodes.MappingNode;
+import org.snakeyaml.engine.v2.nodes.Node;
+import org.snakeyaml.engine.v2.nodes.ScalarNode;
+import org.snakeyaml.engine.v2.nodes.SequenceNode;
+
+/**
+ * Utility-class to create lazy views of {@link YamlNode} over an existing graph of snakeyaml-nodes.
+ * <p/>
+ * The children of lazy views are created only when they are requested
+ * (by {@link YamlNode#childByName}, {@link YamlNode#childByIndex} or {@link YamlNode#getChildren})
+ * and then they are cached, so the same child is not wrapped twice. Cached children are published
+ * through the plain arrays, which is a benign race: all wrappers have only final fields,
+ * so in the worst case the same child is wrapped twice by concurrent readers.
+ */
+public class YamlLazyNode {
+
+    /**
+     * @param node an origin snakeyaml-node (anchors are resolved to the real nodes)
+     * @return a lazy yaml-node of proper type, which wraps the passed snakeyaml-node
+     */
+    public static YamlNode<Node> wrap(@NonNull Node node) {
+        return switch (node.getNodeType()) {
+            case SCALAR -> new YamlLazyScalar((ScalarNode) node);
+            case SEQUENCE -> new YamlLazySequence((SequenceNode) node);
+            case MAPPING -> new YamlLazyDictionary((MappingNode) node);
+            case ANCHOR -> wrap(((AnchorNode) node).getRealNode());
+        };
+    }
+
+    /**
+     * Prohibit the instantiation of utility-class
+     */
+    private YamlLazyNode() {
+        throw new UnsupportedOperationException();
+    }
+}
@@ -0,0 +1,92 @@
+package org.krmdemo.yaml.reconcile.impl;
+
+import lombok.NonNull;
+import org.krmdemo.yaml.reconcile.YamlNode;
+import org.snakeyaml.engine.v2.nodes.Node;
+import org.snakeyaml.engine.v2.nodes.ScalarNode;
+
+import java.util.stream.Stream;
+
+import static java.lang.String.format;
+import static java.lang.System.identityHashCode;
+import static org.apache.commons.lang3.StringUtils.isEmpty;
+import static org.apache.commons.text.StringEscapeUtils.escapeJava;
+
+/**
+ * A lazy view of {@link ScalarNode}, which (unlike {@link YamlScalar}) never escapes the value in advance.
+ */
+public class YamlLazyScalar extends YamlBaseNode {
+
+    final ScalarNode scalar;
+
+    YamlLazyScalar(@NonNull ScalarNode scalar) {
+        this.scalar = scalar;
+    }
+
+    @Override
+    public Type getType() {
+        return Type.SCALAR;
+    }
+
+    @Override
+    public Node asOrigin() {
+        return scalar;
+    }
+
+    @Override
+    public Node representData(@NonNull Object data) {
+        if (data != this) {
+            throw new IllegalStateException(format(
+                "Representation structure is corrupted: %s(%X) != data(%X)",
+                getType(), identityHashCode(this), identityHashCode(data)));
+        }
+        return asOrigin();
+    }
+
+    @Override
+    public String toString() {
+        if (isEmpty(scalar.getValue())) {
+            return format("%s(0x%08x)", getType(), identityHashCode(this));
+        }
+        return switch (scalar.getScalarStyle()) {
+            case PLAIN -> format("%s(0x%08x --> %s)", getType(), identityHashCode(this), scalar.getValue());
+            case SINGLE_QUOTED -> format("%s(0x%08x) --> '%s'", getType(), identityHashCode(this), scalar.getValue());
+            default -> format("%s(0x%08x) --> \"%s\"", getType(), identityHashCode(this), escapeJava(scalar.getValue()));
+        };
+    }
+
+    @Override
+    public String asString() {
+        return scalar.getValue();
+    }
+
+    @Override
+    public String getKey() {
+        throw new UnsupportedOperationException("no key in " + getType());
+    }
+
+    @Override
+    public YamlNode<Node> getValue() {
+        throw new UnsupportedOperationException("no value in " + getType());
+    }
+
+    @Override
+    public YamlNode<Node> childByName(String childName) {
+        throw new UnsupportedOperationException("no child by name in " + getType());
+    }
+
+    @Override
+    public YamlNode<Node> childByIndex(int index) {
+        throw new UnsupportedOperationException("no child by index in " + getType());
+    }
+
+    @Override
+    public Stream<YamlNode<Node>> getChildren() {
+        throw new UnsupportedOperationException("no children in " + getType());
+    }
+
+    @Override
+    public String getComment() {
+        return YamlComments.textOf(this);
+    }
+}
@@ -0,0 +1,100 @@
+package org.krmdemo.yaml.reconcile.impl;
+
+import lombok.NonNull;
+import org.krmdemo.yaml.reconcile.YamlNode;
+import org.snakeyaml.engine.v2.nodes.Node;
+import org.snakeyaml.engine.v2.nodes.SequenceNode;
+
+import java.util.*;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static java.lang.String.format;
+import static java.lang.System.identityHashCode;
+
+/**
+ * A lazy view of {@link SequenceNode}, whose elements are wrapped only on demand (and then cached).
+ */
+public class YamlLazySequence extends YamlBaseNode {
+
+    final SequenceNode sequence;
+
+    private final YamlNode<Node>[] childrenCache;
+
+    @SuppressWarnings("unchecked")
+    YamlLazySequence(@NonNull SequenceNode sequence) {
+        this.sequence = sequence;
+        this.childrenCache = new YamlNode[sequence.getValue().size()];
+    }
+
+    @Override
+    public YamlNode.Type getType() {
+        return Type.SEQUENCE;
+    }
+
+    @Override
+    public Node asOrigin() {
+        return sequence;
+    }
+
+    @Override
+    public Node representData(@NonNull Object data) {
+        if (data != this) {
+            throw new IllegalStateException(format(
+                "Representation structure is corrupted: %s(0x%08x) != data(0x%08x)",
+                getType(), identityHashCode(this), identityHashCode(data)));
+        }
+        return asOrigin();
+    }
+
+    @Override
+    public String toString() {
+        return YamlDump.DEFAULT.toString(this);
+    }
+
+    @Override
+    public String asString() {
+        throw new UnsupportedOperationException("no string representation for sequence");
+    }
+
+    @Override
+    public String getKey() {
+        throw new UnsupportedOperationException("no key in sequence");
+    }
+
+    @Override
+    public YamlNode<Node> getValue() {
+        throw new UnsupportedOperationException("no value in sequence");
+    }
+
+    @Override
+    public YamlNode<Node> childByName(String childName) {
+        throw new UnsupportedOperationException("no child by name in sequence");
+    }
+
+    @Override
+    public YamlNode<Node> childByIndex(int index) {
+        Objects.checkIndex(index, childrenCache.length);
+        YamlNode<Node> child = childrenCache[index];
+        if (child == null) {
+            child = YamlLazyNode.wrap(sequence.getValue().get(index));
+            childrenCache[index] = child;
+        }
+        return child;
+    }
+
+    @Override
+    public Stream<? extends YamlNode<Node>> getChildren() {
+        return IntStream.range(0, childrenCache.length).mapToObj(this::childByIndex);
+    }
+
+    @Override
+    public int childrenCount() {
+        return childrenCache.length;
+    }
+
+    @Override
+    public String getComment() {
+        return YamlComments.textOf(this);
+    }
+}
@@ -0,0 +1,21 @@
+package org.krmdemo.yaml.reconcile.impl;
+
+import org.krmdemo.yaml.reconcile.YamlMapped;
+import org.krmdemo.yaml.reconcile.YamlNode;
+import org.snakeyaml.engine.v2.nodes.Node;
+
+/**
+ * The conversion of objects of some type into yaml-nodes. The implementations for classes, which are annotated
+ * with {@link YamlMapped}, are generated at compile-time (see {@link YamlMappers#mapperOf(Class)}).
+ *
+ * @param <T> the type of objects to convert
+ */
+@FunctionalInterface
+public interface YamlMapper<T> {
+
+    /**
+     * @param value the object to convert (not {@code null})
+     * @return the yaml-node that represents the object
+     */
+    YamlNode<Node> toYaml(T value);
+}
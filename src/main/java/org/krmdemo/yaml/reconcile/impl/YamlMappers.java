@@ -0,0 +1,223 @@
+package org.krmdemo.yaml.reconcile.impl;
+
+import lombok.NonNull;
+import org.krmdemo.yaml.reconcile.YamlMapped;
+import org.krmdemo.yaml.reconcile.YamlNode;
+import org.snakeyaml.engine.v2.nodes.Node;
+
+import java.lang.reflect.Array;
+import java.util.*;
+
+import static java.lang.String.format;
+
+/**
+ * The runtime support of mappers, which are generated for classes annotated with {@link YamlMapped}:
+ * the lookup of the generated mapper by the class (the single instance of generated mapper is resolved only once per class)
+ * and the conversion of collections, maps and values of unknown (at compile-time) types.
+ */
+public final class YamlMappers {
+
+    /**
+     * The suffix of the name of generated mapper
+     */
+    public static final String MAPPER_SUFFIX = "YamlMapper";
+
+    /**
+     * The name of the static field of generated mapper, which holds its single instance
+     */
+    public static final String MAPPER_INSTANCE = "INSTANCE";
+
+    private static final ClassValue<YamlMapper<?>> GENERATED_MAPPERS = new ClassValue<>() {
+        @Override
+        protected YamlMapper<?> computeValue(Class<?> type) {
+            for (Class<?> mappedType = type; mappedType != null; mappedType = mappedType.getSuperclass()) {
+                YamlMapper<?> mapper = loadGenerated(mappedType);
+                if (mapper != null) {
+                    return mapper;
+                }
+            }
+            return null;
+        }
+    };
+
+    private YamlMappers() {
+        throw new UnsupportedOperationException("it's a utility class");
+    }
+
+    /**
+     * @param type the class annotated with {@link YamlMapped} (or its subclass)
+     * @return the generated mapper of the class (which is cached per class)
+     * @throws IllegalArgumentException if there is no generated mapper for the class
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> YamlMapper<T> mapperOf(@NonNull Class<T> type) {
+        YamlMapper<T> mapper = (YamlMapper<T>) GENERATED_MAPPERS.get(type);
+        if (mapper == null) {
+            throw new IllegalArgumentException(format(
+                "there is no generated yaml-mapper for %s (is it annotated with @%s?)",
+                type.getName(), YamlMapped.class.getSimpleName()));
+        }
+        return mapper;
+    }
+
+    /**
+     * @param type the class annotated with {@link YamlMapped}
+     * @return the name of the generated mapper for the class
+     */
+    public static String mapperName(@NonNull Class<?> type) {
+        StringBuilder simpleNames = new StringBuilder(type.getSimpleName());
+        for (Class<?> enclosing = type.getEnclosingClass(); enclosing != null; enclosing = enclosing.getEnclosingClass()) {
+            simpleNames.insert(0, '_').insert(0, enclosing.getSimpleName());
+        }
+        String packageName = type.getPackageName();
+        return (packageName.isEmpty() ? "" : packageName + ".") + simpleNames + MAPPER_SUFFIX;
+    }
+
+    /**
+     * Converts the value, whose type is not known at compile-time: scalars of primitive types, strings and enums,
+     * maps (keys are converted to strings), iterables, arrays, the instances of annotated classes,
+     * and any other records and java-beans (see {@link #bindingMapperOf(Class)})
+     *
+     * @param value the value to convert (could be {@code null})
+     * @return the yaml-node that represents the value
+     */
+    @SuppressWarnings("unchecked")
+    public static YamlNode<Node> toYaml(Object value) {
+        if (value == null) {
+            return YamlPrimitiveScalar.ofNull();
+        } else if (value instanceof YamlNode<?> yamlNode) {
+            return (YamlNode<Node>) yamlNode;
+        } else if (value instanceof String str) {
+            return YamlPrimitiveScalar.of(str);
+        } else if (value instanceof Boolean bool) {
+            return YamlPrimitiveScalar.of(bool.booleanValue());
+        } else if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            return YamlPrimitiveScalar.of(((Number) value).longValue());
+        } else if (value instanceof Double || value instanceof Float) {
+            return YamlPrimitiveScalar.of(((Number) value).doubleValue());
+        } else if (value instanceof Character || value instanceof Number) {
+            return YamlPrimitiveScalar.of(value.toString());
+        } else if (value instanceof Enum<?> enumValue) {
+            return YamlPrimitiveScalar.of(enumValue.name());
+        } else if (value instanceof Map<?, ?> map) {
+            return dictionary(map, YamlMappers::toYaml);
+        } else if (value instanceof Iterable<?> iterable) {
+            return sequence(iterable, YamlMappers::toYaml);
+        } else if (value.getClass().isArray()) {
+            YamlNode<Node>[] elements = new YamlNode[Array.getLength(value)];
+            for (int i = 0; i < elements.length; i++) {
+                elements[i] = toYaml(Array.get(value, i));
+            }
+            return new YamlSequence(elements);
+        }
+        return bindingMapperOf(value.getClass()).toYaml(value);
+    }
+
+    /**
+     * @param type the class of objects to convert
+     * @return the generated mapper of the class (if it's annotated with {@link YamlMapped})
+     *         or the runtime binding of the record or the java-bean otherwise (see {@link YamlBinder#shared()})
+     */
+    @SuppressWarnings("unchecked")
+    public static YamlMapper<Object> bindingMapperOf(@NonNull Class<?> type) {
+        YamlMapper<Object> mapper = (YamlMapper<Object>) GENERATED_MAPPERS.get(type);
+        return mapper != null ? mapper : YamlBinder.shared().mapperOf(type);
+    }
+
+    /**
+     * @param map the map to convert (its keys are converted by {@link String#valueOf(Object)})
+     * @param valueMapper the mapper of non-null values of the map
+     * @return the yaml-dictionary in the order of iteration of the map
+     */
+    public static <V> YamlNode<Node> dictionary(@NonNull Map<?, ? extends V> map, @NonNull YamlMapper<? super V> valueMapper) {
+        YamlKeyValue[] keyValues = new YamlKeyValue[map.size()];
+        int count = 0;
+        for (Map.Entry<?, ? extends V> entry : map.entrySet()) {
+            V value = entry.getValue();
+            keyValues[count++] = new YamlKeyValue(String.valueOf(entry.getKey()),
+                value == null ? YamlPrimitiveScalar.ofNull() : valueMapper.toYaml(value));
+        }
+        return new YamlDictionary(count == keyValues.length ? keyValues : Arrays.copyOf(keyValues, count));
+    }
+
+    /**
+     * @param iterable the elements to convert
+     * @param elementMapper the mapper of non-null elements
+     * @return the yaml-sequence of converted elements
+     */
+    public static <E> YamlNode<Node> sequence(@NonNull Iterable<? extends E> iterable, @NonNull YamlMapper<? super E> elementMapper) {
+        List<YamlNode<Node>> elements = iterable instanceof Collection<?> collection
+            ? new ArrayList<>(collection.size()) : new ArrayList<>();
+        for (E element : iterable) {
+            elements.add(element == null ? YamlPrimitiveScalar.ofNull() : elementMapper.toYaml(element));
+        }
+        return new YamlSequence(elements.stream());
+    }
+
+    /**
+     * @param array the elements to convert
+     * @param elementMapper the mapper of non-null elements
+     * @return the yaml-sequence of converted elements
+     */
+    public static <E> YamlNode<Node> sequence(@NonNull E[] array, @NonNull YamlMapper<? super E> elementMapper) {
+        return sequence(Arrays.asList(array), elementMapper);
+    }
+
+    public static YamlNode<Node> sequence(@NonNull int[] array) {
+        YamlNode<Node>[] elements = newArray(array.length);
+        for (int i = 0; i < array.length; i++) {
+            elements[i] = YamlPrimitiveScalar.of(array[i]);
+        }
+        return new YamlSequence(elements);
+    }
+
+    public static YamlNode<Node> sequence(@NonNull long[] array) {
+        YamlNode<Node>[] elements = newArray(array.length);
+        for (int i = 0; i < array.length; i++) {
+            elements[i] = YamlPrimitiveScalar.of(array[i]);
+        }
+        return new YamlSequence(elements);
+    }
+
+    public static YamlNode<Node> sequence(@NonNull double[] array) {
+        YamlNode<Node>[] elements = newArray(array.length);
+        for (int i = 0; i < array.length; i++) {
+            elements[i] = YamlPrimitiveScalar.of(array[i]);
+        }
+        return new YamlSequence(elements);
+    }
+
+    public static YamlNode<Node> sequence(@NonNull boolean[] array) {
+        YamlNode<Node>[] elements = newArray(array.length);
+        for (int i = 0; i < array.length; i++) {
+            elements[i] = YamlPrimitiveScalar.of(array[i]);
+        }
+        return new YamlSequence(elements);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static YamlNode<Node>[] newArray(int length) {
+        return new YamlNode[length];
+    }
+
+    /**
+     * @param type the class, which could be annotated with {@link YamlMapped}
+     * @return the instance of generated mapper or {@code null} if the class has no generated mapper
+     */
+    private static YamlMapper<?> loadGenerated(Class<?> type) {
+        Class<?> mapperClass;
+        try {
+            mapperClass = Class.forName(mapperName(type), true, type.getClassLoader());
+        } catch (ClassNotFoundException cnfEx) {
+            return null;
+        }
+        if (!YamlMapper.class.isAssignableFrom(mapperClass)) {
+            return null;
+        }
+        try {
+            return (YamlMapper<?>) mapperClass.getField(MAPPER_INSTANCE).get(null);
+        } catch (ReflectiveOperationException roEx) {
+            throw new IllegalStateException("could not instantiate the generated yaml-mapper " + mapperClass.getName(), roEx);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package org.krmdemo.yaml.reconcile.impl;
+
+import lombok.NonNull;
+import org.krmdemo.yaml.reconcile.YamlNode;
+import org.krmdemo.yaml.reconcile.YamlPath;
+import org.snakeyaml.engine.v2.nodes.Node;
+
+import java.util.*;
+
+import static java.lang.String.format;
+
+/**
+ * Utility-class to update the yaml-tree by path without modification of the original tree.
+ * <p/>
+ * Only the containers along the path (the spine) are replaced with their persistent versions
+ * ({@link YamlPersistentDictionary} and {@link YamlPersistentSequence}), and all other nodes of the new tree
+ * are the same instances as in the original tree. So, the patch of several operations over a huge document
+ * allocates the memory proportional to the depth of paths rather than to the size of document.
+ */
+public final class YamlPersistent {
+
+    /**
+     * @param root the root of yaml-tree
+     * @param path the path to the value in dictionary or to the element of sequence (the index could be
+     *             equal to the size of sequence to append the element)
+     * @param value the new value by the path
+     * @return the root of the new yaml-tree
+     * @throws IllegalArgumentException if the parent of the path does not exist or is not a container
+     */
+    public static YamlNode<Node> with(@NonNull YamlNode<Node> root, @NonNull YamlPath path, @NonNull YamlNode<Node> value) {
+        if (path.isRoot()) {
+            return value;
+        }
+        return update(root, path.segments(), 0, value);
+    }
+
+    /**
+     * @param root the root of yaml-tree
+     * @param path the path to the value in dictionary or to the element of sequence
+     * @return the root of the new yaml-tree without the node by the path
+     * @throws IllegalArgumentException if the parent of the path does not exist or is not a container
+     */
+    public static YamlNode<Node> without(@NonNull YamlNode<Node> root, @NonNull YamlPath path) {
+        if (path.isRoot()) {
+            throw new IllegalArgumentException("the root of yaml-tree could not be removed");
+        }
+        return update(root, path.segments(), 0, null);
+    }
+
+    private static YamlNode<Node> update(YamlNode<Node> node, List<YamlPath> segments, int pos, YamlNode<Node> value) {
+        YamlPath segment = segments.get(pos);
+        boolean last = pos == segments.size() - 1;
+        if (segment.isKey() && node.getType() == YamlNode.Type.DICTIONARY) {
+            YamlPersistentDictionary dictionary = YamlPersistentDictionary.of(node);
+            if (last) {
+                return value == null ? dictionary.without(segment.getKey()) : dictionary.with(segment.getKey(), value);
+            }
+            YamlNode<Node> keyValue = dictionary.childByName(segment.getKey());
+            if (keyValue == null) {
+                throw new IllegalArgumentException(format("there is no node by path '%s'", segment));
+            }
+            return dictionary.with(segment.getKey(), update(keyValue.getValue(), segments, pos + 1, value));
+        }
+        if (segment.isIndex() && node.getType() == YamlNode.Type.SEQUENCE) {
+            YamlPersistentSequence sequence = YamlPersistentSequence.of(node);
+            int index = segment.getIndex();
+            if (last) {
+                return value == null ? sequence.without(index) : sequence.with(index, value);
+            }
+            if (index >= sequence.childrenCount()) {
+                throw new IllegalArgumentException(format("there is no node by path '%s'", segment));
+            }
+            return sequence.with(index, update(sequence.childByIndex(index), segments, pos + 1, value));
+        }
+        throw new IllegalArgumentException(format("the path '%s' could not be applied to %s", segment, node.getType()));
+    }
+
+    /**
+     * Prohibit the instantiation of utility-class
+     */
+    private YamlPersistent() {
+        throw new UnsupportedOperationException();
+    }
+}
@@ -0,0 +1,185 @@
+package org.krmdemo.yaml.reconcile.impl;
+
+import lombok.NonNull;
+import org.krmdemo.yaml.reconcile.YamlNode;
+import org.krmdemo.yaml.reconcile.util.PersistentHashTrie;
+import org.krmdemo.yaml.reconcile.util.PersistentVector;
+import org.snakeyaml.engine.v2.common.FlowStyle;
+import org.snakeyaml.engine.v2.nodes.MappingNode;
+import org.snakeyaml.engine.v2.nodes.Node;
+import org.snakeyaml.engine.v2.nodes.NodeTuple;
+import org.snakeyaml.engine.v2.nodes.Tag;
+
+import java.util.*;
+import java.util.stream.Stream;
+
+import static java.lang.String.format;
+import static java.lang.System.identityHashCode;
+
+/**
+ * Persistent dictionary, which shares the structure with its previous versions and with the original dictionary.
+ * <p/>
+ * Key-values are kept in {@link PersistentVector}, which is a lazy view over the key-values of the original
+ * dictionary, and the slots of new (and removed) keys are kept in {@link PersistentHashTrie}, while the slots
+ * of original keys are resolved by the index of the original dictionary. So, every update copies only
+ * O(log<sub>32</sub>n) small arrays and never touches the rest of key-values.
+ * The snakeyaml-node is created only on demand.
+ */
+public class YamlPersistentDictionary extends YamlBaseNode {
+
+    private static final Integer REMOVED = -1;
+
+    private final YamlNode<Node> base;
+
+    private final PersistentVector<YamlKeyValue> entries;
+
+    private final PersistentHashTrie<Integer> overrides;
+
+    private volatile MappingNode mapping = null;
+
+    private YamlPersistentDictionary(YamlNode<Node> base,
+                                     PersistentVector<YamlKeyValue> entries,
+                                     PersistentHashTrie<Integer> overrides) {
+        this.base = base;
+        this.entries = entries;
+        this.overrides = overrides;
+    }
+
+    /**
+     * @param dictionary a yaml-node of dictionary type
+     * @return the persistent view of the dictionary (which takes O(1) and does not copy anything)
+     */
+    public static YamlPersistentDictionary of(@NonNull YamlNode<Node> dictionary) {
+        if (dictionary instanceof YamlPersistentDictionary persistentDictionary) {
+            return persistentDictionary;
+        }
+        if (dictionary.getType() != Type.DICTIONARY) {
+            throw new IllegalArgumentException("persistent dictionary could not be created from " + dictionary.getType());
+        }
+        PersistentVector<YamlKeyValue> entries = PersistentVector.lazy(
+            dictionary.childrenCount(), index -> YamlKeyValue.of(dictionary.childByIndex(index)));
+        return new YamlPersistentDictionary(dictionary, entries, PersistentHashTrie.empty());
+    }
+
+    /**
+     * @param key the key of dictionary
+     * @param value the new value by the key
+     * @return the new version of dictionary, where the value is replaced (or added to the end)
+     */
+    public YamlPersistentDictionary with(@NonNull String key, @NonNull YamlNode<Node> value) {
+        int slot = slotOf(key);
+        if (slot >= 0 && entries.getSlot(slot).getValue() == value) {
+            return this;
+        }
+        if (slot >= 0) {
+            // the key of existing key-value is not validated again (it could be a parsed one, like an empty key)
+            YamlKeyValue keyValue = YamlKeyValue.ofDocumentKey(entries.getSlot(slot).getKey(), value);
+            return new YamlPersistentDictionary(base, entries.setSlot(slot, keyValue), overrides);
+        }
+        YamlKeyValue keyValue = new YamlKeyValue(key, value);
+        return new YamlPersistentDictionary(base, entries.append(keyValue), overrides.put(key, entries.slots()));
+    }
+
+    /**
+     * @param key the key of dictionary
+     * @return the new version of dictionary without the key (or this dictionary if there is no such key)
+     */
+    public YamlPersistentDictionary without(@NonNull String key) {
+        int slot = slotOf(key);
+        if (slot < 0) {
+            return this;
+        }
+        return new YamlPersistentDictionary(base, entries.setSlot(slot, null), overrides.put(key, REMOVED));
+    }
+
+    @Override
+    public YamlNode.Type getType() {
+        return Type.DICTIONARY;
+    }
+
+    @Override
+    public Node asOrigin() {
+        MappingNode mappingNode = mapping;
+        if (mappingNode == null) {
+            List<NodeTuple> tuples = entries.stream().map(YamlKeyValue::asTuple).toList();
+            mappingNode = new MappingNode(Tag.MAP, tuples, FlowStyle.BLOCK);
+            mapping = mappingNode;
+        }
+        return mappingNode;
+    }
+
+    @Override
+    public Node representData(@NonNull Object data) {
+        if (data != this) {
+            throw new IllegalStateException(format(
+                "Representation structure is corrupted: this(%X) != data(%X)",
+                identityHashCode(this), identityHashCode(data)));
+        }
+        return asOrigin();
+    }
+
+    @Override
+    public String toString() {
+        return YamlDump.DEFAULT.toString(this);
+    }
+
+    @Override
+    public String asString() {
+        throw new UnsupportedOperationException("no string representation for " + getType());
+    }
+
+    @Override
+    public String getKey() {
+        throw new UnsupportedOperationException("no key in " + getType());
+    }
+
+    @Override
+    public YamlNode<Node> getValue() {
+        throw new UnsupportedOperationException("no value in " + getType());
+    }
+
+    @Override
+    public YamlNode<Node> childByName(String childName) {
+        int slot = slotOf(childName);
+        return slot < 0 ? null : entries.getSlot(slot);
+    }
+
+    @Override
+    public YamlNode<Node> childByIndex(int index) {
+        return entries.get(index);
+    }
+
+    @Override
+    public Stream<? extends YamlNode<Node>> getChildren() {
+        return entries.stream();
+    }
+
+    @Override
+    public int childrenCount() {
+        return entries.size();
+    }
+
+    @Override
+    public String getComment() {
+        return YamlComments.textOf(this);
+    }
+
+    private int slotOf(String key) {
+        Integer slot = overrides.get(key);
+        return slot != null ? slot : baseIndexOf(key);
+    }
+
+    private int baseIndexOf(String key) {
+        if (base instanceof YamlDictionary dictionary) {
+            return dictionary.indexOfKey(key);
+        } else if (base instanceof YamlLazyDictionary lazyDictionary) {
+            return lazyDictionary.indexOfKey(key);
+        }
+        for (int index = 0; index < base.childrenCount(); index++) {
+            if (key.equals(base.childByIndex(index).getKey())) {
+                return index;
+            }
+        }
+        return -1;
+    }
+}
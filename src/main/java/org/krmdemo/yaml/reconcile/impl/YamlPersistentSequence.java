@@ -0,0 +1,139 @@
+package org.krmdemo.yaml.reconcile.impl;
+
+import lombok.NonNull;
+import org.krmdemo.yaml.reconcile.YamlNode;
+import org.krmdemo.yaml.reconcile.util.PersistentVector;
+import org.snakeyaml.engine.v2.common.FlowStyle;
+import org.snakeyaml.engine.v2.nodes.Node;
+import org.snakeyaml.engine.v2.nodes.SequenceNode;
+import org.snakeyaml.engine.v2.nodes.Tag;
+
+import java.util.*;
+import java.util.stream.Stream;
+
+import static java.lang.String.format;
+import static java.lang.System.identityHashCode;
+
+/**
+ * Persistent sequence, which shares the structure with its previous versions and with the original sequence
+ * (elements are kept in {@link PersistentVector}, which is a lazy view over the elements of the original sequence).
+ * The snakeyaml-node is created only on demand.
+ */
+public class YamlPersistentSequence extends YamlBaseNode {
+
+    private final PersistentVector<YamlNode<Node>> elements;
+
+    private volatile SequenceNode sequence = null;
+
+    private YamlPersistentSequence(PersistentVector<YamlNode<Node>> elements) {
+        this.elements = elements;
+    }
+
+    /**
+     * @param sequence a yaml-node of sequence type
+     * @return the persistent view of the sequence (which takes O(1) and does not copy anything)
+     */
+    public static YamlPersistentSequence of(@NonNull YamlNode<Node> sequence) {
+        if (sequence instanceof YamlPersistentSequence persistentSequence) {
+            return persistentSequence;
+        }
+        if (sequence.getType() != Type.SEQUENCE) {
+            throw new IllegalArgumentException("persistent sequence could not be created from " + sequence.getType());
+        }
+        return new YamlPersistentSequence(PersistentVector.lazy(sequence.childrenCount(), sequence::childByIndex));
+    }
+
+    /**
+     * @param index the index of element (or the size of sequence to append the element)
+     * @param value the new element
+     * @return the new version of sequence, where the element is replaced (or appended)
+     */
+    public YamlPersistentSequence with(int index, @NonNull YamlNode<Node> value) {
+        if (value.getType() == Type.KEY_VALUE) {
+            throw new IllegalArgumentException("key-value is not allowed in sequence");
+        }
+        if (Objects.checkIndex(index, elements.size() + 1) == elements.size()) {
+            return new YamlPersistentSequence(elements.append(value));
+        }
+        return elements.get(index) == value ? this : new YamlPersistentSequence(elements.set(index, value));
+    }
+
+    /**
+     * @param index the index of element
+     * @return the new version of sequence without the element (the following elements are shifted)
+     */
+    public YamlPersistentSequence without(int index) {
+        return new YamlPersistentSequence(elements.remove(index));
+    }
+
+    @Override
+    public YamlNode.Type getType() {
+        return Type.SEQUENCE;
+    }
+
+    @Override
+    public Node asOrigin() {
+        SequenceNode sequenceNode = sequence;
+        if (sequenceNode == null) {
+            sequenceNode = new SequenceNode(Tag.SEQ, elements.stream().map(YamlNode::asOrigin).toList(), FlowStyle.BLOCK);
+            sequence = sequenceNode;
+        }
+        return sequenceNode;
+    }
+
+    @Override
+    public Node representData(@NonNull Object data) {
+        Objects.requireNonNull(data, format("Representation data is null for %s", this));
+        if (data != this) {
+            throw new IllegalStateException(format(
+                "Representation structure is corrupted: %s(0x%08x) != data(0x%08x)",
+                getType(), identityHashCode(this), identityHashCode(data)));
+        }
+        return asOrigin();
+    }
+
+    @Override
+    public String toString() {
+        return YamlDump.DEFAULT.toString(this);
+    }
+
+    @Override
+    public String asString() {
+        throw new UnsupportedOperationException("no string representation for sequence");
+    }
+
+    @Override
+    public String getKey() {
+        throw new UnsupportedOperationException("no key in sequence");
+    }
+
+    @Override
+    public YamlNode<Node> getValue() {
+        throw new UnsupportedOperationException("no value in sequence");
+    }
+
+    @Override
+    public YamlNode<Node> childByName(String childName) {
+        throw new UnsupportedOperationException("no child by name in sequence");
+    }
+
+    @Override
+    public YamlNode<Node> childByIndex(int index) {
+        return elements.get(index);
+    }
+
+    @Override
+    public Stream<? extends YamlNode<Node>> getChildren() {
+        return elements.stream();
+    }
+
+    @Override
+    public int childrenCount() {
+        return elements.size();
+    }
+
+    @Override
+    public String getComment() {
+        return YamlComments.textOf(this);
+    }
+}
@@ -0,0 +1,390 @@
+package org.krmdemo.yaml.reconcile.impl;
+
+import lombok.NonNull;
+import org.krmdemo.yaml.reconcile.YamlNode;
+import org.snakeyaml.engine.v2.common.ScalarStyle;
+import org.snakeyaml.engine.v2.nodes.Node;
+import org.snakeyaml.engine.v2.nodes.ScalarNode;
+import org.snakeyaml.engine.v2.nodes.Tag;
+
+import java.util.stream.Stream;
+
+import static java.lang.String.format;
+import static java.lang.System.identityHashCode;
+import static org.apache.commons.text.StringEscapeUtils.escapeJava;
+
+/**
+ * Scalars of primitive types (long, double, boolean, null, single-line and multi-line string), which keep
+ * the primitive (or raw) value as is. Unlike {@link YamlScalar} there is no boxing, no scanning
+ * and no escaping of the value during construction: the tag of scalar is resolved by its kind
+ * (so, the scalar is structurally equal to the parsed one), and {@link ScalarNode} is created
+ * only on demand (when the scalar is emitted or represented).
+ */
+public abstract sealed class YamlPrimitiveScalar extends YamlBaseNode {
+
+    private static final OfBoolean TRUE = new OfBoolean(true);
+    private static final OfBoolean FALSE = new OfBoolean(false);
+    private static final OfNull NULL = new OfNull();
+
+    private volatile ScalarNode scalar = null;
+
+    public static OfLong of(long value) {
+        return new OfLong(value);
+    }
+
+    public static OfDouble of(double value) {
+        return new OfDouble(value);
+    }
+
+    public static OfBoolean of(boolean value) {
+        return value ? TRUE : FALSE;
+    }
+
+    public static OfNull ofNull() {
+        return NULL;
+    }
+
+    /**
+     * @param value the raw (not escaped) value of string
+     * @return the scalar of single-line or multi-line string
+     */
+    public static YamlPrimitiveScalar of(@NonNull String value) {
+        return value.indexOf('\n') < 0 ? new OfString(value) : new OfMultiline(value);
+    }
+
+    /**
+     * Creates the primitive scalar for the plain scalar of parsed document, if the value is in the canonical form
+     * of its tag (so, the primitive scalar has the same tag and the same string as the parsed one).
+     *
+     * @param tag the resolved tag of plain scalar
+     * @param value the value of plain scalar
+     * @param shared {@code false} to create a new instance of boolean or {@code null}-scalar instead of the shared one
+     * @return the primitive scalar or {@code null} if the value is not canonical (like {@code 0x1F} or {@code 1e3})
+     */
+    static YamlPrimitiveScalar ofResolved(Tag tag, String value, boolean shared) {
+        if (Tag.INT.equals(tag)) {
+            return isCanonicalLong(value) ? new OfLong(Long.parseLong(value)) : null;
+        } else if (Tag.FLOAT.equals(tag)) {
+            return ofCanonicalDouble(value);
+        } else if (Tag.BOOL.equals(tag) && ("true".equals(value) || "false".equals(value))) {
+            boolean bool = "true".equals(value);
+            return shared ? of(bool) : new OfBoolean(bool);
+        } else if (Tag.NULL.equals(tag) && "null".equals(value)) {
+            return shared ? NULL : new OfNull();
+        }
+        return null;
+    }
+
+    private static boolean isCanonicalLong(String value) {
+        int start = value.startsWith("-") ? 1 : 0;
+        int length = value.length() - start;
+        if (length == 0 || length > 18 || value.charAt(start) == '0' && length > 1 || "-0".equals(value)) {
+            return false;  // more than 18 digits could overflow the long, and leading zeros are not canonical
+        }
+        for (int i = start; i < value.length(); i++) {
+            char ch = value.charAt(i);
+            if (ch < '0' || ch > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static OfDouble ofCanonicalDouble(String value) {
+        switch (value) {
+            case ".nan" -> {
+                return new OfDouble(Double.NaN);
+            }
+            case ".inf" -> {
+                return new OfDouble(Double.POSITIVE_INFINITY);
+            }
+            case "-.inf" -> {
+                return new OfDouble(Double.NEGATIVE_INFINITY);
+            }
+            default -> {
+                if (value.isEmpty() || value.charAt(value.length() - 1) < '0' || value.charAt(value.length() - 1) > '9') {
+                    return null;
+                }
+                try {
+                    double parsed = Double.parseDouble(value);
+                    return Double.toString(parsed).equals(value) ? new OfDouble(parsed) : null;
+                } catch (NumberFormatException nfEx) {
+                    return null;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the resolved tag of this kind of scalar
+     */
+    abstract Tag tag();
+
+    abstract ScalarStyle scalarStyle();
+
+    @Override
+    public Type getType() {
+        return Type.SCALAR;
+    }
+
+    @Override
+    public Node asOrigin() {
+        ScalarNode scalarNode = scalar;
+        if (scalarNode == null) {
+            scalarNode = new ScalarNode(tag(), asString(), scalarStyle());
+            scalar = scalarNode;
+        }
+        return scalarNode;
+    }
+
+    @Override
+    public Node representData(@NonNull Object data) {
+        if (data != this) {
+            throw new IllegalStateException(format(
+                "Representation structure is corrupted: %s(%X) != data(%X)",
+                getType(), identityHashCode(this), identityHashCode(data)));
+        }
+        return asOrigin();
+    }
+
+    @Override
+    public String toString() {
+        return format("%s(0x%08x --> %s)", getType(), identityHashCode(this), asString());
+    }
+
+    @Override
+    public String getKey() {
+        throw new UnsupportedOperationException("no key in " + getType());
+    }
+
+    @Override
+    public YamlNode<Node> getValue() {
+        throw new UnsupportedOperationException("no value in " + getType());
+    }
+
+    @Override
+    public YamlNode<Node> childByName(String childName) {
+        throw new UnsupportedOperationException("no child by name in " + getType());
+    }
+
+    @Override
+    public YamlNode<Node> childByIndex(int index) {
+        throw new UnsupportedOperationException("no child by index in " + getType());
+    }
+
+    @Override
+    public Stream<YamlNode<Node>> getChildren() {
+        throw new UnsupportedOperationException("no children in " + getType());
+    }
+
+    @Override
+    long calculateStructuralHash() {
+        return StructuralHash.ofScalar(tag().getValue(), asString());  // the scalar-node is not created
+    }
+
+    @Override
+    public String getComment() {
+        return YamlComments.textOf(this);
+    }
+
+    /**
+     * Integer scalar (tag {@code !!int})
+     */
+    public static final class OfLong extends YamlPrimitiveScalar {
+
+        private final long value;
+
+        private OfLong(long value) {
+            this.value = value;
+        }
+
+        public long longValue() {
+            return value;
+        }
+
+        @Override
+        public String asString() {
+            return Long.toString(value);
+        }
+
+        @Override
+        Tag tag() {
+            return Tag.INT;
+        }
+
+        @Override
+        ScalarStyle scalarStyle() {
+            return ScalarStyle.PLAIN;
+        }
+    }
+
+    /**
+     * Floating-point scalar (tag {@code !!float}), whose special values are represented as in yaml
+     * ({@code .nan}, {@code .inf} and {@code -.inf})
+     */
+    public static final class OfDouble extends YamlPrimitiveScalar {
+
+        private final double value;
+
+        private OfDouble(double value) {
+            this.value = value;
+        }
+
+        public double doubleValue() {
+            return value;
+        }
+
+        @Override
+        public String asString() {
+            if (Double.isNaN(value)) {
+                return ".nan";
+            } else if (Double.isInfinite(value)) {
+                return value > 0 ? ".inf" : "-.inf";
+            }
+            return Double.toString(value);
+        }
+
+        @Override
+        Tag tag() {
+            return Tag.FLOAT;
+        }
+
+        @Override
+        ScalarStyle scalarStyle() {
+            return ScalarStyle.PLAIN;
+        }
+    }
+
+    /**
+     * Boolean scalar (tag {@code !!bool}), whose instances are shared (so, their scalar-nodes are not cached,
+     * because the serializer of snakeyaml puts an anchor on every scalar-node, which it meets twice)
+     */
+    public static final class OfBoolean extends YamlPrimitiveScalar {
+
+        private final boolean value;
+
+        private OfBoolean(boolean value) {
+            this.value = value;
+        }
+
+        public boolean booleanValue() {
+            return value;
+        }
+
+        @Override
+        public Node asOrigin() {
+            return new ScalarNode(Tag.BOOL, asString(), ScalarStyle.PLAIN);
+        }
+
+        @Override
+        public String asString() {
+            return value ? "true" : "false";
+        }
+
+        @Override
+        Tag tag() {
+            return Tag.BOOL;
+        }
+
+        @Override
+        ScalarStyle scalarStyle() {
+            return ScalarStyle.PLAIN;
+        }
+    }
+
+    /**
+     * Null-scalar (tag {@code !!null}), whose instance is shared (so, its scalar-node is not cached)
+     */
+    public static final class OfNull extends YamlPrimitiveScalar {
+
+        private OfNull() {
+        }
+
+        @Override
+        public Node asOrigin() {
+            return new ScalarNode(Tag.NULL, asString(), ScalarStyle.PLAIN);
+        }
+
+        @Override
+        public String asString() {
+            return "null";
+        }
+
+        @Override
+        Tag tag() {
+            return Tag.NULL;
+        }
+
+        @Override
+        ScalarStyle scalarStyle() {
+            return ScalarStyle.PLAIN;
+        }
+    }
+
+    /**
+     * Single-line string (tag {@code !!str}), which is emitted in single quotes (to prevent the implicit typing)
+     */
+    public static final class OfString extends YamlPrimitiveScalar {
+
+        private final String value;
+
+        private OfString(String value) {
+            this.value = value;
+        }
+
+        @Override
+        public String asString() {
+            return value;
+        }
+
+        @Override
+        public String toString() {
+            if (value.isEmpty()) {
+                return format("%s(0x%08x)", getType(), identityHashCode(this));
+            }
+            return format("%s(0x%08x) --> '%s'", getType(), identityHashCode(this), value);
+        }
+
+        @Override
+        Tag tag() {
+            return Tag.STR;
+        }
+
+        @Override
+        ScalarStyle scalarStyle() {
+            return ScalarStyle.SINGLE_QUOTED;
+        }
+    }
+
+    /**
+     * Multi-line string (tag {@code !!str}), which is emitted as literal block, and which is escaped only in {@link #toString()}
+     */
+    public static final class OfMultiline extends YamlPrimitiveScalar {
+
+        private final String value;
+
+        private OfMultiline(String value) {
+            this.value = value;
+        }
+
+        @Override
+        public String asString() {
+            return value;
+        }
+
+        @Override
+        public String toString() {
+            return format("%s(0x%08x) --> \"%s\"", getType(), identityHashCode(this), escapeJava(value));
+        }
+
+        @Override
+        Tag tag() {
+            return Tag.STR;
+        }
+
+        @Override
+        ScalarStyle scalarStyle() {
+            return ScalarStyle.LITERAL;
+        }
+    }
+}
@@ -2,7 +2,6 @@ package org.krmdemo.yaml.reconcile.impl;
 
 import lombok.NonNull;
 import org.krmdemo.yaml.reconcile.YamlNode;
-import org.snakeyaml.engine.v2.api.RepresentToNode;
 import org.snakeyaml.engine.v2.common.ScalarStyle;
 import org.snakeyaml.engine.v2.nodes.Node;
 import org.snakeyaml.engine.v2.nodes.ScalarNode;
@@ -19,12 +18,17 @@ import static org.apache.commons.lang3.StringUtils.isEmpty;
 import static org.apache.commons.text.StringEscapeUtils.escapeJava;
 import static org.apache.commons.text.StringEscapeUtils.unescapeJava;
 
-public class YamlScalar implements YamlNode<Node>, RepresentToNode {
+public class YamlScalar extends YamlBaseNode {
 
     final ScalarNode scalar;
 
     final Object scalarObj;
 
+    /**
+     * the unescaped value of double-quoted scalar, which is calculated only once on the first read
+     */
+    private volatile String unescaped = null;
+
     public YamlScalar(@NonNull Object scalarObj) {
         if (scalarObj instanceof YamlNode<?>) {
             throw new IllegalArgumentException("origin object must not be a yaml-node");
@@ -42,15 +46,15 @@ public class YamlScalar implements YamlNode<Node>, RepresentToNode {
 
     public YamlScalar(@NonNull ScalarNode scalarOriginal) {
         this.scalarObj = scalarOriginal;
-        String scalarStr = scalarObj.toString();
+        String scalarStr = scalarOriginal.getValue();
         ScalarStyle scalarStyle = scalarOriginal.getScalarStyle();
         if (countMatches(scalarStr, lineSeparator()) > 0
                 || scalarStyle == ScalarStyle.FOLDED
                 || scalarStyle == ScalarStyle.LITERAL
                 || scalarStyle == ScalarStyle.DOUBLE_QUOTED) {
-            this.scalar = new ScalarNode(Tag.STR, escapeJava(scalarStr), ScalarStyle.DOUBLE_QUOTED);
+            this.scalar = new ScalarNode(scalarOriginal.getTag(), escapeJava(scalarStr), ScalarStyle.DOUBLE_QUOTED);
         } else {
-            this.scalar = new ScalarNode(Tag.STR, scalarStr, scalarStyle);
+            this.scalar = scalarOriginal;  // the original is re-used as is, because no escaping is required
         }
     }
 
@@ -93,8 +97,15 @@ public class YamlScalar implements YamlNode<Node>, RepresentToNode {
 
     @Override
     public String asString() {
-        return scalar.getScalarStyle() == ScalarStyle.DOUBLE_QUOTED ?
-            unescapeJava(scalar.getValue()) : scalar.getValue();
+        if (scalar.getScalarStyle() != ScalarStyle.DOUBLE_QUOTED) {
+            return scalar.getValue();
+        }
+        String value = unescaped;
+        if (value == null) {
+            value = unescapeJava(scalar.getValue());
+            unescaped = value;
+        }
+        return value;
     }
 
     @Override
@@ -124,6 +135,6 @@ public class YamlScalar implements YamlNode<Node>, RepresentToNode {
 
     @Override
     public String getComment() {
-        throw new UnsupportedOperationException("not implemented yet for " + getType());
+        return YamlComments.textOf(this);
     }
 }
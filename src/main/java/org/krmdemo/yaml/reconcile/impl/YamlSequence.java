@@ -2,7 +2,6 @@ package org.krmdemo.yaml.reconcile.impl;
 
 import lombok.NonNull;
 import org.krmdemo.yaml.reconcile.YamlNode;
-import org.snakeyaml.engine.v2.api.RepresentToNode;
 import org.snakeyaml.engine.v2.common.FlowStyle;
 import org.snakeyaml.engine.v2.nodes.Node;
 import org.snakeyaml.engine.v2.nodes.SequenceNode;
@@ -15,9 +14,13 @@ import static java.lang.String.format;
 import static java.lang.System.identityHashCode;
 import static java.util.Collections.unmodifiableList;
 
-public class YamlSequence implements YamlNode<Node>, RepresentToNode {
+public class YamlSequence extends YamlBaseNode {
 
-    final SequenceNode sequence;
+    /**
+     * the snakeyaml-twin is created only on demand (see {@link #asOrigin()}), because it's not needed
+     * to traverse, compare or emit the sequence (see {@link YamlEmitter})
+     */
+    private volatile SequenceNode sequence = null;
 
     final List<? extends YamlNode<Node>> childrenList;
 
@@ -28,15 +31,12 @@ public class YamlSequence implements YamlNode<Node>, RepresentToNode {
 
     public YamlSequence(Stream<YamlNode<Node>> children) {
         List<YamlNode<Node>> yamlList = new ArrayList<>();
-        List<Node> snakeList = new ArrayList<>();
         children.forEachOrdered(yamlNode -> {
             if (yamlNode.getType() == Type.KEY_VALUE) {
                 throw new IllegalArgumentException("key-value is not allowed in sequence");
             }
             yamlList.add(yamlNode);
-            snakeList.add(yamlNode.asOrigin());
         });
-        this.sequence = new SequenceNode(Tag.SEQ, snakeList, FlowStyle.BLOCK);
         this.childrenList = unmodifiableList(yamlList);
     }
 
@@ -47,7 +47,13 @@ public class YamlSequence implements YamlNode<Node>, RepresentToNode {
 
     @Override
     public Node asOrigin() {
-        return sequence;
+        SequenceNode sequenceNode = sequence;
+        if (sequenceNode == null) {
+            List<Node> snakeList = childrenList.stream().map(YamlNode::asOrigin).toList();
+            sequenceNode = new SequenceNode(Tag.SEQ, snakeList, FlowStyle.BLOCK);
+            sequence = sequenceNode;
+        }
+        return sequenceNode;
     }
 
     @Override
@@ -63,20 +69,7 @@ public class YamlSequence implements YamlNode<Node>, RepresentToNode {
 
     @Override
     public String toString() {
-        if (childrenList.isEmpty()) {
-            return format("%s(0x%08x - empty)", getType(), identityHashCode(this));
-        }
-        StringBuilder sb = new StringBuilder(format("%s(0x%08x - %d elements):",
-            getType(), identityHashCode(this), childrenList.size()));
-        int maxNumLength = ("" + childrenList.size()).length();
-        String fmt = "%n- %" + (maxNumLength + 2) + "s %s";
-        for (int num = 0; num < childrenList.size(); num++) {
-            String strNum = format("(%d)", num + 1);
-            YamlNode<Node> child = childrenList.get(num);
-            String lineFeedWithSpaces = format("%n%" + (maxNumLength + 5) + "s", " ");
-            sb.append(format(fmt, strNum, child.toString().replaceAll("\\R", lineFeedWithSpaces)));
-        }
-        return sb.toString();
+        return YamlDump.DEFAULT.toString(this);
     }
 
     @Override
@@ -109,8 +102,13 @@ public class YamlSequence implements YamlNode<Node>, RepresentToNode {
         return childrenList.stream();
     }
 
+    @Override
+    public int childrenCount() {
+        return childrenList.size();
+    }
+
     @Override
     public String getComment() {
-        throw new UnsupportedOperationException("not implemented yet");
+        return YamlComments.textOf(this);
     }
 }
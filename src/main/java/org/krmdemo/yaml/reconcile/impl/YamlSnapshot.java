@@ -0,0 +1,480 @@
+package org.krmdemo.yaml.reconcile.impl;
+
+import lombok.NonNull;
+import org.krmdemo.yaml.reconcile.YamlNode;
+import org.snakeyaml.engine.v2.api.RepresentToNode;
+import org.snakeyaml.engine.v2.common.ScalarStyle;
+import org.snakeyaml.engine.v2.nodes.Node;
+import org.snakeyaml.engine.v2.nodes.ScalarNode;
+import org.snakeyaml.engine.v2.nodes.Tag;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.stream.Stream;
+
+import static java.lang.String.format;
+import static java.lang.System.identityHashCode;
+
+/**
+ * Compact binary snapshot of yaml-documents, which is written once and then loaded much faster than
+ * the yaml-text is parsed (there is no scanning, no resolving of tags and no escaping).
+ * <p/>
+ * The format (version {@value #VERSION}) consists of:
+ * <ul>
+ *     <li>the header - magic bytes {@code YSNP} and the byte of version</li>
+ *     <li>the table of strings (keys, values of scalars and tags) - the number of strings and every string
+ *     as the length in bytes and UTF-8 bytes, where all numbers are written as unsigned var-ints</li>
+ *     <li>the number of documents and the nodes of every document in pre-order, where every node starts with
+ *     the byte of its kind: scalars continue with the byte of style and the indexes of tag and value in the table,
+ *     containers - with the structural hash (8 bytes), the number of children and the length of their bytes
+ *     (4 bytes), followed by the children (every child of dictionary is preceded by the index of its key)</li>
+ * </ul>
+ * The snapshot is read from {@link ByteBuffer} (which could be memory-mapped - see {@link #readAll(Path)})
+ * with absolute positions only, and the containers are decoded lazily on the first access to their children,
+ * while their structural hashes are available without decoding (so, the equal subtrees are skipped by the diff
+ * without being decoded at all). The strings are also decoded from the table lazily and only once.
+ */
+public final class YamlSnapshot {
+
+    /**
+     * The current version of the format of snapshot
+     */
+    public static final int VERSION = 1;
+
+    private static final byte[] MAGIC = { 'Y', 'S', 'N', 'P' };
+
+    private static final byte KIND_SCALAR = 1;
+    private static final byte KIND_DICTIONARY = 2;
+    private static final byte KIND_SEQUENCE = 3;
+    private static final byte KIND_SCALAR_CSV = 4;
+
+    private static final ScalarStyle[] STYLES = {
+        ScalarStyle.PLAIN, ScalarStyle.SINGLE_QUOTED, ScalarStyle.DOUBLE_QUOTED, ScalarStyle.LITERAL, ScalarStyle.FOLDED
+    };
+
+    private YamlSnapshot() {
+        throw new UnsupportedOperationException("it's a utility class");
+    }
+
+    /**
+     * @param documents the roots of yaml-documents
+     * @return the bytes of snapshot
+     */
+    public static byte[] toBytes(@NonNull List<? extends YamlNode<Node>> documents) {
+        Writer writer = new Writer();
+        ByteSink body = new ByteSink(1024);
+        body.varint(documents.size());
+        for (YamlNode<Node> document : documents) {
+            writer.node(body, document);
+        }
+        ByteSink header = new ByteSink(64 + writer.stringsBytes);
+        header.bytes(MAGIC, MAGIC.length);
+        header.put(VERSION);
+        header.varint(writer.strings.size());
+        for (String str : writer.strings.keySet()) {
+            byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+            header.varint(bytes.length);
+            header.bytes(bytes, bytes.length);
+        }
+        byte[] result = Arrays.copyOf(header.buf, header.size + body.size);
+        System.arraycopy(body.buf, 0, result, header.size, body.size);
+        return result;
+    }
+
+    /**
+     * @param documents the roots of yaml-documents
+     * @param out the output-stream to write the snapshot to (it's not closed by this method)
+     */
+    public static void writeAll(@NonNull List<? extends YamlNode<Node>> documents, @NonNull OutputStream out) {
+        try {
+            out.write(toBytes(documents));
+        } catch (IOException ioEx) {
+            throw new UncheckedIOException("could not write the yaml-snapshot", ioEx);
+        }
+    }
+
+    /**
+     * @param documents the roots of yaml-documents
+     * @param path the file to write the snapshot to (it's replaced if exists)
+     */
+    public static void writeAll(@NonNull List<? extends YamlNode<Node>> documents, @NonNull Path path) {
+        try (OutputStream out = Files.newOutputStream(path)) {
+            writeAll(documents, out);
+        } catch (IOException ioEx) {
+            throw new UncheckedIOException(format("could not write the yaml-snapshot into '%s'", path), ioEx);
+        }
+    }
+
+    /**
+     * @param buffer the buffer with the snapshot (its position and limit are not changed)
+     * @return the roots of documents (whose containers are decoded lazily from the buffer)
+     * @throws IllegalArgumentException if the buffer does not contain the snapshot of supported version
+     */
+    public static List<YamlNode<Node>> readAll(@NonNull ByteBuffer buffer) {
+        Snapshot snapshot = new Snapshot(buffer.slice());
+        return snapshot.documents();
+    }
+
+    /**
+     * @param path the file with the snapshot, which is memory-mapped (so, it must not be modified while it's in use)
+     * @return the roots of documents (whose containers are decoded lazily from the mapped file)
+     */
+    public static List<YamlNode<Node>> readAll(@NonNull Path path) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return readAll(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        } catch (IOException ioEx) {
+            throw new UncheckedIOException(format("could not read the yaml-snapshot from '%s'", path), ioEx);
+        }
+    }
+
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * The growable array of bytes with var-ints and patching of fixed-size integers
+     */
+    private static final class ByteSink {
+        private byte[] buf;
+        private int size = 0;
+
+        private ByteSink(int capacity) {
+            this.buf = new byte[capacity];
+        }
+
+        private void ensure(int extra) {
+            if (size + extra > buf.length) {
+                buf = Arrays.copyOf(buf, Math.max(buf.length * 2, size + extra));
+            }
+        }
+
+        private void put(int value) {
+            ensure(1);
+            buf[size++] = (byte) value;
+        }
+
+        private void bytes(byte[] bytes, int length) {
+            ensure(length);
+            System.arraycopy(bytes, 0, buf, size, length);
+            size += length;
+        }
+
+        private void varint(int value) {
+            ensure(5);
+            while ((value & ~0x7F) != 0) {
+                buf[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buf[size++] = (byte) value;
+        }
+
+        private void fixedLong(long value) {
+            ensure(8);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                buf[size++] = (byte) (value >>> shift);
+            }
+        }
+
+        private void fixedInt(int pos, int value) {
+            buf[pos] = (byte) (value >>> 24);
+            buf[pos + 1] = (byte) (value >>> 16);
+            buf[pos + 2] = (byte) (value >>> 8);
+            buf[pos + 3] = (byte) value;
+        }
+    }
+
+    /**
+     * The encoder of nodes, which collects the table of strings
+     */
+    private static final class Writer {
+        private final Map<String, Integer> strings = new LinkedHashMap<>();
+        private int stringsBytes = 0;
+
+        private int indexOf(String str) {
+            Integer index = strings.get(str);
+            if (index == null) {
+                index = strings.size();
+                strings.put(str, index);
+                stringsBytes += str.length() + 5;
+            }
+            return index;
+        }
+
+        private void node(ByteSink sink, YamlNode<Node> node) {
+            switch (node.getType()) {
+                case SCALAR, SCALAR_CSV -> {
+                    ScalarNode scalarNode = (ScalarNode) node.asOrigin();
+                    sink.put(node.getType() == YamlNode.Type.SCALAR ? KIND_SCALAR : KIND_SCALAR_CSV);
+                    sink.put(Math.max(0, Arrays.asList(STYLES).indexOf(scalarNode.getScalarStyle())));
+                    sink.varint(indexOf(scalarNode.getTag().getValue()));
+                    sink.varint(indexOf(node.asString()));
+                }
+                case DICTIONARY, SEQUENCE -> {
+                    boolean dictionary = node.getType() == YamlNode.Type.DICTIONARY;
+                    sink.put(dictionary ? KIND_DICTIONARY : KIND_SEQUENCE);
+                    sink.fixedLong(node.structuralHash());
+                    int count = node.childrenCount();
+                    sink.varint(count);
+                    int lengthPos = sink.size;
+                    sink.ensure(4);
+                    sink.size += 4;
+                    for (int i = 0; i < count; i++) {
+                        YamlNode<Node> child = node.childByIndex(i);
+                        if (dictionary) {
+                            sink.varint(indexOf(child.getKey()));
+                            child = child.getValue();
+                        }
+                        node(sink, child);
+                    }
+                    sink.fixedInt(lengthPos, sink.size - lengthPos - 4);
+                }
+                default -> throw new IllegalArgumentException("could not write " + node.getType() + " into yaml-snapshot");
+            }
+        }
+    }
+
+    // ----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * The loaded snapshot: the buffer, the offsets of strings in the table and the lazily decoded strings
+     */
+    private static final class Snapshot {
+        private final ByteBuffer buffer;
+        private final int[] stringOffsets;
+        private final int[] stringLengths;
+        private final String[] strings;
+        private final Tag[] tags;
+        private final int nodesOffset;
+
+        private Snapshot(ByteBuffer buffer) {
+            this.buffer = buffer;
+            for (int i = 0; i < MAGIC.length; i++) {
+                if (buffer.limit() <= MAGIC.length || buffer.get(i) != MAGIC[i]) {
+                    throw new IllegalArgumentException("the content is not a yaml-snapshot");
+                }
+            }
+            int version = buffer.get(MAGIC.length);
+            if (version != VERSION) {
+                throw new IllegalArgumentException(format("unsupported version of yaml-snapshot - %d (expected %d)", version, VERSION));
+            }
+            Cursor cursor = new Cursor(buffer, MAGIC.length + 1);
+            int count = cursor.varint();
+            this.stringOffsets = new int[count];
+            this.stringLengths = new int[count];
+            for (int i = 0; i < count; i++) {
+                stringLengths[i] = cursor.varint();
+                stringOffsets[i] = cursor.pos;
+                cursor.pos += stringLengths[i];
+            }
+            this.strings = new String[count];
+            this.tags = new Tag[count];
+            this.nodesOffset = cursor.pos;
+        }
+
+        private List<YamlNode<Node>> documents() {
+            Cursor cursor = new Cursor(buffer, nodesOffset);
+            int count = cursor.varint();
+            List<YamlNode<Node>> documents = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                documents.add(node(cursor));
+            }
+            return Collections.unmodifiableList(documents);
+        }
+
+        private String string(int index) {
+            String str = strings[index];
+            if (str == null) {
+                byte[] bytes = new byte[stringLengths[index]];
+                buffer.get(stringOffsets[index], bytes);
+                str = new String(bytes, StandardCharsets.UTF_8);
+                strings[index] = str;  // the race is benign - the same string could be decoded twice
+            }
+            return str;
+        }
+
+        private Tag tag(int index) {
+            Tag tag = tags[index];
+            if (tag == null) {
+                tag = new Tag(string(index));
+                tags[index] = tag;
+            }
+            return tag;
+        }
+
+        /**
+         * Decodes the scalar or creates the lazy container, and moves the cursor to the next node
+         */
+        private YamlNode<Node> node(Cursor cursor) {
+            byte kind = buffer.get(cursor.pos++);
+            switch (kind) {
+                case KIND_SCALAR, KIND_SCALAR_CSV -> {
+                    ScalarStyle style = STYLES[buffer.get(cursor.pos++)];
+                    Tag tag = tag(cursor.varint());
+                    String value = string(cursor.varint());
+                    YamlNode<Node> scalar = new YamlLazyScalar(new ScalarNode(tag, value, style));
+                    return kind == KIND_SCALAR ? scalar : YamlCsvScalar.of(scalar);
+                }
+                case KIND_DICTIONARY, KIND_SEQUENCE -> {
+                    long hash = buffer.getLong(cursor.pos);
+                    cursor.pos += 8;
+                    int count = cursor.varint();
+                    int length = buffer.getInt(cursor.pos);
+                    cursor.pos += 4;
+                    SnapshotContainer container = new SnapshotContainer(this,
+                        kind == KIND_DICTIONARY ? YamlNode.Type.DICTIONARY : YamlNode.Type.SEQUENCE, hash, count, cursor.pos);
+                    cursor.pos += length;
+                    return container;
+                }
+                default -> throw new IllegalStateException(format("corrupted yaml-snapshot: unknown kind %d at %d", kind, cursor.pos - 1));
+            }
+        }
+    }
+
+    private static final class Cursor {
+        private final ByteBuffer buffer;
+        private int pos;
+
+        private Cursor(ByteBuffer buffer, int pos) {
+            this.buffer = buffer;
+            this.pos = pos;
+        }
+
+        private int varint() {
+            int value = 0;
+            for (int shift = 0; ; shift += 7) {
+                byte b = buffer.get(pos++);
+                value |= (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return value;
+                }
+            }
+        }
+    }
+
+    /**
+     * The container, whose children are decoded into {@link YamlDictionary} or {@link YamlSequence}
+     * only on the first access, while its type, the number of children and the structural hash are known in advance
+     */
+    private static final class SnapshotContainer implements YamlNode<Node>, RepresentToNode {
+
+        private final Snapshot snapshot;
+        private final Type type;
+        private final long structuralHash;
+        private final int count;
+        private final int offset;
+
+        private volatile YamlNode<Node> decoded = null;
+
+        private SnapshotContainer(Snapshot snapshot, Type type, long structuralHash, int count, int offset) {
+            this.snapshot = snapshot;
+            this.type = type;
+            this.structuralHash = structuralHash;
+            this.count = count;
+            this.offset = offset;
+        }
+
+        private YamlNode<Node> decoded() {
+            YamlNode<Node> node = decoded;
+            if (node == null) {
+                Cursor cursor = new Cursor(snapshot.buffer, offset);
+                if (type == Type.DICTIONARY) {
+                    YamlKeyValue[] keyValues = new YamlKeyValue[count];
+                    for (int i = 0; i < count; i++) {
+                        String key = snapshot.string(cursor.varint());
+                        keyValues[i] = YamlKeyValue.ofDocumentKey(key, snapshot.node(cursor));
+                    }
+                    node = new YamlDictionary(keyValues);
+                } else {
+                    List<YamlNode<Node>> elements = new ArrayList<>(count);
+                    for (int i = 0; i < count; i++) {
+                        elements.add(snapshot.node(cursor));
+                    }
+                    node = new YamlSequence(elements.stream());
+                }
+                decoded = node;
+            }
+            return node;
+        }
+
+        @Override
+        public Type getType() {
+            return type;
+        }
+
+        @Override
+        public Node asOrigin() {
+            return decoded().asOrigin();
+        }
+
+        @Override
+        public Node representData(@NonNull Object data) {
+            if (data != this) {
+                throw new IllegalStateException(format(
+                    "Representation structure is corrupted: %s(%X) != data(%X)",
+                    getType(), identityHashCode(this), identityHashCode(data)));
+            }
+            return asOrigin();
+        }
+
+        @Override
+        public String toString() {
+            return decoded().toString();
+        }
+
+        @Override
+        public void dumpTo(@NonNull Appendable out, int indent) {
+            YamlDump.DEFAULT.dumpTo(this, out, indent);
+        }
+
+        @Override
+        public String asString() {
+            return decoded().asString();
+        }
+
+        @Override
+        public String getKey() {
+            return decoded().getKey();
+        }
+
+        @Override
+        public YamlNode<Node> getValue() {
+            return decoded().getValue();
+        }
+
+        @Override
+        public YamlNode<Node> childByName(String childName) {
+            return decoded().childByName(childName);
+        }
+
+        @Override
+        public YamlNode<Node> childByIndex(int index) {
+            return decoded().childByIndex(index);
+        }
+
+        @Override
+        public Stream<? extends YamlNode<Node>> getChildren() {
+            return decoded().getChildren();
+        }
+
+        @Override
+        public int childrenCount() {
+            return count;
+        }
+
+        @Override
+        public long structuralHash() {
+            return structuralHash;
+        }
+
+        @Override
+        public String getComment() {
+            return YamlComments.textOf(this);
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package org.krmdemo.yaml.reconcile.util;
+
+import lombok.NonNull;
+
+import java.util.*;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static java.lang.String.format;
+
+/**
+ * Insertion-ordered map of string-keys, which is optimized for lookup and memory footprint.
+ * <p/>
+ * Keys, values and hashes of keys are stored in parallel arrays in the order of insertion,
+ * and an open-addressing table of slots (with linear probing) refers to positions in these arrays.
+ * So, lookup by key takes O(1) without any string comparison for mismatched hashes,
+ * and no per-entry objects are allocated (unlike {@link TreeMap} or {@link LinkedHashMap}).
+ * <p/>
+ * Removal is not supported, because this map is intended to be filled once during the building
+ * of immutable yaml-nodes. The instances are not thread-safe while they are being filled,
+ * but could be safely shared after publication.
+ *
+ * @param <V> type of values
+ */
+public final class OrderedKeyMap<V> {
+
+    private static final int MIN_CAPACITY = 4;
+
+    private String[] keys;
+    private Object[] values;
+    private int[] hashes;
+    private int size = 0;
+
+    /**
+     * Open-addressing table, whose length is a power of two and at least twice bigger than {@link #size}.
+     * Every slot contains the (position + 1) in parallel arrays, or zero if the slot is empty.
+     */
+    private int[] slots;
+
+    public OrderedKeyMap() {
+        this(MIN_CAPACITY);
+    }
+
+    public OrderedKeyMap(int expectedSize) {
+        int capacity = Math.max(expectedSize, MIN_CAPACITY);
+        this.keys = new String[capacity];
+        this.values = new Object[capacity];
+        this.hashes = new int[capacity];
+        this.slots = new int[tableSizeFor(capacity)];
+    }
+
+    /**
+     * @return the number of entries in this map
+     */
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Puts the value by the key. If the key is already present, its value is replaced,
+     * but the position of the entry remains the same.
+     *
+     * @param key a key of entry
+     * @param value a value of entry (could be {@code null})
+     * @return the previous value by the key or {@code null} if the key was absent
+     */
+    public V put(@NonNull String key, V value) {
+        int hash = spread(key.hashCode());
+        int mask = slots.length - 1;
+        int slot = hash & mask;
+        for (int pos = slots[slot]; pos != 0; pos = slots[slot]) {
+            if (hashes[pos - 1] == hash && key.equals(keys[pos - 1])) {
+                V prevValue = valueAt(pos - 1);
+                values[pos - 1] = value;
+                return prevValue;
+            }
+            slot = (slot + 1) & mask;
+        }
+        if (size == keys.length) {
+            grow();
+            return put(key, value);
+        }
+        keys[size] = key;
+        values[size] = value;
+        hashes[size] = hash;
+        slots[slot] = ++size;
+        return null;
+    }
+
+    /**
+     * @param key a key to look up
+     * @return the position of the entry with the passed key or {@code -1} if the key is absent
+     */
+    public int indexOf(String key) {
+        if (key == null) {
+            return -1;
+        }
+        int hash = spread(key.hashCode());
+        int mask = slots.length - 1;
+        for (int slot = hash & mask, pos = slots[slot]; pos != 0; slot = (slot + 1) & mask, pos = slots[slot]) {
+            if (hashes[pos - 1] == hash && key.equals(keys[pos - 1])) {
+                return pos - 1;
+            }
+        }
+        return -1;
+    }
+
+    public boolean containsKey(String key) {
+        return indexOf(key) >= 0;
+    }
+
+    /**
+     * @param key a key to look up
+     * @return the value by the key or {@code null} if the key is absent
+     */
+    public V get(String key) {
+        int index = indexOf(key);
+        return index < 0 ? null : valueAt(index);
+    }
+
+    /**
+     * @param index the position of entry in the order of insertion
+     * @return the key of entry at the passed position
+     */
+    public String keyAt(int index) {
+        return keys[Objects.checkIndex(index, size)];
+    }
+
+    /**
+     * @param index the position of entry in the order of insertion
+     * @return the value of entry at the passed position
+     */
+    @SuppressWarnings("unchecked")
+    public V valueAt(int index) {
+        return (V) values[Objects.checkIndex(index, size)];
+    }
+
+    /**
+     * @return ordered stream of keys in this map
+     */
+    public Stream<String> keys() {
+        return IntStream.range(0, size).mapToObj(this::keyAt);
+    }
+
+    /**
+     * @return ordered stream of values in this map
+     */
+    public Stream<V> values() {
+        return IntStream.range(0, size).mapToObj(this::valueAt);
+    }
+
+    /**
+     * Shrinks the parallel arrays to the actual number of entries (when the map is completely filled).
+     *
+     * @return this map
+     */
+    public OrderedKeyMap<V> trimToSize() {
+        if (keys.length > size) {
+            keys = Arrays.copyOf(keys, Math.max(size, 1));
+            values = Arrays.copyOf(values, Math.max(size, 1));
+            hashes = Arrays.copyOf(hashes, Math.max(size, 1));
+        }
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        StringJoiner joiner = new StringJoiner(", ", "{", "}");
+        for (int i = 0; i < size; i++) {
+            joiner.add(format("%s=%s", keys[i], values[i]));
+        }
+        return joiner.toString();
+    }
+
+    private void grow() {
+        int capacity = keys.length + (keys.length >> 1) + 1;
+        keys = Arrays.copyOf(keys, capacity);
+        values = Arrays.copyOf(values, capacity);
+        hashes = Arrays.copyOf(hashes, capacity);
+        int tableSize = tableSizeFor(capacity);
+        if (tableSize > slots.length) {
+            slots = new int[tableSize];
+            int mask = tableSize - 1;
+            for (int pos = 0; pos < size; pos++) {
+                int slot = hashes[pos] & mask;
+                while (slots[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                slots[slot] = pos + 1;
+            }
+        }
+    }
+
+    /**
+     * @param capacity the maximum number of entries
+     * @return the power of two, which keeps the load-factor of the table not greater than 0.5
+     */
+    private static int tableSizeFor(int capacity) {
+        return Integer.highestOneBit(Math.max(capacity, MIN_CAPACITY) * 2 - 1) << 1;
+    }
+
+    /**
+     * The same spreading of hash-code as in {@link HashMap}, because the lowest bits select the slot.
+     */
+    private static int spread(int hashCode) {
+        return hashCode ^ (hashCode >>> 16);
+    }
+}
@@ -0,0 +1,233 @@
+package org.krmdemo.yaml.reconcile.util;
+
+import lombok.NonNull;
+
+import java.util.*;
+
+/**
+ * Persistent (immutable with structural sharing) hash-map with string keys, which is implemented
+ * as hash array mapped trie (HAMT). Every update copies only the path from the root to the changed entry,
+ * where every node is a compact array of entries and sub-nodes, addressed by the bitmap of 5 bits of hash.
+ *
+ * @param <V> type of values
+ */
+public final class PersistentHashTrie<V> {
+
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+    private static final int MAX_SHIFT = 30;
+
+    private static final PersistentHashTrie<?> EMPTY = new PersistentHashTrie<>(new BitmapNode(0, new Object[0]), 0);
+
+    private sealed interface TrieNode permits BitmapNode, CollisionNode {
+        Object get(int hash, int shift, String key);
+        TrieNode put(int hash, int shift, String key, Object value, boolean[] added);
+        TrieNode remove(int hash, int shift, String key);
+    }
+
+    private final TrieNode root;
+    private final int size;
+
+    private PersistentHashTrie(TrieNode root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <V> PersistentHashTrie<V> empty() {
+        return (PersistentHashTrie<V>) EMPTY;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @param key the key
+     * @return the value by the key (or {@code null} if there is no such key)
+     */
+    @SuppressWarnings("unchecked")
+    public V get(@NonNull String key) {
+        return (V) root.get(hash(key), 0, key);
+    }
+
+    public boolean containsKey(@NonNull String key) {
+        return get(key) != null;
+    }
+
+    /**
+     * @param key the key
+     * @param value the value
+     * @return the map with the passed entry added or replaced
+     */
+    public PersistentHashTrie<V> put(@NonNull String key, @NonNull V value) {
+        boolean[] added = new boolean[1];
+        TrieNode newRoot = root.put(hash(key), 0, key, value, added);
+        return newRoot == root ? this : new PersistentHashTrie<>(newRoot, added[0] ? size + 1 : size);
+    }
+
+    /**
+     * @param key the key
+     * @return the map without the entry by the passed key
+     */
+    public PersistentHashTrie<V> remove(@NonNull String key) {
+        TrieNode newRoot = root.remove(hash(key), 0, key);
+        if (newRoot == root) {
+            return this;
+        }
+        return newRoot == null ? empty() : new PersistentHashTrie<>(newRoot, size - 1);
+    }
+
+    private static int hash(String key) {
+        int hash = key.hashCode();
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * The node, whose array contains pairs: key and value of the entry, or {@code null} and the sub-node.
+     */
+    private record BitmapNode(int bitmap, Object[] array) implements TrieNode {
+
+        @Override
+        public Object get(int hash, int shift, String key) {
+            int bit = 1 << ((hash >>> shift) & MASK);
+            if ((bitmap & bit) == 0) {
+                return null;
+            }
+            int pos = 2 * Integer.bitCount(bitmap & (bit - 1));
+            Object keyOrNull = array[pos];
+            if (keyOrNull == null) {
+                return ((TrieNode) array[pos + 1]).get(hash, shift + BITS, key);
+            }
+            return key.equals(keyOrNull) ? array[pos + 1] : null;
+        }
+
+        @Override
+        public TrieNode put(int hash, int shift, String key, Object value, boolean[] added) {
+            int bit = 1 << ((hash >>> shift) & MASK);
+            int pos = 2 * Integer.bitCount(bitmap & (bit - 1));
+            if ((bitmap & bit) == 0) {
+                Object[] newArray = new Object[array.length + 2];
+                System.arraycopy(array, 0, newArray, 0, pos);
+                newArray[pos] = key;
+                newArray[pos + 1] = value;
+                System.arraycopy(array, pos, newArray, pos + 2, array.length - pos);
+                added[0] = true;
+                return new BitmapNode(bitmap | bit, newArray);
+            }
+            Object keyOrNull = array[pos];
+            Object valueOrNode = array[pos + 1];
+            if (keyOrNull == null) {
+                TrieNode subNode = (TrieNode) valueOrNode;
+                TrieNode newSubNode = subNode.put(hash, shift + BITS, key, value, added);
+                return newSubNode == subNode ? this : withPair(pos, null, newSubNode);
+            }
+            if (key.equals(keyOrNull)) {
+                return valueOrNode == value ? this : withPair(pos, key, value);
+            }
+            added[0] = true;
+            return withPair(pos, null, twoEntries(shift + BITS, (String) keyOrNull, valueOrNode, hash, key, value));
+        }
+
+        @Override
+        public TrieNode remove(int hash, int shift, String key) {
+            int bit = 1 << ((hash >>> shift) & MASK);
+            if ((bitmap & bit) == 0) {
+                return this;
+            }
+            int pos = 2 * Integer.bitCount(bitmap & (bit - 1));
+            Object keyOrNull = array[pos];
+            if (keyOrNull == null) {
+                TrieNode subNode = (TrieNode) array[pos + 1];
+                TrieNode newSubNode = subNode.remove(hash, shift + BITS, key);
+                if (newSubNode == subNode) {
+                    return this;
+                }
+                return newSubNode == null ? without(pos, bit) : withPair(pos, null, newSubNode);
+            }
+            return key.equals(keyOrNull) ? without(pos, bit) : this;
+        }
+
+        private BitmapNode withPair(int pos, Object key, Object value) {
+            Object[] newArray = array.clone();
+            newArray[pos] = key;
+            newArray[pos + 1] = value;
+            return new BitmapNode(bitmap, newArray);
+        }
+
+        private BitmapNode without(int pos, int bit) {
+            if (bitmap == bit) {
+                return null;
+            }
+            Object[] newArray = new Object[array.length - 2];
+            System.arraycopy(array, 0, newArray, 0, pos);
+            System.arraycopy(array, pos + 2, newArray, pos, newArray.length - pos);
+            return new BitmapNode(bitmap ^ bit, newArray);
+        }
+
+        private static TrieNode twoEntries(int shift, String key1, Object value1, int hash2, String key2, Object value2) {
+            if (shift > MAX_SHIFT) {
+                return new CollisionNode(new Object[] { key1, value1, key2, value2 });
+            }
+            boolean[] added = new boolean[1];
+            return new BitmapNode(0, new Object[0])
+                .put(hash(key1), shift, key1, value1, added)
+                .put(hash2, shift, key2, value2, added);
+        }
+    }
+
+    /**
+     * The node of entries with the same hash, whose array contains pairs of keys and values.
+     */
+    private record CollisionNode(Object[] array) implements TrieNode {
+
+        @Override
+        public Object get(int hash, int shift, String key) {
+            int pos = indexOf(key);
+            return pos < 0 ? null : array[pos + 1];
+        }
+
+        @Override
+        public TrieNode put(int hash, int shift, String key, Object value, boolean[] added) {
+            int pos = indexOf(key);
+            if (pos >= 0) {
+                Object[] newArray = array.clone();
+                newArray[pos + 1] = value;
+                return new CollisionNode(newArray);
+            }
+            Object[] newArray = Arrays.copyOf(array, array.length + 2);
+            newArray[array.length] = key;
+            newArray[array.length + 1] = value;
+            added[0] = true;
+            return new CollisionNode(newArray);
+        }
+
+        @Override
+        public TrieNode remove(int hash, int shift, String key) {
+            int pos = indexOf(key);
+            if (pos < 0) {
+                return this;
+            }
+            if (array.length == 2) {
+                return null;
+            }
+            Object[] newArray = new Object[array.length - 2];
+            System.arraycopy(array, 0, newArray, 0, pos);
+            System.arraycopy(array, pos + 2, newArray, pos, newArray.length - pos);
+            return new CollisionNode(newArray);
+        }
+
+        private int indexOf(String key) {
+            for (int pos = 0; pos < array.length; pos += 2) {
+                if (key.equals(array[pos])) {
+                    return pos;
+                }
+            }
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package org.krmdemo.yaml.reconcile.util;
+
+import lombok.NonNull;
+
+import java.util.*;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Persistent (immutable with structural sharing) vector, which is a 32-way trie of slots.
+ * <p/>
+ * Every update copies only the path from the root to the changed slot - O(log<sub>32</sub>n) arrays of 32 elements.
+ * Removed elements leave empty slots (tombstones), and every node of the trie keeps the number of non-empty
+ * slots in its subtree, so the access by the index (the rank among remaining elements) takes O(log n) as well.
+ * <p/>
+ * The vector could be created as a lazy view over the existing indexed collection (see {@link #lazy(int, IntFunction)}),
+ * in which case the nodes of the trie are materialized only along the paths of updates.
+ *
+ * @param <T> type of elements
+ */
+public final class PersistentVector<T> {
+
+    private static final int BITS = 5;
+    private static final int WIDTH = 1 << BITS;
+    private static final int MASK = WIDTH - 1;
+
+    private static final PersistentVector<?> EMPTY = new PersistentVector<>(null, 0, null, 0, 0, 0);
+
+    /**
+     * The node of the trie: items are either elements (for the leaves) or child-nodes;
+     * a node without items refers to the range of slots in the lazy base collection.
+     */
+    private record Trie(Object[] items, int live) {
+    }
+
+    private final IntFunction<? extends T> base;
+    private final int baseCount;
+    private final Trie root;
+    private final int shift;
+    private final int slots;
+    private final int size;
+
+    private PersistentVector(IntFunction<? extends T> base, int baseCount, Trie root, int shift, int slots, int size) {
+        this.base = base;
+        this.baseCount = baseCount;
+        this.root = root;
+        this.shift = shift;
+        this.slots = slots;
+        this.size = size;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> PersistentVector<T> empty() {
+        return (PersistentVector<T>) EMPTY;
+    }
+
+    /**
+     * @param count the number of elements in the base collection
+     * @param base the function to load the element of the base collection by its index
+     * @return the vector, which is a lazy view over the base collection
+     */
+    public static <T> PersistentVector<T> lazy(int count, @NonNull IntFunction<? extends T> base) {
+        if (count == 0) {
+            return empty();
+        }
+        int shift = 0;
+        while ((long) WIDTH << shift < count) {
+            shift += BITS;
+        }
+        return new PersistentVector<>(base, count, new Trie(null, count), shift, count, count);
+    }
+
+    /**
+     * @return the number of elements (non-empty slots)
+     */
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return the number of slots (including the empty ones), which is the slot of the next appended element
+     */
+    public int slots() {
+        return slots;
+    }
+
+    /**
+     * @param index the index of element (among non-empty slots)
+     * @return the element by its index
+     */
+    public T get(int index) {
+        return getSlot(slotOf(index));
+    }
+
+    /**
+     * @param slot the slot
+     * @return the element in the slot (or {@code null} if the slot is empty)
+     */
+    @SuppressWarnings("unchecked")
+    public T getSlot(int slot) {
+        Objects.checkIndex(slot, slots);
+        Trie node = root;
+        for (int level = shift; node != null; level -= BITS) {
+            if (node.items == null) {
+                return base.apply(slot);
+            }
+            Object item = node.items[(slot >>> level) & MASK];
+            if (level == 0) {
+                return (T) item;
+            }
+            node = (Trie) item;
+        }
+        return null;
+    }
+
+    /**
+     * @param index the index of element (among non-empty slots)
+     * @return the slot of the element
+     */
+    public int slotOf(int index) {
+        Objects.checkIndex(index, size);
+        int rank = index;
+        int start = 0;
+        Trie node = root;
+        for (int level = shift; ; level -= BITS) {
+            if (node.items == null) {
+                return start + rank;
+            }
+            for (int i = 0; i < WIDTH; i++) {
+                int live = live(node.items[i], level);
+                if (rank < live) {
+                    if (level == 0) {
+                        return start + i;
+                    }
+                    node = (Trie) node.items[i];
+                    start += i << level;
+                    break;
+                }
+                rank -= live;
+            }
+        }
+    }
+
+    /**
+     * @param index the index of element (among non-empty slots)
+     * @param value the new value of element
+     * @return the vector with replaced element
+     */
+    public PersistentVector<T> set(int index, @NonNull T value) {
+        return setSlot(slotOf(index), value);
+    }
+
+    /**
+     * @param index the index of element (among non-empty slots)
+     * @return the vector without the element (whose slot becomes empty)
+     */
+    public PersistentVector<T> remove(int index) {
+        return setSlot(slotOf(index), null);
+    }
+
+    /**
+     * @param value the element to append
+     * @return the vector with the element in the new slot at the end
+     */
+    public PersistentVector<T> append(@NonNull T value) {
+        return setSlot(slots, value);
+    }
+
+    /**
+     * @param slot the existing slot or the next slot after the last one
+     * @param value the value of slot ({@code null} to make the slot empty)
+     * @return the vector with the updated slot
+     */
+    public PersistentVector<T> setSlot(int slot, T value) {
+        Objects.checkIndex(slot, slots + 1);
+        Trie newRoot = root;
+        int newShift = shift;
+        if (root != null && slot == (long) WIDTH << shift) {
+            Object[] items = new Object[WIDTH];
+            items[0] = root;
+            newRoot = new Trie(items, root.live);
+            newShift += BITS;
+        }
+        newRoot = setSlot(newRoot, newShift, 0, slot, value);
+        return new PersistentVector<>(base, baseCount, newRoot, newShift,
+            Math.max(slots, slot + 1), newRoot.live);
+    }
+
+    private Trie setSlot(Trie node, int level, int start, int slot, Object value) {
+        Object[] items = node == null ? new Object[WIDTH]
+            : node.items == null ? materialize(level, start) : node.items.clone();
+        int i = (slot >>> level) & MASK;
+        if (level == 0) {
+            items[i] = value;
+        } else {
+            items[i] = setSlot((Trie) items[i], level - BITS, start + (i << level), slot, value);
+        }
+        int live = 0;
+        for (Object item : items) {
+            live += live(item, level);
+        }
+        return new Trie(items, live);
+    }
+
+    private Object[] materialize(int level, int start) {
+        Object[] items = new Object[WIDTH];
+        for (int i = 0; i < WIDTH; i++) {
+            int childStart = start + (i << level);
+            if (childStart >= baseCount) {
+                break;
+            }
+            items[i] = level == 0 ? base.apply(childStart)
+                : new Trie(null, (int) Math.min(baseCount, childStart + (1L << level)) - childStart);
+        }
+        return items;
+    }
+
+    private static int live(Object item, int level) {
+        if (item == null) {
+            return 0;
+        }
+        return level == 0 ? 1 : ((Trie) item).live;
+    }
+
+    /**
+     * @return the ordered stream of elements (empty slots are skipped)
+     */
+    public Stream<T> stream() {
+        return IntStream.range(0, slots).mapToObj(this::getSlot).filter(Objects::nonNull);
+    }
+
+    @Override
+    public String toString() {
+        return stream().map(String::valueOf).collect(Collectors.joining(", ", "[", "]"));
+    }
+}
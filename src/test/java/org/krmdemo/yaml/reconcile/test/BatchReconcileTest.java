@@ -0,0 +1,118 @@
+package org.krmdemo.yaml.reconcile.test;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.krmdemo.yaml.reconcile.YamlReconcile;
+import org.krmdemo.yaml.reconcile.batch.BatchReconcile;
+import org.krmdemo.yaml.reconcile.batch.BatchReconcile.FileResult;
+import org.krmdemo.yaml.reconcile.batch.BatchReconcile.Status;
+import org.krmdemo.yaml.reconcile.diff.YamlDiff;
+import org.krmdemo.yaml.reconcile.diff.YamlPatchOp;
+import org.krmdemo.yaml.reconcile.impl.SnakeYamlEngineFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+/**
+ * Unit-test to check the functionality of {@link BatchReconcile} class
+ */
+public class BatchReconcileTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testReconcileDirectories() throws IOException {
+        Path leftDir = tempDir.resolve("left");
+        Path rightDir = tempDir.resolve("right");
+        write(leftDir, "same.yaml", "a: 1");
+        write(rightDir, "same.yaml", "a: 1");
+        write(leftDir, "apps/reformatted.yml", "{ a: 1, b: [ x ] }");
+        write(rightDir, "apps/reformatted.yml", "b:\n  - x\na: 1\n");
+        write(leftDir, "apps/deploy.yaml", "spec: { replicas: 1 }\n---\nkind: Service\n");
+        write(rightDir, "apps/deploy.yaml", "spec: { replicas: 3 }\n---\nkind: Service\n");
+        write(leftDir, "removed.yaml", "a: 1");
+        write(rightDir, "nested/added.yaml", "a: 1");
+        write(leftDir, "broken.yaml", "a: [ 1");
+        write(rightDir, "broken.yaml", "a: [ 1 ]");
+        write(leftDir, "readme.txt", "not a yaml");
+
+        BatchReconcile batchReconcile = new BatchReconcile(new SnakeYamlEngineFactory(), new YamlDiff(), 2);
+        Map<String, FileResult> results;
+        try (Stream<FileResult> resultStream = batchReconcile.reconcile(leftDir, rightDir)) {
+            results = resultStream.collect(Collectors.toMap(FileResult::relativePath, result -> result));
+        }
+        assertThat(results.values().stream().collect(Collectors.toMap(FileResult::relativePath, FileResult::status)))
+            .containsOnly(
+                entry("same.yaml", Status.UNCHANGED),
+                entry("apps/reformatted.yml", Status.UNCHANGED),
+                entry("apps/deploy.yaml", Status.CHANGED),
+                entry("removed.yaml", Status.REMOVED),
+                entry("nested/added.yaml", Status.ADDED),
+                entry("broken.yaml", Status.FAILED)
+            );
+        assertThat(results.get("apps/deploy.yaml").patch()).extracting(YamlPatchOp::toString)
+            .containsExactly("REPLACE '[0].spec.replicas' : '1' --> '3'");
+        assertThat(results.get("broken.yaml").error()).isNotNull();
+    }
+
+    @Test
+    void testManyFilesAndEarlyClose() throws IOException {
+        Path leftDir = tempDir.resolve("left");
+        Path rightDir = tempDir.resolve("right");
+        for (int i = 0; i < 500; i++) {
+            write(leftDir, "dir-" + (i % 10) + "/file-" + i + ".yaml", "id: " + i + "\nvalue: left");
+            write(rightDir, "dir-" + (i % 10) + "/file-" + i + ".yaml", "id: " + i + "\nvalue: " + (i % 2 == 0 ? "left" : "right"));
+        }
+        BatchReconcile batchReconcile = new BatchReconcile(new SnakeYamlEngineFactory(), new YamlDiff(), 16);
+        try (Stream<FileResult> resultStream = batchReconcile.reconcile(leftDir, rightDir)) {
+            assertThat(resultStream.collect(Collectors.groupingBy(FileResult::status, Collectors.counting())))
+                .containsOnly(entry(Status.UNCHANGED, 250L), entry(Status.CHANGED, 250L));
+        }
+        try (Stream<FileResult> resultStream = batchReconcile.reconcile(leftDir, rightDir)) {
+            assertThat(resultStream.limit(3)).hasSize(3);
+        }
+    }
+
+    @Test
+    void testMain() throws IOException {
+        Path leftDir = tempDir.resolve("left");
+        Path rightDir = tempDir.resolve("right");
+        write(leftDir, "app.yaml", "a: 1");
+        write(rightDir, "app.yaml", "a: 2");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ByteArrayOutputStream err = new ByteArrayOutputStream();
+        int exitCode = YamlReconcile.run(new String[] { leftDir.toString(), rightDir.toString(), "4" },
+            new PrintStream(out, true), new PrintStream(err, true));
+        assertThat(exitCode).isEqualTo(1);
+        assertThat(out.toString().lines()).containsExactly(
+            "CHANGED   app.yaml (1 changes)",
+            "    REPLACE '[0].a' : '1' --> '2'",
+            "Reconciled files: {CHANGED=1}"
+        );
+        assertThat(YamlReconcile.run(new String[] { leftDir.toString() }, new PrintStream(out), new PrintStream(err)))
+            .isEqualTo(2);
+        assertThat(err.toString()).startsWith("Usage: YamlReconcile");
+        for (String parallelism : List.of("0", "-1", "many")) {
+            err.reset();
+            assertThat(YamlReconcile.run(new String[] { leftDir.toString(), rightDir.toString(), parallelism },
+                new PrintStream(out), new PrintStream(err, true))).isEqualTo(2);
+            assertThat(err.toString()).startsWith("Invalid parallelism '" + parallelism + "'");
+        }
+    }
+
+    private static void write(Path dir, String relativePath, String content) throws IOException {
+        Path file = dir.resolve(relativePath);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, content);
+    }
+}
@@ -0,0 +1,56 @@
+package org.krmdemo.yaml.reconcile.test;
+
+import org.junit.jupiter.api.Test;
+import org.krmdemo.yaml.reconcile.impl.YamlDictionary;
+import org.krmdemo.yaml.reconcile.impl.YamlKeyValue;
+import org.krmdemo.yaml.reconcile.impl.YamlScalar;
+import org.krmdemo.yaml.reconcile.util.OrderedKeyMap;
+
+import static java.util.stream.IntStream.range;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+/**
+ * Unit-test to check the functionality of {@link OrderedKeyMap} class
+ */
+public class OrderedKeyMapTest {
+
+    @Test
+    void testInsertionOrder() {
+        OrderedKeyMap<Integer> map = new OrderedKeyMap<>();
+        assertThat(map.isEmpty()).isTrue();
+        assertThat(map.put("zeta", 1)).isNull();
+        assertThat(map.put("alpha", 2)).isNull();
+        assertThat(map.put("mu", 3)).isNull();
+        assertThat(map.put("alpha", 4)).isEqualTo(2);
+        assertThat(map.keys()).containsExactly("zeta", "alpha", "mu");
+        assertThat(map.values()).containsExactly(1, 4, 3);
+        assertThat(map.indexOf("mu")).isEqualTo(2);
+        assertThat(map.indexOf("absent")).isEqualTo(-1);
+        assertThat(map.get(null)).isNull();
+        assertThat(map).hasToString("{zeta=1, alpha=4, mu=3}");
+        assertThatExceptionOfType(IndexOutOfBoundsException.class).isThrownBy(() -> map.keyAt(3));
+    }
+
+    @Test
+    void testManyKeys() {
+        OrderedKeyMap<Integer> map = new OrderedKeyMap<>();
+        range(0, 50_000).forEach(i -> map.put("key-" + i, i));
+        map.trimToSize();
+        assertThat(map.size()).isEqualTo(50_000);
+        assertThat(range(0, 50_000).allMatch(i -> map.get("key-" + i) == i && map.indexOf("key-" + i) == i)).isTrue();
+        assertThat(map.containsKey("key-50000")).isFalse();
+    }
+
+    @Test
+    void testDictionaryOrder() {
+        YamlDictionary dictionary = new YamlDictionary(
+            new YamlKeyValue("spec", new YamlScalar("s")),
+            new YamlKeyValue("apiVersion", new YamlScalar("v1")),
+            new YamlKeyValue("kind", new YamlScalar("Pod"))
+        );
+        assertThat(dictionary.getChildren()).extracting(kv -> kv.getKey()).containsExactly("spec", "apiVersion", "kind");
+        assertThat(dictionary.childByIndex(1)).isSameAs(dictionary.childByName("apiVersion"));
+        assertThat(dictionary.childByName("kind").getValue().asString()).isEqualTo("Pod");
+    }
+}
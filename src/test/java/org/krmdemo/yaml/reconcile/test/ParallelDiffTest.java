@@ -0,0 +1,86 @@
+package org.krmdemo.yaml.reconcile.test;
+
+import org.junit.jupiter.api.Test;
+import org.krmdemo.yaml.reconcile.YamlNode;
+import org.krmdemo.yaml.reconcile.diff.YamlDiff;
+import org.krmdemo.yaml.reconcile.diff.YamlPatchOp;
+import org.krmdemo.yaml.reconcile.impl.SnakeYamlEngineFactory;
+import org.snakeyaml.engine.v2.nodes.Node;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit-test to check the fork/join mode of {@link YamlDiff}
+ */
+public class ParallelDiffTest {
+
+    final SnakeYamlEngineFactory factory = new SnakeYamlEngineFactory();
+
+    @Test
+    void testSameAsSequential() {
+        YamlNode<Node> left = load(hugeDocument(-1));
+        YamlNode<Node> right = load(hugeDocument(7));
+        YamlDiff yamlDiff = YamlDiff.builder().parallelThreshold(64).build();
+        List<YamlPatchOp> sequential = yamlDiff.stream(left, right).toList();
+        assertThat(sequential).hasSizeGreaterThan(1000);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            assertThat(yamlDiff.parallel(left, right, pool)).isEqualTo(sequential);
+            assertThat(yamlDiff.parallel(left, left, pool)).isEmpty();
+        } finally {
+            pool.shutdown();
+        }
+        assertThat(new YamlDiff().parallel(left, right)).isEqualTo(sequential);
+    }
+
+    @Test
+    void testSmallDocument() {
+        YamlNode<Node> left = load("{ a: 1, b: [ x, y ] }");
+        YamlNode<Node> right = load("{ a: 2, b: [ x, z ] }");
+        assertThat(new YamlDiff().parallel(left, right)).extracting(YamlPatchOp::toString).containsExactly(
+            "REPLACE 'a' : '1' --> '2'",
+            "REPLACE 'b[1]' : 'y' --> 'z'"
+        );
+    }
+
+    @Test
+    void testMinimalThreshold() {
+        YamlNode<Node> left = load("{ a: 1, b: [ x, y ], c: { d: 1, e: [ 1 ] }, f: x }");
+        YamlNode<Node> right = load("{ a: 2, b: [ x, z, w ], c: { d: 2, e: [ 2 ] }, f: [ x ] }");
+        YamlDiff yamlDiff = YamlDiff.builder().parallelThreshold(1).build();
+        List<YamlPatchOp> sequential = yamlDiff.stream(left, right).toList();
+        assertThat(sequential).isNotEmpty();
+        assertThat(yamlDiff.parallel(left, right)).isEqualTo(sequential);
+        YamlNode<Node> leftScalar = load("x");
+        YamlNode<Node> rightScalar = load("y");
+        assertThat(yamlDiff.parallel(leftScalar, rightScalar)).isEqualTo(yamlDiff.stream(leftScalar, rightScalar).toList());
+        YamlNode<Node> leftHuge = load(hugeDocument(-1));
+        YamlNode<Node> rightHuge = load(hugeDocument(7));
+        assertThat(yamlDiff.parallel(leftHuge, rightHuge)).isEqualTo(yamlDiff.stream(leftHuge, rightHuge).toList());
+    }
+
+    private static String hugeDocument(int changeEvery) {
+        StringBuilder sb = new StringBuilder("services:\n");
+        for (int i = 0; i < 5000; i++) {
+            boolean changed = changeEvery > 0 && i % changeEvery == 0;
+            sb.append("  svc-").append(i).append(": { port: ").append(changed ? 9000 + i : 8000 + i)
+                .append(", tags: [ a, b, ").append(changed ? "changed" : "c").append(" ] }\n");
+        }
+        sb.append("items:\n");
+        for (int i = 0; i < 5000; i++) {
+            if (changeEvery > 0 && i % (changeEvery * 3) == 1) {
+                continue;
+            }
+            sb.append("  - item-").append(i).append('\n');
+        }
+        sb.append("kind: Huge\n");
+        return sb.toString();
+    }
+
+    private YamlNode<Node> load(String yamlContent) {
+        return factory.fromString(yamlContent).findFirst().orElseThrow();
+    }
+}
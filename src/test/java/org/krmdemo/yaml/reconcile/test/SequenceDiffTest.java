@@ -0,0 +1,123 @@
+package org.krmdemo.yaml.reconcile.test;
+
+import org.junit.jupiter.api.Test;
+import org.krmdemo.yaml.reconcile.YamlNode;
+import org.krmdemo.yaml.reconcile.YamlPath;
+import org.krmdemo.yaml.reconcile.diff.YamlDiff;
+import org.krmdemo.yaml.reconcile.diff.YamlPatchOp;
+import org.krmdemo.yaml.reconcile.impl.SnakeYamlEngineFactory;
+import org.snakeyaml.engine.v2.nodes.Node;
+
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit-test to check the diff of sequences by merge-keys and by structural hashes
+ */
+public class SequenceDiffTest {
+
+    final SnakeYamlEngineFactory factory = new SnakeYamlEngineFactory();
+
+    @Test
+    void testMergeKeyByPath() {
+        YamlNode<Node> left = load("""
+            spec:
+              containers:
+                - { name: app, image: demo/app:1.0 }
+                - { name: sidecar, image: demo/proxy:1.0 }
+                - { name: init, image: demo/init:1.0 }
+            """);
+        YamlNode<Node> right = load("""
+            spec:
+              containers:
+                - { name: init, image: demo/init:1.0 }
+                - { name: app, image: demo/app:2.0 }
+                - { name: logger, image: demo/logger:1.0 }
+            """);
+        YamlDiff keyedDiff = YamlDiff.builder().mergeKey("spec.containers", "name").build();
+        assertThat(keyedDiff.stream(left, right).map(YamlPatchOp::toString)).containsExactly(
+            "MOVE 'spec.containers[2]' --> 'spec.containers[0]'",
+            "REPLACE 'spec.containers[1].image' : 'demo/app:1.0' --> 'demo/app:2.0'",
+            "ADD 'spec.containers[2]' : DICTIONARY(2)",
+            "REMOVE 'spec.containers[3]' : DICTIONARY(2)"
+        );
+        assertThat(new YamlDiff().stream(left, right).map(YamlPatchOp::toString)).containsExactly(
+            "REMOVE 'spec.containers[0]' : DICTIONARY(2)",
+            "REMOVE 'spec.containers[0]' : DICTIONARY(2)",
+            "ADD 'spec.containers[1]' : DICTIONARY(2)",
+            "ADD 'spec.containers[2]' : DICTIONARY(2)"
+        );
+    }
+
+    @Test
+    void testDefaultMergeKeys() {
+        YamlNode<Node> left = load("""
+            env: [ { name: A, value: '1' }, { name: B, value: '2' }, { name: C, value: '3' } ]
+            ports: [ { port: 80 }, { port: 443 } ]
+            """);
+        YamlNode<Node> right = load("""
+            env: [ { name: B, value: '2' }, { name: C, value: '30' }, { name: A, value: '1' } ]
+            ports: [ { port: 443 }, { port: 80 } ]
+            """);
+        YamlDiff keyedDiff = YamlDiff.builder().defaultMergeKeys("id", "name").build();
+        assertThat(keyedDiff.stream(left, right).map(YamlPatchOp::toString)).containsExactly(
+            "REPLACE 'env[2].value' : '3' --> '30'",
+            "MOVE 'env[0]' --> 'env[2]'",
+            "ADD 'ports[0]' : DICTIONARY(1)",
+            "REMOVE 'ports[2]' : DICTIONARY(1)"
+        );
+    }
+
+    @Test
+    void testHugeSequenceWithoutMergeKey() {
+        int size = 20_000;
+        List<String> elements = IntStream.range(0, size).mapToObj(i -> "item-" + i).collect(Collectors.toList());
+        YamlNode<Node> left = load(flowSequence(elements));
+        YamlDiff yamlDiff = new YamlDiff();
+
+        List<String> inserted = new ArrayList<>(elements);
+        inserted.add(size / 2, "inserted");
+        assertThat(yamlDiff.stream(left, load(flowSequence(inserted))).map(YamlPatchOp::toString))
+            .containsExactly("ADD '[10000]' : 'inserted'");
+
+        List<String> reordered = new ArrayList<>(elements);
+        reordered.add(reordered.remove(5));
+        assertThat(yamlDiff.stream(left, load(flowSequence(reordered))).map(YamlPatchOp::toString))
+            .containsExactly("REMOVE '[5]' : 'item-5'", "ADD '[19999]' : 'item-5'");
+
+        List<String> replaced = new ArrayList<>(elements);
+        replaced.set(7, "replaced");
+        replaced.remove(size - 1);
+        assertThat(yamlDiff.stream(left, load(flowSequence(replaced))).map(YamlPatchOp::toString))
+            .containsExactly("REPLACE '[7]' : 'item-7' --> 'replaced'", "REMOVE '[19999]' : 'item-19999'");
+    }
+
+    @Test
+    void testHugeSequenceWithMergeKey() {
+        int size = 20_000;
+        YamlDiff keyedDiff = YamlDiff.builder().mergeKey("items", "id").build();
+        List<Integer> ids = IntStream.range(0, size).boxed().collect(Collectors.toList());
+        YamlNode<Node> left = load(keyedItems(ids));
+        List<Integer> swapped = new ArrayList<>(ids);
+        Collections.swap(swapped, 100, size - 100);
+        List<YamlPatchOp> patch = keyedDiff.stream(left, load(keyedItems(swapped))).toList();
+        assertThat(patch).extracting(YamlPatchOp::kind).containsOnly(YamlPatchOp.Kind.MOVE).hasSize(2);
+        assertThat(patch.get(0).path()).isEqualTo(YamlPath.parse("items[100]"));
+    }
+
+    private static String flowSequence(List<String> elements) {
+        return elements.stream().collect(Collectors.joining(", ", "[ ", " ]"));
+    }
+
+    private static String keyedItems(List<Integer> ids) {
+        return ids.stream().map(id -> "- { id: " + id + ", value: v" + id + " }")
+            .collect(Collectors.joining("\n", "items:\n", "\n"));
+    }
+
+    private YamlNode<Node> load(String yamlContent) {
+        return factory.fromString(yamlContent).findFirst().orElseThrow();
+    }
+}
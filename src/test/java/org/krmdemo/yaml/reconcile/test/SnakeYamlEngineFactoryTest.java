@@ -0,0 +1,182 @@
+package org.krmdemo.yaml.reconcile.test;
+
+import org.junit.jupiter.api.Test;
+import org.krmdemo.yaml.reconcile.YamlNode;
+import org.krmdemo.yaml.reconcile.diff.YamlPatch;
+import org.krmdemo.yaml.reconcile.impl.SnakeYamlEngineFactory;
+import org.krmdemo.yaml.reconcile.impl.YamlDictionary;
+import org.krmdemo.yaml.reconcile.impl.YamlKeyPool;
+import org.krmdemo.yaml.reconcile.impl.YamlKeyValue;
+import org.krmdemo.yaml.reconcile.impl.YamlMappers;
+import org.krmdemo.yaml.reconcile.impl.YamlPrimitiveScalar;
+import org.snakeyaml.engine.v2.api.Dump;
+import org.snakeyaml.engine.v2.api.DumpSettings;
+import org.snakeyaml.engine.v2.api.LoadSettings;
+import org.snakeyaml.engine.v2.api.StreamDataWriter;
+import org.snakeyaml.engine.v2.exceptions.ComposerException;
+import org.snakeyaml.engine.v2.nodes.Node;
+import org.snakeyaml.engine.v2.nodes.ScalarNode;
+import org.snakeyaml.engine.v2.nodes.Tag;
+
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+/**
+ * Unit-test to check the loading of yaml-documents by {@link SnakeYamlEngineFactory}
+ */
+public class SnakeYamlEngineFactoryTest {
+
+    final SnakeYamlEngineFactory factory = new SnakeYamlEngineFactory();
+
+    @Test
+    void testFromStream() throws Exception {
+        try (InputStream inputStream = getClass().getResourceAsStream("/yaml/manifests.yaml")) {
+            List<YamlNode<Node>> docs = factory.fromStream(inputStream).toList();
+            assertThat(docs).hasSize(3);
+            assertThat(docs).extracting(YamlNode::getType).containsOnly(YamlNode.Type.DICTIONARY);
+
+            YamlNode<Node> configMap = docs.get(0);
+            assertThat(value(configMap, "kind").asString()).isEqualTo("ConfigMap");
+            assertThat(value(value(configMap, "data"), "MAX_CONNECTIONS").asString()).isEqualTo("100");
+            assertThat(value(value(configMap, "data"), "banner").asString())
+                .isEqualTo("Welcome to demo-app\n(multi-line banner)\n");
+
+            YamlNode<Node> spec = value(docs.get(1), "spec");
+            assertThat(value(spec, "replicas").asOrigin().getTag()).isEqualTo(Tag.INT);
+            assertThat(value(spec, "paused").asOrigin().getTag()).isEqualTo(Tag.BOOL);
+            assertThat(((ScalarNode) value(value(configMap, "data"), "MAX_CONNECTIONS").asOrigin()).getTag())
+                .isEqualTo(Tag.STR);
+
+            YamlNode<Node> containers = value(value(value(spec, "template"), "spec"), "containers");
+            assertThat(containers.getType()).isEqualTo(YamlNode.Type.SEQUENCE);
+            assertThat(containers.getChildren()).hasSize(2);
+            assertThat(value(containers.childByIndex(1), "image").asString()).isEqualTo("demo/proxy:0.9");
+            assertThat(value(containers.childByIndex(1), "args").getChildren())
+                .extracting(YamlNode::asString).containsExactly("--port", "8080");
+
+            assertThat(value(docs.get(2), "kind").asString()).isEqualTo("Empty");
+        }
+    }
+
+    @Test
+    void testFromPath() {
+        Path path = Path.of("src/test/resources/yaml/manifests.yaml");
+        try (Stream<YamlNode<Node>> docs = factory.fromPath(path)) {
+            assertThat(docs.map(doc -> value(value(doc, "metadata"), "name").asString()).findFirst())
+                .contains("app-config");
+        }
+    }
+
+    @Test
+    void testAliases() {
+        YamlNode<Node> deployment = factory.fromString("""
+            labels: &common
+              app: demo
+            copy: *common
+            """).findFirst().orElseThrow();
+        assertThat(value(deployment, "copy")).isSameAs(value(deployment, "labels"));
+        assertThatExceptionOfType(ComposerException.class)
+            .isThrownBy(() -> factory.fromString("first: *undefined").toList());
+        assertThatExceptionOfType(ComposerException.class)
+            .isThrownBy(() -> factory.fromString("? [1, 2]\n: complex-key").toList());
+    }
+
+    @Test
+    void testLazyDocuments() {
+        Iterator<YamlNode<Node>> docsIter = factory.fromString("""
+            valid: document
+            ---
+            invalid: *document
+            """).iterator();
+        assertThat(value(docsIter.next(), "valid").asString()).isEqualTo("document");
+        assertThatExceptionOfType(ComposerException.class).isThrownBy(docsIter::next);
+    }
+
+    @Test
+    void testKeyPool() {
+        YamlKeyPool keyPool = new YamlKeyPool(3);
+        SnakeYamlEngineFactory pooledFactory = new SnakeYamlEngineFactory(LoadSettings.builder().build(), keyPool);
+        List<YamlNode<Node>> docs = pooledFactory.fromString("""
+            metadata: { name: first, labels: { app: demo } }
+            ---
+            metadata: { name: second, labels: { app: demo } }
+            """).toList();
+        assertThat(keyPool.size()).isEqualTo(3);
+        YamlNode<Node> firstName = value(docs.get(0), "metadata").childByName("name");
+        YamlNode<Node> secondName = value(docs.get(1), "metadata").childByName("name");
+        assertThat(firstName.getKey()).isSameAs(secondName.getKey());
+        assertThat(((YamlKeyValue) firstName).asTuple().getKeyNode())
+            .isNotSameAs(((YamlKeyValue) secondName).asTuple().getKeyNode());
+        assertThat(keyPool.intern(new String("name"))).isSameAs(firstName.getKey());
+        assertThat(keyPool.intern("app")).isEqualTo("app");
+        assertThat(keyPool.size()).isEqualTo(3);
+        assertThatIllegalArgumentException().isThrownBy(() -> keyPool.intern("tab\tkey"));
+    }
+
+    @Test
+    void testParsedKeys() {
+        String yamlContent = """
+            名前: x
+            "a\\"b": 1
+            ? 
+            : v
+            """;
+        for (YamlNode<Node> document : List.of(
+                factory.fromString(yamlContent).findFirst().orElseThrow(),
+                factory.fromStringToArena(yamlContent).findFirst().orElseThrow())) {
+            assertThat(document.getChildren().map(YamlNode::getKey)).containsExactly("名前", "a\"b", "");
+            assertThat(value(document, "名前").asString()).isEqualTo("x");
+            assertThat(value(document, "a\"b").asString()).isEqualTo("1");
+            assertThat(value(document, "").asString()).isEqualTo("v");
+            YamlNode<Node> patched = new YamlPatch().applyMergePatch(document,
+                factory.fromString("{ 名前: y, '': w }").findFirst().orElseThrow());
+            assertThat(value(patched, "名前").asString()).isEqualTo("y");
+            assertThat(value(patched, "").asString()).isEqualTo("w");
+        }
+        assertThatIllegalArgumentException().isThrownBy(() -> new YamlKeyValue("名前", YamlPrimitiveScalar.of(true)));
+    }
+
+    @Test
+    void testOriginWithoutAnchors() {
+        YamlNode<Node> document = factory.fromString("""
+            items:
+            - name: first
+              enabled: true
+            - name: second
+              enabled: true
+            """).findFirst().orElseThrow();
+        YamlNode<Node> built = new YamlDictionary(
+            new YamlKeyValue("first", new YamlDictionary(new YamlKeyValue("flag", YamlPrimitiveScalar.of(true)),
+                new YamlKeyValue("none", YamlMappers.toYaml(null)))),
+            new YamlKeyValue("second", new YamlDictionary(new YamlKeyValue("flag", YamlPrimitiveScalar.of(true)),
+                new YamlKeyValue("none", YamlMappers.toYaml(null)))));
+        assertThat(dumpOrigin(document)).doesNotContain("&", "*").contains("'name': first", "'name': second");
+        assertThat(dumpOrigin(built)).doesNotContain("&", "*").contains("'flag': true", "'none': null");
+    }
+
+    private static String dumpOrigin(YamlNode<Node> document) {
+        StringBuilder sb = new StringBuilder();
+        new Dump(DumpSettings.builder().build()).dumpNode(document.asOrigin(), new StreamDataWriter() {
+            @Override
+            public void write(String str) {
+                sb.append(str);
+            }
+
+            @Override
+            public void write(String str, int off, int len) {
+                sb.append(str, off, off + len);
+            }
+        });
+        return sb.toString();
+    }
+
+    private static YamlNode<Node> value(YamlNode<Node> yamlNode, String childName) {
+        return yamlNode.childByName(childName).getValue();
+    }
+}
@@ -0,0 +1,72 @@
+package org.krmdemo.yaml.reconcile.test;
+
+import org.junit.jupiter.api.Test;
+import org.krmdemo.yaml.reconcile.YamlNode;
+import org.krmdemo.yaml.reconcile.impl.SnakeYamlEngineFactory;
+import org.krmdemo.yaml.reconcile.impl.YamlLazyNode;
+import org.krmdemo.yaml.reconcile.impl.YamlScalar;
+import org.krmdemo.yaml.reconcile.impl.YamlSequence;
+import org.snakeyaml.engine.v2.api.LoadSettings;
+import org.snakeyaml.engine.v2.api.lowlevel.Compose;
+import org.snakeyaml.engine.v2.nodes.Node;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit-test to check the structural hashes of yaml-nodes
+ */
+public class StructuralHashTest {
+
+    final SnakeYamlEngineFactory factory = new SnakeYamlEngineFactory();
+
+    static final String YAML_DEPLOYMENT = """
+        metadata:
+          name: app
+          labels: { app: demo, tier: backend }
+        spec:
+          replicas: 3
+          ports: [ 80, 443 ]
+        """;
+
+    @Test
+    void testSameContent() {
+        YamlNode<Node> first = load(YAML_DEPLOYMENT);
+        YamlNode<Node> second = load("""
+            spec:
+              ports: [ 80, 443 ]
+              replicas: 3
+            metadata:
+              labels: { tier: backend, app: demo }
+              name: app
+            """);
+        assertThat(first).isNotSameAs(second);
+        assertThat(first.structuralHash()).isNotZero().isEqualTo(second.structuralHash());
+        assertThat(first.structurallyEquals(second)).isTrue();
+
+        YamlNode<Node> lazy = YamlLazyNode.wrap(new Compose(LoadSettings.builder().build())
+            .composeString(YAML_DEPLOYMENT).orElseThrow());
+        assertThat(lazy.structuralHash()).isEqualTo(first.structuralHash());
+    }
+
+    @Test
+    void testDifferentContent() {
+        YamlNode<Node> first = load(YAML_DEPLOYMENT);
+        YamlNode<Node> second = load(YAML_DEPLOYMENT.replace("[ 80, 443 ]", "[ 443, 80 ]"));
+        assertThat(first.structurallyEquals(second)).isFalse();
+        assertThat(value(first, "metadata").structurallyEquals(value(second, "metadata"))).isTrue();
+        assertThat(value(first, "spec").structurallyEquals(value(second, "spec"))).isFalse();
+
+        assertThat(load("value: 3").structurallyEquals(load("value: '3'"))).isFalse();
+        assertThat(load("[ a, b ]").structurallyEquals(load("[ a ]"))).isFalse();
+        assertThat(load("{ a: b }").structurallyEquals(load("[ a, b ]"))).isFalse();
+        assertThat(new YamlSequence(new YamlScalar("x")).structurallyEquals(load("[ 'x' ]"))).isTrue();
+    }
+
+    private YamlNode<Node> load(String yamlContent) {
+        return factory.fromString(yamlContent).findFirst().orElseThrow();
+    }
+
+    private static YamlNode<Node> value(YamlNode<Node> yamlNode, String childName) {
+        return yamlNode.childByName(childName).getValue();
+    }
+}
@@ -0,0 +1,89 @@
+package org.krmdemo.yaml.reconcile.test;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.krmdemo.yaml.reconcile.batch.BatchReconcile.FileResult;
+import org.krmdemo.yaml.reconcile.batch.BatchReconcile.Status;
+import org.krmdemo.yaml.reconcile.batch.WatchReconcile;
+import org.krmdemo.yaml.reconcile.diff.YamlPatchOp;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Unit-test to check the functionality of {@link WatchReconcile} class
+ */
+public class WatchReconcileTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testOnChanged() throws IOException {
+        Path leftDir = tempDir.resolve("left");
+        Path rightDir = tempDir.resolve("right");
+        write(leftDir, "app.yaml", "a: 1");
+        write(rightDir, "app.yaml", "a: 1");
+        write(leftDir, "sub/db.yaml", "b: 1");
+        write(rightDir, "sub/db.yaml", "b: 2");
+
+        List<FileResult> received = new ArrayList<>();
+        WatchReconcile watchReconcile = new WatchReconcile(leftDir, rightDir, received::add).load();
+        assertThat(received).extracting(FileResult::toString).containsExactly(
+            "UNCHANGED app.yaml",
+            "CHANGED   sub/db.yaml (1 changes)"
+        );
+
+        write(rightDir, "app.yaml", "{ a: 1 }");
+        assertThat(watchReconcile.onChanged(List.of(rightDir.resolve("app.yaml")))).isEmpty();
+
+        write(rightDir, "app.yaml", "a: 2");
+        write(rightDir, "sub/new.yml", "c: 3");
+        List<FileResult> results = watchReconcile.onChanged(List.of(
+            rightDir.resolve("app.yaml"), rightDir.resolve("sub/new.yml"), rightDir.resolve("app.yaml")));
+        assertThat(results).extracting(FileResult::toString).containsExactly(
+            "CHANGED   app.yaml (1 changes)",
+            "ADDED     sub/new.yml"
+        );
+        assertThat(results.get(0).patch()).extracting(YamlPatchOp::toString)
+            .containsExactly("REPLACE '[0].a' : '1' --> '2'");
+
+        Files.delete(leftDir.resolve("sub/db.yaml"));
+        Files.delete(leftDir.resolve("sub"));
+        assertThat(watchReconcile.onChanged(List.of(leftDir.resolve("sub"))))
+            .extracting(FileResult::relativePath, FileResult::status)
+            .containsExactly(tuple("sub/db.yaml", Status.ADDED));
+    }
+
+    @Test
+    void testWatchService() throws Exception {
+        Path leftDir = tempDir.resolve("left");
+        Path rightDir = tempDir.resolve("right");
+        write(leftDir, "app.yaml", "replicas: 1");
+        write(rightDir, "app.yaml", "replicas: 1");
+        BlockingQueue<FileResult> received = new LinkedBlockingQueue<>();
+        try (WatchReconcile ignored = new WatchReconcile(leftDir, rightDir, received::add).start()) {
+            assertThat(received.poll(1, TimeUnit.SECONDS)).extracting(FileResult::status).isEqualTo(Status.UNCHANGED);
+            write(rightDir, "app.yaml", "replicas: 3");
+            FileResult result = received.poll(30, TimeUnit.SECONDS);
+            assertThat(result).isNotNull();
+            assertThat(result.status()).isEqualTo(Status.CHANGED);
+            assertThat(result.patch()).extracting(YamlPatchOp::toString)
+                .containsExactly("REPLACE '[0].replicas' : '1' --> '3'");
+        }
+    }
+
+    private static void write(Path dir, String relativePath, String content) throws IOException {
+        Path file = dir.resolve(relativePath);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, content);
+    }
+}
@@ -0,0 +1,177 @@
+package org.krmdemo.yaml.reconcile.test;
+
+import org.junit.jupiter.api.Test;
+import org.krmdemo.yaml.reconcile.YamlNode;
+import org.krmdemo.yaml.reconcile.YamlPath;
+import org.krmdemo.yaml.reconcile.diff.YamlDiff;
+import org.krmdemo.yaml.reconcile.diff.YamlMerge;
+import org.krmdemo.yaml.reconcile.diff.YamlPatch;
+import org.krmdemo.yaml.reconcile.impl.SnakeYamlEngineFactory;
+import org.krmdemo.yaml.reconcile.impl.YamlArena;
+import org.krmdemo.yaml.reconcile.impl.YamlCsvScalar;
+import org.krmdemo.yaml.reconcile.impl.YamlEmitter;
+import org.krmdemo.yaml.reconcile.impl.YamlPersistent;
+import org.snakeyaml.engine.v2.api.LoadSettings;
+import org.snakeyaml.engine.v2.exceptions.ComposerException;
+import org.snakeyaml.engine.v2.nodes.Node;
+import org.snakeyaml.engine.v2.nodes.Tag;
+
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+/**
+ * Unit-test to check the functionality of {@link YamlArena} class
+ */
+public class YamlArenaTest {
+
+    final SnakeYamlEngineFactory factory = new SnakeYamlEngineFactory();
+
+    final String yamlText = """
+        apiVersion: apps/v1
+        kind: Deployment
+        metadata: &meta { name: demo, labels: { app: demo, tier: backend } }
+        spec:
+          replicas: 3
+          paused: false
+          selector: ~
+          template:
+            metadata: *meta
+          containers:
+            - name: app
+              args: [ --verbose, 'quoted', "esc\\ttab" ]
+              custom: !custom value
+        ---
+        [ 1, 2.5, [], {} ]
+        ---
+        a: 1
+        b: 0
+        a: 2
+        c: [ 1 ]
+        c: { x: 1 }
+        large: { k1: 1, k2: 2, k3: 3, k4: 4, k5: 5, k6: 6, k7: 7, k8: 8, k9: 9, k1: 10, k5: [ 5 ] }
+        """;
+
+    @Test
+    void testSameAsRegularTree() {
+        List<YamlNode<Node>> regular = factory.fromString(yamlText).toList();
+        List<YamlNode<Node>> arena = factory.fromStringToArena(yamlText).toList();
+        assertThat(arena).hasSize(3);
+        for (int i = 0; i < regular.size(); i++) {
+            assertThat(new YamlDiff().stream(regular.get(i), arena.get(i))).isEmpty();
+            assertThat(arena.get(i).structuralHash()).isEqualTo(regular.get(i).structuralHash());
+        }
+        YamlEmitter emitter = new YamlEmitter();
+        assertThat(emitter.toYaml(arena.get(0))).isEqualTo(emitter.toYaml(regular.get(0)));
+        assertThat(YamlArena.arenaOf(arena.get(0))).isNotSameAs(YamlArena.arenaOf(arena.get(1)));
+        assertThat(YamlArena.arenaOf(regular.get(0))).isNull();
+        YamlNode<Node> duplicates = arena.get(2);
+        assertThat(duplicates.childrenCount()).isEqualTo(4);
+        assertThat(duplicates.childByName("a").getValue().asString()).isEqualTo("2");
+        assertThat(duplicates.childByName("c").getValue().getType()).isEqualTo(YamlNode.Type.DICTIONARY);
+        assertThat(duplicates.childByName("large").getValue().childrenCount()).isEqualTo(9);
+        assertThat(duplicates.structurallyEquals(regular.get(2))).isTrue();
+    }
+
+    @Test
+    void testNavigation() {
+        YamlNode<Node> root = factory.fromStringToArena(yamlText).findFirst().orElseThrow();
+        assertThat(root.childrenCount()).isEqualTo(4);
+        assertThat(root.childByIndex(1).getKey()).isEqualTo("kind");
+        YamlNode<Node> spec = root.childByName("spec").getValue();
+        assertThat(spec.childByName("unknown")).isNull();
+        assertThat(spec.childByName("template").getValue().childByName("metadata").getValue()
+            .childByName("labels").getValue().childByName("tier").getValue().asString()).isEqualTo("backend");
+        YamlNode<Node> args = spec.childByName("containers").getValue().childByIndex(0).childByName("args").getValue();
+        assertThat(args.getChildren().map(YamlNode::asString)).containsExactly("--verbose", "quoted", "esc\ttab");
+        assertThat(spec.childByName("replicas").getValue().asOrigin().getTag()).isEqualTo(Tag.INT);
+        assertThat(spec.childByName("replicas").getValue()).isEqualTo(spec.childByName("replicas").getValue());
+    }
+
+    @Test
+    void testLargeContainers() {
+        String yamlText = IntStream.range(0, 1000)
+            .mapToObj(i -> "key" + i + ": [ " + i + ", value" + i + " ]")
+            .collect(Collectors.joining("\n"));
+        YamlNode<Node> root = factory.fromStringToArena(yamlText).findFirst().orElseThrow();
+        YamlArena arena = YamlArena.arenaOf(root);
+        assertThat(arena.size()).isEqualTo(1 + 1000 * 4);
+        assertThat(root.childByName("key777").getValue().childByIndex(1).asString()).isEqualTo("value777");
+        assertThat(root.childByIndex(999).getKey()).isEqualTo("key999");
+        assertThat(new YamlDiff().stream(root, YamlArena.copyOf(factory.fromString(yamlText).findFirst().orElseThrow())))
+            .isEmpty();
+        assertThat(arena.retainedBytes()).isLessThan(200_000);
+    }
+
+    @Test
+    void testInvalidContent() {
+        assertThatExceptionOfType(ComposerException.class)
+            .isThrownBy(() -> factory.fromStringToArena("a: &x [ *x ]").toList())
+            .withMessageContaining("found undefined (or recursive) alias 'x'");
+        assertThatExceptionOfType(ComposerException.class)
+            .isThrownBy(() -> factory.fromStringToArena("? [ a ]\n: b").toList())
+            .withMessageContaining("only scalar keys are supported, but SEQUENCE is found");
+    }
+
+    @Test
+    void testBillionLaughs() {
+        StringBuilder sb = new StringBuilder("a: &a [ lol, lol, lol, lol, lol, lol, lol, lol, lol ]\n");
+        for (char level = 'b'; level <= 'g'; level++) {
+            String alias = "*" + (char) (level - 1);
+            sb.append(level).append(": &").append(level).append(" [ ")
+                .append(String.join(", ", Collections.nCopies(9, alias))).append(" ]\n");
+        }
+        assertThatExceptionOfType(ComposerException.class)
+            .isThrownBy(() -> factory.fromStringToArena(sb.toString()).toList())
+            .withMessageContaining("number of nodes copied by aliases exceeds the max=1048576");
+
+        String manyAliases = "a: &a [ x ]\nb: [ " + String.join(", ", Collections.nCopies(60, "*a")) + " ]";
+        assertThatExceptionOfType(ComposerException.class)
+            .isThrownBy(() -> factory.fromStringToArena(manyAliases).toList())
+            .withMessageContaining("number of aliases for non-scalar nodes exceeds the specified max=50");
+        SnakeYamlEngineFactory lenientFactory = new SnakeYamlEngineFactory(
+            LoadSettings.builder().setMaxAliasesForCollections(100).build());
+        assertThat(lenientFactory.fromStringToArena(manyAliases).findFirst().orElseThrow()
+            .childByName("b").getValue().childrenCount()).isEqualTo(60);
+    }
+
+    @Test
+    void testCommaSeparatedScalar() {
+        YamlNode<Node> regular = YamlPersistent.with(factory.fromString("spec: { hosts: '' }").findFirst().orElseThrow(),
+            YamlPath.parse("spec.hosts"), YamlCsvScalar.of("a.com, b.com"));
+        YamlNode<Node> arena = YamlArena.copyOf(regular);
+        YamlNode<Node> hosts = YamlPath.parse("spec.hosts").resolve(arena);
+        assertThat(hosts.getType()).isEqualTo(YamlNode.Type.SCALAR_CSV);
+        assertThat(hosts.getChildren().map(YamlNode::asString)).containsExactly("a.com", "b.com");
+        assertThat(hosts.structuralHash()).isEqualTo(YamlPath.parse("spec.hosts").resolve(regular).structuralHash());
+        assertThat(new YamlDiff().stream(regular, arena)).isEmpty();
+
+        YamlNode<Node> patched = new YamlPatch().applyJsonPatch(arena,
+            factory.fromString("[ { op: add, path: /spec/hosts/-, value: c.com } ]").findFirst().orElseThrow());
+        assertThat(YamlPath.parse("spec.hosts").resolve(patched).asString()).isEqualTo("a.com, b.com, c.com");
+    }
+
+    @Test
+    void testMerge() {
+        YamlNode<Node> base = factory.fromStringToArena("{ replicas: 1, image: 'demo:1.0', ports: [ 80 ] }")
+            .findFirst().orElseThrow();
+        YamlNode<Node> ours = factory.fromStringToArena("{ replicas: 2, image: 'demo:1.0', ports: [ 80 ] }")
+            .findFirst().orElseThrow();
+        YamlNode<Node> theirs = factory.fromStringToArena("{ replicas: 1, image: 'demo:2.0', ports: [ 80 ], tier: web }")
+            .findFirst().orElseThrow();
+        YamlMerge.Result result = new YamlMerge().merge(base, ours, theirs);
+        assertThat(result.conflicts()).isEmpty();
+        assertThat(new YamlDiff().stream(result.merged(), factory.fromString(
+            "{ replicas: 2, image: 'demo:2.0', ports: [ 80 ], tier: web }").findFirst().orElseThrow())).isEmpty();
+        assertThat(new YamlEmitter().toYaml(result.merged())).isEqualTo("""
+            replicas: 2
+            image: demo:2.0
+            ports:
+            - 80
+            tier: web
+            """);
+    }
+}
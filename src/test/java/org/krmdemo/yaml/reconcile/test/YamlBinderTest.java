@@ -0,0 +1,161 @@
+package org.krmdemo.yaml.reconcile.test;
+
+import org.junit.jupiter.api.Test;
+import org.krmdemo.yaml.reconcile.YamlNode;
+import org.krmdemo.yaml.reconcile.diff.YamlDiff;
+import org.krmdemo.yaml.reconcile.impl.SnakeYamlEngineFactory;
+import org.krmdemo.yaml.reconcile.impl.YamlBinder;
+import org.snakeyaml.engine.v2.nodes.Node;
+import org.snakeyaml.engine.v2.nodes.Tag;
+
+import java.lang.invoke.MethodHandles;
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+/**
+ * Unit-test to check the functionality of {@link YamlBinder} class
+ */
+public class YamlBinderTest {
+
+    final SnakeYamlEngineFactory factory = new SnakeYamlEngineFactory();
+
+    final YamlBinder binder = YamlBinder.shared();
+
+    public enum Protocol { TCP, UDP }
+
+    public record Port(String name, int port, Protocol protocol) {
+    }
+
+    public record Probe(String path, Long timeoutSeconds, boolean enabled, double threshold,
+                        List<Port> ports, Map<String, Set<String>> selectors, String[] args, Object extra) {
+    }
+
+    public static class Volume {
+        private String name;
+        private boolean readOnly;
+        private List<String> paths = new ArrayList<>();
+        public int size;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public boolean isReadOnly() {
+            return readOnly;
+        }
+
+        public void setReadOnly(boolean readOnly) {
+            this.readOnly = readOnly;
+        }
+
+        public List<String> getPaths() {
+            return paths;
+        }
+
+        public void setPaths(List<String> paths) {
+            this.paths = paths;
+        }
+
+        public String getDescription() {
+            return name + (readOnly ? " (ro)" : "");
+        }
+    }
+
+    record Hidden(String name) {
+    }
+
+    @Test
+    void testRecordToYamlAndBack() {
+        Probe probe = new Probe("/health", null, true, 0.75,
+            List.of(new Port("http", 8080, Protocol.TCP), new Port("dns", 53, Protocol.UDP)),
+            new LinkedHashMap<>(Map.of("app", new LinkedHashSet<>(List.of("demo", "test")))),
+            new String[] { "--verbose" }, Map.of("x", List.of(1, "two")));
+        YamlNode<Node> yamlNode = factory.fromAnnotated(probe);
+        assertThat(new YamlDiff().stream(yamlNode, load("""
+            path: /health
+            enabled: true
+            threshold: 0.75
+            ports:
+              - { name: http, port: 8080, protocol: TCP }
+              - { name: dns, port: 53, protocol: UDP }
+            selectors: { app: [ demo, test ] }
+            args: [ --verbose ]
+            extra: { x: [ 1, two ] }
+            """))).isEmpty();
+
+        Probe restored = binder.fromYaml(yamlNode, Probe.class);
+        assertThat(restored.path()).isEqualTo("/health");
+        assertThat(restored.timeoutSeconds()).isNull();
+        assertThat(restored.enabled()).isTrue();
+        assertThat(restored.threshold()).isEqualTo(0.75);
+        assertThat(restored.ports()).isEqualTo(probe.ports());
+        assertThat(restored.selectors()).isEqualTo(probe.selectors());
+        assertThat(restored.args()).containsExactly("--verbose");
+        assertThat(restored.extra()).isEqualTo(Map.of("x", List.of(1L, "two")));
+    }
+
+    @Test
+    void testBeanToYamlAndBack() {
+        Volume volume = new Volume();
+        volume.setName("data");
+        volume.setReadOnly(true);
+        volume.setPaths(List.of("/var/data", "/var/log"));
+        volume.size = 10;
+        YamlNode<Node> yamlNode = factory.fromAnnotated(volume);
+        assertThat(new YamlDiff().stream(yamlNode, load("""
+            name: data
+            readOnly: true
+            paths: [ /var/data, /var/log ]
+            size: 10
+            description: data (ro)
+            """))).isEmpty();
+
+        Volume restored = binder.fromYaml(load("{ name: logs, paths: [ /var/log ], size: 5, unknown: 1 }"), Volume.class);
+        assertThat(restored.getName()).isEqualTo("logs");
+        assertThat(restored.isReadOnly()).isFalse();
+        assertThat(restored.getPaths()).containsExactly("/var/log");
+        assertThat(restored.size).isEqualTo(5);
+    }
+
+    @Test
+    void testPlansAreCached() {
+        assertThat(binder.mapperOf(Port.class)).isSameAs(binder.mapperOf(Port.class));
+        assertThat(YamlBinder.withLookup(MethodHandles.lookup()).mapperOf(Port.class)).isNotSameAs(binder.mapperOf(Port.class));
+    }
+
+    @Test
+    void testAccessByLookup() {
+        assertThatIllegalArgumentException().isThrownBy(() -> binder.toYaml(new Hidden("x")))
+            .withMessageContaining("are not accessible");
+        YamlBinder privateBinder = YamlBinder.withLookup(MethodHandles.lookup());
+        YamlNode<Node> yamlNode = privateBinder.toYaml(new Hidden("x"));
+        assertThat(privateBinder.fromYaml(yamlNode, Hidden.class)).isEqualTo(new Hidden("x"));
+    }
+
+    @Test
+    void testFactoryMethods() {
+        assertThat(factory.fromScalar("42").asOrigin().getTag()).isEqualTo(Tag.INT);
+        assertThat(factory.fromScalar("demo").asOrigin().getTag()).isEqualTo(Tag.STR);
+        assertThat(factory.fromScalar("true").structurallyEquals(load("true"))).isTrue();
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("name", "demo");
+        map.put("port", new Port("http", 80, Protocol.TCP));
+        map.put("none", null);
+        assertThat(new YamlDiff().stream(factory.fromMap(map), load("""
+            name: demo
+            port: { name: http, port: 80, protocol: TCP }
+            none: null
+            """))).isEmpty();
+        assertThat(new YamlDiff().stream(factory.fromIter(List.of(1, 2.5, false)), load("[ 1, 2.5, false ]"))).isEmpty();
+    }
+
+    private YamlNode<Node> load(String yamlText) {
+        return factory.fromString(yamlText).findFirst().orElseThrow();
+    }
+}
@@ -0,0 +1,126 @@
+package org.krmdemo.yaml.reconcile.test;
+
+import org.junit.jupiter.api.Test;
+import org.krmdemo.yaml.reconcile.YamlNode;
+import org.krmdemo.yaml.reconcile.diff.YamlMerge;
+import org.krmdemo.yaml.reconcile.diff.YamlPatch;
+import org.krmdemo.yaml.reconcile.impl.SnakeYamlEngineFactory;
+import org.krmdemo.yaml.reconcile.impl.YamlComments;
+import org.krmdemo.yaml.reconcile.impl.YamlEmitter;
+import org.snakeyaml.engine.v2.api.LoadSettings;
+import org.snakeyaml.engine.v2.nodes.Node;
+
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit-test to check the functionality of {@link YamlComments} class
+ */
+public class YamlCommentsTest {
+
+    final SnakeYamlEngineFactory factory = new SnakeYamlEngineFactory(
+        LoadSettings.builder().setParseComments(true).build());
+
+    final YamlEmitter emitter = new YamlEmitter();
+
+    final String yamlContent = """
+        # the header of document
+        apiVersion: v1 # the version of api
+        kind: ConfigMap
+        spec: # after spec
+          # before the list
+          list:
+          # before the first element
+          - one # the first element
+          - two
+          - # before the key of element
+            name: three
+        # the end of document
+        """;
+
+    @Test
+    void testComments() {
+        YamlNode<Node> document = load(yamlContent);
+        assertThat(document.childByName("apiVersion").getComment()).isEqualTo(" the header of document\n the version of api");
+        assertThat(document.childByName("kind").getComment()).isNull();
+        assertThat(document.childByName("spec").getComment()).isEqualTo(" after spec");
+        YamlNode<Node> list = document.childByName("spec").getValue().childByName("list");
+        assertThat(list.getComment()).isEqualTo(" before the list");
+        assertThat(list.getValue().childByIndex(0).getComment()).isEqualTo(" before the first element\n the first element");
+        assertThat(list.getValue().childByIndex(1).getComment()).isNull();
+        assertThat(list.getValue().childByIndex(2).childByName("name").getComment()).isEqualTo(" before the key of element");
+        assertThat(YamlComments.of(document).trailingLines()).containsExactly(" the end of document");
+    }
+
+    @Test
+    void testRoundTrip() {
+        YamlNode<Node> document = load(yamlContent);
+        assertThat(emitter.toYaml(document)).isEqualTo("""
+            # the header of document
+            apiVersion: v1 # the version of api
+            kind: ConfigMap
+            spec: # after spec
+              # before the list
+              list:
+              # before the first element
+              - one # the first element
+              - two
+              # before the key of element
+              - name: three
+            # the end of document
+            """);
+        assertThat(emitter.toYaml(load(emitter.toYaml(document)))).isEqualTo(emitter.toYaml(document));
+    }
+
+    @Test
+    void testCommentsAreNotParsed() {
+        YamlNode<Node> document = new SnakeYamlEngineFactory().fromString(yamlContent).findFirst().orElseThrow();
+        assertThat(document.childByName("apiVersion").getComment()).isNull();
+        assertThat(YamlComments.of(document)).isNull();
+        assertThat(emitter.toYaml(document)).doesNotContain("#");
+    }
+
+    @Test
+    void testMergeAndPatch() {
+        YamlNode<Node> base = load("""
+            replicas: 1
+            image: demo:1.0
+            """);
+        YamlNode<Node> ours = load("""
+            # the replicas
+            replicas: 2
+            image: demo:1.0 # the image
+            """);
+        YamlNode<Node> theirs = load("""
+            replicas: 1
+            image: demo:2.0
+            """);
+        YamlNode<Node> merged = new YamlMerge().merge(base, ours, theirs).merged();
+        assertThat(emitter.toYaml(merged)).isEqualTo("""
+            # the replicas
+            replicas: 2
+            image: demo:2.0 # the image
+            """);
+        YamlNode<Node> patched = new YamlPatch().applyMergePatch(merged, load("replicas: 3"));
+        assertThat(emitter.toYaml(patched)).isEqualTo("""
+            # the replicas
+            replicas: 3
+            image: demo:2.0 # the image
+            """);
+    }
+
+    @Test
+    void testIdentityOfNodes() {
+        YamlNode<Node> document = factory.fromStringToArena("a: 1").findFirst().orElseThrow();
+        YamlNode<Node> keyValue = document.childByName("a");
+        assertThat(keyValue).isEqualTo(document.childByName("a"));
+        YamlComments.attach(keyValue, new YamlComments.Comment(List.of(" the key"), null, List.of()));
+        assertThat(YamlComments.of(keyValue).text()).isEqualTo(" the key");
+        assertThat(YamlComments.of(document.childByName("a"))).isNull();
+    }
+
+    private YamlNode<Node> load(String yamlContent) {
+        return factory.fromString(yamlContent).findFirst().orElseThrow();
+    }
+}
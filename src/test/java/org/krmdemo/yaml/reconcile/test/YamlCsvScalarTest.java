@@ -0,0 +1,92 @@
+package org.krmdemo.yaml.reconcile.test;
+
+import org.junit.jupiter.api.Test;
+import org.krmdemo.yaml.reconcile.YamlNode;
+import org.krmdemo.yaml.reconcile.YamlPath;
+import org.krmdemo.yaml.reconcile.diff.YamlDiff;
+import org.krmdemo.yaml.reconcile.diff.YamlPatch;
+import org.krmdemo.yaml.reconcile.diff.YamlPatchOp;
+import org.krmdemo.yaml.reconcile.impl.SnakeYamlEngineFactory;
+import org.krmdemo.yaml.reconcile.impl.YamlCsvScalar;
+import org.krmdemo.yaml.reconcile.impl.YamlPersistent;
+import org.snakeyaml.engine.v2.nodes.Node;
+
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+/**
+ * Unit-test to check the functionality of {@link YamlCsvScalar} class
+ */
+public class YamlCsvScalarTest {
+
+    final SnakeYamlEngineFactory factory = new SnakeYamlEngineFactory();
+
+    @Test
+    void testElements() {
+        YamlCsvScalar csvScalar = YamlCsvScalar.of(" 10.0.0.0/8,  172.16.0.0/12 ,192.168.0.0/16");
+        assertThat(csvScalar.getType()).isEqualTo(YamlNode.Type.SCALAR_CSV);
+        assertThat(csvScalar.size()).isEqualTo(3);
+        assertThat(csvScalar.element(1)).isEqualTo("172.16.0.0/12");
+        assertThat(csvScalar.elements()).containsExactly("10.0.0.0/8", "172.16.0.0/12", "192.168.0.0/16");
+        assertThat(csvScalar.childByIndex(2).asString()).isEqualTo("192.168.0.0/16");
+        assertThat(csvScalar.childByIndex(2)).isSameAs(csvScalar.childByIndex(2));
+        assertThat(csvScalar.asString()).isEqualTo(" 10.0.0.0/8,  172.16.0.0/12 ,192.168.0.0/16");
+        assertThat(YamlCsvScalar.of("").size()).isZero();
+        assertThat(YamlCsvScalar.of("a,,b").elements()).containsExactly("a", "", "b");
+        assertThat(YamlCsvScalar.of("a, b").withElements(csvScalar.elements().limit(2)).asString())
+            .isEqualTo("10.0.0.0/8, 172.16.0.0/12");
+    }
+
+    @Test
+    void testStructuralEquality() {
+        YamlNode<Node> scalar = YamlPath.parse("hosts").resolve(load("hosts: a,b,c"));
+        YamlCsvScalar csvScalar = YamlCsvScalar.of(scalar);
+        assertThat(csvScalar.asOrigin()).isSameAs(scalar.asOrigin());
+        assertThat(csvScalar.structuralHash()).isEqualTo(scalar.structuralHash());
+        assertThat(csvScalar.structurallyEquals(YamlCsvScalar.of("a,b,c"))).isTrue();
+        assertThat(csvScalar.asScalar().structurallyEquals(scalar)).isTrue();
+    }
+
+    @Test
+    void testDiffElementWise() {
+        YamlNode<Node> left = load("spec: { hosts: 'a.com, b.com, c.com', port: 80 }");
+        YamlNode<Node> right = load("spec: { hosts: 'a.com, c.com, d.com', port: 80 }");
+        assertThat(new YamlDiff().stream(left, right)).hasSize(1);
+
+        YamlDiff yamlDiff = YamlDiff.builder().csvPath("spec.hosts").build();
+        List<YamlPatchOp> ops = yamlDiff.stream(left, right).toList();
+        assertThat(ops).extracting(op -> op.path().toString()).containsExactly("spec.hosts[1]", "spec.hosts[2]");
+        assertThat(ops).extracting(YamlPatchOp::kind)
+            .containsExactly(YamlPatchOp.Kind.REMOVE, YamlPatchOp.Kind.ADD);
+
+        assertThatIllegalArgumentException().isThrownBy(() -> new YamlPatch().apply(left, ops))
+            .withMessageContaining("is not a container - SCALAR");
+        YamlNode<Node> patched = new YamlPatch("spec.hosts").apply(left, ops);
+        assertThat(YamlPath.parse("spec.hosts").resolve(patched).asString()).isEqualTo("a.com, c.com, d.com");
+        assertThat(patched.structurallyEquals(right)).isTrue();
+    }
+
+    @Test
+    void testPatchElementWise() {
+        YamlNode<Node> document = load("spec: { hosts: 'a.com, b.com' }");
+        YamlNode<Node> csvDocument = YamlPersistent.with(document, YamlPath.parse("spec.hosts"),
+            YamlCsvScalar.of(YamlPath.parse("spec.hosts").resolve(document)));
+        YamlNode<Node> patched = new YamlPatch().applyJsonPatch(csvDocument, load("""
+            - { op: add, path: /spec/hosts/-, value: c.com }
+            - { op: remove, path: /spec/hosts/0 }
+            """));
+        assertThat(YamlPath.parse("spec.hosts").resolve(patched).asString()).isEqualTo("b.com, c.com");
+        assertThatIllegalArgumentException()
+            .isThrownBy(() -> new YamlPatch().applyJsonPatch(csvDocument, load("[ { op: add, path: /spec/hosts/-, value: { x: 1 } } ]")))
+            .withMessageContaining("is not a scalar - DICTIONARY");
+        assertThatIllegalArgumentException()
+            .isThrownBy(() -> new YamlPatch("spec.hosts").applyJsonPatch(document, load("[ { op: add, path: /spec/hosts/0, value: [ 1 ] } ]")))
+            .withMessageContaining("is not a scalar - SEQUENCE");
+    }
+
+    private YamlNode<Node> load(String yamlText) {
+        return factory.fromString(yamlText).findFirst().orElseThrow();
+    }
+}
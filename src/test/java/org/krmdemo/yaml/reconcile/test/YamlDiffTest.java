@@ -0,0 +1,88 @@
+package org.krmdemo.yaml.reconcile.test;
+
+import org.junit.jupiter.api.Test;
+import org.krmdemo.yaml.reconcile.YamlNode;
+import org.krmdemo.yaml.reconcile.diff.YamlDiff;
+import org.krmdemo.yaml.reconcile.diff.YamlPatchOp;
+import org.krmdemo.yaml.reconcile.impl.SnakeYamlEngineFactory;
+import org.snakeyaml.engine.v2.nodes.Node;
+
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit-test to check the functionality of {@link YamlDiff} class
+ */
+public class YamlDiffTest {
+
+    final SnakeYamlEngineFactory factory = new SnakeYamlEngineFactory();
+
+    final YamlDiff yamlDiff = new YamlDiff();
+
+    @Test
+    void testEqualDocuments() {
+        YamlNode<Node> left = load("{ a: 1, b: [ x, y ], c: { d: e } }");
+        YamlNode<Node> right = load("{ c: { d: e }, b: [ x, y ], a: 1 }");
+        assertThat(yamlDiff.stream(left, right)).isEmpty();
+    }
+
+    @Test
+    void testDictionary() {
+        YamlNode<Node> left = load("""
+            metadata:
+              name: app
+              labels: { app: demo, tier: backend }
+            spec:
+              replicas: 3
+              template: { spec: { image: demo/app:1.0 } }
+              removed: value
+            """);
+        YamlNode<Node> right = load("""
+            metadata:
+              name: app
+              labels: { app: demo, tier: frontend }
+            spec:
+              replicas: [ 3 ]
+              renamed: { spec: { image: demo/app:1.0 } }
+              added: value
+            """);
+        assertThat(yamlDiff.stream(left, right).map(YamlPatchOp::toString)).containsExactly(
+            "REPLACE 'metadata.labels.tier' : 'backend' --> 'frontend'",
+            "REPLACE 'spec.replicas' : '3' --> SEQUENCE(1)",
+            "MOVE 'spec.template' --> 'spec.renamed'",
+            "ADD 'spec.added' : 'value'",
+            "REMOVE 'spec.removed' : 'value'"
+        );
+    }
+
+    @Test
+    void testSequenceByPosition() {
+        YamlNode<Node> left = load("[ a, b, c, d ]");
+        assertThat(yamlDiff.stream(left, load("[ a, B, c ]")).map(YamlPatchOp::toString)).containsExactly(
+            "REPLACE '[1]' : 'b' --> 'B'",
+            "REMOVE '[3]' : 'd'"
+        );
+        assertThat(yamlDiff.stream(left, load("[ a, b ]")).map(op -> op.path().toString())).containsExactly("[3]", "[2]");
+        assertThat(yamlDiff.stream(left, load("[ a, b, c, d, e, f ]")).map(YamlPatchOp::toString)).containsExactly(
+            "ADD '[4]' : 'e'",
+            "ADD '[5]' : 'f'"
+        );
+    }
+
+    @Test
+    void testLazyCallback() {
+        YamlNode<Node> left = load("{ a: 1, b: 2, c: 3 }");
+        YamlNode<Node> right = load("{ a: 10, b: 20, c: 30 }");
+        assertThat(yamlDiff.stream(left, right).limit(2)).hasSize(2);
+        List<YamlPatchOp> collected = new ArrayList<>();
+        yamlDiff.diff(left, right, collected::add);
+        assertThat(collected).extracting(op -> op.newValue().asString()).containsExactly("10", "20", "30");
+        assertThat(yamlDiff.stream(left, load("[ a ]")).map(YamlPatchOp::toString))
+            .containsExactly("REPLACE '' : DICTIONARY(3) --> SEQUENCE(1)");
+    }
+
+    private YamlNode<Node> load(String yamlContent) {
+        return factory.fromString(yamlContent).findFirst().orElseThrow();
+    }
+}
@@ -0,0 +1,120 @@
+package org.krmdemo.yaml.reconcile.test;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.krmdemo.yaml.reconcile.YamlNode;
+import org.krmdemo.yaml.reconcile.diff.YamlDiff;
+import org.krmdemo.yaml.reconcile.impl.SnakeYamlEngineFactory;
+import org.krmdemo.yaml.reconcile.impl.YamlDocumentCache;
+import org.snakeyaml.engine.v2.api.LoadSettings;
+import org.snakeyaml.engine.v2.nodes.Node;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit-test to check the functionality of {@link YamlDocumentCache} class
+ */
+public class YamlDocumentCacheTest {
+
+    final SnakeYamlEngineFactory factory = new SnakeYamlEngineFactory();
+
+    final String baseLayer = """
+        apiVersion: v1
+        kind: ConfigMap
+        metadata: { name: base }
+        data: { a: "1", b: "2" }
+        ---
+        apiVersion: v1
+        kind: Service
+        metadata: { name: base }
+        """;
+
+    @Test
+    void testSameContent(@TempDir Path tempDir) throws IOException {
+        YamlDocumentCache cache = new YamlDocumentCache(factory, 1 << 20);
+        Path basePath = Files.writeString(tempDir.resolve("base.yaml"), baseLayer);
+        Path vendoredPath = Files.writeString(tempDir.resolve("vendored.yaml"), baseLayer);
+        List<YamlNode<Node>> documents = cache.load(basePath);
+        assertThat(documents).hasSize(2);
+        assertThat(cache.load(vendoredPath)).isSameAs(documents);
+        assertThat(cache.load(baseLayer)).isSameAs(documents);
+        assertThat(cache.load(baseLayer + "\n")).isNotSameAs(documents);
+        assertThat(cache.hitCount()).isEqualTo(2);
+        assertThat(cache.missCount()).isEqualTo(2);
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.weight()).isPositive();
+    }
+
+    @Test
+    void testEviction() {
+        long weight = factory.fromString(baseLayer).mapToLong(YamlDocumentCache::estimateWeight).sum();
+        YamlDocumentCache cache = new YamlDocumentCache(factory, weight * 2);
+        List<YamlNode<Node>> first = cache.load(baseLayer + "#1");
+        cache.load(baseLayer + "#2");
+        assertThat(cache.load(baseLayer + "#1")).isSameAs(first);
+        cache.load(baseLayer + "#3");
+        assertThat(cache.evictionCount()).isEqualTo(1);
+        assertThat(cache.weight()).isLessThanOrEqualTo(weight * 2);
+        assertThat(cache.load(baseLayer + "#1")).isSameAs(first);
+        assertThat(cache.hitCount()).isEqualTo(2);
+        cache.load(baseLayer + "#2");
+        assertThat(cache.missCount()).isEqualTo(4);
+    }
+
+    @Test
+    void testDiskTier(@TempDir Path tempDir) {
+        YamlDocumentCache cache = new YamlDocumentCache(factory, 1 << 20, tempDir);
+        List<YamlNode<Node>> documents = cache.load(baseLayer);
+        assertThat(tempDir.resolve(YamlDocumentCache.contentHash(baseLayer.getBytes()) + ".ysnp")).isRegularFile();
+        cache.invalidateAll();
+        assertThat(cache.size()).isZero();
+
+        List<YamlNode<Node>> restored = cache.load(baseLayer);
+        assertThat(restored).isNotSameAs(documents).hasSize(2);
+        assertThat(new YamlDiff().stream(documents.get(0), restored.get(0))).isEmpty();
+        assertThat(new YamlDiff().stream(documents.get(1), restored.get(1))).isEmpty();
+        assertThat(cache.load(baseLayer)).isSameAs(restored);
+        assertThat(cache.missCount()).isEqualTo(1);
+        assertThat(cache.diskHitCount()).isEqualTo(1);
+        assertThat(cache.hitCount()).isEqualTo(1);
+        assertThat(cache.toString()).contains("hits=1; disk-hits=1; misses=1; evictions=0");
+    }
+
+    @Test
+    void testStaleSnapshot(@TempDir Path tempDir) throws IOException {
+        Path snapshotPath = tempDir.resolve(YamlDocumentCache.contentHash(baseLayer.getBytes()) + ".ysnp");
+        for (String staleContent : List.of("not a snapshot", "YSNP\u00ff")) {
+            Files.writeString(snapshotPath, staleContent);
+            YamlDocumentCache cache = new YamlDocumentCache(factory, 1 << 20, tempDir);
+            List<YamlNode<Node>> documents = cache.load(baseLayer);
+            assertThat(documents).hasSize(2);
+            assertThat(documents.get(0).childByName("kind").getValue().asString()).isEqualTo("ConfigMap");
+            assertThat(cache.missCount()).isEqualTo(1);
+            assertThat(cache.diskHitCount()).isZero();
+            assertThat(snapshotPath).isRegularFile();
+
+            cache.invalidateAll();
+            assertThat(cache.load(baseLayer)).hasSize(2);
+            assertThat(cache.diskHitCount()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    void testCommentsBypassDiskTier(@TempDir Path tempDir) {
+        SnakeYamlEngineFactory commentsFactory = new SnakeYamlEngineFactory(
+            LoadSettings.builder().setParseComments(true).build());
+        YamlDocumentCache cache = new YamlDocumentCache(commentsFactory, 1 << 20, tempDir);
+        String commented = "# the kind\nkind: ConfigMap\n";
+        assertThat(cache.load(commented).get(0).childByName("kind").getComment()).isEqualTo(" the kind");
+        assertThat(tempDir).isEmptyDirectory();
+        cache.invalidateAll();
+        assertThat(cache.load(commented).get(0).childByName("kind").getComment()).isEqualTo(" the kind");
+        assertThat(cache.missCount()).isEqualTo(2);
+        assertThat(cache.diskHitCount()).isZero();
+    }
+}
@@ -0,0 +1,99 @@
+package org.krmdemo.yaml.reconcile.test;
+
+import org.junit.jupiter.api.Test;
+import org.krmdemo.yaml.reconcile.YamlNode;
+import org.krmdemo.yaml.reconcile.impl.YamlDictionary;
+import org.krmdemo.yaml.reconcile.impl.YamlDump;
+import org.krmdemo.yaml.reconcile.impl.YamlKeyValue;
+import org.krmdemo.yaml.reconcile.impl.YamlLazyNode;
+import org.krmdemo.yaml.reconcile.impl.YamlScalar;
+import org.krmdemo.yaml.reconcile.impl.YamlSequence;
+import org.snakeyaml.engine.v2.common.ScalarStyle;
+import org.snakeyaml.engine.v2.nodes.Node;
+import org.snakeyaml.engine.v2.nodes.ScalarNode;
+import org.snakeyaml.engine.v2.nodes.Tag;
+
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+/**
+ * Unit-test to check the functionality of {@link YamlDump} class
+ */
+public class YamlDumpTest {
+
+    final YamlNode<Node> nested = new YamlDictionary(
+        new YamlKeyValue("a", new YamlSequence(new YamlScalar(1), new YamlScalar(2))),
+        new YamlKeyValue("bb", new YamlDictionary(new YamlKeyValue("c", new YamlScalar("x")))));
+
+    @Test
+    void testNested() {
+        assertThat(maskId(nested.toString())).isEqualTo("""
+            DICTIONARY(xxxx - 2 elements):
+            - KEY_VALUE(xxxx) ?  'a' : SEQUENCE(xxxx - 2 elements):
+                   - (1) SCALAR(xxxx --> 1)
+                   - (2) SCALAR(xxxx --> 2)
+            - KEY_VALUE(xxxx) ? 'bb' : DICTIONARY(xxxx - 1 elements):
+                   - KEY_VALUE(xxxx) ? 'c' : SCALAR(xxxx) --> 'x'""");
+        assertThat(maskId(nested.childByName("bb").toString())).isEqualTo("""
+            KEY_VALUE(xxxx) ? 'bb' : DICTIONARY(xxxx - 1 elements):
+                   - KEY_VALUE(xxxx) ? 'c' : SCALAR(xxxx) --> 'x'""");
+    }
+
+    @Test
+    void testDumpToWithIndent() {
+        StringBuilder sb = new StringBuilder("root: ");
+        nested.childByName("a").getValue().dumpTo(sb, 6);
+        assertThat(maskId(sb.toString())).isEqualTo("""
+            root: SEQUENCE(xxxx - 2 elements):
+                  - (1) SCALAR(xxxx --> 1)
+                  - (2) SCALAR(xxxx --> 2)""");
+    }
+
+    @Test
+    void testMultilineScalar() {
+        YamlNode<Node> document = new YamlDictionary(new YamlKeyValue("list", new YamlSequence(
+            YamlLazyNode.wrap(new ScalarNode(Tag.STR, "first line\nsecond line", ScalarStyle.SINGLE_QUOTED)))));
+        assertThat(maskId(document.toString())).isEqualTo("""
+            DICTIONARY(xxxx - 1 elements):
+            - KEY_VALUE(xxxx) ? 'list' : SEQUENCE(xxxx - 1 elements):
+                     - (1) SCALAR(xxxx) --> 'first line
+                           second line'""");
+    }
+
+    @Test
+    void testBounds() {
+        YamlNode<Node> sequence = new YamlSequence(IntStream.range(0, 100).mapToObj(YamlScalar::new));
+        assertThat(maskId(new YamlDump(4, 10).toString(sequence))).isEqualTo("""
+            SEQUENCE(xxxx - 100 elements):
+            -   (1) SCALAR(xxxx --> 0)
+            -   (2) SCALAR(xxxx --> 1)
+            -   (3) SCALAR(xxxx --> 2)
+            - ... (97 more elements)""");
+        assertThat(maskId(new YamlDump(100, 1).toString(nested))).isEqualTo("""
+            DICTIONARY(xxxx - 2 elements):
+            - KEY_VALUE(xxxx) ?  'a' : SEQUENCE(xxxx - 2 elements): ...
+            - KEY_VALUE(xxxx) ? 'bb' : DICTIONARY(xxxx - 1 elements): ...""");
+        assertThat(maskId(new YamlDump(1, 0).toString(nested))).isEqualTo("DICTIONARY(xxxx - 2 elements): ...");
+        assertThatIllegalArgumentException().isThrownBy(() -> new YamlDump(0, 1))
+            .withMessage("invalid bounds of yaml-dump: maxNodes = 0; maxDepth = 1");
+    }
+
+    @Test
+    void testDeepTree() {
+        YamlNode<Node> leaf = new YamlScalar("leaf");
+        YamlNode<Node> deep = leaf;
+        for (int i = 0; i < 1000; i++) {
+            deep = new YamlSequence(deep);
+        }
+        String dump = YamlDump.UNBOUNDED.toString(deep);
+        assertThat(dump.lines()).hasSize(1001);
+        assertThat(dump).endsWith("\n" + " ".repeat(6 * 999) + "- (1) " + leaf);
+        assertThat(YamlDump.DEFAULT.toString(deep).lines()).hasSize(65);
+    }
+
+    private static String maskId(String str) {
+        return str.replaceAll("0x[0-9A-Fa-f]{8}", "xxxx");
+    }
+}
@@ -0,0 +1,151 @@
+package org.krmdemo.yaml.reconcile.test;
+
+import org.junit.jupiter.api.Test;
+import org.krmdemo.yaml.reconcile.YamlNode;
+import org.krmdemo.yaml.reconcile.diff.YamlDiff;
+import org.krmdemo.yaml.reconcile.impl.SnakeYamlEngineFactory;
+import org.krmdemo.yaml.reconcile.impl.YamlDictionary;
+import org.krmdemo.yaml.reconcile.impl.YamlEmitter;
+import org.krmdemo.yaml.reconcile.impl.YamlKeyValue;
+import org.krmdemo.yaml.reconcile.impl.YamlPrimitiveScalar;
+import org.krmdemo.yaml.reconcile.impl.YamlSequence;
+import org.snakeyaml.engine.v2.nodes.Node;
+
+import java.io.StringWriter;
+import java.util.*;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit-test to check the functionality of {@link YamlEmitter} class
+ */
+public class YamlEmitterTest {
+
+    final SnakeYamlEngineFactory factory = new SnakeYamlEngineFactory();
+
+    final YamlEmitter emitter = new YamlEmitter();
+
+    @Test
+    void testBlockStyle() {
+        YamlNode<Node> document = load("""
+            apiVersion: apps/v1
+            kind: Deployment
+            metadata: { name: demo, labels: { app.kubernetes.io/name: demo }, annotations: {} }
+            spec:
+              replicas: 3
+              paused: false
+              ratio: 0.5
+              selector: null
+              containers:
+                - name: app
+                  args: [ --verbose, [ nested, list ], { key: value } ]
+                  env: []
+              script: |
+                echo "hello"
+                exit 0
+            """);
+        assertThat(emitter.toYaml(document)).isEqualTo("""
+            apiVersion: apps/v1
+            kind: Deployment
+            metadata:
+              name: demo
+              labels:
+                app.kubernetes.io/name: demo
+              annotations: {}
+            spec:
+              replicas: 3
+              paused: false
+              ratio: 0.5
+              selector: null
+              containers:
+              - name: app
+                args:
+                - --verbose
+                - - nested
+                  - list
+                - key: value
+                env: []
+              script: |
+                echo "hello"
+                exit 0
+            """);
+    }
+
+    @Test
+    void testQuoting() {
+        Map<String, String> strings = new LinkedHashMap<>();
+        strings.put("plain", "hello world");
+        strings.put("bool", "true");
+        strings.put("int", "123");
+        strings.put("null", "null");
+        strings.put("empty", "");
+        strings.put("colon", "a: b");
+        strings.put("comment", "a #b");
+        strings.put("indicator", "*star");
+        strings.put("quote", "it's");
+        strings.put("dash", "- item");
+        strings.put("tab", "a\tb");
+        strings.put("no-trailing-line", "line1\nline2");
+        strings.put("trailing-lines", "line1\n\nline2\n\n");
+        strings.put("key: with colon", "value");
+        YamlNode<Node> document = new YamlDictionary(strings.entrySet().stream()
+            .map(entry -> new YamlKeyValue(entry.getKey(), YamlPrimitiveScalar.of(entry.getValue()))));
+        String yaml = emitter.toYaml(document);
+        assertThat(yaml).isEqualTo("""
+            plain: hello world
+            bool: 'true'
+            int: '123'
+            'null': 'null'
+            empty: ''
+            colon: 'a: b'
+            comment: 'a #b'
+            indicator: '*star'
+            quote: it's
+            dash: '- item'
+            tab: "a\\tb"
+            no-trailing-line: |-
+              line1
+              line2
+            trailing-lines: |+
+              line1
+
+              line2
+
+            'key: with colon': value
+            """);
+        YamlNode<Node> reloaded = load(yaml);
+        strings.forEach((key, value) -> assertThat(reloaded.childByName(key).getValue().asString()).isEqualTo(value));
+    }
+
+    @Test
+    void testRoundTrip() {
+        YamlNode<Node> document = load("""
+            a: { b: [ 1, 2.5, yes, ~, "x\\u0001y", 'single ''quoted''' ] }
+            c: !custom value
+            d: [ [], {}, [ [ deep ] ] ]
+            e: -1
+            """);
+        String yaml = emitter.toYaml(document);
+        assertThat(new YamlDiff().stream(document, load(yaml))).isEmpty();
+        assertThat(yaml).contains("c: !custom value");
+    }
+
+    @Test
+    void testEmitAllToWriter() {
+        YamlNode<Node> big = new YamlSequence(IntStream.range(0, 5000)
+            .mapToObj(i -> (YamlNode<Node>) new YamlDictionary(new YamlKeyValue("item", YamlPrimitiveScalar.of(i)))));
+        StringWriter writer = new StringWriter();
+        emitter.emitAll(Stream.of(load("a: 1"), big, load("b: 2")), writer);
+        List<YamlNode<Node>> documents = factory.fromString(writer.toString()).toList();
+        assertThat(documents).hasSize(3);
+        assertThat(documents.get(1).childrenCount()).isEqualTo(5000);
+        assertThat(new YamlDiff().stream(documents.get(1), big)).isEmpty();
+        assertThat(writer.toString()).startsWith("a: 1\n---\n- item: 0\n- item: 1\n").endsWith("---\nb: 2\n");
+    }
+
+    private YamlNode<Node> load(String yamlText) {
+        return factory.fromString(yamlText).findFirst().orElseThrow();
+    }
+}
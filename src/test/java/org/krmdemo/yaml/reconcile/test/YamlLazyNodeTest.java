@@ -0,0 +1,67 @@
+package org.krmdemo.yaml.reconcile.test;
+
+import org.junit.jupiter.api.Test;
+import org.krmdemo.yaml.reconcile.YamlNode;
+import org.krmdemo.yaml.reconcile.impl.YamlLazyNode;
+import org.snakeyaml.engine.v2.api.LoadSettings;
+import org.snakeyaml.engine.v2.api.lowlevel.Compose;
+import org.snakeyaml.engine.v2.nodes.MappingNode;
+import org.snakeyaml.engine.v2.nodes.Node;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit-test to check the lazy views, which are created by {@link YamlLazyNode#wrap(Node)}
+ */
+public class YamlLazyNodeTest {
+
+    final Node origin = new Compose(LoadSettings.builder().build()).composeString("""
+        metadata:
+          name: lazy
+          labels:
+            app: demo
+        spec:
+          ports: [ 80, 443 ]
+          banner: "first line\\nsecond line"
+        """).orElseThrow();
+
+    @Test
+    void testLazyDictionary() {
+        YamlNode<Node> root = YamlLazyNode.wrap(origin);
+        assertThat(root.getType()).isEqualTo(YamlNode.Type.DICTIONARY);
+        assertThat(root.asOrigin()).isSameAs(origin);
+
+        YamlNode<Node> metadata = root.childByName("metadata");
+        assertThat(metadata).isSameAs(root.childByName("metadata"));
+        assertThat(metadata.getValue().asOrigin()).isSameAs(((MappingNode) origin).getValue().get(0).getValueNode());
+        assertThat(metadata.getValue().childByName("name").getValue().asString()).isEqualTo("lazy");
+        assertThat(root.childByName("absent")).isNull();
+        assertThat(root.getChildren()).extracting(YamlNode::getKey).containsExactly("metadata", "spec");
+    }
+
+    @Test
+    void testLazySequenceAndScalar() {
+        YamlNode<Node> spec = YamlLazyNode.wrap(origin).childByName("spec").getValue();
+        YamlNode<Node> ports = spec.childByName("ports").getValue();
+        assertThat(ports.getType()).isEqualTo(YamlNode.Type.SEQUENCE);
+        assertThat(ports.childByIndex(1)).isSameAs(ports.childByIndex(1));
+        assertThat(ports.getChildren()).extracting(YamlNode::asString).containsExactly("80", "443");
+        assertThat(spec.childByName("banner").getValue().asString()).isEqualTo("first line\nsecond line");
+        assertThat(spec.toString()).contains("SEQUENCE(", "--> \"first line\\nsecond line\"");
+    }
+
+    @Test
+    void testDuplicatedKeys() {
+        Node duplicated = new Compose(LoadSettings.builder().setAllowDuplicateKeys(true).build()).composeString("""
+            a: 1
+            b: 2
+            a: 3
+            c: 4
+            """).orElseThrow();
+        YamlNode<Node> root = YamlLazyNode.wrap(duplicated);
+        assertThat(root.childByName("a").getValue().asString()).isEqualTo("3");
+        assertThat(root.childByName("a")).isSameAs(root.childByIndex(2));
+        assertThat(root.childByName("c").getValue().asString()).isEqualTo("4");
+        assertThat(root.getChildren()).extracting(YamlNode::getKey).containsExactly("a", "b", "a", "c");
+    }
+}
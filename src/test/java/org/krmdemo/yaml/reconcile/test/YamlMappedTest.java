@@ -0,0 +1,116 @@
+package org.krmdemo.yaml.reconcile.test;
+
+import lombok.Getter;
+import org.junit.jupiter.api.Test;
+import org.krmdemo.yaml.reconcile.YamlMapped;
+import org.krmdemo.yaml.reconcile.YamlNode;
+import org.krmdemo.yaml.reconcile.diff.YamlDiff;
+import org.krmdemo.yaml.reconcile.impl.SnakeYamlEngineFactory;
+import org.krmdemo.yaml.reconcile.impl.YamlMappers;
+import org.snakeyaml.engine.v2.nodes.Node;
+
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+/**
+ * Unit-test to check the mappers, which are generated for classes annotated with {@link YamlMapped}
+ */
+public class YamlMappedTest {
+
+    final SnakeYamlEngineFactory factory = new SnakeYamlEngineFactory();
+
+    enum Strategy { ROLLING_UPDATE, RECREATE }
+
+    @YamlMapped
+    record Container(String name, String image, int[] ports, List<Integer> targetPorts) {
+    }
+
+    @YamlMapped
+    record Deployment(String name, long replicas, Integer maxSurge, boolean paused, double cpu, Strategy strategy,
+                      List<Container> containers, Map<String, String> labels, Map<String, List<String>> args, Object extra) {
+    }
+
+    @YamlMapped
+    static class Resource {
+        String kind;
+        private final String apiVersion;
+        private transient String cached;
+        static String IGNORED = "ignored";
+
+        Resource(String kind, String apiVersion) {
+            this.kind = kind;
+            this.apiVersion = apiVersion;
+        }
+
+        public String getApiVersion() {
+            return apiVersion;
+        }
+    }
+
+    @YamlMapped
+    @Getter
+    static class Service extends Resource {
+        private final boolean headless;
+        private final Set<String> hosts = new LinkedHashSet<>(List.of("a.com", "b.com"));
+
+        Service(boolean headless) {
+            super("Service", "v1");
+            this.headless = headless;
+        }
+    }
+
+    static class ExtendedService extends Service {
+        ExtendedService() {
+            super(false);
+        }
+    }
+
+    @Test
+    void testRecord() {
+        Deployment deployment = new Deployment("demo", 3, null, false, 0.5, Strategy.RECREATE,
+            List.of(new Container("app", "demo/app:1.0", new int[] { 8080, 8443 }, Arrays.asList(80, null))),
+            new LinkedHashMap<>(Map.of("tier", "backend")), Map.of("app", List.of("--verbose")), Map.of("x", 1));
+        assertThat(new YamlDiff().stream(factory.fromAnnotated(deployment), load("""
+            name: demo
+            replicas: 3
+            paused: false
+            cpu: 0.5
+            strategy: RECREATE
+            containers:
+              - name: app
+                image: demo/app:1.0
+                ports: [ 8080, 8443 ]
+                targetPorts: [ 80, null ]
+            labels: { tier: backend }
+            args: { app: [ --verbose ] }
+            extra: { x: 1 }
+            """))).isEmpty();
+    }
+
+    @Test
+    void testClassHierarchy() {
+        assertThat(new YamlDiff().stream(factory.fromAnnotated(new Service(true)), load("""
+            kind: Service
+            apiVersion: v1
+            headless: true
+            hosts: [ a.com, b.com ]
+            """))).isEmpty();
+        assertThat(YamlMappers.mapperOf(ExtendedService.class)).isSameAs(YamlMappers.mapperOf(Service.class));
+        assertThat(factory.fromAnnotated(new ExtendedService()).childByName("headless").getValue().asString())
+            .isEqualTo("false");
+    }
+
+    @Test
+    void testNotAnnotated() {
+        assertThatIllegalArgumentException().isThrownBy(() -> YamlMappers.mapperOf(Object.class))
+            .withMessageContaining("there is no generated yaml-mapper for java.lang.Object");
+        assertThat(YamlMappers.mapperName(Container.class))
+            .isEqualTo("org.krmdemo.yaml.reconcile.test.YamlMappedTest_ContainerYamlMapper");
+    }
+
+    private YamlNode<Node> load(String yamlText) {
+        return factory.fromString(yamlText).findFirst().orElseThrow();
+    }
+}
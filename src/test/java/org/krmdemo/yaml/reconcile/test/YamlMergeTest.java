@@ -0,0 +1,135 @@
+package org.krmdemo.yaml.reconcile.test;
+
+import org.junit.jupiter.api.Test;
+import org.krmdemo.yaml.reconcile.YamlNode;
+import org.krmdemo.yaml.reconcile.YamlPath;
+import org.krmdemo.yaml.reconcile.diff.YamlDiff;
+import org.krmdemo.yaml.reconcile.diff.YamlMerge;
+import org.krmdemo.yaml.reconcile.impl.SnakeYamlEngineFactory;
+import org.snakeyaml.engine.v2.nodes.Node;
+
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit-test to check the functionality of {@link YamlMerge} class
+ */
+public class YamlMergeTest {
+
+    final SnakeYamlEngineFactory factory = new SnakeYamlEngineFactory();
+
+    final YamlMerge yamlMerge = new YamlMerge();
+
+    @Test
+    void testNonOverlappingChanges() {
+        YamlNode<Node> base = load("""
+            metadata: { name: app, labels: { app: demo } }
+            spec: { replicas: 1, image: demo/app:1.0, ports: [ 80, 443 ] }
+            """);
+        YamlNode<Node> ours = load("""
+            metadata: { name: app, labels: { app: demo, tier: backend } }
+            spec: { replicas: 1, image: demo/app:2.0, ports: [ 8080, 443 ] }
+            """);
+        YamlNode<Node> theirs = load("""
+            metadata: { name: app, labels: { app: demo }, uid: 12345 }
+            spec: { replicas: 3, image: demo/app:1.0, ports: [ 80, 8443 ] }
+            """);
+        YamlMerge.Result result = yamlMerge.merge(base, ours, theirs);
+        assertThat(result.hasConflicts()).isFalse();
+        YamlNode<Node> expected = load("""
+            metadata: { name: app, labels: { app: demo, tier: backend }, uid: 12345 }
+            spec: { replicas: 3, image: demo/app:2.0, ports: [ 8080, 8443 ] }
+            """);
+        assertThat(new YamlDiff().stream(result.merged(), expected)).isEmpty();
+    }
+
+    @Test
+    void testConflicts() {
+        YamlNode<Node> base = load("{ a: 1, b: { c: 2 }, d: [ x, y ], e: 5 }");
+        YamlNode<Node> ours = load("{ a: 10, b: { c: 3 }, d: [ x ], f: ours }");
+        YamlNode<Node> theirs = load("{ a: 20, d: [ x, y, z ], e: 6, f: theirs }");
+        YamlMerge.Result result = yamlMerge.merge(base, ours, theirs);
+        assertThat(result.conflicts()).extracting(YamlMerge.Conflict::toString).containsExactly(
+            "CONFLICT 'a' : '10' <-- '1' --> '20'",
+            "CONFLICT 'b' : DICTIONARY(1) <-- DICTIONARY(1) --> <absent>",
+            "CONFLICT 'd' : SEQUENCE(1) <-- SEQUENCE(2) --> SEQUENCE(3)",
+            "CONFLICT 'f' : 'ours' <-- <absent> --> 'theirs'",
+            "CONFLICT 'e' : <absent> <-- '5' --> '6'"
+        );
+        assertThat(YamlPath.parse("a").resolve(result.merged()).asString()).isEqualTo("10");
+        assertThat(YamlPath.parse("e").resolve(result.merged())).isNull();
+    }
+
+    @Test
+    void testKeyedSequences() {
+        YamlMerge keyedMerge = new YamlMerge(YamlDiff.builder().defaultMergeKeys("name").build());
+        YamlNode<Node> base = load("""
+            spec: { containers: [ { name: app, image: app:1 }, { name: sidecar, image: sc:1 }, { name: init, image: i:1 } ] }
+            """);
+        YamlNode<Node> ours = load("""
+            spec: { containers: [ { name: app, image: app:1 }, { name: sidecar, image: sc:1 },
+                                  { name: init, image: i:1 }, { name: logger, image: log:1 } ] }
+            """);
+        YamlNode<Node> theirs = load("""
+            spec: { containers: [ { name: sidecar, image: sc:2 }, { name: app, image: app:1 } ] }
+            """);
+        YamlMerge.Result result = keyedMerge.merge(base, ours, theirs);
+        assertThat(result.hasConflicts()).isFalse();
+        YamlNode<Node> expected = load("""
+            spec: { containers: [ { name: app, image: app:1 }, { name: sidecar, image: sc:2 }, { name: logger, image: log:1 } ] }
+            """);
+        assertThat(new YamlDiff().stream(result.merged(), expected)).isEmpty();
+
+        YamlNode<Node> oursEdit = load("""
+            spec: { containers: [ { name: app, image: app:2 }, { name: sidecar, image: sc:3 }, { name: init, image: i:1 } ] }
+            """);
+        YamlMerge.Result conflicting = keyedMerge.merge(base, oursEdit, theirs);
+        assertThat(conflicting.conflicts()).extracting(YamlMerge.Conflict::toString).containsExactly(
+            "CONFLICT 'spec.containers[1].image' : 'sc:3' <-- 'sc:1' --> 'sc:2'"
+        );
+        expected = load("""
+            spec: { containers: [ { name: app, image: app:2 }, { name: sidecar, image: sc:3 } ] }
+            """);
+        assertThat(new YamlDiff().stream(conflicting.merged(), expected)).isEmpty();
+
+        assertThat(yamlMerge.merge(base, ours, theirs).conflicts()).extracting(YamlMerge.Conflict::toString)
+            .containsExactly("CONFLICT 'spec.containers' : SEQUENCE(4) <-- SEQUENCE(3) --> SEQUENCE(2)");
+    }
+
+    @Test
+    void testUnchangedSubtreesAreReused() {
+        YamlNode<Node> base = load("{ a: { b: 1 }, c: { d: 2 } }");
+        YamlNode<Node> ours = load("{ a: { b: 1 }, c: { d: 2 } }");
+        YamlNode<Node> theirs = load("{ a: { b: 1 }, c: { d: 3 } }");
+        YamlMerge.Result result = yamlMerge.merge(base, ours, theirs);
+        assertThat(result.merged()).isSameAs(theirs);
+        result = yamlMerge.merge(base, theirs, base);
+        assertThat(result.merged()).isSameAs(theirs);
+    }
+
+    @Test
+    void testHugeDictionary() {
+        int size = 100_000;
+        YamlNode<Node> base = load(hugeDictionary(size, -1, -1));
+        YamlNode<Node> ours = load(hugeDictionary(size, 10, -1));
+        YamlNode<Node> theirs = load(hugeDictionary(size, -1, size - 10));
+        YamlMerge.Result result = yamlMerge.merge(base, ours, theirs);
+        assertThat(result.hasConflicts()).isFalse();
+        assertThat(result.merged().childrenCount()).isEqualTo(size);
+        assertThat(YamlPath.parse("key10").resolve(result.merged()).asString()).isEqualTo("changed");
+        assertThat(YamlPath.parse("key" + (size - 10)).resolve(result.merged()).asString()).isEqualTo("changed");
+        assertThat(YamlPath.parse("key20").resolve(result.merged()).asString()).isEqualTo("value20");
+    }
+
+    private static String hugeDictionary(int size, int changedFirst, int changedSecond) {
+        return IntStream.range(0, size)
+            .mapToObj(i -> "key" + i + ": " + (i == changedFirst || i == changedSecond ? "changed" : "value" + i))
+            .collect(Collectors.joining("\n"));
+    }
+
+    private YamlNode<Node> load(String yamlContent) {
+        return factory.fromString(yamlContent).findFirst().orElseThrow();
+    }
+}
@@ -0,0 +1,175 @@
+package org.krmdemo.yaml.reconcile.test;
+
+import org.junit.jupiter.api.Test;
+import org.krmdemo.yaml.reconcile.YamlNode;
+import org.krmdemo.yaml.reconcile.YamlPath;
+import org.krmdemo.yaml.reconcile.diff.YamlDiff;
+import org.krmdemo.yaml.reconcile.diff.YamlPatch;
+import org.krmdemo.yaml.reconcile.diff.YamlPatchOp;
+import org.krmdemo.yaml.reconcile.impl.SnakeYamlEngineFactory;
+import org.snakeyaml.engine.v2.nodes.Node;
+
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+/**
+ * Unit-test to check the functionality of {@link YamlPatch} class
+ */
+public class YamlPatchTest {
+
+    final SnakeYamlEngineFactory factory = new SnakeYamlEngineFactory();
+
+    final YamlPatch yamlPatch = new YamlPatch();
+
+    @Test
+    void testJsonPatch() {
+        YamlNode<Node> document = load("""
+            metadata: { name: app, labels: { app: demo } }
+            spec: { replicas: 1, ports: [ 80, 443 ], tags: [ a, b ] }
+            """);
+        YamlNode<Node> patched = yamlPatch.applyJsonPatch(document, load("""
+            - { op: test, path: /spec/replicas, value: 1 }
+            - { op: replace, path: /spec/replicas, value: 3 }
+            - { op: add, path: /spec/ports/0, value: 8080 }
+            - { op: add, path: /spec/ports/-, value: 8443 }
+            - { op: remove, path: /spec/ports/1 }
+            - { op: copy, from: /metadata/name, path: /metadata/labels/name }
+            - { op: move, from: /spec/tags, path: /metadata/tags }
+            - { op: add, path: /metadata/a~1b, value: { x: [ 1 ] } }
+            """));
+        assertThat(new YamlDiff().stream(patched, load("""
+            metadata: { name: app, labels: { app: demo, name: app }, tags: [ a, b ], a/b: { x: [ 1 ] } }
+            spec: { replicas: 3, ports: [ 8080, 443, 8443 ] }
+            """))).isEmpty();
+        assertThat(YamlPath.parse("spec.replicas").resolve(document).asString()).isEqualTo("1");
+        assertThat(YamlPath.parse("metadata.tags").resolve(patched))
+            .isSameAs(YamlPath.parse("spec.tags").resolve(document));
+    }
+
+    @Test
+    void testArenaDocument() {
+        YamlNode<Node> document = factory.fromStringToArena("""
+            metadata: { name: app, labels: { app: demo } }
+            spec: { replicas: 1, ports: [ 80, 443 ] }
+            """).findFirst().orElseThrow();
+        YamlNode<Node> patched = yamlPatch.applyJsonPatch(document, load("""
+            - { op: replace, path: /spec/replicas, value: 3 }
+            - { op: add, path: /spec/ports/-, value: 8443 }
+            - { op: add, path: /metadata/labels/tier, value: web }
+            - { op: remove, path: /metadata/name }
+            """));
+        assertThat(new YamlDiff().stream(patched, load("""
+            metadata: { labels: { app: demo, tier: web } }
+            spec: { replicas: 3, ports: [ 80, 443, 8443 ] }
+            """))).isEmpty();
+        assertThat(new YamlDiff().stream(yamlPatch.applyMergePatch(document, load("spec: { replicas: 3 }")), load("""
+            metadata: { name: app, labels: { app: demo } }
+            spec: { replicas: 3, ports: [ 80, 443 ] }
+            """))).isEmpty();
+    }
+
+    @Test
+    void testJsonPatchErrors() {
+        YamlNode<Node> document = load("{ a: { b: 1 }, c: [ 1, 2 ] }");
+        assertThatIllegalArgumentException()
+            .isThrownBy(() -> yamlPatch.applyJsonPatch(document, load("[ { op: test, path: /a/b, value: 2 } ]")))
+            .withMessageContaining("#0");
+        assertThatIllegalArgumentException()
+            .isThrownBy(() -> yamlPatch.applyJsonPatch(document, load("[ { op: test, path: /a/b, value: 1 }, { op: add, path: /x/y, value: 1 } ]")))
+            .withMessageContaining("#1");
+        assertThatIllegalArgumentException()
+            .isThrownBy(() -> yamlPatch.applyJsonPatch(document, load("[ { op: replace, path: /a/x, value: 1 } ]")));
+        assertThatIllegalArgumentException()
+            .isThrownBy(() -> yamlPatch.applyJsonPatch(document, load("[ { op: add, path: /c/3, value: 1 } ]")));
+        assertThatIllegalArgumentException()
+            .isThrownBy(() -> yamlPatch.applyJsonPatch(document, load("[ { op: move, from: /a, path: /a/d } ]")));
+        assertThatIllegalArgumentException()
+            .isThrownBy(() -> yamlPatch.applyJsonPatch(load("name: app"), load("[ { op: add, path: /name/-, value: x } ]")))
+            .withMessageContaining("is not a container - SCALAR");
+        assertThatIllegalArgumentException()
+            .isThrownBy(() -> yamlPatch.applyJsonPatch(load("replicas: 3"), load("[ { op: replace, path: /replicas/0, value: 5 } ]")))
+            .withMessageContaining("is not a container - SCALAR");
+        assertThatIllegalArgumentException()
+            .isThrownBy(() -> yamlPatch.applyJsonPatch(load("name: app"), load("[ { op: add, path: /name/0, value: { x: 1 } } ]")))
+            .withMessageContaining("is not a container - SCALAR");
+        assertThatIllegalArgumentException()
+            .isThrownBy(() -> yamlPatch.applyJsonPatch(document, load("[ { op: unknown, path: /a } ]")))
+            .withMessageContaining("unknown operation");
+        assertThatIllegalArgumentException()
+            .isThrownBy(() -> yamlPatch.applyJsonPatch(document, load("[ { path: /a } ]")))
+            .withMessageContaining("'op'");
+    }
+
+    @Test
+    void testMergePatch() {
+        YamlNode<Node> document = load("""
+            title: Goodbye!
+            author: { givenName: John, familyName: Doe }
+            tags: [ example, sample ]
+            content: This will be unchanged
+            """);
+        YamlNode<Node> patched = yamlPatch.applyMergePatch(document, load("""
+            title: Hello!
+            phoneNumber: '+01-123-456-7890'
+            author: { familyName: null }
+            tags: [ example ]
+            extra: { a: null, b: 1 }
+            """));
+        assertThat(new YamlDiff().stream(patched, load("""
+            title: Hello!
+            author: { givenName: John }
+            tags: [ example ]
+            content: This will be unchanged
+            phoneNumber: '+01-123-456-7890'
+            extra: { b: 1 }
+            """))).isEmpty();
+        assertThat(patched.childByName("content")).isSameAs(document.childByName("content"));
+        assertThat(yamlPatch.applyMergePatch(document, load("{ absent: null }"))).isSameAs(document);
+    }
+
+    @Test
+    void testApplyDiff() {
+        YamlDiff keyedDiff = YamlDiff.builder().mergeKey("spec.containers", "name").defaultMergeKeys("name", "port").build();
+        String[][] pairs = {
+            { "spec: { containers: [ { name: app, image: a1 }, { name: sidecar, image: p1 }, { name: init, image: i1 } ] }",
+              "spec: { containers: [ { name: init, image: i1 }, { name: app, image: a2 }, { name: logger, image: l1 } ] }" },
+            { "{ env: [ { name: A, value: '1' }, { name: B, value: '2' }, { name: C, value: '3' } ], ports: [ { port: 80 }, { port: 443 } ] }",
+              "{ env: [ { name: B, value: '2' }, { name: C, value: '4' }, { name: A, value: '1' } ], ports: [ { port: 8080 }, { port: 80 } ] }" },
+            { "[ a, b, c, d, e, f ]", "[ x, c, a, e, f, y, b ]" },
+            { "{ a: { b: [ 1, 2, 3 ] }, c: 1 }", "{ a: { b: [ 3, 2 ], d: 4 }, e: [ ] }" },
+        };
+        for (String[] pair : pairs) {
+            YamlNode<Node> left = load(pair[0]);
+            YamlNode<Node> right = load(pair[1]);
+            for (YamlDiff yamlDiff : List.of(new YamlDiff(), keyedDiff)) {
+                List<YamlPatchOp> patch = yamlDiff.stream(left, right).toList();
+                assertThat(yamlPatch.apply(left, patch).structurallyEquals(right))
+                    .as("patch %s of '%s'", patch, pair[0]).isTrue();
+            }
+        }
+    }
+
+    @Test
+    void testBatchOfOperationsInHugeDocument() {
+        int size = 10_000;
+        YamlNode<Node> document = load(IntStream.range(0, size)
+            .mapToObj(i -> "key" + i + ": { id: " + i + ", tags: [ t" + i + " ] }")
+            .collect(Collectors.joining("\n")));
+        String jsonPatch = IntStream.range(0, 1000)
+            .mapToObj(i -> "- { op: add, path: /key" + (i % 10) + "/tags/-, value: n" + i + " }")
+            .collect(Collectors.joining("\n"));
+        YamlNode<Node> patched = yamlPatch.applyJsonPatch(document, load(jsonPatch));
+        assertThat(YamlPath.parse("key3.tags").resolve(patched).childrenCount()).isEqualTo(101);
+        assertThat(YamlPath.parse("key3.tags[100]").resolve(patched).asString()).isEqualTo("n993");
+        assertThat(patched.childByName("key10")).isSameAs(document.childByName("key10"));
+        assertThat(new YamlDiff().stream(document, patched)).hasSize(1000);
+    }
+
+    private YamlNode<Node> load(String yamlContent) {
+        return factory.fromString(yamlContent).findFirst().orElseThrow();
+    }
+}
@@ -0,0 +1,77 @@
+package org.krmdemo.yaml.reconcile.test;
+
+import org.junit.jupiter.api.Test;
+import org.krmdemo.yaml.reconcile.YamlNode;
+import org.krmdemo.yaml.reconcile.YamlPath;
+import org.krmdemo.yaml.reconcile.YamlPathIndex;
+import org.krmdemo.yaml.reconcile.impl.SnakeYamlEngineFactory;
+import org.snakeyaml.engine.v2.nodes.Node;
+
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit-test to check the functionality of {@link YamlPathIndex} class
+ */
+public class YamlPathIndexTest {
+
+    final SnakeYamlEngineFactory factory = new SnakeYamlEngineFactory();
+
+    @Test
+    void testLookupAndPrefix() {
+        YamlNode<Node> document = load("""
+            metadata: { name: demo, labels: { app.kubernetes.io/name: demo } }
+            spec:
+              template:
+                spec:
+                  containers:
+                    - { name: app, image: demo/app:1.0 }
+                    - { name: sidecar, image: demo/proxy:1.0 }
+            """);
+        YamlPathIndex<Node> index = YamlPathIndex.of(document);
+        assertThat(index.size()).isEqualTo(15);
+        assertThat(index.get(YamlPath.root())).isSameAs(document);
+        assertThat(index.get("spec.template.spec.containers[1].image").asString()).isEqualTo("demo/proxy:1.0");
+        assertThat(index.get("metadata.labels['app.kubernetes.io/name']").asString()).isEqualTo("demo");
+        assertThat(index.get("spec.template.spec.containers[2]")).isNull();
+        assertThat(index.get("spec.absent")).isNull();
+
+        YamlPath containers = YamlPath.parse("spec.template.spec.containers");
+        assertThat(index.countByPrefix(containers)).isEqualTo(7);
+        assertThat(index.pathsByPrefix(containers.index(0))).extracting(YamlPath::toString).containsExactly(
+            "spec.template.spec.containers[0]",
+            "spec.template.spec.containers[0].name",
+            "spec.template.spec.containers[0].image"
+        );
+        Map<String, String> images = new LinkedHashMap<>();
+        index.forEachByPrefix(containers, (path, node) -> {
+            if ("image".equals(path.getKey())) {
+                images.put(path.toString(), node.asString());
+            }
+        });
+        assertThat(images).containsExactly(
+            Map.entry("spec.template.spec.containers[0].image", "demo/app:1.0"),
+            Map.entry("spec.template.spec.containers[1].image", "demo/proxy:1.0")
+        );
+        assertThat(index.pathsByPrefix(YamlPath.parse("absent"))).isEmpty();
+    }
+
+    @Test
+    void testAllPathsOfHugeDocument() {
+        YamlNode<Node> document = load(IntStream.range(0, 20_000)
+            .mapToObj(i -> "key" + i + ": [ { id: " + i + " }, v" + i + " ]")
+            .collect(Collectors.joining("\n")));
+        YamlPathIndex<Node> index = YamlPathIndex.of(document);
+        assertThat(index.size()).isEqualTo(1 + 20_000 * 4);
+        for (YamlPath path : index.pathsByPrefix(YamlPath.root())) {
+            assertThat(index.get(path)).isSameAs(path.resolve(document));
+        }
+    }
+
+    private YamlNode<Node> load(String yamlContent) {
+        return factory.fromString(yamlContent).findFirst().orElseThrow();
+    }
+}
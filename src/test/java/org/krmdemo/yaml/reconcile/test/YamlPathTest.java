@@ -0,0 +1,46 @@
+package org.krmdemo.yaml.reconcile.test;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.api.Test;
+import org.krmdemo.yaml.reconcile.YamlPath;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+/**
+ * Unit-test to check the functionality of {@link YamlPath} class
+ */
+public class YamlPathTest {
+
+    @ParameterizedTest(name = "[{index}] {0}")
+    @CsvSource(delimiterString = " ::: ", value = {
+        "spec.containers[0].image ::: /spec/containers/0/image",
+        "metadata.labels['app.kubernetes.io/name'] ::: /metadata/labels/app.kubernetes.io~1name",
+        "[1][2].x ::: /1/2/x",
+        "['it\\'s'].value ::: /it's/value",
+    })
+    void testParseAndFormat(String dottedPath, String jsonPointer) {
+        YamlPath path = YamlPath.parse(dottedPath);
+        assertThat(path).hasToString(dottedPath);
+        assertThat(path.toJsonPointer()).isEqualTo(jsonPointer);
+        assertThat(YamlPath.parse(path.toString())).isEqualTo(path).hasSameHashCodeAs(path);
+    }
+
+    @Test
+    void testSegments() {
+        YamlPath path = YamlPath.root().key("spec").key("containers").index(1);
+        assertThat(path.depth()).isEqualTo(3);
+        assertThat(path.isIndex()).isTrue();
+        assertThat(path.getParent().getKey()).isEqualTo("containers");
+        assertThat(path.startsWith(YamlPath.parse("spec"))).isTrue();
+        assertThat(path.key("env").index(0).toPattern()).isEqualTo("spec.containers[*].env[*]");
+        assertThat(path.startsWith(YamlPath.parse("spec.containers[0]"))).isFalse();
+        assertThat(YamlPath.parseJsonPointer("/spec/containers/1")).isNotEqualTo(path);
+        assertThat(YamlPath.parseJsonPointer("/spec/containers/1").asIndex()).isEqualTo(1);
+        assertThat(YamlPath.root()).hasToString("");
+        assertThatIllegalArgumentException().isThrownBy(() -> YamlPath.parse("spec..name"));
+        assertThatIllegalArgumentException().isThrownBy(() -> YamlPath.parse("spec[x]"));
+        assertThatIllegalArgumentException().isThrownBy(() -> YamlPath.parseJsonPointer("spec"));
+    }
+}
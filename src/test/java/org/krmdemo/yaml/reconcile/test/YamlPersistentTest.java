@@ -0,0 +1,149 @@
+package org.krmdemo.yaml.reconcile.test;
+
+import org.junit.jupiter.api.Test;
+import org.krmdemo.yaml.reconcile.YamlNode;
+import org.krmdemo.yaml.reconcile.YamlPath;
+import org.krmdemo.yaml.reconcile.diff.YamlDiff;
+import org.krmdemo.yaml.reconcile.diff.YamlPatchOp;
+import org.krmdemo.yaml.reconcile.impl.SnakeYamlEngineFactory;
+import org.krmdemo.yaml.reconcile.impl.YamlPersistent;
+import org.krmdemo.yaml.reconcile.impl.YamlScalar;
+import org.krmdemo.yaml.reconcile.util.PersistentHashTrie;
+import org.krmdemo.yaml.reconcile.util.PersistentVector;
+import org.snakeyaml.engine.v2.nodes.MappingNode;
+import org.snakeyaml.engine.v2.nodes.Node;
+
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static java.lang.String.format;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit-test to check the functionality of {@link YamlPersistent} class and persistent collections
+ */
+public class YamlPersistentTest {
+
+    final SnakeYamlEngineFactory factory = new SnakeYamlEngineFactory();
+
+    @Test
+    void testArenaDocument() {
+        YamlNode<Node> original = factory.fromStringToArena("""
+            metadata: { name: app, labels: { app: demo } }
+            spec: { replicas: 1, ports: [ 80, 443 ] }
+            """).findFirst().orElseThrow();
+        YamlNode<Node> updated = YamlPersistent.with(original, YamlPath.parse("spec.replicas"), new YamlScalar(3));
+        updated = YamlPersistent.without(updated, YamlPath.parse("metadata.name"));
+        assertThat(new YamlDiff().stream(updated, load("""
+            metadata: { labels: { app: demo } }
+            spec: { replicas: '3', ports: [ 80, 443 ] }
+            """))).isEmpty();
+        assertThat(YamlPath.parse("spec.replicas").resolve(original).asString()).isEqualTo("1");
+    }
+
+    @Test
+    void testWithAndWithout() {
+        YamlNode<Node> original = load("""
+            metadata: { name: app, labels: { app: demo } }
+            spec: { replicas: 1, ports: [ 80, 443 ] }
+            """);
+        YamlNode<Node> updated = YamlPersistent.with(original, YamlPath.parse("spec.replicas"), new YamlScalar(3));
+        updated = YamlPersistent.with(updated, YamlPath.parse("spec.ports[2]"), new YamlScalar(8080));
+        updated = YamlPersistent.without(updated, YamlPath.parse("spec.ports[0]"));
+        updated = YamlPersistent.with(updated, YamlPath.parse("metadata.uid"), new YamlScalar("12345"));
+        updated = YamlPersistent.without(updated, YamlPath.parse("metadata.name"));
+
+        assertThat(new YamlDiff().stream(updated, load("""
+            metadata: { labels: { app: demo }, uid: '12345' }
+            spec: { replicas: '3', ports: [ 443, '8080' ] }
+            """))).isEmpty();
+        assertThat(new YamlDiff().stream(original, updated)).extracting(YamlPatchOp::toString).hasSize(5);
+        assertThat(YamlPath.parse("spec.replicas").resolve(original).asString()).isEqualTo("1");
+        assertThat(YamlPath.parse("metadata.labels").resolve(updated))
+            .isSameAs(YamlPath.parse("metadata.labels").resolve(original));
+        assertThat(((MappingNode) updated.asOrigin()).getValue()).hasSize(2);
+        assertThat(((MappingNode) YamlPath.parse("metadata").resolve(updated).asOrigin()).getValue()).hasSize(2);
+
+        assertThatThrownBy(() -> YamlPersistent.with(original, YamlPath.parse("spec.absent.x"), new YamlScalar(1)))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> YamlPersistent.with(original, YamlPath.parse("spec.replicas.x"), new YamlScalar(1)))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> YamlPersistent.with(original, YamlPath.parse("spec.ports[5]"), new YamlScalar(1)))
+            .isInstanceOf(IndexOutOfBoundsException.class);
+    }
+
+    @Test
+    void testStructuralSharingInHugeDocument() {
+        int size = 20_000;
+        YamlNode<Node> original = load(IntStream.range(0, size)
+            .mapToObj(i -> format("- { id: %d, name: item-%d, value: %d }", i, i, i))
+            .collect(Collectors.joining("\n", "items:\n", "")));
+        YamlNode<Node> updated = original;
+        for (int op = 0; op < 10; op++) {
+            int index = op * 1999;
+            updated = YamlPersistent.with(updated, YamlPath.parse(format("items[%d].value", index)), new YamlScalar("changed"));
+        }
+        assertThat(new YamlDiff().stream(original, updated)).hasSize(10);
+        for (int index = 0; index < size; index += 97) {
+            YamlPath itemPath = YamlPath.parse(format("items[%d]", index));
+            if (index % 1999 != 0 || index >= 10 * 1999) {
+                assertThat(itemPath.resolve(updated)).isSameAs(itemPath.resolve(original));
+            } else {
+                assertThat(itemPath.key("name").resolve(updated)).isSameAs(itemPath.key("name").resolve(original));
+            }
+        }
+    }
+
+    @Test
+    void testPersistentVector() {
+        PersistentVector<Integer> vector = PersistentVector.lazy(1000, index -> index);
+        PersistentVector<Integer> updated = vector;
+        for (int i = 0; i < 1000; i += 3) {
+            updated = updated.setSlot(i, null);
+        }
+        for (int i = 0; i < 100; i++) {
+            updated = updated.append(1000 + i);
+        }
+        List<Integer> expected = new ArrayList<>();
+        IntStream.range(0, 1100).filter(i -> i >= 1000 || i % 3 != 0).forEach(expected::add);
+        assertThat(updated.stream().toList()).isEqualTo(expected);
+        assertThat(updated.size()).isEqualTo(expected.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertThat(updated.get(i)).isEqualTo(expected.get(i));
+        }
+        assertThat(vector.size()).isEqualTo(1000);
+        assertThat(vector.get(999)).isEqualTo(999);
+
+        PersistentVector<String> appended = PersistentVector.empty();
+        for (int i = 0; i < 2000; i++) {
+            appended = appended.append("v" + i);
+        }
+        assertThat(appended.get(1057)).isEqualTo("v1057");
+        assertThat(appended.remove(0).get(0)).isEqualTo("v1");
+    }
+
+    @Test
+    void testPersistentHashTrie() {
+        PersistentHashTrie<Integer> trie = PersistentHashTrie.empty();
+        for (int i = 0; i < 10_000; i++) {
+            trie = trie.put("key" + i, i);
+        }
+        // "Aa" and "BB" have the same hash-code
+        trie = trie.put("AaAa", 1).put("BBBB", 2).put("AaBB", 3);
+        assertThat(trie.size()).isEqualTo(10_003);
+        assertThat(trie.get("key9999")).isEqualTo(9999);
+        assertThat(trie.get("BBBB")).isEqualTo(2);
+        PersistentHashTrie<Integer> removed = trie.remove("AaAa").remove("key42").remove("absent");
+        assertThat(removed.size()).isEqualTo(10_001);
+        assertThat(removed.get("AaAa")).isNull();
+        assertThat(removed.get("AaBB")).isEqualTo(3);
+        assertThat(removed.get("key42")).isNull();
+        assertThat(trie.get("key42")).isEqualTo(42);
+    }
+
+    private YamlNode<Node> load(String yamlContent) {
+        return factory.fromString(yamlContent).findFirst().orElseThrow();
+    }
+}
@@ -0,0 +1,103 @@
+package org.krmdemo.yaml.reconcile.test;
+
+import org.junit.jupiter.api.Test;
+import org.krmdemo.yaml.reconcile.YamlNode;
+import org.krmdemo.yaml.reconcile.YamlPath;
+import org.krmdemo.yaml.reconcile.impl.SnakeYamlEngineFactory;
+import org.krmdemo.yaml.reconcile.impl.YamlPrimitiveScalar;
+import org.snakeyaml.engine.v2.api.LoadSettings;
+import org.snakeyaml.engine.v2.common.ScalarStyle;
+import org.snakeyaml.engine.v2.nodes.Node;
+import org.snakeyaml.engine.v2.nodes.ScalarNode;
+import org.snakeyaml.engine.v2.nodes.Tag;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit-test to check the functionality of {@link YamlPrimitiveScalar} class
+ */
+public class YamlPrimitiveScalarTest {
+
+    final SnakeYamlEngineFactory factory = new SnakeYamlEngineFactory();
+
+    @Test
+    void testValuesAndTags() {
+        assertThat(YamlPrimitiveScalar.of(42L).longValue()).isEqualTo(42L);
+        assertThat(YamlPrimitiveScalar.of(42L).asString()).isEqualTo("42");
+        assertThat(YamlPrimitiveScalar.of(1.5).doubleValue()).isEqualTo(1.5);
+        assertThat(YamlPrimitiveScalar.of(Double.NEGATIVE_INFINITY).asString()).isEqualTo("-.inf");
+        assertThat(YamlPrimitiveScalar.of(true).booleanValue()).isTrue();
+        assertThat(YamlPrimitiveScalar.of(false)).isSameAs(YamlPrimitiveScalar.of(false));
+        assertThat(YamlPrimitiveScalar.of("line")).isInstanceOf(YamlPrimitiveScalar.OfString.class);
+        assertThat(YamlPrimitiveScalar.of("first\nsecond")).isInstanceOf(YamlPrimitiveScalar.OfMultiline.class);
+
+        ScalarNode scalarNode = (ScalarNode) YamlPrimitiveScalar.of(42L).asOrigin();
+        assertThat(scalarNode.getTag()).isEqualTo(Tag.INT);
+        assertThat(scalarNode.getScalarStyle()).isEqualTo(ScalarStyle.PLAIN);
+        YamlPrimitiveScalar multiline = YamlPrimitiveScalar.of("first\n\"second\"");
+        assertThat(multiline.asOrigin()).isSameAs(multiline.asOrigin());
+        assertThat(((ScalarNode) multiline.asOrigin()).getValue()).isEqualTo("first\n\"second\"");
+        assertThat(((ScalarNode) multiline.asOrigin()).getScalarStyle()).isEqualTo(ScalarStyle.LITERAL);
+    }
+
+    @Test
+    void testParsedScalars() {
+        YamlNode<Node> document = factory.fromString("""
+            replicas: 3
+            ratio: 0.25
+            enabled: true
+            disabled: false
+            none: null
+            hex: 0x1F
+            exp: 1e3
+            huge: 12345678901234567890
+            quoted: '3'
+            tagged: !!str 3
+            """).findFirst().orElseThrow();
+        assertThat(YamlPath.parse("replicas").resolve(document)).isInstanceOf(YamlPrimitiveScalar.OfLong.class);
+        assertThat(YamlPath.parse("ratio").resolve(document)).isInstanceOf(YamlPrimitiveScalar.OfDouble.class);
+        assertThat(YamlPath.parse("enabled").resolve(document)).isSameAs(YamlPrimitiveScalar.of(true));
+        assertThat(YamlPath.parse("disabled").resolve(document)).isSameAs(YamlPrimitiveScalar.of(false));
+        assertThat(YamlPath.parse("none").resolve(document)).isSameAs(YamlPrimitiveScalar.ofNull());
+        for (String notCanonical : new String[] { "hex", "exp", "huge", "quoted", "tagged" }) {
+            YamlNode<Node> scalar = YamlPath.parse(notCanonical).resolve(document);
+            assertThat(scalar).isNotInstanceOf(YamlPrimitiveScalar.class);
+        }
+        assertThat(YamlPath.parse("hex").resolve(document).asString()).isEqualTo("0x1F");
+        assertThat(YamlPath.parse("huge").resolve(document).asString()).isEqualTo("12345678901234567890");
+
+        YamlNode<Node> commented = new SnakeYamlEngineFactory(LoadSettings.builder().setParseComments(true).build())
+            .fromString("enabled: true # the flag").findFirst().orElseThrow();
+        assertThat(YamlPath.parse("enabled").resolve(commented))
+            .isInstanceOf(YamlPrimitiveScalar.OfBoolean.class)
+            .isNotSameAs(YamlPrimitiveScalar.of(true));
+    }
+
+    @Test
+    void testStructuralEquality() {
+        YamlNode<Node> document = factory.fromString("""
+            replicas: 3
+            ratio: 0.25
+            enabled: true
+            name: demo
+            script: |
+              echo "hello"
+              exit 0
+            """).findFirst().orElseThrow();
+        assertThat(YamlPath.parse("replicas").resolve(document).structurallyEquals(YamlPrimitiveScalar.of(3L))).isTrue();
+        assertThat(YamlPath.parse("ratio").resolve(document).structurallyEquals(YamlPrimitiveScalar.of(0.25))).isTrue();
+        assertThat(YamlPath.parse("enabled").resolve(document).structurallyEquals(YamlPrimitiveScalar.of(true))).isTrue();
+        assertThat(YamlPath.parse("name").resolve(document).structurallyEquals(YamlPrimitiveScalar.of("demo"))).isTrue();
+        assertThat(YamlPath.parse("script").resolve(document)
+            .structurallyEquals(YamlPrimitiveScalar.of("echo \"hello\"\nexit 0\n"))).isTrue();
+        assertThat(YamlPath.parse("replicas").resolve(document).structurallyEquals(YamlPrimitiveScalar.of("3"))).isFalse();
+    }
+
+    @Test
+    void testToString() {
+        assertThat(YamlPrimitiveScalar.of(7L).toString()).matches("SCALAR\\(0x[0-9a-f]{8} --> 7\\)");
+        assertThat(YamlPrimitiveScalar.of("abc").toString()).matches("SCALAR\\(0x[0-9a-f]{8}\\) --> 'abc'");
+        assertThat(YamlPrimitiveScalar.of("").toString()).matches("SCALAR\\(0x[0-9a-f]{8}\\)");
+        assertThat(YamlPrimitiveScalar.of("a\nb").toString()).matches("SCALAR\\(0x[0-9a-f]{8}\\) --> \"a\\\\nb\"");
+    }
+}
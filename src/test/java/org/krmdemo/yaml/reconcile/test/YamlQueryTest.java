@@ -0,0 +1,99 @@
+package org.krmdemo.yaml.reconcile.test;
+
+import org.junit.jupiter.api.Test;
+import org.krmdemo.yaml.reconcile.YamlNode;
+import org.krmdemo.yaml.reconcile.YamlQuery;
+import org.krmdemo.yaml.reconcile.impl.SnakeYamlEngineFactory;
+import org.snakeyaml.engine.v2.nodes.Node;
+
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+/**
+ * Unit-test to check the functionality of {@link YamlQuery} class
+ */
+public class YamlQueryTest {
+
+    final SnakeYamlEngineFactory factory = new SnakeYamlEngineFactory();
+
+    final YamlNode<Node> document = factory.fromString("""
+        metadata:
+          name: demo
+          labels: { app.kubernetes.io/name: demo, tier: backend }
+        spec:
+          replicas: 3
+          containers:
+            - name: app
+              image: demo/app:1.0
+              ports: [ { port: 8080 }, { port: 8443 } ]
+              resources: { limits: { cpu: 500m } }
+            - name: sidecar
+              image: demo/proxy:1.0
+              ports: [ { port: 15001 } ]
+            - name: init
+              image: busybox:latest
+        """).findFirst().orElseThrow();
+
+    @Test
+    void testKeysIndexesAndWildcards() {
+        assertThat(strings("spec.containers[0].image")).containsExactly("demo/app:1.0");
+        assertThat(strings("$.spec.containers[-1].name")).containsExactly("init");
+        assertThat(strings("spec.containers[*].name")).containsExactly("app", "sidecar", "init");
+        assertThat(strings("metadata.labels.*")).containsExactly("demo", "backend");
+        assertThat(strings("metadata.labels['app.kubernetes.io/name']")).containsExactly("demo");
+        assertThat(strings("spec.containers[5].name")).isEmpty();
+        assertThat(strings("spec.replicas.absent")).isEmpty();
+    }
+
+    @Test
+    void testRecursiveDescent() {
+        assertThat(strings("$..port")).containsExactly("8080", "8443", "15001");
+        assertThat(strings("spec..ports[0].port")).containsExactly("8080", "15001");
+        assertThat(strings("..cpu")).containsExactly("500m");
+    }
+
+    @Test
+    void testFilters() {
+        assertThat(strings("spec.containers[?(@.name == 'app')].image")).containsExactly("demo/app:1.0");
+        assertThat(strings("spec.containers[?(@.resources.limits)].name")).containsExactly("app");
+        assertThat(strings("spec.containers[?(@.image =~ 'demo/.*')].name")).containsExactly("app", "sidecar");
+        assertThat(strings("$..ports[?(@.port > 9000)].port")).containsExactly("15001");
+        assertThat(strings("$..ports[?(@.port >= 8443 && @.port < 9000 || @.port == 8080)].port"))
+            .containsExactly("8080", "8443");
+        assertThat(strings("spec.containers[?(@.name != \"app\" && (@.ports || @.image =~ 'busy.*'))].name"))
+            .containsExactly("sidecar", "init");
+        assertThat(strings("spec.containers[*].ports[?(@.port == 8080.0)].port")).containsExactly("8080");
+    }
+
+    @Test
+    void testFirstAndMatches() {
+        YamlQuery query = YamlQuery.compile("$..image");
+        assertThat(query.first(document).asString()).isEqualTo("demo/app:1.0");
+        assertThat(query.matches(document)).isTrue();
+        assertThat(YamlQuery.compile("$..absent").matches(document)).isFalse();
+        assertThat(YamlQuery.compile("$..absent").first(document)).isNull();
+        List<String> visited = new ArrayList<>();
+        assertThat(query.forEachWhile(document, node -> visited.add(node.asString()) && visited.size() < 2)).isFalse();
+        assertThat(visited).containsExactly("demo/app:1.0", "demo/proxy:1.0");
+        assertThat(YamlQuery.compile("$..image")).isSameAs(query);
+    }
+
+    @Test
+    void testInvalidQueries() {
+        assertThatIllegalArgumentException().isThrownBy(() -> YamlQuery.compile("spec[0"))
+            .withMessage("unclosed bracket at 4 in query 'spec[0'");
+        assertThatIllegalArgumentException().isThrownBy(() -> YamlQuery.compile("spec..")).withMessageContaining("empty key");
+        assertThatIllegalArgumentException().isThrownBy(() -> YamlQuery.compile("spec[?(@.a == )]"))
+            .withMessageContaining("missing literal");
+        assertThatIllegalArgumentException().isThrownBy(() -> YamlQuery.compile("spec[?(name)]"))
+            .withMessageContaining("expected '@'");
+        assertThatIllegalArgumentException().isThrownBy(() -> YamlQuery.compile("spec[x]"))
+            .withMessageContaining("invalid index");
+    }
+
+    private List<String> strings(String expression) {
+        return YamlQuery.compile(expression).select(document).stream().map(YamlNode::asString).toList();
+    }
+}
@@ -0,0 +1,112 @@
+package org.krmdemo.yaml.reconcile.test;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.krmdemo.yaml.reconcile.YamlNode;
+import org.krmdemo.yaml.reconcile.diff.YamlDiff;
+import org.krmdemo.yaml.reconcile.impl.SnakeYamlEngineFactory;
+import org.krmdemo.yaml.reconcile.impl.YamlCsvScalar;
+import org.krmdemo.yaml.reconcile.impl.YamlDictionary;
+import org.krmdemo.yaml.reconcile.impl.YamlEmitter;
+import org.krmdemo.yaml.reconcile.impl.YamlKeyValue;
+import org.krmdemo.yaml.reconcile.impl.YamlPrimitiveScalar;
+import org.krmdemo.yaml.reconcile.impl.YamlSnapshot;
+import org.snakeyaml.engine.v2.nodes.Node;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+/**
+ * Unit-test to check the functionality of {@link YamlSnapshot} class
+ */
+public class YamlSnapshotTest {
+
+    final SnakeYamlEngineFactory factory = new SnakeYamlEngineFactory();
+
+    final String yamlText = """
+        apiVersion: apps/v1
+        kind: Deployment
+        metadata: { name: demo, labels: { app: demo, tier: backend } }
+        spec:
+          replicas: 3
+          paused: false
+          selector: null
+          containers:
+            - name: app
+              args: [ --verbose, 'quoted', "уникод" ]
+              script: |
+                echo "hello"
+          custom: !custom value
+        ---
+        [ 1, 2.5, [], {} ]
+        """;
+
+    @Test
+    void testRoundTrip() {
+        List<YamlNode<Node>> documents = factory.fromString(yamlText).toList();
+        List<YamlNode<Node>> restored = YamlSnapshot.readAll(ByteBuffer.wrap(YamlSnapshot.toBytes(documents)));
+        assertThat(restored).hasSize(2);
+        for (int i = 0; i < documents.size(); i++) {
+            assertThat(new YamlDiff().stream(documents.get(i), restored.get(i))).isEmpty();
+            assertThat(restored.get(i).structurallyEquals(documents.get(i))).isTrue();
+        }
+        YamlEmitter emitter = new YamlEmitter();
+        assertThat(emitter.toYaml(restored.get(0))).isEqualTo(emitter.toYaml(documents.get(0)));
+    }
+
+    @Test
+    void testLazyContainers() {
+        YamlNode<Node> document = load(yamlText);
+        YamlNode<Node> restored = YamlSnapshot.readAll(ByteBuffer.wrap(YamlSnapshot.toBytes(List.of(document)))).get(0);
+        assertThat(restored.getType()).isEqualTo(YamlNode.Type.DICTIONARY);
+        assertThat(restored.childrenCount()).isEqualTo(4);
+        assertThat(restored.structuralHash()).isEqualTo(document.structuralHash());
+        YamlNode<Node> spec = restored.childByName("spec").getValue();
+        assertThat(spec.structuralHash()).isEqualTo(document.childByName("spec").getValue().structuralHash());
+        assertThat(spec.childByName("replicas").getValue().asString()).isEqualTo("3");
+    }
+
+    @Test
+    void testCsvScalar() {
+        YamlNode<Node> document = new YamlDictionary(
+            new YamlKeyValue("hosts", YamlCsvScalar.of("a.com, b.com, c.com")),
+            new YamlKeyValue("port", YamlPrimitiveScalar.of(8080)));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        YamlSnapshot.writeAll(List.of(document), out);
+        YamlNode<Node> restored = YamlSnapshot.readAll(ByteBuffer.wrap(out.toByteArray())).get(0);
+        YamlNode<Node> hosts = restored.childByName("hosts").getValue();
+        assertThat(hosts.getType()).isEqualTo(YamlNode.Type.SCALAR_CSV);
+        assertThat(hosts.childrenCount()).isEqualTo(3);
+        assertThat(restored.childByName("port").getValue().asString()).isEqualTo("8080");
+    }
+
+    @Test
+    void testMappedFile(@TempDir Path tempDir) {
+        List<YamlNode<Node>> documents = factory.fromString(yamlText).toList();
+        Path snapshotPath = tempDir.resolve("documents.ysnp");
+        YamlSnapshot.writeAll(documents, snapshotPath);
+        List<YamlNode<Node>> restored = YamlSnapshot.readAll(snapshotPath);
+        assertThat(new YamlDiff().stream(documents.get(0), restored.get(0))).isEmpty();
+        assertThat(new YamlDiff().stream(documents.get(1), restored.get(1))).isEmpty();
+    }
+
+    @Test
+    void testBadContent() {
+        assertThatIllegalArgumentException()
+            .isThrownBy(() -> YamlSnapshot.readAll(ByteBuffer.wrap("key: value".getBytes())))
+            .withMessage("the content is not a yaml-snapshot");
+        byte[] bytes = YamlSnapshot.toBytes(List.of(load("a: 1")));
+        bytes[4] = 99;
+        assertThatIllegalArgumentException().isThrownBy(() -> YamlSnapshot.readAll(ByteBuffer.wrap(bytes)))
+            .withMessage("unsupported version of yaml-snapshot - 99 (expected 1)");
+    }
+
+    private YamlNode<Node> load(String yamlText) {
+        return factory.fromString(yamlText).findFirst().orElseThrow();
+    }
+}